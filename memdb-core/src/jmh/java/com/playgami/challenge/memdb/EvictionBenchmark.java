@@ -0,0 +1,114 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.EvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SampledEvictionStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares eviction policies on a cache workload: Zipf-distributed reads over a key space larger
+ * than memory, writing the key back on every miss. Reports throughput plus hits and misses,
+ * from which the hit ratio of each policy follows.
+ *
+ * Run with: ./gradlew :memdb-core:jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EvictionBenchmark {
+    private static final int KEY_SPACE = 100_000;
+    private static final double ZIPF_EXPONENT = 0.99;
+    private static final String VALUE = "x".repeat(100);
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"LRU", "SAMPLED_LRU", "SAMPLED_LFU"})
+        public EvictionPolicy policy;
+
+        // Memory for roughly a fifth of the key space
+        @Param({"2000000"})
+        public long maxMemory;
+
+        MemDB memDB;
+        String[] keys;
+        double[] cumulative;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            MemDBSettings settings = new MemDBSettings();
+            settings.setMaxMemory(maxMemory);
+            settings.setMaxBackpressureMillis(50);
+            memDB = new MemDB(EvictionStrategy.forPolicy(policy, SampledEvictionStrategy.DEFAULT_SAMPLES), settings);
+            keys = new String[KEY_SPACE];
+            cumulative = new double[KEY_SPACE];
+            double sum = 0;
+            for (int i = 0; i < KEY_SPACE; i++) {
+                keys[i] = "key:" + i;
+                sum += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < KEY_SPACE; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            memDB.close();
+        }
+
+        String nextKey() {
+            int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+            return keys[Math.min(index >= 0 ? index : -index - 1, KEY_SPACE - 1)];
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long hits;
+        public long misses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Benchmark
+    public void readThrough(Store store, Counters counters) {
+        String key = store.nextKey();
+        if (store.memDB.get(key) != null) {
+            counters.hits++;
+            return;
+        }
+        counters.misses++;
+        try {
+            store.memDB.set(key, VALUE);
+        } catch (MemoryLimitExceededException e) {
+            // The evictor fell behind; the miss is already counted
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.EvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SampledEvictionStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PFADD throughput through MemDB on the two HyperLogLog encodings: many small counters
+ * that stay sparse (per-match unique players), and one hot dense counter shared by all threads
+ * (daily unique players), plus PFCOUNT on the dense counter.
+ *
+ * Run with: ./gradlew :memdb-core:jmh
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HyperLogLogBenchmark {
+    private static final int SPARSE_COUNTERS = 10_000;
+    // Distinct players per sparse counter, well below the sparse limit
+    private static final int PLAYERS_PER_COUNTER = 100;
+    private static final int PLAYER_SPACE = 10_000_000;
+    private static final String DENSE_KEY = "players:daily";
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        MemDB memDB;
+        String[] sparseKeys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            memDB = new MemDB(EvictionStrategy.forPolicy(EvictionPolicy.SAMPLED_LRU, SampledEvictionStrategy.DEFAULT_SAMPLES));
+            sparseKeys = new String[SPARSE_COUNTERS];
+            for (int i = 0; i < SPARSE_COUNTERS; i++) {
+                sparseKeys[i] = "players:match:" + i;
+            }
+            for (int i = 0; i < 100_000; i++) {
+                memDB.pfadd(DENSE_KEY, List.of("player" + i));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            memDB.close();
+        }
+    }
+
+    @Benchmark
+    public boolean pfaddSparse(Store store) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String key = store.sparseKeys[random.nextInt(SPARSE_COUNTERS)];
+        return store.memDB.pfadd(key, List.of("player" + random.nextInt(PLAYERS_PER_COUNTER)));
+    }
+
+    @Benchmark
+    public boolean pfaddDense(Store store) {
+        return store.memDB.pfadd(DENSE_KEY, List.of("player" + ThreadLocalRandom.current().nextInt(PLAYER_SPACE)));
+    }
+
+    @Benchmark
+    public long pfcountDense(Store store) {
+        return store.memDB.pfcount(List.of(DENSE_KEY));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.playgami.challenge.memdb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of an embedded MemDB: building an instance in a fresh JVM, with every
+ * engine class still to load, and serving its first write and read. Each fork measures a single
+ * call, so the score is the time an application waits before its cache is usable.
+ *
+ * Run with: ./gradlew :memdb-core:jmh
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+
+    @Benchmark
+    public String coldStart() {
+        try (MemDB memDB = MemDB.builder().maxMemory(64L * 1024 * 1024).build()) {
+            memDB.set("player:1", "alice");
+            return memDB.get("player:1");
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Bitwise operations of BITOP, applied 64 bits at a time.
+ */
+public enum BitOperation {
+    AND, OR, XOR, NOT;
+
+    long apply(long left, long right) {
+        switch (this) {
+            case AND:
+                return left & right;
+            case OR:
+                return left | right;
+            case XOR:
+                return left ^ right;
+            default:
+                throw new IllegalStateException("NOT takes a single operand");
+        }
+    }
+} 
\ No newline at end of file
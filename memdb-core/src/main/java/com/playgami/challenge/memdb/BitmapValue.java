@@ -0,0 +1,217 @@
+package com.playgami.challenge.memdb;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A bitmap: bits packed 64 to a long, with bit n at position n % 64 of word n / 64.
+ * The bitmap is as long, in bytes, as needed to hold the highest offset written, as a
+ * Redis string is; words past that length are always zero. Counting uses Long.bitCount,
+ * which the JIT compiles to the POPCNT instruction.
+ * Methods are synchronized; writers are serialized per key by MemDB anyway.
+ */
+public class BitmapValue implements StructuredValue {
+    public static final String TYPE = "bitmap";
+    // Highest bit offset accepted, as in Redis (a 512MB bitmap)
+    public static final long MAX_OFFSET = (1L << 32) - 1;
+
+    // The bitmap itself: header, array reference and length
+    private static final int OVERHEAD = 24;
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words;
+    // Length in bytes, up to the highest offset written
+    private long byteLength;
+
+    public BitmapValue() {
+        this(EMPTY, 0);
+    }
+
+    private BitmapValue(long[] words, long byteLength) {
+        this.words = words;
+        this.byteLength = byteLength;
+    }
+
+    @Override
+    public String typeName() {
+        return TYPE;
+    }
+
+    @Override
+    public String encodingName() {
+        return "packed";
+    }
+
+    /**
+     * Sets or clears a bit, growing the bitmap if needed, and returns the bit's previous value.
+     */
+    public synchronized int setBit(long offset, int value) {
+        int word = (int) (offset >>> 6);
+        ensureWords(word + 1);
+        long mask = 1L << (offset & 63);
+        int previous = (words[word] & mask) != 0 ? 1 : 0;
+        if (value != 0) {
+            words[word] |= mask;
+        } else {
+            words[word] &= ~mask;
+        }
+        byteLength = Math.max(byteLength, (offset >>> 3) + 1);
+        return previous;
+    }
+
+    /**
+     * Sets the bits set in bytes, laid out as by bytes, from byteOffset on, growing the bitmap to
+     * end no earlier than the last of them, even if it is zero.
+     */
+    public synchronized void or(long byteOffset, byte[] bytes) {
+        long end = byteOffset + bytes.length;
+        ensureWords(wordsFor(end));
+        for (int i = 0; i < bytes.length; i++) {
+            long position = byteOffset + i;
+            words[(int) (position >>> 3)] |= (bytes[i] & 0xFFL) << ((position & 7) * 8);
+        }
+        byteLength = Math.max(byteLength, end);
+    }
+
+    /**
+     * Returns length bytes of the bitmap from byteOffset on, bit n of the bitmap being bit n % 8
+     * of byte n / 8; bytes past its end are zero.
+     */
+    public synchronized byte[] bytes(long byteOffset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            long position = byteOffset + i;
+            int word = (int) (position >>> 3);
+            if (word < words.length) {
+                bytes[i] = (byte) (words[word] >>> ((position & 7) * 8));
+            }
+        }
+        return bytes;
+    }
+
+    // Grows by half again, so writing increasing offsets is amortized O(1)
+    private void ensureWords(int count) {
+        if (count > words.length) {
+            int length = (int) Math.min(Math.max(count, words.length + (words.length >> 1)), (MAX_OFFSET >>> 6) + 1);
+            words = Arrays.copyOf(words, length);
+        }
+    }
+
+    public synchronized int getBit(long offset) {
+        int word = (int) (offset >>> 6);
+        return word < words.length && (words[word] & (1L << (offset & 63))) != 0 ? 1 : 0;
+    }
+
+    public synchronized long byteLength() {
+        return byteLength;
+    }
+
+    /**
+     * Counts the set bits between start and end, both inclusive, in bytes or, with bitUnit, in bits.
+     * Negative indexes count from the end, as in Redis: -1 is the last byte or bit.
+     */
+    public synchronized long count(long start, long end, boolean bitUnit) {
+        long length = bitUnit ? byteLength * 8 : byteLength;
+        if (start < 0) {
+            start = Math.max(0, length + start);
+        }
+        if (end < 0) {
+            end = Math.max(0, length + end);
+        }
+        end = Math.min(end, length - 1);
+        if (start > end) {
+            return 0;
+        }
+        return bitUnit ? countBits(start, end) : countBits(start * 8, end * 8 + 7);
+    }
+
+    /**
+     * Counts the set bits between two bit offsets, both inclusive.
+     */
+    private long countBits(long from, long to) {
+        int firstWord = (int) (from >>> 6);
+        if (firstWord >= words.length) {
+            return 0;
+        }
+        int lastWord = (int) (to >>> 6);
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (lastWord >= words.length) {
+            lastWord = words.length - 1;
+            lastMask = -1L;
+        }
+        long firstMask = -1L << (from & 63);
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+        long count = Long.bitCount(words[firstWord] & firstMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[lastWord] & lastMask);
+    }
+
+    /**
+     * Returns a copy holding just the words within the bitmap's length.
+     */
+    synchronized BitmapValue copy() {
+        return new BitmapValue(Arrays.copyOf(words, wordsFor(byteLength)), byteLength);
+    }
+
+    /**
+     * Combines bitmaps into a new one as long as the longest, shorter ones reading as zeros.
+     * NOT takes exactly one bitmap.
+     */
+    static BitmapValue combine(BitOperation operation, List<BitmapValue> bitmaps) {
+        if (operation == BitOperation.NOT && bitmaps.size() != 1) {
+            throw new IllegalArgumentException("BITOP NOT must be called with a single source key");
+        }
+        // Copy each source first, so that no two locks are held at once
+        BitmapValue[] sources = new BitmapValue[bitmaps.size()];
+        long length = 0;
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = bitmaps.get(i).copy();
+            length = Math.max(length, sources[i].byteLength);
+        }
+        long[] result = Arrays.copyOf(sources[0].words, wordsFor(length));
+        if (operation == BitOperation.NOT) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = ~result[i];
+            }
+            // Clear the bits past the last byte
+            int tailBits = (int) ((length * 8) & 63);
+            if (tailBits != 0) {
+                result[result.length - 1] &= -1L >>> (64 - tailBits);
+            }
+        } else {
+            for (int s = 1; s < sources.length; s++) {
+                long[] other = sources[s].words;
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = operation.apply(result[i], i < other.length ? other[i] : 0);
+                }
+            }
+        }
+        return new BitmapValue(result, length);
+    }
+
+    private static int wordsFor(long byteLength) {
+        return (int) ((byteLength + 7) >>> 3);
+    }
+
+    /**
+     * Returns the bytes charged against the memory limit: the allocated words.
+     */
+    @Override
+    public synchronized long dataSize() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    @Override
+    public synchronized long memoryUsage() {
+        return OVERHEAD + MemoryEstimator.arraySize(words.length, Long.BYTES);
+    }
+
+    @Override
+    public long savedBytes() {
+        return 0;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * A string value stored compressed: the codec output and the length of the UTF-8 bytes it restores.
+ */
+final class CompressedValue {
+    final byte[] data;
+    final int rawLength;
+
+    CompressedValue(byte[] data, int rawLength) {
+        this.data = data;
+        this.rawLength = rawLength;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Codecs large string values can be compressed with.
+ * DEFLATE is built into the JDK; LZ4 is faster, but needs lz4-java on the classpath.
+ */
+public enum CompressionCodec {
+    DEFLATE, LZ4
+} 
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.playgami.challenge.memdb;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Raw DEFLATE at its fastest level, from java.util.zip.
+ * A deflater holds a few hundred KB of native memory, so one is created per value and ended
+ * straight away rather than kept per thread; for values worth compressing the setup is small
+ * next to the compression itself.
+ */
+final class DeflateCodec implements ValueCodec {
+    @Override
+    public byte[] compress(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            // Output that does not fit in the input's size is not worth keeping
+            byte[] buffer = new byte[raw.length];
+            int length = deflater.deflate(buffer);
+            if (!deflater.finished()) {
+                return null;
+            }
+            byte[] compressed = new byte[length];
+            System.arraycopy(buffer, 0, compressed, 0, length);
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = inflater.inflate(raw);
+            if (length != rawLength) {
+                throw new IllegalStateException("Corrupt compressed value: expected " + rawLength + " bytes, got " + length);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+} 
\ No newline at end of file
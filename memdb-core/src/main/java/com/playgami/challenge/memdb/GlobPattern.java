@@ -0,0 +1,104 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * A glob-style pattern as used by SCAN MATCH, with Redis' syntax: * matches any sequence,
+ * ? any single character, [abc], [a-z] and [^a] a character class, and \ escapes the next character.
+ * Matching backtracks only to the last *, so it takes O(pattern * text) time at worst.
+ */
+public final class GlobPattern {
+    private final String pattern;
+
+    public GlobPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Returns the literal text every match starts with: the pattern up to its first special character.
+     */
+    public String literalPrefix() {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return pattern.substring(0, i);
+            }
+        }
+        return pattern;
+    }
+
+    public boolean matches(String text) {
+        int p = 0;
+        int t = 0;
+        // Where to resume after the last *: the pattern past it and the text it absorbed up to
+        int starPattern = -1;
+        int starText = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && pattern.charAt(p) == '*') {
+                starPattern = ++p;
+                starText = t;
+                continue;
+            }
+            int next = p < pattern.length() ? matchOne(p, text.charAt(t)) : -1;
+            if (next >= 0) {
+                p = next;
+                t++;
+            } else if (starPattern >= 0) {
+                p = starPattern;
+                t = ++starText;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * Matches the pattern element at p against one character, returning the position past the
+     * element, or -1 if it does not match.
+     */
+    private int matchOne(int p, char c) {
+        char element = pattern.charAt(p);
+        if (element == '?') {
+            return p + 1;
+        }
+        if (element == '\\' && p + 1 < pattern.length()) {
+            return pattern.charAt(p + 1) == c ? p + 2 : -1;
+        }
+        if (element != '[') {
+            return element == c ? p + 1 : -1;
+        }
+        int i = p + 1;
+        boolean negated = i < pattern.length() && pattern.charAt(i) == '^';
+        if (negated) {
+            i++;
+        }
+        boolean matched = false;
+        // An unterminated class extends to the end of the pattern, as in Redis
+        while (i < pattern.length() && pattern.charAt(i) != ']') {
+            char from = pattern.charAt(i);
+            if (from == '\\' && i + 1 < pattern.length()) {
+                from = pattern.charAt(++i);
+            }
+            if (i + 2 < pattern.length() && pattern.charAt(i + 1) == '-' && pattern.charAt(i + 2) != ']') {
+                char to = pattern.charAt(i + 2);
+                if (from <= to ? c >= from && c <= to : c >= to && c <= from) {
+                    matched = true;
+                }
+                i += 3;
+            } else {
+                if (from == c) {
+                    matched = true;
+                }
+                i++;
+            }
+        }
+        return matched != negated ? Math.min(i + 1, pattern.length()) : -1;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+} 
\ No newline at end of file
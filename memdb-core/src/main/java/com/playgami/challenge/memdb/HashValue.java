@@ -0,0 +1,218 @@
+package com.playgami.challenge.memdb;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The fields of a hash stored under a key.
+ * A hash lives in a single key-value store entry, so it is accessed, expired and evicted as
+ * one unit. Small hashes use a packed encoding: one array of alternating fields and values,
+ * replaced as a whole on each write so that readers see a consistent snapshot without locking.
+ * Once a hash grows past maxPackedEntries fields or stores a field or value longer than
+ * maxPackedValue characters, it converts to a hash table for good, as sorted sets do.
+ * Writes are serialized on the hash, which keeps dataSize exact.
+ */
+public class HashValue implements StructuredValue {
+    public static final String TYPE = "hash";
+    public static final int DEFAULT_MAX_PACKED_ENTRIES = 128;
+    public static final int DEFAULT_MAX_PACKED_VALUE = 64;
+
+    // The hash itself: header, encoding references, thresholds and data size
+    private static final int HASH_OVERHEAD = 40;
+    // A ConcurrentHashMap with its initial table
+    private static final int TABLE_OVERHEAD = 64 + 80;
+
+    public enum Encoding {
+        PACKED, HASHTABLE
+    }
+
+    private static final String[] EMPTY = new String[0];
+
+    private final int maxPackedEntries;
+    private final int maxPackedValue;
+    // Alternating fields and values, or null once the hash converted
+    private volatile String[] packed = EMPTY;
+    // Hash table encoding, published before packed is cleared so readers always find one of them
+    private volatile ConcurrentHashMap<String, String> table;
+    // Total length of the fields and values, charged against the memory limit
+    private volatile long dataSize;
+
+    public HashValue() {
+        this(DEFAULT_MAX_PACKED_ENTRIES, DEFAULT_MAX_PACKED_VALUE);
+    }
+
+    public HashValue(int maxPackedEntries, int maxPackedValue) {
+        this.maxPackedEntries = maxPackedEntries;
+        this.maxPackedValue = maxPackedValue;
+    }
+
+    public Encoding getEncoding() {
+        return packed != null ? Encoding.PACKED : Encoding.HASHTABLE;
+    }
+
+    @Override
+    public String typeName() {
+        return TYPE;
+    }
+
+    @Override
+    public String encodingName() {
+        return getEncoding().name().toLowerCase();
+    }
+
+    /**
+     * Returns the value of a field, or null if the hash has no such field.
+     */
+    public String get(String field) {
+        String[] current = packed;
+        if (current != null) {
+            int position = indexOf(current, field);
+            return position >= 0 ? current[position + 1] : null;
+        }
+        return table.get(field);
+    }
+
+    /**
+     * Sets the value of a field and returns its previous value, or null if the field was added.
+     */
+    public synchronized String put(String field, String value) {
+        String[] current = packed;
+        if (current != null) {
+            int position = indexOf(current, field);
+            int fields = current.length / 2 + (position >= 0 ? 0 : 1);
+            if (fields <= maxPackedEntries && field.length() <= maxPackedValue && value.length() <= maxPackedValue) {
+                String[] updated;
+                String previous = null;
+                if (position >= 0) {
+                    previous = current[position + 1];
+                    updated = current.clone();
+                    updated[position + 1] = value;
+                } else {
+                    updated = Arrays.copyOf(current, current.length + 2);
+                    updated[current.length] = field;
+                    updated[current.length + 1] = value;
+                }
+                packed = updated;
+                dataSize += sizeChange(field, previous, value);
+                return previous;
+            }
+            convert(current);
+        }
+        String previous = table.put(field, value);
+        dataSize += sizeChange(field, previous, value);
+        return previous;
+    }
+
+    /**
+     * Adds increment to the integer value of a field, starting from 0 for a new field,
+     * and returns the new value.
+     * @throws IllegalArgumentException if the value is not an integer or the result overflows
+     */
+    public synchronized long incrementBy(String field, long increment) {
+        String current = get(field);
+        long value;
+        try {
+            value = current != null ? Long.parseLong(current) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("hash value is not an integer");
+        }
+        long result;
+        try {
+            result = Math.addExact(value, increment);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("increment or decrement would overflow");
+        }
+        put(field, String.valueOf(result));
+        return result;
+    }
+
+    private void convert(String[] current) {
+        ConcurrentHashMap<String, String> converted = new ConcurrentHashMap<>();
+        for (int i = 0; i < current.length; i += 2) {
+            converted.put(current[i], current[i + 1]);
+        }
+        table = converted;
+        packed = null;
+    }
+
+    /**
+     * Returns a copy of the fields and values; a packed hash keeps insertion order.
+     */
+    public Map<String, String> entries() {
+        String[] current = packed;
+        if (current != null) {
+            Map<String, String> entries = new LinkedHashMap<>();
+            for (int i = 0; i < current.length; i += 2) {
+                entries.put(current[i], current[i + 1]);
+            }
+            return entries;
+        }
+        return new LinkedHashMap<>(table);
+    }
+
+    public int size() {
+        String[] current = packed;
+        return current != null ? current.length / 2 : table.size();
+    }
+
+    /**
+     * Returns the total length of the fields and values.
+     */
+    @Override
+    public long dataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Returns the estimated heap footprint of the hash in its current encoding.
+     */
+    @Override
+    public long memoryUsage() {
+        String[] current = packed;
+        if (current != null) {
+            long size = HASH_OVERHEAD + MemoryEstimator.arraySize(current.length, MemoryEstimator.REFERENCE);
+            for (String item : current) {
+                size += MemoryEstimator.stringSize(item);
+            }
+            return size;
+        }
+        return tableMemoryUsage(table);
+    }
+
+    /**
+     * Returns the estimated heap footprint the hash would have as a hash table.
+     */
+    public long tableMemoryUsage() {
+        String[] current = packed;
+        return current != null ? tableMemoryUsage(entries()) : memoryUsage();
+    }
+
+    @Override
+    public long savedBytes() {
+        return tableMemoryUsage() - memoryUsage();
+    }
+
+    private static long tableMemoryUsage(Map<String, String> entries) {
+        long size = HASH_OVERHEAD + TABLE_OVERHEAD;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            size += MemoryEstimator.HASH_MAP_ENTRY
+                    + MemoryEstimator.stringSize(entry.getKey()) + MemoryEstimator.stringSize(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long sizeChange(String field, String previous, String value) {
+        return previous != null ? value.length() - previous.length() : field.length() + value.length();
+    }
+
+    private static int indexOf(String[] fields, String field) {
+        for (int i = 0; i < fields.length; i += 2) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+} 
\ No newline at end of file
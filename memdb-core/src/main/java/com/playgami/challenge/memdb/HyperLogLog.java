@@ -0,0 +1,386 @@
+package com.playgami.challenge.memdb;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog cardinality estimator, following the Redis implementation: 16384 6-bit
+ * registers fed by a 64-bit MurmurHash, and the Ertl estimator, for a standard error of 0.81%.
+ * A counter starts sparse, as a sorted array of its non-zero registers, and converts for good
+ * to the dense encoding, 12KB of packed registers, once the sparse array would exceed
+ * sparseMaxBytes. The last estimate is cached until a register changes.
+ * Methods are synchronized; counters are small and PFCOUNT is O(registers) anyway.
+ */
+public class HyperLogLog implements StructuredValue {
+    public static final String TYPE = "hyperloglog";
+    public static final int DEFAULT_SPARSE_MAX_BYTES = 3000;
+
+    static final int PRECISION = 14;
+    static final int REGISTERS = 1 << PRECISION;
+    private static final int REGISTER_BITS = 6;
+    private static final int REGISTER_MASK = (1 << REGISTER_BITS) - 1;
+    static final int DENSE_BYTES = REGISTERS * REGISTER_BITS / 8;
+    // Hash bits left after the register index; register values range from 0 to Q + 1
+    private static final int Q = 64 - PRECISION;
+    private static final double ALPHA_INF = 0.5 / Math.log(2);
+    private static final long HASH_SEED = 0xadc83b19L;
+    // The counter itself: header, array references, sizes and cached estimate
+    private static final int OVERHEAD = 40;
+
+    public enum Encoding {
+        SPARSE, DENSE
+    }
+
+    private final int sparseMaxBytes;
+    // Non-zero registers as (index << 8 | value), sorted by index; null once dense
+    private int[] sparse = new int[8];
+    private int sparseSize;
+    // Registers packed 6 bits each, least significant bits first; null while sparse
+    private byte[] dense;
+    // Last estimate, or -1 after a register changed
+    private long cachedCardinality = -1;
+
+    public HyperLogLog() {
+        this(DEFAULT_SPARSE_MAX_BYTES);
+    }
+
+    public HyperLogLog(int sparseMaxBytes) {
+        this.sparseMaxBytes = sparseMaxBytes;
+    }
+
+    public synchronized Encoding getEncoding() {
+        return dense == null ? Encoding.SPARSE : Encoding.DENSE;
+    }
+
+    @Override
+    public String typeName() {
+        return TYPE;
+    }
+
+    @Override
+    public String encodingName() {
+        return getEncoding().name().toLowerCase();
+    }
+
+    /**
+     * Adds an element and returns true if a register changed, i.e. the estimate may have changed.
+     */
+    public boolean add(String element) {
+        long hash = murmurHash64A(element.getBytes(StandardCharsets.UTF_8), HASH_SEED);
+        int index = (int) (hash & (REGISTERS - 1));
+        // The sentinel bit bounds the run of zeros, so values stay within Q + 1
+        int value = Long.numberOfTrailingZeros((hash >>> PRECISION) | (1L << Q)) + 1;
+        return update(index, value);
+    }
+
+    /**
+     * Raises every register to its value in the other counter.
+     */
+    public void merge(HyperLogLog other) {
+        // Copy the other registers first, so that two counters merging into each other cannot deadlock
+        byte[] values = other.registers();
+        synchronized (this) {
+            if (dense == null && other.getEncoding() == Encoding.DENSE) {
+                toDense();
+            }
+            for (int i = 0; i < REGISTERS; i++) {
+                if (values[i] != 0) {
+                    update(i, values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the estimated number of distinct elements added.
+     */
+    public synchronized long cardinality() {
+        if (cachedCardinality < 0) {
+            cachedCardinality = estimate(histogram());
+        }
+        return cachedCardinality;
+    }
+
+    /**
+     * Returns the value of every register.
+     */
+    synchronized byte[] registers() {
+        byte[] values = new byte[REGISTERS];
+        if (dense == null) {
+            for (int i = 0; i < sparseSize; i++) {
+                values[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+            }
+        } else {
+            for (int i = 0; i < REGISTERS; i++) {
+                values[i] = (byte) getDense(i);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns every register packed 6 bits each, least significant bits first, as in the dense
+     * encoding: the form a counter is exported in.
+     */
+    synchronized byte[] packedRegisters() {
+        if (dense != null) {
+            return dense.clone();
+        }
+        byte[] packed = new byte[DENSE_BYTES];
+        for (int i = 0; i < sparseSize; i++) {
+            setPacked(packed, sparse[i] >>> 8, sparse[i] & 0xFF);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns a counter holding registers packed as by packedRegisters.
+     * @throws IllegalArgumentException if packed is not DENSE_BYTES long or holds an impossible register value
+     */
+    static HyperLogLog fromPackedRegisters(byte[] packed) {
+        if (packed.length != DENSE_BYTES) {
+            throw new IllegalArgumentException("HyperLogLog registers must be " + DENSE_BYTES + " bytes");
+        }
+        HyperLogLog hll = new HyperLogLog(0);
+        for (int i = 0; i < REGISTERS; i++) {
+            int value = getPacked(packed, i);
+            if (value > Q + 1) {
+                throw new IllegalArgumentException("HyperLogLog register out of range");
+            }
+            if (value != 0) {
+                hll.update(i, value);
+            }
+        }
+        return hll;
+    }
+
+    private synchronized boolean update(int index, int value) {
+        if (dense != null) {
+            if (getDense(index) >= value) {
+                return false;
+            }
+            setDense(index, value);
+            cachedCardinality = -1;
+            return true;
+        }
+        int position = searchSparse(index);
+        if (position >= 0) {
+            if ((sparse[position] & 0xFF) >= value) {
+                return false;
+            }
+            sparse[position] = index << 8 | value;
+            cachedCardinality = -1;
+            return true;
+        }
+        position = -position - 1;
+        if ((sparseSize + 1) * Integer.BYTES > sparseMaxBytes) {
+            toDense();
+            setDense(index, value);
+            cachedCardinality = -1;
+            return true;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(sparse.length * 2, Math.max(sparseMaxBytes / Integer.BYTES, 1)));
+        }
+        System.arraycopy(sparse, position, sparse, position + 1, sparseSize - position);
+        sparse[position] = index << 8 | value;
+        sparseSize++;
+        cachedCardinality = -1;
+        return true;
+    }
+
+    private int searchSparse(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleIndex = sparse[middle] >>> 8;
+            if (middleIndex < index) {
+                low = middle + 1;
+            } else if (middleIndex > index) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void toDense() {
+        dense = new byte[DENSE_BYTES];
+        for (int i = 0; i < sparseSize; i++) {
+            setDense(sparse[i] >>> 8, sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private int getDense(int index) {
+        return getPacked(dense, index);
+    }
+
+    private void setDense(int index, int value) {
+        setPacked(dense, index, value);
+    }
+
+    private static int getPacked(byte[] packed, int index) {
+        int bit = index * REGISTER_BITS;
+        int offset = bit >>> 3;
+        int shift = bit & 7;
+        int value = (packed[offset] & 0xFF) >>> shift;
+        if (shift > 8 - REGISTER_BITS) {
+            value |= (packed[offset + 1] & 0xFF) << (8 - shift);
+        }
+        return value & REGISTER_MASK;
+    }
+
+    private static void setPacked(byte[] packed, int index, int value) {
+        int bit = index * REGISTER_BITS;
+        int offset = bit >>> 3;
+        int shift = bit & 7;
+        packed[offset] = (byte) ((packed[offset] & ~(REGISTER_MASK << shift)) | (value << shift));
+        if (shift > 8 - REGISTER_BITS) {
+            int carried = 8 - shift;
+            packed[offset + 1] = (byte) ((packed[offset + 1] & ~(REGISTER_MASK >>> carried)) | (value >>> carried));
+        }
+    }
+
+    /**
+     * Returns how many registers hold each value.
+     */
+    private int[] histogram() {
+        int[] histogram = new int[Q + 2];
+        if (dense == null) {
+            histogram[0] = REGISTERS - sparseSize;
+            for (int i = 0; i < sparseSize; i++) {
+                histogram[sparse[i] & 0xFF]++;
+            }
+        } else {
+            for (int i = 0; i < REGISTERS; i++) {
+                histogram[getDense(i)]++;
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Estimates the cardinality from the register histogram with the estimator of Otmar Ertl,
+     * "New cardinality estimation algorithms for HyperLogLog sketches", as Redis does.
+     */
+    static long estimate(int[] histogram) {
+        double m = REGISTERS;
+        double z = m * tau((m - histogram[Q + 1]) / m);
+        for (int j = Q; j >= 1; j--) {
+            z += histogram[j];
+            z *= 0.5;
+        }
+        z += m * sigma(histogram[0] / m);
+        return Math.round(ALPHA_INF * m * m / z);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double previous;
+        do {
+            x *= x;
+            previous = z;
+            z += x * y;
+            y += y;
+        } while (previous != z);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0.0 || x == 1.0) {
+            return 0.0;
+        }
+        double y = 1.0;
+        double z = 1 - x;
+        double previous;
+        do {
+            x = Math.sqrt(x);
+            previous = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (previous != z);
+        return z / 3;
+    }
+
+    /**
+     * MurmurHash64A by Austin Appleby, reading the input as little-endian 64-bit blocks.
+     */
+    static long murmurHash64A(byte[] data, long seed) {
+        final long m = 0xc6a4a7935bd1e995L;
+        final int r = 47;
+        long h = seed ^ (data.length * m);
+        int blocks = data.length / 8;
+        for (int i = 0; i < blocks; i++) {
+            long k = 0;
+            for (int j = 7; j >= 0; j--) {
+                k = k << 8 | (data[i * 8 + j] & 0xFF);
+            }
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+            h ^= k;
+            h *= m;
+        }
+        int tail = blocks * 8;
+        int remaining = data.length - tail;
+        if (remaining > 0) {
+            for (int j = remaining - 1; j >= 0; j--) {
+                h ^= (long) (data[tail + j] & 0xFF) << (8 * j);
+            }
+            h *= m;
+        }
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+        return h;
+    }
+
+    /**
+     * Returns the most adding count elements may grow dataSize by: the growth of the sparse array
+     * while it stays within sparseMaxBytes, and the dense registers once it may not.
+     */
+    public synchronized long addGrowthBound(int count) {
+        if (dense != null) {
+            return 0;
+        }
+        long entries = (long) sparseSize + count;
+        int maxCapacity = Math.max(sparseMaxBytes / Integer.BYTES, 1);
+        if (entries * Integer.BYTES > sparseMaxBytes) {
+            // The counter may convert to dense, or stop just short of it
+            return Math.max(Math.max(DENSE_BYTES, (long) maxCapacity * Integer.BYTES) - dataSize(), 0);
+        }
+        long capacity = sparse.length;
+        while (capacity < entries) {
+            capacity = Math.min(capacity * 2, maxCapacity);
+        }
+        return (capacity - sparse.length) * Integer.BYTES;
+    }
+
+    /**
+     * Returns the bytes charged against the memory limit: the sparse array or the dense registers.
+     */
+    @Override
+    public synchronized long dataSize() {
+        return dense == null ? (long) sparse.length * Integer.BYTES : dense.length;
+    }
+
+    @Override
+    public synchronized long memoryUsage() {
+        return OVERHEAD + (dense == null
+                ? MemoryEstimator.arraySize(sparse.length, Integer.BYTES)
+                : MemoryEstimator.arraySize(dense.length, 1));
+    }
+
+    @Override
+    public long savedBytes() {
+        return OVERHEAD + MemoryEstimator.arraySize(DENSE_BYTES, 1) - memoryUsage();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Notified after a key is written, deleted, expired or evicted, on the thread that changed it and
+ * outside any lock MemDB holds. Implementations must return quickly, as writers wait for them.
+ */
+public interface KeyChangeListener {
+    void keyChanged(String key);
+
+    /**
+     * Called after every key was removed at once.
+     */
+    void keyspaceFlushed();
+} 
\ No newline at end of file
@@ -0,0 +1,275 @@
+package com.playgami.challenge.memdb;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A radix tree of the keys of every type, for queries by key prefix. Edges are labelled with
+ * key fragments and a node with a single child is merged into it, so keys sharing a prefix such
+ * as "player:123:" store it once, and listing the keys under a prefix costs O(prefix length +
+ * matching keys) whatever the size of the keyspace. Children are sorted by their first
+ * character, so keys are listed in lexicographic order.
+ * The tree is guarded by a read-write lock: writes happen only when a key is created or removed,
+ * so the lock is not taken on reads and overwrites of existing keys. Its estimated heap
+ * footprint is tracked as it changes, to be charged against the memory limit.
+ */
+class KeyIndex {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    // Label and children references plus the terminal flag
+    private static final int NODE_SIZE = (int) MemoryEstimator.align(MemoryEstimator.OBJECT_HEADER + 2 * MemoryEstimator.REFERENCE + 1);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private long bytes;
+    private int size;
+
+    /**
+     * Adds a key and returns the change in the index's footprint.
+     */
+    long add(String key) {
+        lock.writeLock().lock();
+        try {
+            long before = bytes;
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                int index = childIndex(node, key.charAt(position));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(position));
+                    leaf.terminal = true;
+                    setChildren(node, insert(node.children, -index - 1, leaf));
+                    bytes += nodeSize(leaf);
+                    size++;
+                    return bytes - before;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, position);
+                if (common < child.label.length()) {
+                    // Split the edge where the key leaves it
+                    Node middle = new Node(child.label.substring(0, common));
+                    bytes -= MemoryEstimator.stringSize(child.label);
+                    child.label = child.label.substring(common);
+                    bytes += MemoryEstimator.stringSize(child.label);
+                    middle.children = new Node[] {child};
+                    node.children[index] = middle;
+                    bytes += nodeSize(middle);
+                    child = middle;
+                }
+                node = child;
+                position += common;
+            }
+            if (!node.terminal) {
+                node.terminal = true;
+                size++;
+            }
+            return bytes - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a key and returns the change in the index's footprint.
+     */
+    long remove(String key) {
+        lock.writeLock().lock();
+        try {
+            long before = bytes;
+            Node grandparent = null;
+            Node parent = null;
+            Node node = root;
+            int position = 0;
+            while (position < key.length()) {
+                int index = childIndex(node, key.charAt(position));
+                if (index < 0 || !key.startsWith(node.children[index].label, position)) {
+                    return 0;
+                }
+                grandparent = parent;
+                parent = node;
+                node = node.children[index];
+                position += node.label.length();
+            }
+            if (!node.terminal) {
+                return 0;
+            }
+            node.terminal = false;
+            size--;
+            if (node.children.length == 0 && parent != null) {
+                setChildren(parent, remove(parent.children, childIndex(parent, node.label.charAt(0))));
+                bytes -= nodeSize(node);
+                // The parent may be left as a mere pass-through
+                if (parent != root && !parent.terminal && parent.children.length == 1) {
+                    merge(grandparent, parent);
+                }
+            } else if (node.children.length == 1 && parent != null) {
+                merge(parent, node);
+            }
+            return bytes - before;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds to keys, in lexicographic order, up to limit keys starting with prefix and following
+     * after, or from the first such key if after is null.
+     */
+    void collect(String prefix, String after, int limit, List<String> keys) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            StringBuilder path = new StringBuilder();
+            while (path.length() < prefix.length()) {
+                int index = childIndex(node, prefix.charAt(path.length()));
+                if (index < 0) {
+                    return;
+                }
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, prefix, path.length());
+                // The prefix must end inside or at the end of the edge
+                if (common < child.label.length() && path.length() + common < prefix.length()) {
+                    return;
+                }
+                path.append(child.label);
+                node = child;
+            }
+            collect(node, path, after, limit, keys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, StringBuilder path, String after, int limit, List<String> keys) {
+        String current = path.toString();
+        boolean leadsToAfter = after != null && after.startsWith(current);
+        if (after != null && !leadsToAfter && current.compareTo(after) < 0) {
+            // Every key below sorts before after
+            return;
+        }
+        if (node.terminal && !leadsToAfter) {
+            keys.add(current);
+        }
+        for (Node child : node.children) {
+            if (keys.size() >= limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, after, limit, keys);
+            path.setLength(length);
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated heap footprint of the index.
+     */
+    long bytes() {
+        lock.readLock().lock();
+        try {
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children = NO_CHILDREN;
+            root.terminal = false;
+            bytes = 0;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges a non-terminal node into its only child.
+     */
+    private void merge(Node parent, Node node) {
+        Node child = node.children[0];
+        bytes -= nodeSize(node) + MemoryEstimator.stringSize(child.label);
+        child.label = node.label + child.label;
+        bytes += MemoryEstimator.stringSize(child.label);
+        parent.children[childIndex(parent, child.label.charAt(0))] = child;
+    }
+
+    private void setChildren(Node node, Node[] children) {
+        bytes += MemoryEstimator.arraySize(children.length, MemoryEstimator.REFERENCE)
+                - MemoryEstimator.arraySize(node.children.length, MemoryEstimator.REFERENCE);
+        node.children = children;
+    }
+
+    private static long nodeSize(Node node) {
+        return NODE_SIZE + MemoryEstimator.stringSize(node.label)
+                + MemoryEstimator.arraySize(node.children.length, MemoryEstimator.REFERENCE);
+    }
+
+    /**
+     * Returns the index of the child whose label starts with c, or -(insertion point + 1).
+     */
+    private static int childIndex(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = node.children[middle].label.charAt(0);
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Node[] insert(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static Node[] remove(Node[] children, int index) {
+        if (children.length == 1) {
+            return NO_CHILDREN;
+        }
+        Node[] result = Arrays.copyOf(children, children.length - 1);
+        System.arraycopy(children, index + 1, result, index, children.length - index - 1);
+        return result;
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        boolean terminal;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+} 
\ No newline at end of file
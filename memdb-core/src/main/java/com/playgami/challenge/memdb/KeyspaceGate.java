@@ -0,0 +1,69 @@
+package com.playgami.challenge.memdb;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lets FLUSHALL swap the keyspace structures while no write to them is in progress.
+ * Writers announce themselves on a counter striped by thread, so that entering and leaving costs
+ * an uncontended atomic add; the swap closes the gate, waits for the counters to drain, swaps and
+ * reopens it. A writer never observes the keyspace half swapped, and never writes to a detached one.
+ * Writes are short, bounded critical sections; they must not enter the gate again while inside it.
+ */
+final class KeyspaceGate {
+    private static final int STRIPES = 64;
+    // Counters a cache line apart, so that writers on different stripes do not contend
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray writers = new AtomicLongArray(STRIPES * PADDING);
+    private volatile boolean closed;
+
+    /**
+     * Enters a write, waiting while a swap is in progress, and returns the slot to pass to exit.
+     */
+    int enter() {
+        int slot = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        while (true) {
+            writers.incrementAndGet(slot);
+            // Checked after announcing the write, so that the swap either sees the write or the
+            // writer sees the gate closed
+            if (!closed) {
+                return slot;
+            }
+            writers.decrementAndGet(slot);
+            while (closed) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Leaves a write entered on slot.
+     */
+    void exit(int slot) {
+        writers.decrementAndGet(slot);
+    }
+
+    /**
+     * Runs swap once every write in progress has left, holding new writes back until it returns.
+     */
+    synchronized void swap(Runnable swap) {
+        closed = true;
+        try {
+            while (inProgress()) {
+                Thread.onSpinWait();
+            }
+            swap.run();
+        } finally {
+            closed = false;
+        }
+    }
+
+    private boolean inProgress() {
+        for (int slot = 0; slot < STRIPES * PADDING; slot += PADDING) {
+            if (writers.get(slot) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+} 
\ No newline at end of file
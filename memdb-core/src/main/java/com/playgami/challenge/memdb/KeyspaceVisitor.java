@@ -0,0 +1,35 @@
+package com.playgami.challenge.memdb;
+
+import java.io.IOException;
+
+/**
+ * Receives the contents of the keyspace from MemDB.dump, one record at a time.
+ * A sorted set, hash or time series arrives as one record per member, field or sample, and a
+ * bitmap as one record per chunk of bytes.
+ */
+public interface KeyspaceVisitor {
+    /**
+     * Receives a string value and its expiry time in epoch milliseconds, or null if it never expires.
+     */
+    void string(String key, String value, Long expiryTime) throws IOException;
+
+    void sortedSetMember(String key, String member, double score) throws IOException;
+
+    void hashField(String key, String field, String value) throws IOException;
+
+    /**
+     * Receives the registers of a HyperLogLog, packed as in its dense encoding.
+     */
+    void hyperLogLog(String key, byte[] registers) throws IOException;
+
+    /**
+     * Receives bytes of a bitmap of byteLength bytes starting at byteOffset, bit n of the bitmap
+     * being bit n % 8 of byte n / 8. Chunks holding no set bit are skipped, except the last.
+     */
+    void bitmapChunk(String key, long byteOffset, byte[] bytes, long byteLength) throws IOException;
+
+    /**
+     * Receives a sample of a time series and the series' retention in milliseconds, 0 for none.
+     */
+    void timeSeriesSample(String key, long timestamp, double value, long retentionMillis) throws IOException;
+} 
\ No newline at end of file
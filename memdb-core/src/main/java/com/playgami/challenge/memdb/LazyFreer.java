@@ -0,0 +1,71 @@
+package com.playgami.challenge.memdb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Frees values detached from the keyspace on a dedicated thread, so that UNLINK and FLUSHALL ASYNC
+ * return in O(1) whatever the size of what they drop. Freeing releases the memory accounting of the
+ * values, which for a sorted set takes a pass over its members, and drops the last references to
+ * them for the garbage collector.
+ */
+class LazyFreer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LazyFreer.class);
+
+    private final ExecutorService executor;
+    private final MemDBStats stats;
+
+    LazyFreer(String name, MemDBStats stats) {
+        this.stats = stats;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a task freeing the given number of objects. Once closed, the task runs on the caller.
+     */
+    void free(long objects, Runnable task) {
+        stats.recordLazyFreeQueued(objects);
+        try {
+            executor.execute(() -> run(objects, task));
+        } catch (RejectedExecutionException e) {
+            run(objects, task);
+        }
+    }
+
+    /**
+     * Waits until every task queued so far has run. Returns at once once closed.
+     */
+    void awaitQueued() throws InterruptedException {
+        try {
+            // Tasks run in order on the single thread, so a no-op queued last completes after them
+            executor.submit(() -> { }).get();
+        } catch (RejectedExecutionException e) {
+            // Closed: tasks queued later ran on their callers
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void run(long objects, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            logger.error("Lazy free failed: {}", e.getMessage(), e);
+        } finally {
+            stats.recordLazyFreed(objects);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+} 
\ No newline at end of file
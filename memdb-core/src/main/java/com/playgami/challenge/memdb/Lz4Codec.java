@@ -0,0 +1,42 @@
+package com.playgami.challenge.memdb;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * LZ4 block compression from lz4-java, an optional dependency: this class is only loaded
+ * when the LZ4 codec is configured.
+ */
+final class Lz4Codec implements ValueCodec {
+    private final LZ4Compressor compressor;
+    private final LZ4FastDecompressor decompressor;
+
+    /**
+     * Creates the codec with the fastest implementation available, native or Java.
+     */
+    Lz4Codec() {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        this.compressor = factory.fastCompressor();
+        this.decompressor = factory.fastDecompressor();
+    }
+
+    @Override
+    public byte[] compress(byte[] raw) {
+        byte[] buffer = new byte[compressor.maxCompressedLength(raw.length)];
+        int length = compressor.compress(raw, 0, raw.length, buffer, 0, buffer.length);
+        if (length >= raw.length) {
+            return null;
+        }
+        byte[] compressed = new byte[length];
+        System.arraycopy(buffer, 0, compressed, 0, length);
+        return compressed;
+    }
+
+    @Override
+    public byte[] decompress(byte[] compressed, int rawLength) {
+        byte[] raw = new byte[rawLength];
+        decompressor.decompress(compressed, 0, raw, 0, rawLength);
+        return raw;
+    }
+} 
\ No newline at end of file
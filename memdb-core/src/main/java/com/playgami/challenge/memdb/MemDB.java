@@ -0,0 +1,2102 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.*;
+import com.playgami.challenge.memdb.tier.SpillStore;
+import com.playgami.challenge.memdb.tier.SpilledValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.List;
+import java.util.Set;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class MemDB implements StorageEngine, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MemDB.class);
+    // Writers waiting at the hard limit re-check memory at this interval
+    private static final long BACKPRESSURE_PARK_NANOS = 100_000; // 100 microseconds
+    // AtomicReference and ValueWrapper holding a value
+    private static final int STRING_ENTRY_OVERHEAD = 16 + 32;
+    // Keys DELPREFIX looks up and deletes at a time
+    private static final int DELETE_BATCH = 1000;
+    // Bitmap bytes passed to a dump visitor at a time
+    private static final int DUMP_CHUNK_BYTES = 4096;
+
+    // Main key-value store using AtomicReference for thread-safe value updates;
+    // replaced along with the other keyspace structures by FLUSHALL
+    protected volatile Map<String, AtomicReference<ValueWrapper>> keyValueStore;
+    // Sorted sets store: key -> sorted set of unique members ordered by score
+    protected volatile Map<String, SortedSetValue> sortedSets;
+    // Live sorted sets, sampled by the sorted set eviction policy
+    protected final SortedSetRegistry sortedSetRegistry;
+    // Keys of every type in hash order, walked by SCAN
+    private volatile ScanIndex scanIndex;
+    // Radix tree of the keys for queries by prefix, or null when the key index is disabled
+    private volatile KeyIndex keyIndex;
+    // Counter for database size
+    protected volatile AtomicLong dbSize;
+    // Memory limit in bytes
+    private final long maxMemory;
+    // Usage at which background eviction starts, and the usage it frees memory down to
+    private final long highWatermark;
+    private final long lowWatermark;
+    // Upper bound of evictions per eviction cycle
+    private final int maxEvictionsPerCycle;
+    // Upper bound of sorted set members removed per eviction
+    private final int sortedSetEvictionBatch;
+    // Thresholds past which a sorted set converts from the packed to the indexed encoding
+    private final int sortedSetMaxPackedEntries;
+    private final int sortedSetMaxPackedValue;
+    // Thresholds past which a hash converts from the packed encoding to a hash table
+    private final int hashMaxPackedEntries;
+    private final int hashMaxPackedValue;
+    // Size past which a HyperLogLog converts from the sparse to the dense encoding
+    private final int hllSparseMaxBytes;
+    // Samples per compressed chunk and default retention period of time series
+    private final int timeSeriesChunkSamples;
+    private final long timeSeriesRetentionMillis;
+    // Keys of time series with a retention period, pruned lazily by the trimmer
+    private final Set<String> timeSeriesKeys;
+    // Number of structured values in the key-value store, by type; the key set is fixed
+    protected volatile Map<String, AtomicLong> structureCounts;
+    // How long a writer at the hard limit waits for the evictor
+    private final long maxBackpressureNanos;
+    // Current memory usage in bytes
+    protected final AtomicLong currentMemoryUsed;
+    // Eviction strategy
+    protected final EvictionStrategy evictionStrategy;
+    // Sorted set eviction policy
+    private final SortedSetEvictionStrategy sortedSetEvictionPolicy;
+    // Expiration times
+    protected final Map<String, Long> expirationTimes;
+    // Lock-free runtime counters reported by INFO
+    protected final MemDBStats stats;
+    // Evicts in the background between the high and low watermarks
+    private final BackgroundEvictor evictor;
+    // Drops expired time series chunks in the background
+    private final TimeSeriesTrimmer timeSeriesTrimmer;
+    // Disk tier evicted string values spill to, or null when tiered storage is disabled
+    private final SpillStore spillStore;
+    // Whether reading a spilled value moves it back into memory when there is room
+    private final boolean promoteSpilledOnRead;
+    // Compresses large string values, or null when compression is disabled
+    private final ValueCompressor compressor;
+    // Canonical instances shared by keys holding equal short values, or null when deduplication is disabled
+    private final ValuePool valuePool;
+    // Releases unlinked and flushed values in the background
+    private final LazyFreer lazyFreer;
+    // Members past which UNLINK frees a sorted set in the background
+    private final int lazyfreeThreshold;
+    // Told of every key change, for client-side caching; null when nothing listens
+    private volatile KeyChangeListener keyChangeListener;
+    // Held by every write to the keyspace structures, so that FLUSHALL swaps them all at once
+    private final KeyspaceGate keyspaceGate = new KeyspaceGate();
+
+    /**
+     * Returns a builder for an instance embedded in an application.
+     */
+    public static MemDBBuilder builder() {
+        return new MemDBBuilder();
+    }
+
+    public MemDB(EvictionStrategy evictionStrategy) {
+        this(evictionStrategy, new MemDBSettings());
+    }
+
+    public MemDB(EvictionStrategy evictionStrategy, MemDBSettings settings) {
+        settings.validate();
+        this.maxMemory = settings.getMaxMemory();
+        this.highWatermark = (long) (maxMemory * settings.getEvictionHighWatermark());
+        this.lowWatermark = (long) (maxMemory * settings.getEvictionLowWatermark());
+        this.maxEvictionsPerCycle = settings.getMaxEvictionsPerCycle();
+        this.sortedSetEvictionBatch = settings.getSortedSetEvictionBatch();
+        this.sortedSetMaxPackedEntries = settings.getSortedSetMaxPackedEntries();
+        this.sortedSetMaxPackedValue = settings.getSortedSetMaxPackedValue();
+        this.hashMaxPackedEntries = settings.getHashMaxPackedEntries();
+        this.hashMaxPackedValue = settings.getHashMaxPackedValue();
+        this.hllSparseMaxBytes = settings.getHllSparseMaxBytes();
+        this.timeSeriesChunkSamples = settings.getTimeSeriesChunkSamples();
+        this.timeSeriesRetentionMillis = settings.getTimeSeriesRetentionMillis();
+        this.timeSeriesKeys = ConcurrentHashMap.newKeySet();
+        this.structureCounts = newStructureCounts();
+        this.maxBackpressureNanos = TimeUnit.MILLISECONDS.toNanos(settings.getMaxBackpressureMillis());
+        this.keyValueStore = new ConcurrentHashMap<>();
+        this.sortedSets = new ConcurrentHashMap<>();
+        this.sortedSetRegistry = new SortedSetRegistry();
+        this.scanIndex = new ScanIndex();
+        this.keyIndex = settings.isKeyIndexEnabled() ? new KeyIndex() : null;
+        this.dbSize = new AtomicLong(0);
+        this.currentMemoryUsed = new AtomicLong(0);
+        this.evictionStrategy = evictionStrategy;
+        this.sortedSetEvictionPolicy = SortedSetEvictionStrategy.forPolicy(settings.getSortedSetEvictionPolicy());
+        this.expirationTimes = new ConcurrentHashMap<>();
+        this.stats = new MemDBStats();
+        this.evictor = new BackgroundEvictor("memdb-evictor",
+                () -> currentMemoryUsed.get() >= highWatermark,
+                () -> currentMemoryUsed.get() > lowWatermark,
+                this::runEvictionCycle,
+                settings.getEvictionCycleMillis());
+        this.timeSeriesTrimmer = new TimeSeriesTrimmer("memdb-ts-trimmer", this::trimTimeSeries,
+                settings.getTimeSeriesTrimMillis());
+        this.spillStore = settings.isTierEnabled()
+                ? new SpillStore(Path.of(settings.getTierDirectory()), settings.getTierSegmentBytes(),
+                        settings.getTierMaxBytes(), settings.getTierCompactionDeadRatio(), settings.getTierCompactionMillis())
+                : null;
+        this.promoteSpilledOnRead = settings.isTierPromoteOnRead();
+        this.compressor = settings.isCompressionEnabled()
+                ? new ValueCompressor(ValueCodec.forCodec(settings.getCompressionCodec()),
+                        settings.getCompressionMinLength(), settings.getCompressionMaxRatio(), stats)
+                : null;
+        this.valuePool = settings.isDedupEnabled()
+                ? new ValuePool(settings.getDedupMaxEntries(), settings.getDedupMaxLength(), currentMemoryUsed)
+                : null;
+        this.lazyFreer = new LazyFreer("memdb-lazyfree", stats);
+        this.lazyfreeThreshold = settings.getLazyfreeThreshold();
+    }
+
+    private static Map<String, AtomicLong> newStructureCounts() {
+        Map<String, AtomicLong> counts = new LinkedHashMap<>();
+        counts.put(HashValue.TYPE, new AtomicLong(0));
+        counts.put(HyperLogLog.TYPE, new AtomicLong(0));
+        counts.put(BitmapValue.TYPE, new AtomicLong(0));
+        counts.put(TimeSeries.TYPE, new AtomicLong(0));
+        return counts;
+    }
+
+    // ===== Memory Management Methods =====
+
+    /**
+     * Runs one bounded eviction cycle, evicting keys while memory is above the low watermark.
+     * Called by the background evictor; returns the number of keys evicted.
+     */
+    protected int checkMemoryLimit() {
+        logger.debug("Checking memory limit. Current memory: {}, Max memory: {}", currentMemoryUsed.get(), maxMemory);
+        int evicted = 0;
+        while (evicted < maxEvictionsPerCycle && isMemoryLimitExceeded()) {
+            int batch = evictKeys(maxEvictionsPerCycle - evicted);
+            if (batch == 0) {
+                break; // No more keys to evict
+            }
+            evicted += batch;
+        }
+        return evicted;
+    }
+
+    /**
+     * Runs one background eviction cycle.
+     * The strategy may not track every key (LRU keeps a single key per access millisecond),
+     * so when it runs dry above the low watermark, arbitrary keys are evicted instead.
+     */
+    private int runEvictionCycle() {
+        int evicted = checkMemoryLimit();
+        while (evicted < maxEvictionsPerCycle && currentMemoryUsed.get() > lowWatermark && evictUntrackedKey()) {
+            evicted++;
+        }
+        return evicted;
+    }
+
+    /**
+     * Evicts the first key found in the key-value store.
+     */
+    private boolean evictUntrackedKey() {
+        Iterator<String> keys = keyValueStore.keySet().iterator();
+        if (!keys.hasNext()) {
+            return false;
+        }
+        String key = keys.next();
+        logger.debug("Evicting untracked key from keyValueStore: {}", key);
+        if (evictKey(key)) {
+            stats.recordEviction();
+        }
+        return true;
+    }
+
+    /**
+     * Evicts a key from memory. With tiered storage, a string value moves to the disk tier if it
+     * has room; anything else is dropped. Returns false if the key was already gone.
+     */
+    private boolean evictKey(String key) {
+        if (spillStore == null) {
+            return removeKey(key);
+        }
+        // Written to the tier before taking the key's lock, as writing may create and map a segment file
+        AtomicReference<ValueWrapper> current = keyValueStore.get(key);
+        ValueWrapper candidate = current != null ? current.get() : null;
+        SpilledValue written = candidate != null && candidate.structure == null && !candidate.isExpired()
+                ? spillStore.write(key, stringValue(candidate), candidate.expiryTime)
+                : null;
+        ValueWrapper[] removed = new ValueWrapper[1];
+        boolean[] spilled = new boolean[1];
+        // Published under the key's lock, so that a concurrent write, eviction or DEL of the key cannot
+        // interleave, and before the value leaves memory, so readers always find it somewhere.
+        // A value overwritten since it was written is evicted without spilling.
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.computeIfPresent(key, (k, ref) -> {
+                removed[0] = ref.get();
+                spilled[0] = written != null && removed[0] == candidate && spillStore.publish(k, written);
+                uncount(k, removed[0]);
+                return null;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (written != null && !spilled[0]) {
+            spillStore.discard(written);
+        }
+        if (removed[0] == null) {
+            return false;
+        }
+        if (spilled[0]) {
+            stats.recordSpill();
+        }
+        release(key, removed[0]);
+        return true;
+    }
+
+    /**
+     * Checks if current memory usage is above the low watermark eviction frees memory down to.
+     */
+    protected boolean isMemoryLimitExceeded() {
+        return currentMemoryUsed.get() > lowWatermark;
+    }
+
+    /**
+     * Reserves memoryDelta bytes for a write and returns the bytes reserved, which the write's
+     * charge then replaces. The reservation is claimed with a compare-and-set on the usage, so
+     * concurrent writers cannot together overshoot the hard limit.
+     * Wakes the background evictor past the high watermark; at the hard limit the writer waits
+     * briefly for the evictor and fails with an OOM error if memory is still not available.
+     */
+    private long reserveMemory(long memoryDelta) {
+        long deadline = 0;
+        boolean waiting = false;
+        while (true) {
+            long used = currentMemoryUsed.get();
+            long projected = used + memoryDelta;
+            if (projected >= highWatermark) {
+                evictor.wakeUp();
+            }
+            if (memoryDelta <= 0) {
+                // Frees memory or keeps it; nothing to reserve
+                return 0;
+            }
+            if (projected <= maxMemory) {
+                if (currentMemoryUsed.compareAndSet(used, projected)) {
+                    stats.recordMemoryUsage(projected);
+                    return memoryDelta;
+                }
+                continue;
+            }
+            if (!waiting) {
+                waiting = true;
+                deadline = System.nanoTime() + maxBackpressureNanos;
+            } else if (System.nanoTime() - deadline >= 0) {
+                stats.recordRejectedWrite();
+                throw new MemoryLimitExceededException();
+            }
+            LockSupport.parkNanos(BACKPRESSURE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Reserves memory only if usage stays below limit, without waiting for eviction, and returns
+     * the bytes reserved, or 0 if there was no room.
+     */
+    private long tryReserveMemory(long memoryDelta, long limit) {
+        while (true) {
+            long used = currentMemoryUsed.get();
+            long projected = used + memoryDelta;
+            if (projected >= limit) {
+                return 0;
+            }
+            if (currentMemoryUsed.compareAndSet(used, projected)) {
+                stats.recordMemoryUsage(projected);
+                return memoryDelta;
+            }
+        }
+    }
+
+    /**
+     * Hands back a reservation whose write failed before charging it.
+     */
+    private void unreserve(long reserved) {
+        if (reserved != 0) {
+            currentMemoryUsed.addAndGet(-reserved);
+        }
+    }
+
+    /**
+     * Evicts a key based on the eviction strategy, or a batch of at most maxEvictions sorted set members.
+     * Returns the number of entries evicted.
+     */
+    private int evictKeys(int maxEvictions) {
+        // First try to evict from keyValueStore
+        String keyToEvict = evictionStrategy.selectKeyToEvict(keyValueStore, null);
+        if (keyToEvict != null) {
+            logger.debug("Evicting key from keyValueStore: {}", keyToEvict);
+            evictKey(keyToEvict);
+            stats.recordEviction();
+            return 1;
+        }
+
+        // If no keys in keyValueStore, try to evict from sorted sets
+        return sortedSetEvictionPolicy.evict(sortedSetRegistry, this::evictSortedSetMember,
+                Math.min(maxEvictions, sortedSetEvictionBatch));
+    }
+
+    /**
+     * Evicts a sorted set member if it is still stored under the score, releasing exactly its memory.
+     * A set left empty is dropped, unless a concurrent ZADD refilled it meanwhile.
+     */
+    private boolean evictSortedSetMember(SortedSetValue set, double score, String member) {
+        if (!set.remove(score, member)) {
+            return false;
+        }
+        currentMemoryUsed.addAndGet(calculateSortedSetMemoryDelta(set.getKey(), member, null));
+        stats.recordEviction();
+        changed(set.getKey());
+        if (set.isEmpty()) {
+            int slot = keyspaceGate.enter();
+            try {
+                sortedSets.computeIfPresent(set.getKey(), (k, current) -> {
+                    if (current != set || !current.isEmpty()) {
+                        return current;
+                    }
+                    sortedSetRegistry.unregister(set);
+                    return null;
+                });
+            } finally {
+                keyspaceGate.exit(slot);
+            }
+            reindex(set.getKey());
+        }
+        return true;
+    }
+
+    /**
+     * Calculates memory delta for a key-value operation.
+     */
+    private long calculateMemoryDelta(String key, String oldValue, String newValue) {
+        // The key is charged when the entry is created and released when it is removed
+        long oldSize = oldValue != null ? key.length() + oldValue.length() : 0;
+        long newSize = newValue != null ? key.length() + newValue.length() : 0;
+        return newSize - oldSize;
+    }
+
+    /**
+     * Returns the memory charged for a key-value store entry: the key plus its string value
+     * or the data of its structured value. Returns 0 for no entry.
+     */
+    private static long entrySize(String key, ValueWrapper wrapper) {
+        if (wrapper == null) {
+            return 0;
+        }
+        if (wrapper.structure != null) {
+            return key.length() + wrapper.structure.dataSize();
+        }
+        if (wrapper.pooled) {
+            // The value is charged by the pool, once for all the keys sharing it
+            return key.length();
+        }
+        // A compressed value is charged its compressed size
+        return key.length() + (wrapper.compressed != null ? wrapper.compressed.data.length : wrapper.value.length());
+    }
+
+    /**
+     * Calculates memory delta for a sorted set operation.
+     */
+    private long calculateSortedSetMemoryDelta(String key, String oldValue, String newValue) {
+        // Add 8 bytes for the score (Double) of a new entry
+        return calculateMemoryDelta(key, oldValue, newValue) + (oldValue == null ? 8 : 0) - (newValue == null ? 8 : 0);
+    }
+
+    // ===== Key-Value Store Methods =====
+
+    /**
+     * Sets a key-value pair with optional expiry.
+     */
+    public void set(String key, String value, long expirySeconds) {
+        // Built first, so that memory is reserved for the value as stored, compressed or not
+        ValueWrapper wrapper = stringWrapper(value,
+                expirySeconds > 0 ? System.currentTimeMillis() + (expirySeconds * 1000) : null);
+        AtomicReference<ValueWrapper> oldRef = keyValueStore.get(key);
+        long memoryDelta = entrySize(key, wrapper) - entrySize(key, oldRef != null ? oldRef.get() : null);
+
+        logger.debug("Setting key: {}, Current memory: {}, Delta: {}, Max: {}", 
+                    key, currentMemoryUsed.get(), memoryDelta, maxMemory);
+
+        long reserved = reserveMemory(memoryDelta);
+            
+        // Pooled once memory is reserved for the value as if it were not shared
+        store(key, share(wrapper), reserved);
+    }
+
+    /**
+     * Wraps a string value, compressed if compression is enabled and the value is worth it.
+     */
+    private ValueWrapper stringWrapper(String value, Long expiryTime) {
+        CompressedValue compressed = compressor != null ? compressor.compress(value) : null;
+        if (compressed != null) {
+            return new ValueWrapper(compressed, expiryTime);
+        }
+        return expiryTime != null ? new ValueWrapper(value, expiryTime) : new ValueWrapper(value);
+    }
+
+    /**
+     * Replaces a short string value with its canonical instance from the value pool, if it is pooled.
+     * The pooled wrapper holds a reference that must be released when the wrapper leaves the store.
+     */
+    private ValueWrapper share(ValueWrapper wrapper) {
+        if (valuePool == null || wrapper.value == null) {
+            return wrapper;
+        }
+        String canonical = valuePool.acquire(wrapper.value);
+        return canonical != null ? ValueWrapper.pooled(canonical, wrapper.expiryTime) : wrapper;
+    }
+
+    /**
+     * Drops the value pool reference of a wrapper leaving the store.
+     */
+    private void unshare(ValueWrapper wrapper) {
+        if (wrapper != null && wrapper.pooled) {
+            valuePool.release(wrapper.value);
+        }
+    }
+
+    /**
+     * Returns the string value of a wrapper, decompressing it if needed.
+     */
+    private String stringValue(ValueWrapper wrapper) {
+        return wrapper.compressed != null ? compressor.decompress(wrapper.compressed) : wrapper.value;
+    }
+
+    /**
+     * Stores a value under a key, replacing whatever the key held, of any type. The caller has
+     * reserved memory for it; the reservation is settled against the actual change in one step.
+     */
+    private void store(String key, ValueWrapper wrapper, long reserved) {
+        ValueWrapper[] replaced = new ValueWrapper[1];
+        SpilledValue[] superseded = new SpilledValue[1];
+        // Replaced under the key's lock, like every other write to the key, so that the value
+        // replaced is accounted by exactly one writer
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.compute(key, (k, ref) -> {
+                ValueWrapper previous = ref != null ? ref.get() : null;
+                if (wrapper.structure != null) {
+                    checkNoSortedSet(k);
+                }
+                replaced[0] = previous;
+                if (spillStore != null && previous == null) {
+                    superseded[0] = spillStore.get(k);
+                }
+                stats.recordMemoryUsage(currentMemoryUsed.addAndGet(entrySize(k, wrapper) - entrySize(k, previous) - reserved));
+                if (previous != null && previous.structure != null) {
+                    structureCounts.get(previous.structure.typeName()).decrementAndGet();
+                }
+                if (wrapper.structure != null) {
+                    structureCounts.get(wrapper.structure.typeName()).incrementAndGet();
+                }
+                if (previous == null) {
+                    dbSize.incrementAndGet();
+                    // A new key is published with its value, so readers never observe an empty reference
+                    return new AtomicReference<>(wrapper);
+                }
+                // Overwriting a key keeps its access history
+                wrapper.setFrequency(previous.getFrequency());
+                ref.set(wrapper);
+                return ref;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (superseded[0] != null) {
+            // The new value supersedes the spilled one; dropped once the new value is published, so
+            // readers find one or the other, and only if a later eviction did not spill the key again
+            spillStore.remove(key, superseded[0]);
+        }
+        unshare(replaced[0]);
+        evictionStrategy.onAccess(key, wrapper);
+
+        if (replaced[0] == null) {
+            reindex(key);
+        }
+        changed(key);
+    }
+
+    /**
+     * Sets a key-value pair with no expiry.
+     */
+    public void set(String key, String value) {
+        set(key, value, 0); // 0 means no expiry
+    }
+
+    /**
+     * Sets several key-value pairs with no expiry, reserving memory once for all of them.
+     * Bulk loads use it to amortize the memory check over a batch.
+     */
+    public void mset(Map<String, String> entries) {
+        ValueWrapper[] wrappers = new ValueWrapper[entries.size()];
+        long[] entryDeltas = new long[entries.size()];
+        long memoryDelta = 0;
+        int i = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            wrappers[i] = stringWrapper(entry.getValue(), null);
+            AtomicReference<ValueWrapper> oldRef = keyValueStore.get(entry.getKey());
+            entryDeltas[i] = entrySize(entry.getKey(), wrappers[i]) - entrySize(entry.getKey(), oldRef != null ? oldRef.get() : null);
+            memoryDelta += entryDeltas[i++];
+        }
+        long reserved = reserveMemory(memoryDelta);
+        i = 0;
+        for (String key : entries.keySet()) {
+            // Each entry settles its share of the reservation; the last one whatever is left
+            long share = i < wrappers.length - 1 ? Math.max(0, Math.min(entryDeltas[i], reserved)) : reserved;
+            reserved -= share;
+            store(key, share(wrappers[i++]), share);
+        }
+    }
+
+    /**
+     * Gets the value for a key, updating access time if found.
+     */
+    public String get(String key) {
+        return read(key, true);
+    }
+
+    /**
+     * Gets the value for a key like GET, without counting as an access, a hit or a miss.
+     */
+    public String peek(String key) {
+        return read(key, false);
+    }
+
+    private String read(String key, boolean access) {
+        AtomicReference<ValueWrapper> ref = keyValueStore.get(key);
+        if (ref == null && spillStore != null) {
+            String value = readSpilled(key);
+            if (value != null) {
+                if (access) {
+                    stats.recordHit();
+                }
+                return value;
+            }
+            // A key leaves the tier only once it is back in memory, so look again
+            ref = keyValueStore.get(key);
+        }
+        if (ref != null) {
+            ValueWrapper wrapper = ref.get();
+            if (wrapper.isExpired()) {
+                if (removeExpired(key, wrapper)) {
+                    stats.recordExpiration();
+                }
+                if (access) {
+                    stats.recordMiss();
+                }
+                return null;
+            }
+            if (wrapper.structure != null) {
+                throw new WrongTypeException();
+            }
+            if (access) {
+                evictionStrategy.onAccess(key, wrapper);
+                stats.recordHit();
+            }
+            return stringValue(wrapper);
+        }
+        if (access) {
+            stats.recordMiss();
+        }
+        return null;
+    }
+
+    /**
+     * Deletes a key and updates memory usage.
+     */
+    public boolean del(String key) {
+        return deleteKey(key, false);
+    }
+
+    /**
+     * Deletes a key like DEL, but frees a large sorted set in the background: the key is gone
+     * when the call returns, and its memory is released shortly after.
+     */
+    public boolean unlink(String key) {
+        return deleteKey(key, true);
+    }
+
+    /**
+     * Deletes a key from memory and the disk tier, whatever its type. With lazy, a sorted set
+     * of more than lazyfreeThreshold members is freed by the lazy freer.
+     */
+    private boolean deleteKey(String key, boolean lazy) {
+        boolean removed = spillStore != null ? removeKeyAndSpilled(key) : removeKey(key);
+        SortedSetValue set = detachSortedSet(key);
+        if (set != null) {
+            if (lazy && set.size() > lazyfreeThreshold) {
+                lazyFreer.free(1, () -> freeSortedSet(set));
+            } else {
+                freeSortedSet(set);
+            }
+            removed = true;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the sorted set under a key from the keyspace and returns it, or null if there is none.
+     * Its members are still charged until it is freed.
+     */
+    private SortedSetValue detachSortedSet(String key) {
+        SortedSetValue[] detached = new SortedSetValue[1];
+        int slot = keyspaceGate.enter();
+        try {
+            sortedSets.computeIfPresent(key, (k, set) -> {
+                sortedSetRegistry.unregister(set);
+                detached[0] = set;
+                return null;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (detached[0] != null) {
+            reindex(key);
+            changed(key);
+        }
+        return detached[0];
+    }
+
+    /**
+     * Releases the members of a detached sorted set one by one. Members are removed as they are
+     * released, so that an eviction of the set running meanwhile never releases one twice.
+     */
+    private void freeSortedSet(SortedSetValue set) {
+        Map.Entry<Double, String> lowest;
+        while ((lowest = set.lowest()) != null) {
+            if (set.remove(lowest.getKey(), lowest.getValue())) {
+                currentMemoryUsed.addAndGet(calculateSortedSetMemoryDelta(set.getKey(), lowest.getValue(), null));
+            }
+        }
+    }
+
+    /**
+     * Removes every key. The keyspace is swapped for an empty one in O(1), along with its counters,
+     * indexes and disk tier, while no write is in progress, so that every write lands wholly before
+     * or after the flush; the detached keys are then released on the calling thread or, with async,
+     * by the lazy freer.
+     */
+    public void flush(boolean async) {
+        Runnable[] free = new Runnable[1];
+        long[] detachedKeys = new long[1];
+        keyspaceGate.swap(() -> {
+            // Captured under the gate, so that of two flushes racing each detaches its own keyspace
+            Map<String, AtomicReference<ValueWrapper>> strings = keyValueStore;
+            Map<String, SortedSetValue> sets = sortedSets;
+            KeyIndex index = keyIndex;
+            keyValueStore = new ConcurrentHashMap<>();
+            sortedSets = new ConcurrentHashMap<>();
+            dbSize = new AtomicLong(0);
+            structureCounts = newStructureCounts();
+            scanIndex = new ScanIndex();
+            if (index != null) {
+                keyIndex = new KeyIndex();
+            }
+            if (spillStore != null) {
+                spillStore.clear();
+            }
+            detachedKeys[0] = strings.size() + sets.size();
+            free[0] = () -> {
+                freeEntries(strings);
+                for (SortedSetValue set : sets.values()) {
+                    sortedSetRegistry.unregister(set);
+                    freeSortedSet(set);
+                }
+                if (index != null) {
+                    currentMemoryUsed.addAndGet(-index.bytes());
+                }
+            };
+        });
+        KeyChangeListener listener = keyChangeListener;
+        if (listener != null) {
+            listener.keyspaceFlushed();
+        }
+        if (async) {
+            lazyFreer.free(detachedKeys[0], free[0]);
+        } else {
+            free[0].run();
+        }
+        KeyIndex index = keyIndex;
+        if (index != null) {
+            stats.recordKeyIndexBytes(index.bytes());
+        }
+    }
+
+    /**
+     * Releases the memory and pooled values of the entries of a detached key-value store;
+     * the key counts were reset along with it.
+     */
+    private void freeEntries(Map<String, AtomicReference<ValueWrapper>> store) {
+        for (String key : store.keySet()) {
+            AtomicReference<ValueWrapper> ref = store.remove(key);
+            if (ref == null) {
+                continue;
+            }
+            ValueWrapper wrapper = ref.get();
+            currentMemoryUsed.addAndGet(-entrySize(key, wrapper));
+            unshare(wrapper);
+            // The key may have been written again since the flush
+            if (!keyValueStore.containsKey(key)) {
+                evictionStrategy.onRemove(key);
+            }
+        }
+    }
+
+    /**
+     * Removes a key from the key-value store, shared by DEL, expiry and eviction.
+     */
+    private boolean removeKey(String key) {
+        ValueWrapper[] removed = new ValueWrapper[1];
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.computeIfPresent(key, (k, ref) -> {
+                removed[0] = ref.get();
+                uncount(k, removed[0]);
+                return null;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (removed[0] == null) {
+            return false;
+        }
+        release(key, removed[0]);
+        return true;
+    }
+
+    /**
+     * Removes a key from memory and the disk tier. The tier is checked under the key's lock,
+     * so that a concurrent promotion of the key cannot bring it back.
+     */
+    private boolean removeKeyAndSpilled(String key) {
+        ValueWrapper[] removed = new ValueWrapper[1];
+        boolean[] unspilled = new boolean[1];
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.compute(key, (k, ref) -> {
+                removed[0] = ref != null ? ref.get() : null;
+                unspilled[0] = spillStore.remove(k) != null;
+                if (removed[0] != null) {
+                    uncount(k, removed[0]);
+                }
+                return null;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (removed[0] != null) {
+            release(key, removed[0]);
+        } else if (unspilled[0]) {
+            reindex(key);
+            changed(key);
+        }
+        return removed[0] != null || unspilled[0];
+    }
+
+    /**
+     * Removes a key found expired, unless a concurrent write replaced its value meanwhile.
+     */
+    private boolean removeExpired(String key, ValueWrapper expired) {
+        ValueWrapper[] removed = new ValueWrapper[1];
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.computeIfPresent(key, (k, ref) -> {
+                if (ref.get() != expired) {
+                    return ref;
+                }
+                removed[0] = expired;
+                uncount(k, expired);
+                return null;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (removed[0] == null) {
+            return false;
+        }
+        release(key, removed[0]);
+        return true;
+    }
+
+    /**
+     * Releases the memory and key counts of a value removed from the key-value store. Called under
+     * the key's lock, inside the keyspace gate, so that the counts released are those of the
+     * keyspace the value was removed from.
+     */
+    private void uncount(String key, ValueWrapper wrapper) {
+        currentMemoryUsed.addAndGet(-entrySize(key, wrapper));
+        if (wrapper.structure != null) {
+            structureCounts.get(wrapper.structure.typeName()).decrementAndGet();
+        }
+        dbSize.decrementAndGet();
+    }
+
+    /**
+     * Releases the pooled value and eviction tracking of a value removed from the key-value store,
+     * once uncounted, and updates the indexes.
+     */
+    private void release(String key, ValueWrapper wrapper) {
+        unshare(wrapper);
+        evictionStrategy.onRemove(key);
+        reindex(key);
+        changed(key);
+    }
+
+    /**
+     * Brings the scan index and the key index in line with whether a key exists; called after
+     * every creation and removal of the key, once it is visible, including a move to the disk tier.
+     * Each change is checked against the keyspace after it is made and redone until the two agree,
+     * so that of a creation and a removal racing, the last to change the indexes sees the outcome:
+     * no entry, nor bytes charged for it, outlives the key, and no live key is left out.
+     */
+    private void reindex(String key) {
+        // Inside the gate, so that the indexes and the keyspace checked are those of one generation
+        int slot = keyspaceGate.enter();
+        try {
+            boolean present = keyExists(key);
+            while (true) {
+                if (present) {
+                    scanIndex.add(key);
+                } else {
+                    scanIndex.remove(key);
+                }
+                if (keyIndex != null) {
+                    chargeKeyIndex(present ? keyIndex.add(key) : keyIndex.remove(key));
+                }
+                boolean stillPresent = keyExists(key);
+                if (stillPresent == present) {
+                    return;
+                }
+                present = stillPresent;
+            }
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+    }
+
+    /**
+     * Returns true if a key holds a value of any type, in memory or on disk, expired or not.
+     */
+    private boolean keyExists(String key) {
+        return keyValueStore.containsKey(key) || sortedSets.containsKey(key)
+                || (spillStore != null && spillStore.get(key) != null);
+    }
+
+    /**
+     * Charges a change in the key index's footprint against the memory limit. Charged after the
+     * fact, like the key it indexes, so usage may briefly exceed the limit by a few index nodes.
+     */
+    private void chargeKeyIndex(long delta) {
+        if (delta != 0) {
+            stats.recordMemoryUsage(currentMemoryUsed.addAndGet(delta));
+            stats.recordKeyIndexBytes(keyIndex.bytes());
+        }
+    }
+
+    /**
+     * Tells the key change listener, if any, that a key was written or removed.
+     */
+    private void changed(String key) {
+        KeyChangeListener listener = keyChangeListener;
+        if (listener != null) {
+            listener.keyChanged(key);
+        }
+    }
+
+    /**
+     * Reads a value spilled to the disk tier, or returns null if the key is not there.
+     * With promotion on, the value moves back into memory if that keeps usage below the high watermark.
+     */
+    private String readSpilled(String key) {
+        SpilledValue spilled = spillStore.get(key);
+        if (spilled == null) {
+            return null;
+        }
+        if (spilled.isExpired()) {
+            if (spillStore.remove(key, spilled)) {
+                reindex(key);
+                changed(key);
+                stats.recordExpiration();
+            }
+            return null;
+        }
+        String value = spillStore.read(spilled);
+        // Checked first on the raw length, so that a read finding no room does not compress the value
+        if (promoteSpilledOnRead && currentMemoryUsed.get() + key.length() + value.length() < highWatermark) {
+            ValueWrapper wrapper = stringWrapper(value, spilled.getExpiryTime());
+            // Reserved without waiting, as the read may as well leave the value on disk
+            long reserved = tryReserveMemory(entrySize(key, wrapper), highWatermark);
+            if (reserved > 0) {
+                promote(key, spilled, wrapper, reserved);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Moves a spilled value back into memory. The tier entry is claimed under the key's lock, so a
+     * concurrent write or delete of the key always wins, and dropped once the value is in memory,
+     * so readers find the key in one place or the other while it moves. The caller has reserved
+     * memory for the value; the reservation is settled as by store. Returns false if the value was
+     * left where it was.
+     */
+    private boolean promote(String key, SpilledValue spilled, ValueWrapper value, long reserved) {
+        ValueWrapper wrapper = share(value);
+        boolean[] promoted = new boolean[1];
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.compute(key, (k, ref) -> {
+                if (ref != null || spillStore.get(k) != spilled) {
+                    // Written, deleted or promoted meanwhile
+                    return ref;
+                }
+                promoted[0] = true;
+                stats.recordMemoryUsage(currentMemoryUsed.addAndGet(entrySize(k, wrapper) - reserved));
+                dbSize.incrementAndGet();
+                return new AtomicReference<>(wrapper);
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (!promoted[0]) {
+            unshare(wrapper);
+            unreserve(reserved);
+            return false;
+        }
+        // Fails harmlessly if an eviction spilled the key again meanwhile
+        spillStore.remove(key, spilled);
+        evictionStrategy.onAccess(key, wrapper);
+        reindex(key);
+        stats.recordPromotion();
+        return true;
+    }
+
+    /**
+     * Loads a spilled key back into memory before a read-modify-write, reserving memory for it as
+     * a write does.
+     * @throws MemoryLimitExceededException if eviction cannot make room for the value in time
+     */
+    private void promoteForWrite(String key) {
+        SpilledValue spilled;
+        // Retried while the value is still on disk, as compaction may have moved it meanwhile
+        while ((spilled = spillStore.get(key)) != null && !keyValueStore.containsKey(key)) {
+            if (spilled.isExpired()) {
+                if (spillStore.remove(key, spilled)) {
+                    reindex(key);
+                    changed(key);
+                }
+            } else {
+                ValueWrapper wrapper = stringWrapper(spillStore.read(spilled), spilled.getExpiryTime());
+                if (promote(key, spilled, wrapper, reserveMemory(entrySize(key, wrapper)))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Throws WrongTypeException if a sorted set is stored under a key. Called under the key's lock
+     * in keyValueStore, which a new sorted set is created under too, so that a structure and a
+     * sorted set never end up under the same key.
+     */
+    private void checkNoSortedSet(String key) {
+        if (sortedSets.containsKey(key)) {
+            throw new WrongTypeException();
+        }
+    }
+
+    /**
+     * Throws WrongTypeException if a key missing from memory holds a spilled string value.
+     */
+    private void checkNotSpilled(String key) {
+        if (spillStore != null) {
+            SpilledValue spilled = spillStore.get(key);
+            if (spilled != null && !spilled.isExpired()) {
+                throw new WrongTypeException();
+            }
+        }
+    }
+
+    /**
+     * Increments the value of a key by 1.
+     */
+    public long incr(String key) {
+        if (spillStore != null) {
+            promoteForWrite(key);
+        }
+        ValueWrapper[] written = new ValueWrapper[2];
+        int slot = keyspaceGate.enter();
+        try {
+            keyValueStore.compute(key, (k, oldRef) -> {
+                if (oldRef != null && oldRef.get().structure != null) {
+                    throw new WrongTypeException();
+                }
+                ValueWrapper previous = oldRef != null ? oldRef.get() : null;
+                String previousValue = previous != null ? stringValue(previous) : null;
+                String oldValue = previousValue != null ? previousValue : "0";
+                long newValue;
+                try {
+                    newValue = Long.parseLong(oldValue) + 1;
+                } catch (NumberFormatException e) {
+                    newValue = 1;
+                }
+                String value = String.valueOf(newValue);
+                ValueWrapper wrapper = new ValueWrapper(value);
+                written[0] = previous;
+                written[1] = wrapper;
+                stats.recordMemoryUsage(currentMemoryUsed.addAndGet(entrySize(k, wrapper) - entrySize(k, previous)));
+                if (previous == null) {
+                    dbSize.incrementAndGet();
+                    return new AtomicReference<>(wrapper);
+                }
+                // The key keeps its reference, so a concurrent SET replacing it under the same lock
+                // always sees this value
+                wrapper.setFrequency(previous.getFrequency());
+                oldRef.set(wrapper);
+                return oldRef;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        unshare(written[0]);
+        if (written[0] == null) {
+            reindex(key);
+        }
+        changed(key);
+        evictionStrategy.onAccess(key, written[1]);
+        return Long.parseLong(written[1].value);
+    }
+
+    // ===== Hash Methods =====
+
+    /**
+     * Sets fields of a hash, creating the hash if needed. Returns the number of fields added.
+     */
+    public long hset(String key, Map<String, String> fields) {
+        HashValue existing = readStructure(key, HashValue.class, false);
+        long memoryDelta = existing == null ? key.length() : 0;
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            String oldValue = existing != null ? existing.get(field.getKey()) : null;
+            memoryDelta += calculateMemoryDelta(field.getKey(), oldValue, field.getValue());
+        }
+        long reserved = reserveMemory(memoryDelta);
+
+        long[] added = new long[1];
+        updateStructure(key, HashValue.class, this::newHash, hash -> {
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                if (hash.put(field.getKey(), field.getValue()) == null) {
+                    added[0]++;
+                }
+            }
+        }, reserved);
+        return added[0];
+    }
+
+    /**
+     * Returns the value of a field of a hash, or null if the hash or the field does not exist.
+     */
+    public String hget(String key, String field) {
+        HashValue hash = readStructure(key, HashValue.class, true);
+        return hash != null ? hash.get(field) : null;
+    }
+
+    /**
+     * Returns the values of fields of a hash, with null for each missing field.
+     */
+    public List<String> hmget(String key, List<String> fields) {
+        HashValue hash = readStructure(key, HashValue.class, true);
+        List<String> values = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            values.add(hash != null ? hash.get(field) : null);
+        }
+        return values;
+    }
+
+    /**
+     * Returns all fields and values of a hash, empty if the hash does not exist.
+     */
+    public Map<String, String> hgetall(String key) {
+        HashValue hash = readStructure(key, HashValue.class, true);
+        return hash != null ? hash.entries() : Collections.emptyMap();
+    }
+
+    /**
+     * Atomically adds increment to the integer value of a field of a hash, creating the hash
+     * and the field if needed. Returns the new value.
+     */
+    public long hincrby(String key, String field, long increment) {
+        HashValue existing = readStructure(key, HashValue.class, false);
+        long reserved = existing == null || existing.get(field) == null
+                ? reserveMemory((existing == null ? key.length() : 0) + calculateMemoryDelta(field, null, String.valueOf(increment)))
+                : 0;
+
+        long[] result = new long[1];
+        updateStructure(key, HashValue.class, this::newHash,
+                hash -> result[0] = hash.incrementBy(field, increment), reserved);
+        return result[0];
+    }
+
+    private HashValue newHash() {
+        return new HashValue(hashMaxPackedEntries, hashMaxPackedValue);
+    }
+
+    // ===== HyperLogLog Methods =====
+
+    /**
+     * Adds elements to a HyperLogLog, creating it if needed.
+     * Returns true if the HyperLogLog was created or its estimate may have changed.
+     */
+    public boolean pfadd(String key, List<String> elements) {
+        HyperLogLog existing = readStructure(key, HyperLogLog.class, false);
+        // A new counter starts with an empty sparse array; either may convert to the dense encoding
+        HyperLogLog counter = existing != null ? existing : newHyperLogLog();
+        long growth = (existing == null ? key.length() + counter.dataSize() : 0) + counter.addGrowthBound(elements.size());
+        long reserved = growth > 0 ? reserveMemory(growth) : 0;
+
+        boolean[] changed = new boolean[1];
+        long actualDelta = updateStructure(key, HyperLogLog.class, this::newHyperLogLog, hll -> {
+            for (String element : elements) {
+                changed[0] |= hll.add(element);
+            }
+        }, reserved);
+        // Creating the counter counts as a change, as in Redis
+        return changed[0] || actualDelta > 0;
+    }
+
+    /**
+     * Returns the estimated cardinality of a HyperLogLog, or of the union of several.
+     * Missing keys count as empty.
+     */
+    public long pfcount(List<String> keys) {
+        if (keys.size() == 1) {
+            HyperLogLog hll = readStructure(keys.get(0), HyperLogLog.class, true);
+            return hll != null ? hll.cardinality() : 0;
+        }
+        HyperLogLog union = new HyperLogLog(0);
+        for (String key : keys) {
+            HyperLogLog hll = readStructure(key, HyperLogLog.class, true);
+            if (hll != null) {
+                union.merge(hll);
+            }
+        }
+        return union.cardinality();
+    }
+
+    /**
+     * Merges HyperLogLogs into the one under destKey, creating it if needed. The destination
+     * keeps its own registers, so it ends up counting the union of itself and the sources.
+     */
+    public void pfmerge(String destKey, List<String> sourceKeys) {
+        List<HyperLogLog> sources = new ArrayList<>(sourceKeys.size());
+        for (String key : sourceKeys) {
+            HyperLogLog hll = readStructure(key, HyperLogLog.class, true);
+            if (hll != null) {
+                sources.add(hll);
+            }
+        }
+        mergeHyperLogLogs(destKey, sources);
+    }
+
+    /**
+     * Merges registers packed as in the dense encoding, as exported by dump, into the HyperLogLog
+     * under key, creating it if needed.
+     * @throws IllegalArgumentException if the registers are not a valid packed encoding
+     */
+    public void pfrestore(String key, byte[] registers) {
+        mergeHyperLogLogs(key, List.of(HyperLogLog.fromPackedRegisters(registers)));
+    }
+
+    private void mergeHyperLogLogs(String destKey, List<HyperLogLog> sources) {
+        HyperLogLog existing = readStructure(destKey, HyperLogLog.class, false);
+        // Merging may convert the destination to the dense encoding
+        long reserved = existing == null || existing.getEncoding() == HyperLogLog.Encoding.SPARSE
+                ? reserveMemory((existing == null ? destKey.length() : 0) + HyperLogLog.DENSE_BYTES)
+                : 0;
+
+        updateStructure(destKey, HyperLogLog.class, this::newHyperLogLog, hll -> {
+            for (HyperLogLog source : sources) {
+                if (source != hll) {
+                    hll.merge(source);
+                }
+            }
+        }, reserved);
+    }
+
+    private HyperLogLog newHyperLogLog() {
+        return new HyperLogLog(hllSparseMaxBytes);
+    }
+
+    // ===== Bitmap Methods =====
+
+    /**
+     * Sets or clears the bit at offset in a bitmap, creating it if needed, and returns the bit's
+     * previous value.
+     */
+    public int setbit(String key, long offset, int value) {
+        checkBitOffset(offset);
+        if (value != 0 && value != 1) {
+            throw new IllegalArgumentException("bit is not an integer or out of range");
+        }
+        BitmapValue existing = readStructure(key, BitmapValue.class, false);
+        long allocated = existing != null ? existing.dataSize() : 0;
+        long needed = ((offset >>> 6) + 1) * Long.BYTES;
+        // The bitmap grows to the offset or by half again, whichever is more
+        long reserved = existing == null || needed > allocated
+                ? reserveMemory((existing == null ? key.length() : 0) + Math.max(needed, allocated + allocated / 2) - allocated)
+                : 0;
+
+        int[] previous = new int[1];
+        updateStructure(key, BitmapValue.class, BitmapValue::new,
+                bitmap -> previous[0] = bitmap.setBit(offset, value), reserved);
+        return previous[0];
+    }
+
+    /**
+     * Sets the bits set in bytes, laid out as exported by dump, from byteOffset on in the bitmap
+     * under key, creating it if needed. The bitmap grows to end no earlier than the last byte.
+     */
+    public void bitrestore(String key, long byteOffset, byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("bitmap chunk is empty");
+        }
+        if (byteOffset < 0 || byteOffset > (BitmapValue.MAX_OFFSET + 1) / 8 - bytes.length) {
+            throw new IllegalArgumentException("bit offset is not an integer or out of range");
+        }
+        BitmapValue existing = readStructure(key, BitmapValue.class, false);
+        long allocated = existing != null ? existing.dataSize() : 0;
+        long needed = (byteOffset + bytes.length + 7) / 8 * Long.BYTES;
+        long reserved = existing == null || needed > allocated
+                ? reserveMemory((existing == null ? key.length() : 0) + Math.max(needed, allocated + allocated / 2) - allocated)
+                : 0;
+
+        updateStructure(key, BitmapValue.class, BitmapValue::new, bitmap -> bitmap.or(byteOffset, bytes), reserved);
+    }
+
+    /**
+     * Returns the bit at offset in a bitmap; bits past its end, and of a missing key, are 0.
+     */
+    public int getbit(String key, long offset) {
+        checkBitOffset(offset);
+        BitmapValue bitmap = readStructure(key, BitmapValue.class, true);
+        return bitmap != null ? bitmap.getBit(offset) : 0;
+    }
+
+    /**
+     * Counts the set bits of a bitmap between start and end, both inclusive, counted in bytes
+     * or, with bitUnit, in bits. Negative indexes count from the end.
+     */
+    public long bitcount(String key, long start, long end, boolean bitUnit) {
+        BitmapValue bitmap = readStructure(key, BitmapValue.class, true);
+        return bitmap != null ? bitmap.count(start, end, bitUnit) : 0;
+    }
+
+    /**
+     * Combines bitmaps into destKey, replacing whatever it held, and returns the length of the
+     * result in bytes: that of the longest source. Missing keys read as empty bitmaps, and an
+     * empty result deletes destKey. The destination is replaced under its key's lock, so a
+     * concurrent SETBIT to it lands wholly before or after the replacement.
+     * @throws WrongTypeException if destKey holds a sorted set
+     */
+    public long bitop(BitOperation operation, String destKey, List<String> sourceKeys) {
+        List<BitmapValue> sources = new ArrayList<>(sourceKeys.size());
+        for (String key : sourceKeys) {
+            BitmapValue bitmap = readStructure(key, BitmapValue.class, true);
+            sources.add(bitmap != null ? bitmap : new BitmapValue());
+        }
+        BitmapValue result = BitmapValue.combine(operation, sources);
+        if (result.byteLength() == 0) {
+            removeKey(destKey);
+            return 0;
+        }
+
+        AtomicReference<ValueWrapper> oldRef = keyValueStore.get(destKey);
+        long reserved = reserveMemory(destKey.length() + result.dataSize() - entrySize(destKey, oldRef != null ? oldRef.get() : null));
+        try {
+            store(destKey, new ValueWrapper(result), reserved);
+        } catch (WrongTypeException e) {
+            // destKey holds a sorted set
+            unreserve(reserved);
+            throw e;
+        }
+        return result.byteLength();
+    }
+
+    private static void checkBitOffset(long offset) {
+        if (offset < 0 || offset > BitmapValue.MAX_OFFSET) {
+            throw new IllegalArgumentException("bit offset is not an integer or out of range");
+        }
+    }
+
+    // ===== Time Series Methods =====
+
+    /**
+     * Appends a sample to a time series, creating it with the default retention period if needed.
+     */
+    public void tsAdd(String key, long timestamp, double value) {
+        tsAdd(key, timestamp, value, timeSeriesRetentionMillis);
+    }
+
+    /**
+     * Appends a sample to a time series, creating it with the given retention period, in
+     * milliseconds and 0 keeping samples forever, if needed. An existing series keeps its own.
+     * @throws IllegalArgumentException if the timestamp is not after the latest sample
+     */
+    public void tsAdd(String key, long timestamp, double value, long retentionMillis) {
+        if (retentionMillis < 0) {
+            throw new IllegalArgumentException("retention must not be negative");
+        }
+        TimeSeries existing = readStructure(key, TimeSeries.class, false);
+        long growth = existing != null ? existing.addGrowthBound() : key.length() + TimeSeries.NEW_CHUNK_BYTES;
+        long reserved = growth > 0 ? reserveMemory(growth) : 0;
+
+        boolean[] trimmed = new boolean[1];
+        updateStructure(key, TimeSeries.class,
+                () -> new TimeSeries(timeSeriesChunkSamples, retentionMillis), series -> {
+                    series.add(timestamp, value);
+                    trimmed[0] = series.getRetentionMillis() > 0;
+                }, reserved);
+        if (trimmed[0]) {
+            // Re-registering on every add undoes a concurrent prune by the trimmer
+            timeSeriesKeys.add(key);
+        }
+    }
+
+    /**
+     * Returns the samples of a time series between from and to, both inclusive.
+     */
+    public List<TimeSeries.Sample> tsRange(String key, long from, long to) {
+        TimeSeries series = readStructure(key, TimeSeries.class, true);
+        return series != null ? series.range(from, to) : Collections.emptyList();
+    }
+
+    /**
+     * Aggregates the samples of a time series between from and to, both inclusive, over
+     * buckets of bucketMillis aligned to the epoch, one sample per non-empty bucket.
+     */
+    public List<TimeSeries.Sample> tsAggregate(String key, long from, long to,
+                                               TimeSeries.Aggregation aggregation, long bucketMillis) {
+        TimeSeries series = readStructure(key, TimeSeries.class, true);
+        return series != null ? series.aggregate(from, to, aggregation, bucketMillis) : Collections.emptyList();
+    }
+
+    /**
+     * Drops the chunks of time series past their retention period. Run by the trimmer.
+     */
+    void trimTimeSeries() {
+        for (String key : timeSeriesKeys) {
+            long[] memoryDelta = new long[1];
+            AtomicReference<ValueWrapper> ref;
+            int slot = keyspaceGate.enter();
+            try {
+                ref = keyValueStore.computeIfPresent(key, (k, oldRef) -> {
+                    ValueWrapper wrapper = oldRef.get();
+                    if (wrapper.structure instanceof TimeSeries) {
+                        long before = entrySize(k, wrapper);
+                        ((TimeSeries) wrapper.structure).trim();
+                        memoryDelta[0] = entrySize(k, wrapper) - before;
+                    }
+                    return oldRef;
+                });
+            } finally {
+                keyspaceGate.exit(slot);
+            }
+            if (ref == null || !(ref.get().structure instanceof TimeSeries)) {
+                // Deleted or replaced since it was registered
+                timeSeriesKeys.remove(key);
+            }
+            currentMemoryUsed.addAndGet(memoryDelta[0]);
+        }
+    }
+
+    // ===== Structured Value Methods =====
+
+    /**
+     * Applies a write to the structured value under a key, creating it if needed, charges the
+     * change in memory in place of the reserved bytes and returns it. Runs inside compute so that
+     * eviction and other writers to the key wait for it. A failed write hands the reservation back.
+     * @throws WrongTypeException if the key holds a value of another type
+     */
+    private <T extends StructuredValue> long updateStructure(String key, Class<T> type, Supplier<T> factory,
+                                                             Consumer<T> update, long reserved) {
+        long[] memoryDelta = new long[1];
+        boolean[] created = new boolean[1];
+        boolean[] charged = new boolean[1];
+        AtomicReference<ValueWrapper> ref;
+        int slot = keyspaceGate.enter();
+        try {
+            ref = keyValueStore.compute(key, (k, oldRef) -> {
+                ValueWrapper wrapper = oldRef != null ? oldRef.get() : null;
+                if (wrapper != null && !type.isInstance(wrapper.structure)) {
+                    throw new WrongTypeException();
+                }
+                created[0] = wrapper == null;
+                if (created[0]) {
+                    checkNotSpilled(k);
+                    checkNoSortedSet(k);
+                    wrapper = new ValueWrapper(factory.get());
+                }
+                long before = entrySize(k, created[0] ? null : wrapper);
+                update.accept(type.cast(wrapper.structure));
+                memoryDelta[0] = entrySize(k, wrapper) - before;
+                stats.recordMemoryUsage(currentMemoryUsed.addAndGet(memoryDelta[0] - reserved));
+                charged[0] = true;
+                if (created[0]) {
+                    dbSize.incrementAndGet();
+                    structureCounts.get(wrapper.structure.typeName()).incrementAndGet();
+                    return new AtomicReference<>(wrapper);
+                }
+                return oldRef;
+            });
+        } finally {
+            keyspaceGate.exit(slot);
+            if (!charged[0]) {
+                unreserve(reserved);
+            }
+        }
+        if (created[0]) {
+            reindex(key);
+        }
+        changed(key);
+        evictionStrategy.onAccess(key, ref.get());
+        return memoryDelta[0];
+    }
+
+    /**
+     * Returns the structured value under a key, or null if there is none, removing it if it expired.
+     * With access set, the read marks the key as accessed for eviction.
+     * @throws WrongTypeException if the key holds a value of another type
+     */
+    private <T extends StructuredValue> T readStructure(String key, Class<T> type, boolean access) {
+        AtomicReference<ValueWrapper> ref = keyValueStore.get(key);
+        if (ref == null) {
+            checkNotSpilled(key);
+            return null;
+        }
+        ValueWrapper wrapper = ref.get();
+        if (wrapper.isExpired()) {
+            if (removeExpired(key, wrapper)) {
+                stats.recordExpiration();
+            }
+            return null;
+        }
+        if (!type.isInstance(wrapper.structure)) {
+            throw new WrongTypeException();
+        }
+        if (access) {
+            evictionStrategy.onAccess(key, wrapper);
+        }
+        return type.cast(wrapper.structure);
+    }
+
+    // ===== Sorted Set Methods =====
+
+    /**
+     * Adds a value to a sorted set with a score, or updates the score of an existing value.
+     */
+    public boolean zadd(String key, double score, String value) {
+        SortedSetValue existing = sortedSets.get(key);
+        String oldValue = existing != null && existing.score(value) != null ? value : null;
+        
+        // Calculate memory delta
+        long memoryDelta = calculateSortedSetMemoryDelta(key, oldValue, value);
+        
+        logger.debug("ZADD key: {}, Current memory: {}, Delta: {}, Max: {}", 
+                    key, currentMemoryUsed.get(), memoryDelta, maxMemory);
+
+        long reserved = reserveMemory(memoryDelta);
+        
+        Double previous;
+        try {
+            previous = updateSortedSet(key, set -> set.put(value, score));
+        } catch (RuntimeException e) {
+            unreserve(reserved);
+            throw e;
+        }
+        // Account against the actual outcome, which a concurrent writer may have changed
+        stats.recordMemoryUsage(currentMemoryUsed.addAndGet(
+                calculateSortedSetMemoryDelta(key, previous != null ? value : null, value) - reserved));
+        return true;  // Always return true to match Redis behavior
+    }
+
+    /**
+     * Atomically adds increment to the score of a value, adding the value with score increment if absent.
+     * Returns the new score.
+     */
+    public double zincrby(String key, double increment, String value) {
+        SortedSetValue existing = sortedSets.get(key);
+        long reserved = existing == null || existing.score(value) == null
+                ? reserveMemory(calculateSortedSetMemoryDelta(key, null, value))
+                : 0;
+
+        Double previous;
+        try {
+            previous = updateSortedSet(key, set -> set.incrementBy(value, increment));
+        } catch (RuntimeException e) {
+            unreserve(reserved);
+            throw e;
+        }
+        // Account against the actual outcome, which a concurrent writer may have changed
+        stats.recordMemoryUsage(currentMemoryUsed.addAndGet(
+                (previous == null ? calculateSortedSetMemoryDelta(key, null, value) : 0) - reserved));
+        // Computed as the set did, so that an increment of -0.0 returns 0
+        return (previous != null ? previous : 0) + increment;
+    }
+
+    /**
+     * Applies a write to the sorted set under a key, creating the set if needed.
+     * Runs inside compute so that eviction cannot drop the set while it is being written.
+     * A new set is created under the key's lock in keyValueStore, where structure writes check
+     * for a sorted set, so that the two never end up under the same key.
+     * @throws WrongTypeException if the key holds a hash, HyperLogLog, bitmap or time series
+     */
+    private <T> T updateSortedSet(String key, Function<SortedSetValue, T> update) {
+        AtomicReference<T> result = new AtomicReference<>();
+        boolean[] created = new boolean[1];
+        BiFunction<String, SortedSetValue, SortedSetValue> write = (k, set) -> {
+            SortedSetValue target = set != null ? set : new SortedSetValue(k, sortedSetMaxPackedEntries, sortedSetMaxPackedValue);
+            result.set(update.apply(target));
+            target.touch();
+            if (set == null) {
+                sortedSetRegistry.register(target);
+                created[0] = true;
+            }
+            return target;
+        };
+        int slot = keyspaceGate.enter();
+        try {
+            if (sortedSets.computeIfPresent(key, write) == null) {
+                keyValueStore.compute(key, (k, ref) -> {
+                    ValueWrapper wrapper = ref != null ? ref.get() : null;
+                    if (wrapper != null && wrapper.structure != null && !wrapper.isExpired()) {
+                        throw new WrongTypeException();
+                    }
+                    sortedSets.compute(k, write);
+                    return ref;
+                });
+            }
+        } finally {
+            keyspaceGate.exit(slot);
+        }
+        if (created[0]) {
+            reindex(key);
+        }
+        changed(key);
+        return result.get();
+    }
+
+    /**
+     * Returns the sorted set under a key, marking it as accessed, or null if there is none.
+     */
+    private SortedSetValue readSortedSet(String key) {
+        SortedSetValue set = sortedSets.get(key);
+        if (set != null) {
+            set.touch();
+        }
+        return set;
+    }
+
+    /**
+     * Returns the number of elements in a sorted set.
+     */
+    public long zcard(String key) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.size() : 0;
+    }
+
+    /**
+     * Returns the rank of a value in a sorted set, ordered from the lowest score.
+     */
+    public Long zrank(String key, String value) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.rank(value) : null;
+    }
+
+    /**
+     * Returns the rank of a value in a sorted set, ordered from the highest score.
+     */
+    public Long zrevrank(String key, String value) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.reverseRank(value) : null;
+    }
+
+    /**
+     * Returns the score of a value in a sorted set, or null if it is not a member.
+     */
+    public Double zscore(String key, String value) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.score(value) : null;
+    }
+
+    /**
+     * Returns a range of values from a sorted set.
+     */
+    public List<String> zrange(String key, long start, long end) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.range(start, end) : Collections.emptyList();
+    }
+
+    /**
+     * Returns the values of a sorted set with a score within the range, with their scores, lowest first.
+     */
+    public List<Map.Entry<String, Double>> zrangeByScore(String key, ScoreRange range) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.rangeByScore(range) : Collections.emptyList();
+    }
+
+    /**
+     * Returns the number of values of a sorted set with a score within the range.
+     */
+    public long zcount(String key, ScoreRange range) {
+        SortedSetValue set = readSortedSet(key);
+        return set != null ? set.count(range) : 0;
+    }
+
+    // ===== Keyspace Iteration Methods =====
+
+    /**
+     * Returns the keys found examining about count keys from the cursor on, filtered by pattern and
+     * type when not null, and the cursor to continue from. Each call does bounded work, and a full
+     * iteration returns every key present throughout it exactly once; keys written meanwhile may or
+     * may not be returned. Pages may be empty while the iteration is not complete.
+     * Keys are walked in hash order, the cursor being a position in it. With the key index, a
+     * pattern starting with a literal prefix walks just the keys under the prefix instead, in
+     * lexicographic order, the cursor encoding the last key examined.
+     */
+    public ScanResult<String> scan(String cursor, String pattern, int count, String type) {
+        GlobPattern glob = pattern != null ? new GlobPattern(pattern) : null;
+        String prefix = glob != null && keyIndex != null ? glob.literalPrefix() : "";
+        List<String> candidates = new ArrayList<>();
+        String next;
+        if (!prefix.isEmpty()) {
+            next = scanPrefix(prefix, cursor, Math.max(count, 1), candidates);
+        } else {
+            long position;
+            try {
+                position = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            if (position < 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            next = Long.toString(scanIndex.scan(position, Math.max(count, 1), candidates));
+        }
+        List<String> keys = new ArrayList<>();
+        for (String key : candidates) {
+            if (glob != null && !glob.matches(key)) {
+                continue;
+            }
+            String keyType = typeOf(key);
+            if (keyType != null && (type == null || type.equalsIgnoreCase(keyType))) {
+                keys.add(key);
+            }
+        }
+        return new ScanResult<>(next, keys);
+    }
+
+    /**
+     * Adds to candidates up to count keys under prefix following the cursor, and returns the next cursor.
+     */
+    private String scanPrefix(String prefix, String cursor, int count, List<String> candidates) {
+        String after = null;
+        if (!cursor.equals("0")) {
+            if (!cursor.startsWith("k")) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            try {
+                after = new String(Base64.getUrlDecoder().decode(cursor.substring(1)), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+        }
+        keyIndex.collect(prefix, after, count, candidates);
+        if (candidates.size() < count) {
+            return "0";
+        }
+        String last = candidates.get(candidates.size() - 1);
+        return "k" + Base64.getUrlEncoder().withoutPadding().encodeToString(last.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns every key matching pattern. With the key index, a pattern starting with a literal
+     * prefix costs time proportional to the keys under the prefix; otherwise it walks the keyspace.
+     */
+    public List<String> keys(String pattern) {
+        GlobPattern glob = new GlobPattern(pattern);
+        List<String> candidates = new ArrayList<>();
+        if (keyIndex != null) {
+            keyIndex.collect(glob.literalPrefix(), null, Integer.MAX_VALUE, candidates);
+        } else {
+            scanIndex.scan(0, Integer.MAX_VALUE, candidates);
+        }
+        List<String> keys = new ArrayList<>();
+        for (String key : candidates) {
+            if (glob.matches(key) && typeOf(key) != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Deletes every key starting with prefix and returns how many were deleted. Keys are deleted
+     * in batches, so memory stays bounded; keys created under the prefix meanwhile may survive.
+     * Without the key index, finding them walks the keyspace. Large sorted sets are freed as UNLINK does.
+     */
+    public long delPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            throw new IllegalArgumentException("prefix must not be empty");
+        }
+        long deleted = 0;
+        List<String> batch = new ArrayList<>();
+        if (keyIndex != null) {
+            String after = null;
+            do {
+                batch.clear();
+                keyIndex.collect(prefix, after, DELETE_BATCH, batch);
+                for (String key : batch) {
+                    if (deleteKey(key, true)) {
+                        deleted++;
+                    }
+                }
+                after = batch.isEmpty() ? null : batch.get(batch.size() - 1);
+            } while (batch.size() == DELETE_BATCH);
+        } else {
+            long cursor = 0;
+            do {
+                batch.clear();
+                cursor = scanIndex.scan(cursor, DELETE_BATCH, batch);
+                for (String key : batch) {
+                    if (key.startsWith(prefix) && deleteKey(key, true)) {
+                        deleted++;
+                    }
+                }
+            } while (cursor != 0);
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns up to count members of a sorted set following the cursor, in score order, with their
+     * scores, filtered by pattern when not null, and the cursor to continue from. The cursor encodes
+     * the last (score, member) returned, so it needs no server-side state and costs O(log n) to resume.
+     */
+    public ScanResult<Map.Entry<String, Double>> zscan(String key, String cursor, String pattern, int count) {
+        SortedSetValue set = readSortedSet(key);
+        if (set == null) {
+            return new ScanResult<>("0", Collections.emptyList());
+        }
+        double score = Double.NEGATIVE_INFINITY;
+        String member = null;
+        if (!cursor.equals("0")) {
+            int separator = cursor.indexOf(':');
+            try {
+                score = Double.longBitsToDouble(Long.parseUnsignedLong(cursor.substring(0, separator), 16));
+                member = new String(Base64.getUrlDecoder().decode(cursor.substring(separator + 1)), StandardCharsets.UTF_8);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+        }
+        int limit = Math.max(count, 1);
+        List<Map.Entry<String, Double>> entries = set.entriesAfter(score, member, limit);
+        String next = "0";
+        if (entries.size() == limit) {
+            Map.Entry<String, Double> last = entries.get(entries.size() - 1);
+            next = Long.toHexString(Double.doubleToLongBits(last.getValue())) + ":"
+                    + Base64.getUrlEncoder().withoutPadding().encodeToString(last.getKey().getBytes(StandardCharsets.UTF_8));
+        }
+        if (pattern != null) {
+            GlobPattern glob = new GlobPattern(pattern);
+            entries.removeIf(entry -> !glob.matches(entry.getKey()));
+        }
+        return new ScanResult<>(next, entries);
+    }
+
+    /**
+     * Returns the type of the value under a key, or null if there is none.
+     * Reads without counting as an access or removing an expired key.
+     */
+    private String typeOf(String key) {
+        AtomicReference<ValueWrapper> ref = keyValueStore.get(key);
+        if (ref != null) {
+            ValueWrapper wrapper = ref.get();
+            if (wrapper.isExpired()) {
+                return null;
+            }
+            return wrapper.structure != null ? wrapper.structure.typeName() : "string";
+        }
+        SpilledValue spilled = spillStore != null ? spillStore.get(key) : null;
+        if (spilled != null) {
+            return spilled.isExpired() ? null : "string";
+        }
+        return sortedSets.containsKey(key) ? "zset" : null;
+    }
+
+    // ===== Utility Methods =====
+
+    /**
+     * Returns the current number of keys in the database.
+     */
+    public long dbSize() {
+        // Spilled keys are still stored, on disk
+        return dbSize.get() + (spillStore != null ? spillStore.size() : 0);
+    }
+
+    /**
+     * Returns the number of keys held by each data type.
+     */
+    public Map<String, Long> keyCountsByType() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        long strings = keyValueStore.size() + (spillStore != null ? spillStore.size() : 0);
+        for (AtomicLong count : structureCounts.values()) {
+            strings -= count.get();
+        }
+        counts.put("string", strings);
+        for (Map.Entry<String, AtomicLong> count : structureCounts.entrySet()) {
+            counts.put(count.getKey(), count.getValue().get());
+        }
+        counts.put("zset", (long) sortedSets.size());
+        return counts;
+    }
+
+    /**
+     * Returns the estimated memory footprint of a key, or null if it does not exist.
+     * Sorted sets report their encoding and what it saves over the indexed encoding.
+     * Compressed strings report what compression saves, and pooled strings the shared string;
+     * spilled strings report the "spilled" encoding, saving the record kept on disk.
+     */
+    public MemoryUsage memoryUsage(String key) {
+        AtomicReference<ValueWrapper> ref = keyValueStore.get(key);
+        if (ref != null) {
+            ValueWrapper wrapper = ref.get();
+            // Map entry, reference holder, wrapper with its optional boxed expiry, and key
+            long bytes = MemoryEstimator.HASH_MAP_ENTRY + STRING_ENTRY_OVERHEAD
+                    + (wrapper.expiryTime != null ? MemoryEstimator.BOXED_NUMBER : 0)
+                    + MemoryEstimator.stringSize(key);
+            StructuredValue structure = wrapper.structure;
+            if (structure != null) {
+                return new MemoryUsage(structure.typeName(), structure.encodingName(),
+                        bytes + structure.memoryUsage(), structure.savedBytes());
+            }
+            CompressedValue compressed = wrapper.compressed;
+            if (compressed != null) {
+                // The compressed value object and its bytes, against the string they replace
+                long compressedBytes = MemoryEstimator.align(MemoryEstimator.OBJECT_HEADER + MemoryEstimator.REFERENCE + 4)
+                        + MemoryEstimator.arraySize(compressed.data.length, 1);
+                return new MemoryUsage("string", "compressed", bytes + compressedBytes,
+                        MemoryEstimator.stringSize(compressed.rawLength) - compressedBytes);
+            }
+            if (wrapper.pooled) {
+                // The string is shared with every key holding the same value
+                return new MemoryUsage("string", "shared", bytes, MemoryEstimator.stringSize(wrapper.value));
+            }
+            return new MemoryUsage("string", "raw", bytes + MemoryEstimator.stringSize(wrapper.value), 0);
+        }
+        SpilledValue spilled = spillStore != null ? spillStore.get(key) : null;
+        if (spilled != null) {
+            // Map entry, index entry and key on the heap; the record itself is on disk
+            long bytes = 2 * MemoryEstimator.HASH_MAP_ENTRY + MemoryEstimator.stringSize(key);
+            return new MemoryUsage("string", "spilled", bytes, spilled.getLength());
+        }
+        SortedSetValue set = sortedSets.get(key);
+        if (set != null) {
+            long keyBytes = MemoryEstimator.HASH_MAP_ENTRY + MemoryEstimator.stringSize(key);
+            long bytes = keyBytes + set.memoryUsage();
+            long indexedBytes = keyBytes + set.indexedMemoryUsage();
+            return new MemoryUsage("zset", set.getEncoding().name().toLowerCase(), bytes, indexedBytes - bytes);
+        }
+        return null;
+    }
+
+    /**
+     * Passes every key starting with prefix to the visitor: strings and structures in memory, then
+     * spilled strings, then sorted sets. Iteration is weakly consistent: it holds no lock and copies nothing beyond the
+     * current key, so it runs alongside writes, and reflects writes made meanwhile only in part.
+     * Keys are read without counting as accessed, so a dump leaves eviction order unchanged.
+     */
+    public void dump(String prefix, KeyspaceVisitor visitor) throws IOException {
+        for (Map.Entry<String, AtomicReference<ValueWrapper>> entry : keyValueStore.entrySet()) {
+            String key = entry.getKey();
+            ValueWrapper wrapper = entry.getValue().get();
+            if (!key.startsWith(prefix) || wrapper.isExpired()) {
+                continue;
+            }
+            StructuredValue structure = wrapper.structure;
+            if (structure == null) {
+                visitor.string(key, stringValue(wrapper), wrapper.expiryTime);
+            } else if (structure instanceof HashValue) {
+                for (Map.Entry<String, String> field : ((HashValue) structure).entries().entrySet()) {
+                    visitor.hashField(key, field.getKey(), field.getValue());
+                }
+            } else if (structure instanceof HyperLogLog) {
+                visitor.hyperLogLog(key, ((HyperLogLog) structure).packedRegisters());
+            } else if (structure instanceof BitmapValue) {
+                dumpBitmap(key, (BitmapValue) structure, visitor);
+            } else if (structure instanceof TimeSeries) {
+                TimeSeries series = (TimeSeries) structure;
+                for (TimeSeries.Sample sample : series.range(0, Long.MAX_VALUE)) {
+                    visitor.timeSeriesSample(key, sample.getTimestamp(), sample.getValue(), series.getRetentionMillis());
+                }
+            } else {
+                throw new IllegalStateException("No record format for type " + structure.typeName());
+            }
+        }
+        if (spillStore != null) {
+            for (String key : spillStore.keys()) {
+                SpilledValue spilled = spillStore.get(key);
+                // Skip keys promoted or removed since
+                if (key.startsWith(prefix) && spilled != null && !spilled.isExpired() && !keyValueStore.containsKey(key)) {
+                    visitor.string(key, spillStore.read(spilled), spilled.getExpiryTime());
+                }
+            }
+        }
+        for (Map.Entry<String, SortedSetValue> entry : sortedSets.entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(prefix)) {
+                Iterator<Map.Entry<String, Double>> members = entry.getValue().iterator();
+                while (members.hasNext()) {
+                    Map.Entry<String, Double> member = members.next();
+                    visitor.sortedSetMember(key, member.getKey(), member.getValue());
+                }
+            }
+        }
+    }
+
+    private static void dumpBitmap(String key, BitmapValue bitmap, KeyspaceVisitor visitor) throws IOException {
+        long length = bitmap.byteLength();
+        for (long offset = 0; offset < length; offset += DUMP_CHUNK_BYTES) {
+            byte[] chunk = bitmap.bytes(offset, (int) Math.min(DUMP_CHUNK_BYTES, length - offset));
+            boolean last = offset + DUMP_CHUNK_BYTES >= length;
+            if (last || !isZero(chunk)) {
+                visitor.bitmapChunk(key, offset, chunk, length);
+            }
+        }
+    }
+
+    private static boolean isZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the listener told of every key change, replacing any previous one; null removes it.
+     */
+    public void setKeyChangeListener(KeyChangeListener listener) {
+        this.keyChangeListener = listener;
+    }
+
+    /**
+     * Returns the runtime counters of this instance.
+     */
+    public MemDBStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Counts a command run against this database. Called once per command by whoever dispatches
+     * it, since one command may take several engine calls, or one call may apply several commands.
+     */
+    public void recordCommand() {
+        stats.recordCommand();
+    }
+
+    /**
+     * Returns the current memory usage in bytes.
+     */
+    public long getCurrentMemoryUsed() {
+        return currentMemoryUsed.get();
+    }
+
+    /**
+     * Returns the maximum memory limit in bytes.
+     */
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    /**
+     * Returns the current eviction policy.
+     */
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionStrategy.getPolicy();
+    }
+
+    /**
+     * Clears all data from the database.
+     */
+    protected void clear() {
+        keyValueStore.clear();
+        sortedSets.clear();
+        sortedSetRegistry.clear();
+        scanIndex.clear();
+        if (keyIndex != null) {
+            keyIndex.clear();
+            stats.recordKeyIndexBytes(0);
+        }
+        timeSeriesKeys.clear();
+        if (spillStore != null) {
+            spillStore.clear();
+        }
+        if (valuePool != null) {
+            valuePool.clear();
+        }
+        dbSize.set(0);
+        structureCounts.values().forEach(count -> count.set(0));
+        currentMemoryUsed.set(0);
+    }
+
+    /**
+     * Sets a key-value pair with an expiry time in seconds.
+     */
+    public void setEx(String key, String value, long seconds) {
+        set(key, value, seconds);
+    }
+
+    /**
+     * Waits until the values queued for the lazy freer so far are released.
+     */
+    void awaitLazyFree() throws InterruptedException {
+        lazyFreer.awaitQueued();
+    }
+
+    /**
+     * Stops the background evictor, time series trimmer and lazy freer, and deletes the disk tier.
+     */
+    @Override
+    public void close() {
+        lazyFreer.close();
+        evictor.close();
+        timeSeriesTrimmer.close();
+        if (spillStore != null) {
+            spillStore.close();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.EvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SortedSetEvictionPolicy;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Builds a MemDB embedded in an application, without the server. Options not covered by a
+ * method of their own are reachable through {@link #configure(Consumer)}; anything left unset
+ * keeps the defaults of MemDBSettings. The built instance starts its background threads and
+ * must be closed.
+ */
+public class MemDBBuilder {
+    private final MemDBSettings settings = new MemDBSettings();
+    private EvictionStrategy evictionStrategy;
+
+    MemDBBuilder() {
+    }
+
+    /**
+     * Sets the hard memory limit in bytes; writes beyond it are refused once eviction cannot keep up.
+     */
+    public MemDBBuilder maxMemory(long bytes) {
+        settings.setMaxMemory(bytes);
+        return this;
+    }
+
+    /**
+     * Sets the fractions of the memory limit at which background eviction starts and down to
+     * which it frees memory.
+     */
+    public MemDBBuilder evictionWatermarks(double high, double low) {
+        settings.setEvictionHighWatermark(high);
+        settings.setEvictionLowWatermark(low);
+        return this;
+    }
+
+    public MemDBBuilder evictionPolicy(EvictionPolicy policy) {
+        settings.setEvictionPolicy(policy);
+        return this;
+    }
+
+    /**
+     * Sets the keys sampled per eviction by the sampled policies.
+     */
+    public MemDBBuilder evictionSamples(int samples) {
+        settings.setEvictionSamples(samples);
+        return this;
+    }
+
+    /**
+     * Uses a strategy of the application's own instead of the one of the eviction policy.
+     */
+    public MemDBBuilder evictionStrategy(EvictionStrategy strategy) {
+        this.evictionStrategy = strategy;
+        return this;
+    }
+
+    public MemDBBuilder sortedSetEvictionPolicy(SortedSetEvictionPolicy policy) {
+        settings.setSortedSetEvictionPolicy(policy);
+        return this;
+    }
+
+    /**
+     * Sets how long new time series keep their samples; zero keeps them forever. Keys set with
+     * an expiry are removed on access or by eviction and need no setting.
+     */
+    public MemDBBuilder timeSeriesRetention(Duration retention) {
+        settings.setTimeSeriesRetentionMillis(retention.toMillis());
+        return this;
+    }
+
+    /**
+     * Sets how often expired time series chunks are dropped.
+     */
+    public MemDBBuilder timeSeriesTrimInterval(Duration interval) {
+        settings.setTimeSeriesTrimMillis(interval.toMillis());
+        return this;
+    }
+
+    public MemDBBuilder keyIndex(boolean enabled) {
+        settings.setKeyIndexEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Adjusts any other setting.
+     */
+    public MemDBBuilder configure(Consumer<MemDBSettings> configurer) {
+        configurer.accept(settings);
+        return this;
+    }
+
+    /**
+     * Creates the instance.
+     * @throws IllegalArgumentException if the settings are inconsistent
+     */
+    public MemDB build() {
+        settings.validate();
+        EvictionStrategy strategy = evictionStrategy != null
+                ? evictionStrategy
+                : EvictionStrategy.forPolicy(settings.getEvictionPolicy(), settings.getEvictionSamples());
+        return new MemDB(strategy, settings);
+    }
+} 
\ No newline at end of file
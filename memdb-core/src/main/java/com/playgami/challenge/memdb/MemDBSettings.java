@@ -0,0 +1,409 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.SampledEvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SortedSetEvictionPolicy;
+
+/**
+ * Tunable settings of a MemDB instance. The server binds them from the "memdb" properties
+ * prefix; embedding applications set them through MemDBBuilder.
+ * Defaults match the previous hard-coded behaviour (100MB limit).
+ */
+public class MemDBSettings implements Cloneable {
+    public static final long DEFAULT_MAX_MEMORY = 100 * 1024 * 1024; // 100MB
+
+    // Hard memory limit in bytes; writes beyond it are refused
+    private long maxMemory = DEFAULT_MAX_MEMORY;
+    // Fraction of maxMemory at which the background evictor starts
+    private double evictionHighWatermark = 0.90;
+    // Fraction of maxMemory the background evictor frees memory down to
+    private double evictionLowWatermark = 0.80;
+    // Upper bound of evictions performed by a single eviction cycle
+    private int maxEvictionsPerCycle = 1000;
+    // Interval at which the evictor checks memory usage when not woken up by writers
+    private long evictionCycleMillis = 10;
+    // How long a writer at the hard limit waits for the evictor before failing with OOM
+    private long maxBackpressureMillis = 5;
+    // Policy choosing which keys are evicted
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    // Keys sampled per eviction by the sampled policies
+    private int evictionSamples = SampledEvictionStrategy.DEFAULT_SAMPLES;
+    // Policy choosing which sorted set members are evicted
+    private SortedSetEvictionPolicy sortedSetEvictionPolicy = SortedSetEvictionPolicy.RANDOM_LOWEST_SCORE;
+    // Upper bound of sorted set members removed by a single eviction
+    private int sortedSetEvictionBatch = 16;
+    // Sorted sets up to this many members, none longer than the value limit, use the packed encoding
+    private int sortedSetMaxPackedEntries = SortedSetValue.DEFAULT_MAX_PACKED_ENTRIES;
+    private int sortedSetMaxPackedValue = SortedSetValue.DEFAULT_MAX_PACKED_VALUE;
+    // Hashes up to this many fields, none longer than the value limit, use the packed encoding
+    private int hashMaxPackedEntries = HashValue.DEFAULT_MAX_PACKED_ENTRIES;
+    private int hashMaxPackedValue = HashValue.DEFAULT_MAX_PACKED_VALUE;
+    // HyperLogLogs whose sparse encoding would exceed this many bytes convert to the 12KB dense encoding
+    private int hllSparseMaxBytes = HyperLogLog.DEFAULT_SPARSE_MAX_BYTES;
+    // Samples per compressed time series chunk
+    private int timeSeriesChunkSamples = TimeSeries.DEFAULT_CHUNK_SAMPLES;
+    // Retention period of new time series in milliseconds, 0 keeping samples forever
+    private long timeSeriesRetentionMillis = 0;
+    // Interval at which expired time series chunks are dropped
+    private long timeSeriesTrimMillis = 1000;
+    // Spill evicted string values to memory-mapped segment files instead of dropping them
+    private boolean tierEnabled = false;
+    // Directory the tier creates its segment directory in
+    private String tierDirectory = System.getProperty("java.io.tmpdir") + "/memdb-tier";
+    // Size of each segment file, and upper bound of all of them together
+    private int tierSegmentBytes = 64 * 1024 * 1024;
+    private long tierMaxBytes = 1024L * 1024 * 1024;
+    // Interval at which segments are checked for compaction
+    private long tierCompactionMillis = 1000;
+    // Fraction of a segment's bytes that must be dead before it is compacted
+    private double tierCompactionDeadRatio = 0.5;
+    // Whether reading a spilled value moves it back into memory when below the high watermark
+    private boolean tierPromoteOnRead = true;
+    // Compress string values of at least compressionMinLength characters
+    private boolean compressionEnabled = false;
+    private CompressionCodec compressionCodec = CompressionCodec.DEFLATE;
+    private int compressionMinLength = 1024;
+    // Values compressing to more than this fraction of their size are stored uncompressed
+    private double compressionMaxRatio = 0.8;
+    // Share one instance between keys holding equal values of at most dedupMaxLength characters,
+    // across at most dedupMaxEntries distinct values
+    private boolean dedupEnabled = false;
+    private int dedupMaxEntries = 10_000;
+    private int dedupMaxLength = 64;
+    // Maintain a radix tree of the keys, for KEYS, SCAN MATCH and DELPREFIX by prefix
+    private boolean keyIndexEnabled = false;
+    // Sorted sets with more members than this are freed in the background by UNLINK
+    private int lazyfreeThreshold = 64;
+
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public double getEvictionHighWatermark() {
+        return evictionHighWatermark;
+    }
+
+    public void setEvictionHighWatermark(double evictionHighWatermark) {
+        this.evictionHighWatermark = evictionHighWatermark;
+    }
+
+    public double getEvictionLowWatermark() {
+        return evictionLowWatermark;
+    }
+
+    public void setEvictionLowWatermark(double evictionLowWatermark) {
+        this.evictionLowWatermark = evictionLowWatermark;
+    }
+
+    public int getMaxEvictionsPerCycle() {
+        return maxEvictionsPerCycle;
+    }
+
+    public void setMaxEvictionsPerCycle(int maxEvictionsPerCycle) {
+        this.maxEvictionsPerCycle = maxEvictionsPerCycle;
+    }
+
+    public long getEvictionCycleMillis() {
+        return evictionCycleMillis;
+    }
+
+    public void setEvictionCycleMillis(long evictionCycleMillis) {
+        this.evictionCycleMillis = evictionCycleMillis;
+    }
+
+    public long getMaxBackpressureMillis() {
+        return maxBackpressureMillis;
+    }
+
+    public void setMaxBackpressureMillis(long maxBackpressureMillis) {
+        this.maxBackpressureMillis = maxBackpressureMillis;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    public int getEvictionSamples() {
+        return evictionSamples;
+    }
+
+    public void setEvictionSamples(int evictionSamples) {
+        this.evictionSamples = evictionSamples;
+    }
+
+    public SortedSetEvictionPolicy getSortedSetEvictionPolicy() {
+        return sortedSetEvictionPolicy;
+    }
+
+    public void setSortedSetEvictionPolicy(SortedSetEvictionPolicy sortedSetEvictionPolicy) {
+        this.sortedSetEvictionPolicy = sortedSetEvictionPolicy;
+    }
+
+    public int getSortedSetEvictionBatch() {
+        return sortedSetEvictionBatch;
+    }
+
+    public void setSortedSetEvictionBatch(int sortedSetEvictionBatch) {
+        this.sortedSetEvictionBatch = sortedSetEvictionBatch;
+    }
+
+    public int getSortedSetMaxPackedEntries() {
+        return sortedSetMaxPackedEntries;
+    }
+
+    public void setSortedSetMaxPackedEntries(int sortedSetMaxPackedEntries) {
+        this.sortedSetMaxPackedEntries = sortedSetMaxPackedEntries;
+    }
+
+    public int getSortedSetMaxPackedValue() {
+        return sortedSetMaxPackedValue;
+    }
+
+    public void setSortedSetMaxPackedValue(int sortedSetMaxPackedValue) {
+        this.sortedSetMaxPackedValue = sortedSetMaxPackedValue;
+    }
+
+    public int getHashMaxPackedEntries() {
+        return hashMaxPackedEntries;
+    }
+
+    public void setHashMaxPackedEntries(int hashMaxPackedEntries) {
+        this.hashMaxPackedEntries = hashMaxPackedEntries;
+    }
+
+    public int getHashMaxPackedValue() {
+        return hashMaxPackedValue;
+    }
+
+    public void setHashMaxPackedValue(int hashMaxPackedValue) {
+        this.hashMaxPackedValue = hashMaxPackedValue;
+    }
+
+    public int getHllSparseMaxBytes() {
+        return hllSparseMaxBytes;
+    }
+
+    public void setHllSparseMaxBytes(int hllSparseMaxBytes) {
+        this.hllSparseMaxBytes = hllSparseMaxBytes;
+    }
+
+    public int getTimeSeriesChunkSamples() {
+        return timeSeriesChunkSamples;
+    }
+
+    public void setTimeSeriesChunkSamples(int timeSeriesChunkSamples) {
+        this.timeSeriesChunkSamples = timeSeriesChunkSamples;
+    }
+
+    public long getTimeSeriesRetentionMillis() {
+        return timeSeriesRetentionMillis;
+    }
+
+    public void setTimeSeriesRetentionMillis(long timeSeriesRetentionMillis) {
+        this.timeSeriesRetentionMillis = timeSeriesRetentionMillis;
+    }
+
+    public long getTimeSeriesTrimMillis() {
+        return timeSeriesTrimMillis;
+    }
+
+    public void setTimeSeriesTrimMillis(long timeSeriesTrimMillis) {
+        this.timeSeriesTrimMillis = timeSeriesTrimMillis;
+    }
+
+    public boolean isTierEnabled() {
+        return tierEnabled;
+    }
+
+    public void setTierEnabled(boolean tierEnabled) {
+        this.tierEnabled = tierEnabled;
+    }
+
+    public String getTierDirectory() {
+        return tierDirectory;
+    }
+
+    public void setTierDirectory(String tierDirectory) {
+        this.tierDirectory = tierDirectory;
+    }
+
+    public int getTierSegmentBytes() {
+        return tierSegmentBytes;
+    }
+
+    public void setTierSegmentBytes(int tierSegmentBytes) {
+        this.tierSegmentBytes = tierSegmentBytes;
+    }
+
+    public long getTierMaxBytes() {
+        return tierMaxBytes;
+    }
+
+    public void setTierMaxBytes(long tierMaxBytes) {
+        this.tierMaxBytes = tierMaxBytes;
+    }
+
+    public long getTierCompactionMillis() {
+        return tierCompactionMillis;
+    }
+
+    public void setTierCompactionMillis(long tierCompactionMillis) {
+        this.tierCompactionMillis = tierCompactionMillis;
+    }
+
+    public double getTierCompactionDeadRatio() {
+        return tierCompactionDeadRatio;
+    }
+
+    public void setTierCompactionDeadRatio(double tierCompactionDeadRatio) {
+        this.tierCompactionDeadRatio = tierCompactionDeadRatio;
+    }
+
+    public boolean isTierPromoteOnRead() {
+        return tierPromoteOnRead;
+    }
+
+    public void setTierPromoteOnRead(boolean tierPromoteOnRead) {
+        this.tierPromoteOnRead = tierPromoteOnRead;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    public void setCompressionCodec(CompressionCodec compressionCodec) {
+        this.compressionCodec = compressionCodec;
+    }
+
+    public int getCompressionMinLength() {
+        return compressionMinLength;
+    }
+
+    public void setCompressionMinLength(int compressionMinLength) {
+        this.compressionMinLength = compressionMinLength;
+    }
+
+    public double getCompressionMaxRatio() {
+        return compressionMaxRatio;
+    }
+
+    public void setCompressionMaxRatio(double compressionMaxRatio) {
+        this.compressionMaxRatio = compressionMaxRatio;
+    }
+
+    public boolean isDedupEnabled() {
+        return dedupEnabled;
+    }
+
+    public void setDedupEnabled(boolean dedupEnabled) {
+        this.dedupEnabled = dedupEnabled;
+    }
+
+    public int getDedupMaxEntries() {
+        return dedupMaxEntries;
+    }
+
+    public void setDedupMaxEntries(int dedupMaxEntries) {
+        this.dedupMaxEntries = dedupMaxEntries;
+    }
+
+    public int getDedupMaxLength() {
+        return dedupMaxLength;
+    }
+
+    public void setDedupMaxLength(int dedupMaxLength) {
+        this.dedupMaxLength = dedupMaxLength;
+    }
+
+    public boolean isKeyIndexEnabled() {
+        return keyIndexEnabled;
+    }
+
+    public void setKeyIndexEnabled(boolean keyIndexEnabled) {
+        this.keyIndexEnabled = keyIndexEnabled;
+    }
+
+    public int getLazyfreeThreshold() {
+        return lazyfreeThreshold;
+    }
+
+    public void setLazyfreeThreshold(int lazyfreeThreshold) {
+        this.lazyfreeThreshold = lazyfreeThreshold;
+    }
+
+    /**
+     * Returns a copy of these settings, for an instance differing from this one in a few of them.
+     */
+    public MemDBSettings copy() {
+        try {
+            return (MemDBSettings) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Checks that the settings are consistent.
+     */
+    public void validate() {
+        if (maxMemory <= 0) {
+            throw new IllegalArgumentException("maxMemory must be greater than zero");
+        }
+        if (evictionLowWatermark <= 0 || evictionLowWatermark > evictionHighWatermark || evictionHighWatermark > 1.0) {
+            throw new IllegalArgumentException("Eviction watermarks must satisfy 0 < low <= high <= 1");
+        }
+        if (maxEvictionsPerCycle <= 0 || evictionCycleMillis <= 0 || maxBackpressureMillis < 0) {
+            throw new IllegalArgumentException("Eviction cycle settings must be positive");
+        }
+        if (evictionPolicy == null || evictionSamples <= 0) {
+            throw new IllegalArgumentException("An eviction policy and a positive sample count are required");
+        }
+        if (sortedSetEvictionPolicy == null || sortedSetEvictionBatch <= 0) {
+            throw new IllegalArgumentException("A sorted set eviction policy and a positive batch size are required");
+        }
+        if (sortedSetMaxPackedEntries < 0 || sortedSetMaxPackedValue < 0
+                || hashMaxPackedEntries < 0 || hashMaxPackedValue < 0 || hllSparseMaxBytes < 0) {
+            throw new IllegalArgumentException("Packed encoding thresholds must not be negative");
+        }
+        if (timeSeriesChunkSamples <= 0 || timeSeriesTrimMillis <= 0 || timeSeriesRetentionMillis < 0) {
+            throw new IllegalArgumentException("Time series chunk size and trim interval must be positive, and retention not negative");
+        }
+        if (tierEnabled && (tierDirectory == null || tierDirectory.isBlank())) {
+            throw new IllegalArgumentException("A tier directory is required when tiered storage is enabled");
+        }
+        if (tierSegmentBytes <= 0 || tierMaxBytes < tierSegmentBytes || tierCompactionMillis <= 0) {
+            throw new IllegalArgumentException("Tier segment size and compaction interval must be positive, and max bytes at least one segment");
+        }
+        if (tierCompactionDeadRatio <= 0 || tierCompactionDeadRatio > 1.0) {
+            throw new IllegalArgumentException("Tier compaction dead ratio must satisfy 0 < ratio <= 1");
+        }
+        if (compressionCodec == null || compressionMinLength <= 0) {
+            throw new IllegalArgumentException("A compression codec and a positive minimum length are required");
+        }
+        if (compressionMaxRatio <= 0 || compressionMaxRatio > 1.0) {
+            throw new IllegalArgumentException("Compression max ratio must satisfy 0 < ratio <= 1");
+        }
+        if (dedupMaxEntries <= 0 || dedupMaxLength <= 0) {
+            throw new IllegalArgumentException("Dedup pool size and value length must be positive");
+        }
+        if (lazyfreeThreshold < 0) {
+            throw new IllegalArgumentException("Lazy free threshold must not be negative");
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,259 @@
+package com.playgami.challenge.memdb;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters for a MemDB instance.
+ * All updates are lock-free so that reading them (e.g. from INFO) never slows down the hot path.
+ */
+public class MemDBStats {
+    // Minimum time between two instantaneous ops/sec samples
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+
+    private final long startTimeMillis;
+    private final LongAdder commandsProcessed = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+    private final LongAdder expiredKeys = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private final LongAdder keyspaceHits = new LongAdder();
+    private final LongAdder keyspaceMisses = new LongAdder();
+    private final LongAdder spilledKeys = new LongAdder();
+    private final LongAdder promotedKeys = new LongAdder();
+    private final LongAdder compressedValues = new LongAdder();
+    private final LongAdder skippedCompressions = new LongAdder();
+    // UTF-8 bytes of the values stored compressed, and their compressed bytes
+    private final LongAdder compressionInputBytes = new LongAdder();
+    private final LongAdder compressionOutputBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+    private final LongAdder decompressionNanos = new LongAdder();
+    private final AtomicLong peakMemoryUsed = new AtomicLong();
+    private final AtomicLong keyIndexBytes = new AtomicLong();
+    // Detached keys queued for the lazy freer, and keys it has freed
+    private final AtomicLong lazyfreePendingObjects = new AtomicLong();
+    private final LongAdder lazyfreedObjects = new LongAdder();
+    // Clients with client-side caching on, keys tracked for them, and invalidation messages queued
+    private final AtomicLong trackingClients = new AtomicLong();
+    private final AtomicLong trackingKeys = new AtomicLong();
+    private final LongAdder invalidationsSent = new LongAdder();
+    // Last ops/sec sample, replaced with a CAS when a reader finds it stale
+    private final AtomicReference<OpsSample> lastSample;
+
+    public MemDBStats() {
+        this.startTimeMillis = System.currentTimeMillis();
+        this.lastSample = new AtomicReference<>(new OpsSample(startTimeMillis, 0, 0));
+    }
+
+    public void recordCommand() {
+        commandsProcessed.increment();
+    }
+
+    public void recordEviction() {
+        evictedKeys.increment();
+    }
+
+    public void recordExpiration() {
+        expiredKeys.increment();
+    }
+
+    public void recordRejectedWrite() {
+        rejectedWrites.increment();
+    }
+
+    public void recordHit() {
+        keyspaceHits.increment();
+    }
+
+    public void recordMiss() {
+        keyspaceMisses.increment();
+    }
+
+    public void recordSpill() {
+        spilledKeys.increment();
+    }
+
+    public void recordPromotion() {
+        promotedKeys.increment();
+    }
+
+    public void recordCompression(long inputBytes, long outputBytes, long nanos) {
+        compressedValues.increment();
+        compressionInputBytes.add(inputBytes);
+        compressionOutputBytes.add(outputBytes);
+        compressionNanos.add(nanos);
+    }
+
+    /**
+     * Records a value that did not compress well enough to be stored compressed.
+     */
+    public void recordSkippedCompression(long nanos) {
+        skippedCompressions.increment();
+        compressionNanos.add(nanos);
+    }
+
+    public void recordDecompression(long nanos) {
+        decompressionNanos.add(nanos);
+    }
+
+    /**
+     * Raises the peak memory watermark if the given usage exceeds it.
+     * Only writes when a new peak is reached, so the common case is a single volatile read.
+     */
+    public void recordMemoryUsage(long memoryUsed) {
+        if (memoryUsed > peakMemoryUsed.get()) {
+            peakMemoryUsed.accumulateAndGet(memoryUsed, Math::max);
+        }
+    }
+
+    public long getUptimeMillis() {
+        return System.currentTimeMillis() - startTimeMillis;
+    }
+
+    public long getCommandsProcessed() {
+        return commandsProcessed.sum();
+    }
+
+    public long getEvictedKeys() {
+        return evictedKeys.sum();
+    }
+
+    public long getExpiredKeys() {
+        return expiredKeys.sum();
+    }
+
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    public long getKeyspaceHits() {
+        return keyspaceHits.sum();
+    }
+
+    public long getKeyspaceMisses() {
+        return keyspaceMisses.sum();
+    }
+
+    public long getSpilledKeys() {
+        return spilledKeys.sum();
+    }
+
+    public long getPromotedKeys() {
+        return promotedKeys.sum();
+    }
+
+    public long getCompressedValues() {
+        return compressedValues.sum();
+    }
+
+    public long getSkippedCompressions() {
+        return skippedCompressions.sum();
+    }
+
+    /**
+     * Returns the ratio of the original to the compressed size of the values stored compressed,
+     * or 1 if none was.
+     */
+    public double getCompressionRatio() {
+        long output = compressionOutputBytes.sum();
+        return output > 0 ? (double) compressionInputBytes.sum() / output : 1.0;
+    }
+
+    /**
+     * Returns the time spent compressing values, including those that did not compress well enough.
+     */
+    public long getCompressionMillis() {
+        return compressionNanos.sum() / 1_000_000;
+    }
+
+    /**
+     * Records the current footprint of the key prefix index.
+     */
+    public void recordKeyIndexBytes(long bytes) {
+        keyIndexBytes.set(bytes);
+    }
+
+    public void recordLazyFreeQueued(long objects) {
+        lazyfreePendingObjects.addAndGet(objects);
+    }
+
+    public void recordLazyFreed(long objects) {
+        lazyfreePendingObjects.addAndGet(-objects);
+        lazyfreedObjects.add(objects);
+    }
+
+    public void recordTrackingClients(long clients) {
+        trackingClients.set(clients);
+    }
+
+    public void recordTrackingKeys(long keys) {
+        trackingKeys.set(keys);
+    }
+
+    public void recordInvalidation() {
+        invalidationsSent.increment();
+    }
+
+    public long getDecompressionMillis() {
+        return decompressionNanos.sum() / 1_000_000;
+    }
+
+    public long getPeakMemoryUsed() {
+        return peakMemoryUsed.get();
+    }
+
+    public long getKeyIndexBytes() {
+        return keyIndexBytes.get();
+    }
+
+    public long getLazyfreePendingObjects() {
+        return lazyfreePendingObjects.get();
+    }
+
+    public long getLazyfreedObjects() {
+        return lazyfreedObjects.sum();
+    }
+
+    public long getTrackingClients() {
+        return trackingClients.get();
+    }
+
+    public long getTrackingKeys() {
+        return trackingKeys.get();
+    }
+
+    public long getInvalidationsSent() {
+        return invalidationsSent.sum();
+    }
+
+    /**
+     * Returns the command rate measured between the last two samples.
+     * A new sample is taken when the previous one is older than the sample interval,
+     * so a monitor polling every second sees the rate over the last second.
+     */
+    public long getInstantaneousOpsPerSec() {
+        long now = System.currentTimeMillis();
+        OpsSample previous = lastSample.get();
+        long elapsed = now - previous.timeMillis;
+        if (elapsed < SAMPLE_INTERVAL_MILLIS) {
+            return previous.opsPerSec;
+        }
+        long ops = commandsProcessed.sum();
+        OpsSample current = new OpsSample(now, ops, (ops - previous.ops) * 1000 / elapsed);
+        // Losing the race is fine: another reader just stored an equally fresh sample
+        lastSample.compareAndSet(previous, current);
+        return current.opsPerSec;
+    }
+
+    private static final class OpsSample {
+        final long timeMillis;
+        final long ops;
+        final long opsPerSec;
+
+        OpsSample(long timeMillis, long ops, long opsPerSec) {
+            this.timeMillis = timeMillis;
+            this.ops = ops;
+            this.opsPerSec = opsPerSec;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Estimates the heap footprint of stored objects for MEMORY USAGE.
+ * Assumes a 64-bit JVM with compressed references (12-byte object headers, 4-byte references,
+ * 8-byte alignment) and compact Latin-1 strings.
+ */
+final class MemoryEstimator {
+    static final int OBJECT_HEADER = 12;
+    static final int REFERENCE = 4;
+    static final int ARRAY_HEADER = 16;
+    // A ConcurrentHashMap node (hash, key, value, next) plus its share of the bucket table
+    static final int HASH_MAP_ENTRY = 32 + 2 * REFERENCE;
+    // A boxed Double or Long
+    static final int BOXED_NUMBER = 16;
+
+    private MemoryEstimator() {
+    }
+
+    static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Returns the size of a String with its backing byte array.
+     */
+    static long stringSize(String value) {
+        return stringSize(value.length());
+    }
+
+    static long stringSize(int length) {
+        return align(OBJECT_HEADER + REFERENCE + 8) + align(ARRAY_HEADER + length);
+    }
+
+    static long arraySize(int length, int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+} 
\ No newline at end of file
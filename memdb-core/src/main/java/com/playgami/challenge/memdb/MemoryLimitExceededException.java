@@ -0,0 +1,11 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Thrown when a write cannot be accepted because memory stays above the hard limit
+ * even after waiting for the background evictor.
+ */
+public class MemoryLimitExceededException extends RuntimeException {
+    public MemoryLimitExceededException() {
+        super("OOM command not allowed when used memory > 'maxmemory'");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Estimated memory footprint of a key, as reported by MEMORY USAGE.
+ * savedBytes is what the key's encoding saves over the default encoding of its type,
+ * e.g. a packed sorted set compared to the same set indexed.
+ */
+public final class MemoryUsage {
+    private final String type;
+    private final String encoding;
+    private final long bytes;
+    private final long savedBytes;
+
+    public MemoryUsage(String type, String encoding, long bytes, long savedBytes) {
+        this.type = type;
+        this.encoding = encoding;
+        this.bytes = bytes;
+        this.savedBytes = savedBytes;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getSavedBytes() {
+        return savedBytes;
+    }
+} 
\ No newline at end of file
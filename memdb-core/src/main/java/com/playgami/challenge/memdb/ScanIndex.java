@@ -0,0 +1,88 @@
+package com.playgami.challenge.memdb;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The keys of every type, ordered by a 32-bit hash, so that a SCAN cursor is simply a position
+ * in hash order. Cursors need no server-side state and stay valid as the keyspace grows and
+ * shrinks: a scan returns every key present throughout it exactly once, whatever is written
+ * meanwhile, as Redis' reverse-binary cursor does over its resizing hash table.
+ * Keys are indexed when created and unindexed when removed; MemDB checks each change against the
+ * keyspace once it is made, so that racing creations and removals leave neither stale nor missing keys.
+ */
+class ScanIndex {
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+
+    void add(String key) {
+        entries.add(new Entry(key));
+    }
+
+    void remove(String key) {
+        entries.remove(new Entry(key));
+    }
+
+    /**
+     * Adds the keys from the cursor position on to keys, count of them plus any sharing the hash
+     * of the last one, and returns the cursor to continue from, or 0 once the scan is complete.
+     */
+    long scan(long cursor, int count, List<String> keys) {
+        Iterator<Entry> iterator = entries.tailSet(new Entry(Math.max(cursor, 1), ""), true).iterator();
+        long lastPosition = -1;
+        int added = 0;
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // A cursor falling inside a group of equal hashes would return part of the group twice
+            if (added >= count && entry.position != lastPosition) {
+                return entry.position;
+            }
+            keys.add(entry.key);
+            lastPosition = entry.position;
+            added++;
+        }
+        return 0;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the position of a key in hash order, from 1 to 2^32; 0 is the cursor that starts a scan.
+     */
+    static long position(String key) {
+        // The MurmurHash3 finalizer, so that similar keys spread out
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return (hash & 0xFFFFFFFFL) + 1;
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final long position;
+        final String key;
+
+        Entry(String key) {
+            this(position(key), key);
+        }
+
+        Entry(long position, String key) {
+            this.position = position;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byPosition = Long.compare(position, other.position);
+            return byPosition != 0 ? byPosition : key.compareTo(other.key);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.playgami.challenge.memdb;
+
+import java.util.List;
+
+/**
+ * One page of a SCAN or ZSCAN: the items found and the cursor to pass to the next call,
+ * "0" once the iteration is complete.
+ */
+public final class ScanResult<T> {
+    private final String cursor;
+    private final List<T> items;
+
+    public ScanResult(String cursor, List<T> items) {
+        this.cursor = cursor;
+        this.items = items;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean isComplete() {
+        return cursor.equals("0");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * A score interval for ZRANGEBYSCORE and ZCOUNT, in Redis syntax: "1500" is inclusive,
+ * "(1500" is exclusive, and "-inf" / "+inf" are unbounded.
+ */
+public final class ScoreRange {
+    private final double min;
+    private final boolean minExclusive;
+    private final double max;
+    private final boolean maxExclusive;
+
+    public ScoreRange(double min, boolean minExclusive, double max, boolean maxExclusive) {
+        this.min = min;
+        this.minExclusive = minExclusive;
+        this.max = max;
+        this.maxExclusive = maxExclusive;
+    }
+
+    /**
+     * Parses a range from its min and max bounds.
+     * @throws IllegalArgumentException if a bound is not a float
+     */
+    public static ScoreRange parse(String min, String max) {
+        return new ScoreRange(parseBound(min), isExclusive(min), parseBound(max), isExclusive(max));
+    }
+
+    private static boolean isExclusive(String bound) {
+        return bound != null && bound.startsWith("(");
+    }
+
+    private static double parseBound(String bound) {
+        if (bound == null) {
+            throw new IllegalArgumentException("min or max is not a float");
+        }
+        String value = isExclusive(bound) ? bound.substring(1) : bound;
+        if (value.equalsIgnoreCase("-inf")) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        if (value.equalsIgnoreCase("+inf") || value.equalsIgnoreCase("inf")) {
+            return Double.POSITIVE_INFINITY;
+        }
+        try {
+            double score = Double.parseDouble(value);
+            if (Double.isNaN(score)) {
+                throw new IllegalArgumentException("min or max is not a float");
+            }
+            return score;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("min or max is not a float");
+        }
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public boolean isMinExclusive() {
+        return minExclusive;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public boolean isMaxExclusive() {
+        return maxExclusive;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,577 @@
+package com.playgami.challenge.memdb;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A sorted set stored under a key, plus the metadata eviction needs.
+ * Members are unique and ordered by (score, member), as in Redis. Small sets use a packed
+ * encoding: parallel score and member arrays, replaced as a whole under the set's lock on each
+ * write so that readers see a consistent snapshot without locking. Once a set grows past
+ * maxPackedEntries members or stores a member longer than maxPackedValue characters, it converts
+ * to the indexed encoding for good; it never converts back, so a set hovering around a threshold
+ * does not flip between encodings.
+ */
+public class SortedSetValue {
+    public static final int DEFAULT_MAX_PACKED_ENTRIES = 64;
+    public static final int DEFAULT_MAX_PACKED_VALUE = 64;
+
+    // The set itself: header, key and encoding references, thresholds and access time
+    private static final int SET_OVERHEAD = 40;
+
+    public enum Encoding {
+        PACKED, INDEXED
+    }
+
+    private final String key;
+    private final int maxPackedEntries;
+    private final int maxPackedValue;
+    // Packed encoding, or null once the set converted
+    private volatile Packed packed = Packed.EMPTY;
+    // Indexed encoding, published before packed is cleared so readers always find one of them
+    private volatile Indexed indexed;
+    private volatile long accessTime = System.currentTimeMillis();
+
+    public SortedSetValue(String key) {
+        this(key, DEFAULT_MAX_PACKED_ENTRIES, DEFAULT_MAX_PACKED_VALUE);
+    }
+
+    public SortedSetValue(String key, int maxPackedEntries, int maxPackedValue) {
+        this.key = key;
+        this.maxPackedEntries = maxPackedEntries;
+        this.maxPackedValue = maxPackedValue;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Encoding getEncoding() {
+        return packed != null ? Encoding.PACKED : Encoding.INDEXED;
+    }
+
+    /**
+     * Sets the score of a member and returns its previous score, or null if it was added.
+     */
+    public Double put(String member, double score) {
+        double normalized = normalize(score);
+        return update(member, previous -> normalized);
+    }
+
+    /**
+     * Adds increment to the score of a member, starting from 0 for a new member,
+     * and returns its previous score, or null if it was added.
+     * @throws IllegalArgumentException if the resulting score is not a number, or a finite score
+     *                                  would overflow to an infinite one
+     */
+    public Double incrementBy(String member, double increment) {
+        return update(member, previous -> {
+            double start = previous != null ? previous : 0;
+            double score = start + increment;
+            if (Double.isNaN(score)) {
+                throw new IllegalArgumentException("resulting score is not a number (NaN)");
+            }
+            if (Double.isInfinite(score) && !Double.isInfinite(start)) {
+                throw new IllegalArgumentException("increment would produce NaN or Infinity");
+            }
+            return normalize(score);
+        });
+    }
+
+    /**
+     * Stores -0.0 as 0.0: they are equal scores, which would otherwise sort and match as two.
+     */
+    private static double normalize(double score) {
+        return score == 0 ? 0.0 : score;
+    }
+
+    private Double update(String member, Function<Double, Double> newScore) {
+        if (packed != null) {
+            synchronized (this) {
+                Packed current = packed;
+                if (current != null) {
+                    int position = current.indexOf(member);
+                    Double previous = position >= 0 ? current.scores[position] : null;
+                    int length = current.size() + (position >= 0 ? 0 : 1);
+                    if (length <= maxPackedEntries && member.length() <= maxPackedValue) {
+                        double score = newScore.apply(previous);
+                        if (previous == null || Double.compare(previous, score) != 0) {
+                            packed = current.rebuild(position, current.search(score, member), score, member);
+                        }
+                        return previous;
+                    }
+                    convert(current);
+                }
+            }
+        }
+        return indexed.update(member, newScore);
+    }
+
+    /**
+     * Moves the members of a packed set to the indexed encoding. Called with the set's lock held.
+     */
+    private void convert(Packed current) {
+        Indexed converted = new Indexed();
+        for (int i = 0; i < current.size(); i++) {
+            double score = current.scores[i];
+            converted.update(current.members[i], previous -> score);
+        }
+        indexed = converted;
+        packed = null;
+    }
+
+    /**
+     * Removes a member only if it still has the given score.
+     */
+    public boolean remove(double score, String member) {
+        if (packed != null) {
+            synchronized (this) {
+                Packed current = packed;
+                if (current != null) {
+                    int position = current.indexOf(member);
+                    if (position < 0 || Double.compare(current.scores[position], score) != 0) {
+                        return false;
+                    }
+                    packed = current.rebuild(position, -1, 0, null);
+                    return true;
+                }
+            }
+        }
+        return indexed.remove(score, member);
+    }
+
+    /**
+     * Returns the score of a member, or null if it is not in the set.
+     */
+    public Double score(String member) {
+        Packed current = packed;
+        if (current != null) {
+            int position = current.indexOf(member);
+            return position >= 0 ? current.scores[position] : null;
+        }
+        return indexed.scores.get(member);
+    }
+
+    /**
+     * Returns the entry (score, member) with the lowest score, or null when the set is empty.
+     */
+    public Map.Entry<Double, String> lowest() {
+        Packed current = packed;
+        if (current != null) {
+            return current.size() > 0
+                    ? new AbstractMap.SimpleImmutableEntry<>(current.scores[0], current.members[0])
+                    : null;
+        }
+        Iterator<ScoredMember> iterator = indexed.index.iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        ScoredMember first = iterator.next();
+        return new AbstractMap.SimpleImmutableEntry<>(first.score, first.member);
+    }
+
+    /**
+     * Returns the 0-based rank of a member in ascending score order, or null if it is not in the set.
+     * Costs O(rank) once indexed.
+     */
+    public Long rank(String member) {
+        Packed current = packed;
+        if (current != null) {
+            int position = current.indexOf(member);
+            return position >= 0 ? (long) position : null;
+        }
+        Double score = indexed.scores.get(member);
+        return score != null ? (long) indexed.index.headSet(new ScoredMember(score, member)).size() : null;
+    }
+
+    /**
+     * Returns the 0-based rank of a member in descending score order, or null if it is not in the set.
+     * Costs O(reverse rank) once indexed, so it is cheap for the top of a leaderboard.
+     */
+    public Long reverseRank(String member) {
+        Packed current = packed;
+        if (current != null) {
+            int position = current.indexOf(member);
+            return position >= 0 ? (long) (current.size() - 1 - position) : null;
+        }
+        Double score = indexed.scores.get(member);
+        return score != null ? (long) indexed.index.tailSet(new ScoredMember(score, member), false).size() : null;
+    }
+
+    /**
+     * Returns the members ranked start to end (inclusive) in ascending score order.
+     */
+    public List<String> range(long start, long end) {
+        Packed current = packed;
+        if (current != null) {
+            return Arrays.stream(current.members)
+                    .skip(start)
+                    .limit(end - start + 1)
+                    .collect(Collectors.toList());
+        }
+        return indexed.index.stream()
+                .skip(start)
+                .limit(end - start + 1)
+                .map(entry -> entry.member)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns an iterator over the (member, score) entries in ascending order. It is weakly
+     * consistent, like the iterators of concurrent collections: it never fails, and reflects
+     * writes made while it runs only in part.
+     */
+    public Iterator<Map.Entry<String, Double>> iterator() {
+        Packed current = packed;
+        if (current != null) {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < current.size();
+                }
+
+                @Override
+                public Map.Entry<String, Double> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Map.Entry<String, Double> entry = new AbstractMap.SimpleImmutableEntry<>(current.members[next], current.scores[next]);
+                    next++;
+                    return entry;
+                }
+            };
+        }
+        Iterator<ScoredMember> members = indexed.index.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return members.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, Double> next() {
+                ScoredMember entry = members.next();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.member, entry.score);
+            }
+        };
+    }
+
+    /**
+     * Returns up to count (member, score) entries following (score, member) in ascending order;
+     * a null member starts from the first entry with the score. Seeking costs O(log n).
+     */
+    public List<Map.Entry<String, Double>> entriesAfter(double score, String member, int count) {
+        List<Map.Entry<String, Double>> result = new ArrayList<>();
+        Packed current = packed;
+        if (current != null) {
+            int from = current.search(score, member);
+            if (member != null && from < current.size() && current.members[from].equals(member)
+                    && Double.compare(current.scores[from], score) == 0) {
+                from++;
+            }
+            for (int i = from; i < current.size() && result.size() < count; i++) {
+                result.add(new AbstractMap.SimpleImmutableEntry<>(current.members[i], current.scores[i]));
+            }
+            return result;
+        }
+        for (ScoredMember entry : indexed.index.tailSet(new ScoredMember(score, member), false)) {
+            if (result.size() >= count) {
+                break;
+            }
+            result.add(new AbstractMap.SimpleImmutableEntry<>(entry.member, entry.score));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the (member, score) entries within a score range in ascending order.
+     * Starts from the lower bound, so it costs O(log n + m) for m results.
+     */
+    public List<Map.Entry<String, Double>> rangeByScore(ScoreRange range) {
+        List<Map.Entry<String, Double>> result = new ArrayList<>();
+        Packed current = packed;
+        if (current != null) {
+            int from = current.lowerBound(range);
+            int to = current.upperBound(range);
+            for (int i = from; i < to; i++) {
+                result.add(new AbstractMap.SimpleImmutableEntry<>(current.members[i], current.scores[i]));
+            }
+            return result;
+        }
+        for (ScoredMember entry : indexed.window(range)) {
+            result.add(new AbstractMap.SimpleImmutableEntry<>(entry.member, entry.score));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of members within a score range.
+     */
+    public long count(ScoreRange range) {
+        Packed current = packed;
+        if (current != null) {
+            return Math.max(0, current.upperBound(range) - current.lowerBound(range));
+        }
+        return indexed.window(range).size();
+    }
+
+    public int size() {
+        Packed current = packed;
+        return current != null ? current.size() : indexed.size.get();
+    }
+
+    public boolean isEmpty() {
+        Packed current = packed;
+        return current != null ? current.size() == 0 : indexed.scores.isEmpty();
+    }
+
+    /**
+     * Returns the estimated heap footprint of the set in its current encoding, key excluded.
+     */
+    public long memoryUsage() {
+        Packed current = packed;
+        if (current != null) {
+            return SET_OVERHEAD + current.memoryUsage();
+        }
+        return SET_OVERHEAD + Indexed.memoryUsage(indexed.scores.keySet());
+    }
+
+    /**
+     * Returns the estimated heap footprint the set would have in the indexed encoding, key excluded.
+     */
+    public long indexedMemoryUsage() {
+        Packed current = packed;
+        if (current != null) {
+            return SET_OVERHEAD + Indexed.memoryUsage(Arrays.asList(current.members));
+        }
+        return memoryUsage();
+    }
+
+    public long getAccessTime() {
+        return accessTime;
+    }
+
+    public void touch() {
+        accessTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Orders entries by score, then member. A null member sorts before every member with the
+     * same score, which makes it usable as a range bound.
+     */
+    private static int compare(double score, String member, double otherScore, String otherMember) {
+        int byScore = Double.compare(score, otherScore);
+        if (byScore != 0) {
+            return byScore;
+        }
+        if (member == null || otherMember == null) {
+            return member == null ? (otherMember == null ? 0 : -1) : 1;
+        }
+        return member.compareTo(otherMember);
+    }
+
+    // Range bounds as (score, null) entries: [min, max] becomes [(min, null), (next(max), null))
+    private static double lowerBoundScore(ScoreRange range) {
+        return range.isMinExclusive() ? Math.nextUp(range.getMin()) : range.getMin();
+    }
+
+    private static double upperBoundScore(ScoreRange range) {
+        return range.isMaxExclusive() ? range.getMax() : Math.nextUp(range.getMax());
+    }
+
+    // Includes +inf itself, which no exclusive (score, null) bound can
+    private static boolean isUnboundedAbove(ScoreRange range) {
+        return range.getMax() == Double.POSITIVE_INFINITY && !range.isMaxExclusive();
+    }
+
+    /**
+     * An immutable packed snapshot: scores and members sorted by (score, member).
+     * Members are found by a linear scan, which for a few dozen entries is cheaper than hashing.
+     */
+    private static final class Packed {
+        static final Packed EMPTY = new Packed(new double[0], new String[0]);
+
+        final double[] scores;
+        final String[] members;
+
+        Packed(double[] scores, String[] members) {
+            this.scores = scores;
+            this.members = members;
+        }
+
+        int size() {
+            return members.length;
+        }
+
+        int indexOf(String member) {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i].equals(member)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the position of the first entry not below (score, member).
+         */
+        int search(double score, String member) {
+            int low = 0;
+            int high = members.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(scores[middle], members[middle], score, member) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        int lowerBound(ScoreRange range) {
+            return search(lowerBoundScore(range), null);
+        }
+
+        int upperBound(ScoreRange range) {
+            return isUnboundedAbove(range) ? members.length : search(upperBoundScore(range), null);
+        }
+
+        /**
+         * Returns a copy without the entry at removed and with (score, member) inserted before
+         * the entry at inserted; either position may be -1 to skip that step.
+         */
+        Packed rebuild(int removed, int inserted, double score, String member) {
+            int length = members.length - (removed >= 0 ? 1 : 0) + (inserted >= 0 ? 1 : 0);
+            double[] newScores = new double[length];
+            String[] newMembers = new String[length];
+            int next = 0;
+            for (int i = 0; i <= members.length; i++) {
+                if (i == inserted) {
+                    newScores[next] = score;
+                    newMembers[next++] = member;
+                }
+                if (i < members.length && i != removed) {
+                    newScores[next] = scores[i];
+                    newMembers[next++] = members[i];
+                }
+            }
+            return new Packed(newScores, newMembers);
+        }
+
+        long memoryUsage() {
+            long size = MemoryEstimator.align(MemoryEstimator.OBJECT_HEADER + 2 * MemoryEstimator.REFERENCE)
+                    + MemoryEstimator.arraySize(scores.length, Double.BYTES)
+                    + MemoryEstimator.arraySize(members.length, MemoryEstimator.REFERENCE);
+            for (String member : members) {
+                size += MemoryEstimator.stringSize(member);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * The indexed encoding: member to score, plus a skip list ordered by (score, member) for rank
+     * and range queries. A member's two entries are updated inside a compute on its score entry,
+     * so writes to the same member are serialized; readers may briefly see a member at both its
+     * old and new score while it moves. The member count is tracked separately because
+     * ConcurrentSkipListSet.size() is O(n).
+     */
+    private static final class Indexed {
+        // The two maps, the skip list head and the member counter
+        static final int OVERHEAD = 192;
+        // Hash map entry, boxed score, index entry, skip list node and its share of index nodes
+        static final int ENTRY = MemoryEstimator.HASH_MAP_ENTRY + MemoryEstimator.BOXED_NUMBER + 24 + 24 + 12;
+
+        final ConcurrentHashMap<String, Double> scores = new ConcurrentHashMap<>();
+        final ConcurrentSkipListSet<ScoredMember> index = new ConcurrentSkipListSet<>();
+        final AtomicInteger size = new AtomicInteger();
+
+        Double update(String member, Function<Double, Double> newScore) {
+            Double[] previous = new Double[1];
+            scores.compute(member, (m, current) -> {
+                double score = newScore.apply(current);
+                previous[0] = current;
+                if (current == null || Double.compare(current, score) != 0) {
+                    index.add(new ScoredMember(score, m));
+                    if (current != null) {
+                        index.remove(new ScoredMember(current, m));
+                    }
+                }
+                return score;
+            });
+            if (previous[0] == null) {
+                size.incrementAndGet();
+            }
+            return previous[0];
+        }
+
+        boolean remove(double score, String member) {
+            boolean[] removed = new boolean[1];
+            scores.computeIfPresent(member, (m, current) -> {
+                if (Double.compare(current, score) != 0) {
+                    return current;
+                }
+                index.remove(new ScoredMember(current, m));
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) {
+                size.decrementAndGet();
+            }
+            return removed[0];
+        }
+
+        NavigableSet<ScoredMember> window(ScoreRange range) {
+            ScoredMember from = new ScoredMember(lowerBoundScore(range), null);
+            if (isUnboundedAbove(range)) {
+                return index.tailSet(from, true);
+            }
+            ScoredMember to = new ScoredMember(upperBoundScore(range), null);
+            if (from.compareTo(to) >= 0) {
+                return Collections.emptyNavigableSet();
+            }
+            return index.subSet(from, true, to, false);
+        }
+
+        static long memoryUsage(Iterable<String> members) {
+            long size = OVERHEAD;
+            for (String member : members) {
+                size += ENTRY + MemoryEstimator.stringSize(member);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * An entry of the indexed encoding's skip list.
+     */
+    private static final class ScoredMember implements Comparable<ScoredMember> {
+        final double score;
+        final String member;
+
+        ScoredMember(double score, String member) {
+            this.score = score;
+            this.member = member;
+        }
+
+        @Override
+        public int compareTo(ScoredMember other) {
+            return SortedSetValue.compare(score, member, other.score, other.member);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+public interface StorageEngine {
+    void set(String key, String value);
+    void setEx(String key, String value, long seconds);
+    void mset(Map<String, String> entries);
+    String get(String key);
+    String peek(String key);
+    boolean del(String key);
+    boolean unlink(String key);
+    void flush(boolean async);
+    long dbSize();
+    long incr(String key);
+    boolean zadd(String key, double score, String value);
+    long zcard(String key);
+    Long zrank(String key, String value);
+    List<String> zrange(String key, long start, long end);
+    Long zrevrank(String key, String value);
+    Double zscore(String key, String value);
+    double zincrby(String key, double increment, String value);
+    List<Map.Entry<String, Double>> zrangeByScore(String key, ScoreRange range);
+    long zcount(String key, ScoreRange range);
+    long hset(String key, Map<String, String> fields);
+    String hget(String key, String field);
+    List<String> hmget(String key, List<String> fields);
+    Map<String, String> hgetall(String key);
+    long hincrby(String key, String field, long increment);
+    boolean pfadd(String key, List<String> elements);
+    long pfcount(List<String> keys);
+    void pfmerge(String destKey, List<String> sourceKeys);
+    void pfrestore(String key, byte[] registers);
+    int setbit(String key, long offset, int value);
+    int getbit(String key, long offset);
+    long bitcount(String key, long start, long end, boolean bitUnit);
+    long bitop(BitOperation operation, String destKey, List<String> sourceKeys);
+    void bitrestore(String key, long byteOffset, byte[] bytes);
+    void tsAdd(String key, long timestamp, double value);
+    void tsAdd(String key, long timestamp, double value, long retentionMillis);
+    List<TimeSeries.Sample> tsRange(String key, long from, long to);
+    List<TimeSeries.Sample> tsAggregate(String key, long from, long to, TimeSeries.Aggregation aggregation, long bucketMillis);
+
+    // Cursor-based iteration used by SCAN and ZSCAN
+    ScanResult<String> scan(String cursor, String pattern, int count, String type);
+    ScanResult<Map.Entry<String, Double>> zscan(String key, String cursor, String pattern, int count);
+    List<String> keys(String pattern);
+    long delPrefix(String prefix);
+
+    // Key change notifications used by client-side caching
+    void setKeyChangeListener(KeyChangeListener listener);
+
+    // Introspection used by INFO and MEMORY USAGE
+    MemDBStats getStats();
+    void recordCommand();
+    long getCurrentMemoryUsed();
+    long getMaxMemory();
+    EvictionPolicy getEvictionPolicy();
+    Map<String, Long> keyCountsByType();
+    MemoryUsage memoryUsage(String key);
+
+    // Bulk export
+    void dump(String prefix, KeyspaceVisitor visitor) throws IOException;
+} 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * A value with internal structure, such as a hash or a HyperLogLog, stored in a key-value
+ * store entry. Whatever its size, the entry is accessed, expired and evicted as one unit.
+ * Implementations must be safe for concurrent readers; MemDB serializes writers per key.
+ */
+public interface StructuredValue {
+    /**
+     * Returns the type name reported by INFO and MEMORY USAGE.
+     */
+    String typeName();
+
+    /**
+     * Returns the name of the current encoding.
+     */
+    String encodingName();
+
+    /**
+     * Returns the number of bytes charged against the memory limit, key excluded.
+     */
+    long dataSize();
+
+    /**
+     * Returns the estimated heap footprint.
+     */
+    long memoryUsage();
+
+    /**
+     * Returns the bytes the current encoding saves over the largest encoding of the type.
+     */
+    long savedBytes();
+} 
\ No newline at end of file
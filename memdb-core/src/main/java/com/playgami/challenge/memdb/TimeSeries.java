@@ -0,0 +1,539 @@
+package com.playgami.challenge.memdb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A series of (timestamp, value) samples, timestamps in milliseconds, compressed in chunks as
+ * in Facebook's Gorilla: timestamps as delta-of-deltas and values XORed with the previous one.
+ * A sample taken on schedule costs a single timestamp bit, and an unchanged value a single
+ * value bit, so regular telemetry takes a few bytes per sample.
+ * Samples are appended in timestamp order. A chunk seals once it holds chunkSamples samples
+ * and keeps its minimum, maximum and sum, so aggregations skip decoding chunks that fall
+ * within a single bucket. With a retention period, samples older than the latest sample by
+ * more than the period are hidden from queries, and trim drops the chunks holding only them.
+ * Methods are synchronized; a series is appended to by one producer at a time in practice.
+ */
+public class TimeSeries implements StructuredValue {
+    public static final String TYPE = "timeseries";
+    public static final int DEFAULT_CHUNK_SAMPLES = 256;
+
+    // The series itself: header, chunk list, settings and counters
+    private static final int OVERHEAD = 56;
+    // A chunk: header, array reference, encoder state and summary, plus its list slot
+    private static final int CHUNK_OVERHEAD = 88;
+    // Longest encoding of a sample: a 64-bit delta-of-delta and a value with a new bit window
+    private static final int MAX_SAMPLE_BITS = 4 + 64 + 2 + 5 + 6 + 64;
+    private static final int INITIAL_CHUNK_WORDS = 4;
+    // Bytes allocated by the first sample of a new chunk
+    static final long NEW_CHUNK_BYTES = INITIAL_CHUNK_WORDS * Long.BYTES;
+
+    public enum Aggregation {
+        MIN, MAX, AVG, SUM
+    }
+
+    /**
+     * A sample, or an aggregated bucket identified by its start time.
+     */
+    public static final class Sample {
+        private final long timestamp;
+        private final double value;
+
+        public Sample(long timestamp, double value) {
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Sample)) {
+                return false;
+            }
+            Sample other = (Sample) o;
+            return timestamp == other.timestamp && Double.compare(value, other.value) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(timestamp, value);
+        }
+
+        @Override
+        public String toString() {
+            return timestamp + "=" + value;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SampleVisitor {
+        void visit(long timestamp, double value);
+    }
+
+    private final int chunkSamples;
+    private final long retentionMillis;
+    // Chunks in timestamp order; only the last one may be open
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long size;
+    private long lastTimestamp;
+    // Words allocated by all chunks, charged against the memory limit
+    private long allocatedWords;
+
+    public TimeSeries() {
+        this(DEFAULT_CHUNK_SAMPLES, 0);
+    }
+
+    /**
+     * Creates a series; a retention period of 0 keeps samples forever.
+     */
+    public TimeSeries(int chunkSamples, long retentionMillis) {
+        this.chunkSamples = chunkSamples;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Parses a range bound: a timestamp, "-" for the earliest sample or "+" for the latest.
+     */
+    public static long parseRangeBound(String bound) {
+        if (bound.equals("-")) {
+            return 0;
+        }
+        if (bound.equals("+")) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(bound);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid timestamp");
+        }
+    }
+
+    @Override
+    public String typeName() {
+        return TYPE;
+    }
+
+    @Override
+    public String encodingName() {
+        return "compressed";
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    /**
+     * Appends a sample.
+     * @throws IllegalArgumentException if the timestamp is negative or not after the latest sample
+     */
+    public synchronized void add(long timestamp, double value) {
+        if (timestamp < 0) {
+            throw new IllegalArgumentException("invalid timestamp");
+        }
+        if (size > 0 && timestamp <= lastTimestamp) {
+            throw new IllegalArgumentException("timestamp must be newer than the latest sample");
+        }
+        Chunk open = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (open == null || open.count == chunkSamples) {
+            open = new Chunk();
+            chunks.add(open);
+            allocatedWords += open.words.length;
+        }
+        int words = open.words.length;
+        open.append(timestamp, value);
+        if (open.count == chunkSamples) {
+            open.seal();
+        }
+        allocatedWords += open.words.length - words;
+        size++;
+        lastTimestamp = timestamp;
+    }
+
+    /**
+     * Returns the most the next add may grow dataSize by.
+     */
+    public synchronized long addGrowthBound() {
+        Chunk open = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (open == null || open.count == chunkSamples) {
+            return NEW_CHUNK_BYTES;
+        }
+        return open.hasRoom(MAX_SAMPLE_BITS) ? 0 : (long) open.words.length * Long.BYTES;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns the samples between from and to, both inclusive.
+     */
+    public synchronized List<Sample> range(long from, long to) {
+        List<Sample> samples = new ArrayList<>();
+        forEach(from, to, (timestamp, value) -> samples.add(new Sample(timestamp, value)));
+        return samples;
+    }
+
+    /**
+     * Aggregates the samples between from and to, both inclusive, over buckets of bucketMillis
+     * aligned to the epoch. Returns one sample per non-empty bucket, stamped with its start time.
+     */
+    public synchronized List<Sample> aggregate(long from, long to, Aggregation aggregation, long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("bucket duration must be positive");
+        }
+        Aggregator aggregator = new Aggregator(aggregation, bucketMillis);
+        long start = Math.max(from, retentionCutoff());
+        for (int i = firstChunk(start); i < chunks.size() && chunks.get(i).firstTimestamp <= to; i++) {
+            Chunk chunk = chunks.get(i);
+            long bucket = aggregator.bucketOf(chunk.firstTimestamp);
+            if (chunk.firstTimestamp >= start && chunk.lastTimestamp <= to && aggregator.bucketOf(chunk.lastTimestamp) == bucket) {
+                aggregator.add(bucket, chunk.min, chunk.max, chunk.sum, chunk.count);
+            } else {
+                chunk.forEach(start, to, aggregator);
+            }
+        }
+        return aggregator.finish();
+    }
+
+    /**
+     * Drops the chunks holding only samples past the retention period and returns true if any were.
+     */
+    public synchronized boolean trim() {
+        long cutoff = retentionCutoff();
+        int expired = 0;
+        // The open chunk holds the latest sample, so it never expires
+        while (expired < chunks.size() && chunks.get(expired).lastTimestamp < cutoff) {
+            Chunk chunk = chunks.get(expired);
+            size -= chunk.count;
+            allocatedWords -= chunk.words.length;
+            expired++;
+        }
+        chunks.subList(0, expired).clear();
+        return expired > 0;
+    }
+
+    private long retentionCutoff() {
+        return retentionMillis > 0 && size > 0 ? lastTimestamp - retentionMillis : 0;
+    }
+
+    private void forEach(long from, long to, SampleVisitor visitor) {
+        long start = Math.max(from, retentionCutoff());
+        for (int i = firstChunk(start); i < chunks.size() && chunks.get(i).firstTimestamp <= to; i++) {
+            chunks.get(i).forEach(start, to, visitor);
+        }
+    }
+
+    /**
+     * Returns the index of the first chunk ending at or after timestamp.
+     */
+    private int firstChunk(long timestamp) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (chunks.get(middle).lastTimestamp < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the bytes charged against the memory limit: the words allocated by the chunks.
+     */
+    @Override
+    public synchronized long dataSize() {
+        return allocatedWords * Long.BYTES;
+    }
+
+    @Override
+    public synchronized long memoryUsage() {
+        long usage = OVERHEAD + MemoryEstimator.arraySize(chunks.size(), MemoryEstimator.REFERENCE);
+        for (Chunk chunk : chunks) {
+            usage += CHUNK_OVERHEAD + MemoryEstimator.arraySize(chunk.words.length, Long.BYTES);
+        }
+        return usage;
+    }
+
+    /**
+     * Returns the bytes saved against storing every timestamp and value uncompressed.
+     */
+    @Override
+    public synchronized long savedBytes() {
+        return Math.max(0, OVERHEAD + MemoryEstimator.align(MemoryEstimator.ARRAY_HEADER + size * 2 * Long.BYTES) - memoryUsage());
+    }
+
+    /**
+     * Folds samples, or chunk summaries, into consecutive buckets.
+     */
+    private static final class Aggregator implements SampleVisitor {
+        private final Aggregation aggregation;
+        private final long bucketMillis;
+        private final List<Sample> buckets = new ArrayList<>();
+        private long bucket = -1;
+        private double min;
+        private double max;
+        private double sum;
+        private long count;
+
+        Aggregator(Aggregation aggregation, long bucketMillis) {
+            this.aggregation = aggregation;
+            this.bucketMillis = bucketMillis;
+        }
+
+        long bucketOf(long timestamp) {
+            return timestamp - timestamp % bucketMillis;
+        }
+
+        @Override
+        public void visit(long timestamp, double value) {
+            add(bucketOf(timestamp), value, value, value, 1);
+        }
+
+        void add(long bucket, double min, double max, double sum, long count) {
+            if (bucket != this.bucket) {
+                flush();
+                this.bucket = bucket;
+                this.min = Double.POSITIVE_INFINITY;
+                this.max = Double.NEGATIVE_INFINITY;
+                this.sum = 0;
+                this.count = 0;
+            }
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+            this.sum += sum;
+            this.count += count;
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            double value;
+            switch (aggregation) {
+                case MIN:
+                    value = min;
+                    break;
+                case MAX:
+                    value = max;
+                    break;
+                case AVG:
+                    value = sum / count;
+                    break;
+                default:
+                    value = sum;
+                    break;
+            }
+            buckets.add(new Sample(bucket, value));
+        }
+
+        List<Sample> finish() {
+            flush();
+            return buckets;
+        }
+    }
+
+    /**
+     * Samples compressed into a bit stream, most significant bit of each word first.
+     * The first sample is stored raw. Each later timestamp is stored as the change of its delta
+     * from the previous delta, in a variable-length bucket; each later value as its XOR with
+     * the previous value, reusing the previous window of meaningful bits when the XOR fits it.
+     */
+    private static final class Chunk {
+        private long[] words = new long[INITIAL_CHUNK_WORDS];
+        private int bitLength;
+        private int count;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private long lastDelta;
+        private long lastValueBits;
+        // Leading and trailing zeros of the last value window, or -1 before the first window
+        private int lastLeading = -1;
+        private int lastTrailing;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+
+        void append(long timestamp, double value) {
+            if (!hasRoom(MAX_SAMPLE_BITS)) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            long valueBits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                write(timestamp, 64);
+                write(valueBits, 64);
+                firstTimestamp = timestamp;
+            } else {
+                long delta = timestamp - lastTimestamp;
+                writeDeltaOfDelta(delta - lastDelta);
+                lastDelta = delta;
+                writeValue(valueBits ^ lastValueBits);
+            }
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+
+        boolean hasRoom(int bits) {
+            return bitLength + bits <= (long) words.length * 64;
+        }
+
+        /**
+         * Releases the unused tail of the stream once the chunk is full.
+         */
+        void seal() {
+            words = Arrays.copyOf(words, (bitLength + 63) >>> 6);
+        }
+
+        private void writeDeltaOfDelta(long deltaOfDelta) {
+            if (deltaOfDelta == 0) {
+                write(0b0, 1);
+            } else if (fits(deltaOfDelta, 7)) {
+                write(0b10, 2);
+                write(deltaOfDelta, 7);
+            } else if (fits(deltaOfDelta, 9)) {
+                write(0b110, 3);
+                write(deltaOfDelta, 9);
+            } else if (fits(deltaOfDelta, 12)) {
+                write(0b1110, 4);
+                write(deltaOfDelta, 12);
+            } else {
+                write(0b1111, 4);
+                write(deltaOfDelta, 64);
+            }
+        }
+
+        private void writeValue(long xor) {
+            if (xor == 0) {
+                write(0b0, 1);
+                return;
+            }
+            // Five bits store the leading zeros, so longer runs are stored as part of the window
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+                write(0b10, 2);
+                write(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(length - 1, 6);
+                write(xor >>> trailing, length);
+                lastLeading = leading;
+                lastTrailing = trailing;
+            }
+        }
+
+        private static boolean fits(long value, int bits) {
+            return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+        }
+
+        /**
+         * Appends the low bits of value.
+         */
+        private void write(long value, int bits) {
+            if (bits < 64) {
+                value &= (1L << bits) - 1;
+            }
+            int word = bitLength >>> 6;
+            int free = 64 - (bitLength & 63);
+            if (bits <= free) {
+                words[word] |= value << (free - bits);
+            } else {
+                words[word] |= value >>> (bits - free);
+                words[word + 1] |= value << (64 - (bits - free));
+            }
+            bitLength += bits;
+        }
+
+        /**
+         * Decodes the samples in order, visiting those between from and to.
+         */
+        void forEach(long from, long to, SampleVisitor visitor) {
+            BitReader reader = new BitReader(words);
+            long timestamp = reader.read(64);
+            long valueBits = reader.read(64);
+            long delta = 0;
+            int leading = 0;
+            int trailing = 0;
+            int decoded = 0;
+            while (timestamp <= to) {
+                if (timestamp >= from) {
+                    visitor.visit(timestamp, Double.longBitsToDouble(valueBits));
+                }
+                if (++decoded == count) {
+                    return;
+                }
+                delta += readDeltaOfDelta(reader);
+                timestamp += delta;
+                if (reader.read(1) == 1) {
+                    if (reader.read(1) == 1) {
+                        leading = (int) reader.read(5);
+                        int length = (int) reader.read(6) + 1;
+                        trailing = 64 - leading - length;
+                    }
+                    valueBits ^= reader.read(64 - leading - trailing) << trailing;
+                }
+            }
+        }
+
+        private static long readDeltaOfDelta(BitReader reader) {
+            if (reader.read(1) == 0) {
+                return 0;
+            }
+            if (reader.read(1) == 0) {
+                return reader.readSigned(7);
+            }
+            if (reader.read(1) == 0) {
+                return reader.readSigned(9);
+            }
+            if (reader.read(1) == 0) {
+                return reader.readSigned(12);
+            }
+            return reader.read(64);
+        }
+    }
+
+    private static final class BitReader {
+        private final long[] words;
+        private int position;
+
+        BitReader(long[] words) {
+            this.words = words;
+        }
+
+        long read(int bits) {
+            int word = position >>> 6;
+            int used = position & 63;
+            int available = 64 - used;
+            position += bits;
+            long high = (words[word] << used) >>> (64 - bits);
+            if (bits <= available) {
+                return high;
+            }
+            return high | (words[word + 1] >>> (64 - (bits - available)));
+        }
+
+        long readSigned(int bits) {
+            return (read(bits) << (64 - bits)) >> (64 - bits);
+        }
+    }
+} 
\ No newline at end of file
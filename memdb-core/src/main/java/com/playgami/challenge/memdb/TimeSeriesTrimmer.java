@@ -0,0 +1,36 @@
+package com.playgami.challenge.memdb;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trims time series past their retention period on a dedicated thread, so appends never pay for it.
+ */
+class TimeSeriesTrimmer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TimeSeriesTrimmer.class);
+
+    private final ScheduledExecutorService executor;
+
+    TimeSeriesTrimmer(String name, Runnable trim, long periodMillis) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                trim.run();
+            } catch (RuntimeException e) {
+                logger.error("Time series trim failed: {}", e.getMessage(), e);
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Compresses and decompresses the UTF-8 bytes of string values.
+ * Implementations are thread-safe.
+ */
+interface ValueCodec {
+    /**
+     * Returns the compressed bytes, or null if they would not be smaller than the input.
+     */
+    byte[] compress(byte[] raw);
+
+    /**
+     * Restores the rawLength bytes of a compressed value.
+     */
+    byte[] decompress(byte[] compressed, int rawLength);
+
+    /**
+     * Creates the codec implementing a compression codec setting.
+     * @throws IllegalArgumentException if the codec's library is not on the classpath
+     */
+    static ValueCodec forCodec(CompressionCodec codec) {
+        switch (codec) {
+            case LZ4:
+                try {
+                    return new Lz4Codec();
+                } catch (NoClassDefFoundError e) {
+                    throw new IllegalArgumentException("The LZ4 codec requires org.lz4:lz4-java on the classpath", e);
+                }
+            default:
+                return new DeflateCodec();
+        }
+    }
+} 
\ No newline at end of file
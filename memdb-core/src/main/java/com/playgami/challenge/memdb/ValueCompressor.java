@@ -0,0 +1,49 @@
+package com.playgami.challenge.memdb;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compresses string values of at least minLength characters on write, and restores them on read.
+ * A value is stored compressed only if that takes at most maxRatio of its UTF-8 size;
+ * otherwise it is stored as is, and the attempt is counted as skipped.
+ * Time spent in the codec is recorded in the stats.
+ */
+final class ValueCompressor {
+    private final ValueCodec codec;
+    private final int minLength;
+    private final double maxRatio;
+    private final MemDBStats stats;
+
+    ValueCompressor(ValueCodec codec, int minLength, double maxRatio, MemDBStats stats) {
+        this.codec = codec;
+        this.minLength = minLength;
+        this.maxRatio = maxRatio;
+        this.stats = stats;
+    }
+
+    /**
+     * Returns the value compressed, or null if it is too short or does not compress well enough.
+     */
+    CompressedValue compress(String value) {
+        if (value.length() < minLength) {
+            return null;
+        }
+        long start = System.nanoTime();
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        byte[] data = codec.compress(raw);
+        long nanos = System.nanoTime() - start;
+        if (data == null || data.length > raw.length * maxRatio) {
+            stats.recordSkippedCompression(nanos);
+            return null;
+        }
+        stats.recordCompression(raw.length, data.length, nanos);
+        return new CompressedValue(data, raw.length);
+    }
+
+    String decompress(CompressedValue compressed) {
+        long start = System.nanoTime();
+        String value = new String(codec.decompress(compressed.data, compressed.rawLength), StandardCharsets.UTF_8);
+        stats.recordDecompression(System.nanoTime() - start);
+        return value;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.playgami.challenge.memdb;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded table of canonical instances for short string values, so that keys holding equal
+ * values share one String. Each canonical value is reference counted: it is charged against
+ * memoryUsed once, when its first reference is taken, and released with its last reference,
+ * which also frees its slot. Values are pooled on write only while the table has a free slot,
+ * so a burst of distinct values cannot grow it past maxEntries.
+ */
+final class ValuePool {
+    private final int maxEntries;
+    private final int maxLength;
+    private final AtomicLong memoryUsed;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Slots taken, claimed before an entry is inserted so the bound holds under concurrent writes
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static final class Entry {
+        final String value;
+        // Guarded by the map's lock on the entry's bin
+        int references;
+
+        Entry(String value) {
+            this.value = value;
+        }
+    }
+
+    ValuePool(int maxEntries, int maxLength, AtomicLong memoryUsed) {
+        this.maxEntries = maxEntries;
+        this.maxLength = maxLength;
+        this.memoryUsed = memoryUsed;
+    }
+
+    /**
+     * Takes a reference to the canonical instance of a value and returns it,
+     * or returns null if the value is too long or the table is full.
+     */
+    String acquire(String value) {
+        if (value.length() > maxLength) {
+            return null;
+        }
+        Entry entry = entries.compute(value, (v, current) -> {
+            if (current == null) {
+                if (size.incrementAndGet() > maxEntries) {
+                    size.decrementAndGet();
+                    return null;
+                }
+                current = new Entry(v);
+                memoryUsed.addAndGet(v.length());
+            }
+            current.references++;
+            return current;
+        });
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Drops a reference taken by acquire, releasing the value with its last reference.
+     */
+    void release(String value) {
+        entries.computeIfPresent(value, (v, entry) -> {
+            if (--entry.references > 0) {
+                return entry;
+            }
+            memoryUsed.addAndGet(-v.length());
+            size.decrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of distinct values pooled.
+     */
+    int size() {
+        return size.get();
+    }
+
+    void clear() {
+        entries.clear();
+        size.set(0);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,68 @@
+package com.playgami.challenge.memdb;
+
+public class ValueWrapper {
+    // New keys start with a small access count so they are not evicted straight away (as in Redis)
+    public static final int INITIAL_FREQUENCY = 5;
+
+    final String value; // null for a structured or compressed value
+    final CompressedValue compressed; // null unless the string is stored compressed
+    final boolean pooled; // value is a canonical instance from the value pool, charged there
+    final StructuredValue structure; // null for a string
+    final Long expiryTime; // null means no expiry
+    // Access metadata kept per entry for sampling eviction strategies
+    private volatile long accessTime;
+    private volatile int frequency = INITIAL_FREQUENCY;
+
+    public ValueWrapper(String value) {
+        this(value, false, null, null, null);
+    }
+
+    public ValueWrapper(String value, long expiryTime) {
+        this(value, false, null, null, expiryTime);
+    }
+
+    public ValueWrapper(StructuredValue structure) {
+        this(null, false, null, structure, null);
+    }
+
+    ValueWrapper(CompressedValue compressed, Long expiryTime) {
+        this(null, false, compressed, null, expiryTime);
+    }
+
+    /**
+     * Wraps a canonical instance taken from the value pool.
+     */
+    static ValueWrapper pooled(String value, Long expiryTime) {
+        return new ValueWrapper(value, true, null, null, expiryTime);
+    }
+
+    private ValueWrapper(String value, boolean pooled, CompressedValue compressed, StructuredValue structure,
+                         Long expiryTime) {
+        this.value = value;
+        this.pooled = pooled;
+        this.compressed = compressed;
+        this.structure = structure;
+        this.expiryTime = expiryTime;
+        this.accessTime = System.currentTimeMillis();
+    }
+
+    public boolean isExpired() {
+        return expiryTime != null && expiryTime <= System.currentTimeMillis();
+    }
+
+    public long getAccessTime() {
+        return accessTime;
+    }
+
+    public void setAccessTime(long accessTime) {
+        this.accessTime = accessTime;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(int frequency) {
+        this.frequency = frequency;
+    }
+} 
\ No newline at end of file
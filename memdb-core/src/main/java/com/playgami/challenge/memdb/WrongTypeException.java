@@ -0,0 +1,11 @@
+package com.playgami.challenge.memdb;
+
+/**
+ * Thrown when a command is applied to a key holding a value of another type,
+ * e.g. GET on a hash.
+ */
+public class WrongTypeException extends RuntimeException {
+    public WrongTypeException() {
+        super("WRONGTYPE Operation against a key holding the wrong kind of value");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.playgami.challenge.memdb.eviction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs eviction on a dedicated thread so writers do not pay for it.
+ * Eviction starts when usage reaches the high watermark and continues, one bounded cycle
+ * at a time, until usage drops below the low watermark.
+ */
+public class BackgroundEvictor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundEvictor.class);
+
+    private final ScheduledExecutorService executor;
+    private final BooleanSupplier aboveHighWatermark;
+    private final BooleanSupplier aboveLowWatermark;
+    private final EvictionCycle evictionCycle;
+    // Set while a wake-up task is queued, so bursts of writers submit a single task
+    private final AtomicBoolean wakeUpQueued = new AtomicBoolean();
+    // True between crossing the high watermark and reaching the low watermark
+    private volatile boolean evicting;
+
+    /**
+     * A bounded unit of eviction work.
+     */
+    @FunctionalInterface
+    public interface EvictionCycle {
+        /**
+         * Evicts up to a fixed budget of entries and returns the number evicted.
+         */
+        int run();
+    }
+
+    public BackgroundEvictor(String name, BooleanSupplier aboveHighWatermark, BooleanSupplier aboveLowWatermark,
+                             EvictionCycle evictionCycle, long periodMillis) {
+        this.aboveHighWatermark = aboveHighWatermark;
+        this.aboveLowWatermark = aboveLowWatermark;
+        this.evictionCycle = evictionCycle;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runCycle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Asks the evictor to check memory now instead of waiting for the next period.
+     */
+    public void wakeUp() {
+        if (wakeUpQueued.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    wakeUpQueued.set(false);
+                    runCycle();
+                });
+            } catch (RuntimeException e) {
+                // Executor already shut down
+                wakeUpQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns true while an eviction run is in progress.
+     */
+    public boolean isEvicting() {
+        return evicting;
+    }
+
+    private void runCycle() {
+        try {
+            if (!evicting && aboveHighWatermark.getAsBoolean()) {
+                evicting = true;
+            }
+            if (!evicting) {
+                return;
+            }
+            int evicted = evictionCycle.run();
+            if (evicted == 0 || !aboveLowWatermark.getAsBoolean()) {
+                evicting = false;
+            } else {
+                // More to do: queue another bounded cycle behind any pending wake-ups
+                wakeUp();
+            }
+        } catch (RuntimeException e) {
+            evicting = false;
+            logger.error("Eviction cycle failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+} 
\ No newline at end of file
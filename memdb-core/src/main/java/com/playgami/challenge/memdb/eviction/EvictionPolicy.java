@@ -0,0 +1,11 @@
+package com.playgami.challenge.memdb.eviction;
+
+// Eviction policy for the MemDB. Extensible to other policies.
+public enum EvictionPolicy {
+    // Least Recently Used, exact recency order
+    LRU,
+    // Approximated LRU: sample keys and evict the one idle the longest
+    SAMPLED_LRU,
+    // Approximated LFU: sample keys and evict the least frequently used
+    SAMPLED_LFU
+} 
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.ValueWrapper;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public interface EvictionStrategy {
+    String selectKeyToEvict(Map<String, AtomicReference<ValueWrapper>> keyValueStore, Map<String, Long> lastAccessTime);
+
+    EvictionPolicy getPolicy();
+
+    // Called whenever a key is read or written
+    default void onAccess(String key, ValueWrapper wrapper) {
+    }
+
+    // Called when a key leaves the store
+    default void onRemove(String key) {
+    }
+
+    /**
+     * Creates the strategy implementing a policy.
+     * @param samples number of keys sampled per eviction by the sampling policies
+     */
+    static EvictionStrategy forPolicy(EvictionPolicy policy, int samples) {
+        switch (policy) {
+            case SAMPLED_LRU:
+                return new SampledEvictionStrategy(false, samples);
+            case SAMPLED_LFU:
+                return new SampledEvictionStrategy(true, samples);
+            default:
+                return new LRUEvictionStrategy();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.playgami.challenge.memdb.eviction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks approximately random entries from a concurrent map without copying its keys.
+ * For each entry, the map's spliterator is split repeatedly, following a random half each
+ * time, down to a single-entry region; empty regions are rejected and the descent retried.
+ * Each entry costs O(log n) splits instead of the O(n) key copy a uniform sample would need.
+ */
+final class KeySampler {
+    // Descents tried per entry before falling back to walking the neighbouring regions
+    private static final int MAX_ATTEMPTS = 16;
+
+    private KeySampler() {
+    }
+
+    static <K, V> List<Map.Entry<K, V>> sample(Map<K, V> map, int count) {
+        List<Map.Entry<K, V>> sample = new ArrayList<>(count);
+        if (map.size() <= count) {
+            sample.addAll(map.entrySet());
+            return sample;
+        }
+        // Separate descents keep the entries independent: keys cluster in hash order
+        for (int i = 0; i < count; i++) {
+            Map.Entry<K, V> entry = sampleOne(map);
+            if (entry == null) {
+                break;
+            }
+            sample.add(entry);
+        }
+        return sample;
+    }
+
+    private static <K, V> Map.Entry<K, V> sampleOne(Map<K, V> map) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map.Entry<K, V>> found = new ArrayList<>(1);
+        Spliterator<Map.Entry<K, V>> region = null;
+        Deque<Spliterator<Map.Entry<K, V>>> siblings = new ArrayDeque<>();
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            siblings.clear();
+            region = map.entrySet().spliterator();
+            while (region.estimateSize() > 1) {
+                Spliterator<Map.Entry<K, V>> split = region.trySplit();
+                if (split == null) {
+                    break;
+                }
+                if (random.nextBoolean()) {
+                    siblings.push(region);
+                    region = split;
+                } else {
+                    siblings.push(split);
+                }
+            }
+            // Restarting on an empty region keeps every region equally likely
+            if (region.tryAdvance(found::add)) {
+                return found.get(0);
+            }
+        }
+        // Mostly empty map: walk on from the last region, at the cost of favouring entries after holes
+        while (!region.tryAdvance(found::add)) {
+            if (siblings.isEmpty()) {
+                return null;
+            }
+            region = siblings.pop();
+        }
+        return found.get(0);
+    }
+} 
\ No newline at end of file
@@ -4,9 +4,7 @@ import com.playgami.challenge.memdb.ValueWrapper;
 import java.util.Map;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicReference;
-import org.springframework.stereotype.Component;
 
-@Component
 public class LRUEvictionStrategy implements EvictionStrategy {
     // Using ConcurrentSkipListMap for thread-safe sorted map operations
     private final ConcurrentSkipListMap<Long, String> accessTimeMap = new ConcurrentSkipListMap<>();
@@ -31,6 +29,21 @@ public class LRUEvictionStrategy implements EvictionStrategy {
         return selectKeyToEvict(keyValueStore, lastAccessTime);
     }
 
+    @Override
+    public EvictionPolicy getPolicy() {
+        return EvictionPolicy.LRU;
+    }
+
+    @Override
+    public void onAccess(String key, ValueWrapper wrapper) {
+        updateAccessTime(key, System.currentTimeMillis());
+    }
+
+    @Override
+    public void onRemove(String key) {
+        removeKey(key);
+    }
+
     // Method to update access time for a key
     public void updateAccessTime(String key, long accessTime) {
         // First remove any existing entries for this key
@@ -0,0 +1,35 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Eviction policy that removes the least recently used sorted set, lowest scores first.
+ * The LRU set is approximated by sampling the registry, like the sampled key eviction.
+ */
+public class LRUSetEvictionPolicy implements SortedSetEvictionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(LRUSetEvictionPolicy.class);
+
+    @Override
+    public int evict(SortedSetRegistry registry, MemberRemover remover, int maxMembers) {
+        SortedSetValue oldest = null;
+        for (SortedSetValue set : registry.sample(SAMPLES)) {
+            if (oldest == null || set.getAccessTime() < oldest.getAccessTime()) {
+                oldest = set;
+            }
+        }
+        if (oldest == null) {
+            return 0;
+        }
+        // A set larger than the batch stays the oldest and is finished by the next batches
+        int removed = SortedSetEvictionStrategy.removeLowest(oldest, remover, maxMembers);
+        logger.debug("Evicted {} members from least recently used sorted set {}", removed, oldest.getKey());
+        return removed;
+    }
+
+    @Override
+    public SortedSetEvictionPolicy getPolicy() {
+        return SortedSetEvictionPolicy.LRU_SET;
+    }
+} 
\ No newline at end of file
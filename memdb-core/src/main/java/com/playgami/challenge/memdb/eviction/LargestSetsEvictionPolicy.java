@@ -0,0 +1,40 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Eviction policy that trims the lowest scores of the largest sorted sets.
+ * The largest of a few sampled sets is trimmed down towards the size of the next largest,
+ * so memory is reclaimed from big sets first while small sets are left intact.
+ */
+public class LargestSetsEvictionPolicy implements SortedSetEvictionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(LargestSetsEvictionPolicy.class);
+
+    @Override
+    public int evict(SortedSetRegistry registry, MemberRemover remover, int maxMembers) {
+        List<SortedSetValue> sample = registry.sample(SAMPLES);
+        sample.sort(Comparator.comparingInt(SortedSetValue::size).reversed());
+        int removed = 0;
+        for (int i = 0; i < sample.size() && removed < maxMembers; i++) {
+            SortedSetValue set = sample.get(i);
+            int nextSize = i + 1 < sample.size() ? sample.get(i + 1).size() : 0;
+            // Trim at least one member, and at most down to the size of the next largest set
+            int budget = Math.min(maxMembers - removed, Math.max(1, set.size() - nextSize));
+            int trimmed = SortedSetEvictionStrategy.removeLowest(set, remover, budget);
+            if (trimmed > 0) {
+                logger.debug("Trimmed {} lowest scores from sorted set {}", trimmed, set.getKey());
+            }
+            removed += trimmed;
+        }
+        return removed;
+    }
+
+    @Override
+    public SortedSetEvictionPolicy getPolicy() {
+        return SortedSetEvictionPolicy.LARGEST_SETS;
+    }
+} 
\ No newline at end of file
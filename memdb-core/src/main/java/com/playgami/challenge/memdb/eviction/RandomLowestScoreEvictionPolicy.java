@@ -0,0 +1,36 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.List;
+
+/**
+ * Eviction policy that randomly selects a sorted set and removes its lowest scores.
+ */
+public class RandomLowestScoreEvictionPolicy implements SortedSetEvictionStrategy {
+    private static final Logger logger = LoggerFactory.getLogger(RandomLowestScoreEvictionPolicy.class);
+
+    @Override
+    public int evict(SortedSetRegistry registry, MemberRemover remover, int maxMembers) {
+        // Sets emptied concurrently are skipped; give up once the registry yields no members
+        for (int attempt = 0; attempt < SAMPLES; attempt++) {
+            List<SortedSetValue> sample = registry.sample(1);
+            if (sample.isEmpty()) {
+                return 0;
+            }
+            SortedSetValue set = sample.get(0);
+            int removed = SortedSetEvictionStrategy.removeLowest(set, remover, maxMembers);
+            if (removed > 0) {
+                logger.debug("Evicted {} lowest scores from sorted set {}", removed, set.getKey());
+                return removed;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public SortedSetEvictionPolicy getPolicy() {
+        return SortedSetEvictionPolicy.RANDOM_LOWEST_SCORE;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.ValueWrapper;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Approximated LRU/LFU eviction modeled on the Redis eviction pool.
+ * Reads only stamp their own entry (access clock or logarithmic access counter), so there is
+ * no shared recency structure to update. On eviction a few random keys are sampled and the
+ * best candidates are kept in a small pool, which improves accuracy across rounds.
+ */
+public class SampledEvictionStrategy implements EvictionStrategy {
+    public static final int DEFAULT_SAMPLES = 5;
+    // Number of candidates kept between eviction rounds
+    static final int POOL_SIZE = 16;
+    // LFU counter parameters, as in Redis (lfu-log-factor 10, lfu-decay-time 1 minute)
+    static final int LFU_MAX_COUNTER = 255;
+    private static final int LFU_LOG_FACTOR = 10;
+    private static final long LFU_DECAY_MILLIS = 60_000;
+
+    private final boolean lfu;
+    private final int samples;
+    // Candidates ordered by ascending idle score; the last one is evicted first
+    private final Candidate[] pool = new Candidate[POOL_SIZE];
+    private int poolSize;
+
+    private static final class Candidate {
+        final String key;
+        final ValueWrapper wrapper;
+        final long accessTime;
+        final long idle;
+
+        Candidate(String key, ValueWrapper wrapper, long idle) {
+            this.key = key;
+            this.wrapper = wrapper;
+            this.accessTime = wrapper.getAccessTime();
+            this.idle = idle;
+        }
+    }
+
+    public SampledEvictionStrategy(boolean lfu, int samples) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Eviction samples must be greater than zero");
+        }
+        this.lfu = lfu;
+        this.samples = samples;
+    }
+
+    @Override
+    public EvictionPolicy getPolicy() {
+        return lfu ? EvictionPolicy.SAMPLED_LFU : EvictionPolicy.SAMPLED_LRU;
+    }
+
+    @Override
+    public void onAccess(String key, ValueWrapper wrapper) {
+        long now = System.currentTimeMillis();
+        if (lfu) {
+            // Unsynchronized read-modify-write: a lost increment only makes the counter more approximate
+            wrapper.setFrequency(logIncrement(decayedFrequency(wrapper, now)));
+        }
+        wrapper.setAccessTime(now);
+    }
+
+    @Override
+    public synchronized String selectKeyToEvict(Map<String, AtomicReference<ValueWrapper>> keyValueStore, Map<String, Long> lastAccessTime) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, AtomicReference<ValueWrapper>> entry : KeySampler.sample(keyValueStore, samples)) {
+            ValueWrapper wrapper = entry.getValue().get();
+            if (wrapper != null) {
+                insert(new Candidate(entry.getKey(), wrapper, idleScore(wrapper, now)));
+            }
+        }
+
+        // Take the best candidate that is still the live value of its key and was not accessed since sampling
+        while (poolSize > 0) {
+            Candidate candidate = pool[--poolSize];
+            pool[poolSize] = null;
+            AtomicReference<ValueWrapper> ref = keyValueStore.get(candidate.key);
+            if (ref != null && ref.get() == candidate.wrapper && candidate.wrapper.getAccessTime() == candidate.accessTime) {
+                return candidate.key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns how good an eviction candidate an entry is; higher is evicted first.
+     */
+    long idleScore(ValueWrapper wrapper, long now) {
+        if (wrapper.isExpired()) {
+            return Long.MAX_VALUE;
+        }
+        if (lfu) {
+            return LFU_MAX_COUNTER - decayedFrequency(wrapper, now);
+        }
+        return now - wrapper.getAccessTime();
+    }
+
+    private void insert(Candidate candidate) {
+        for (int i = 0; i < poolSize; i++) {
+            if (pool[i].key.equals(candidate.key)) {
+                removeAt(i);
+                break;
+            }
+        }
+        // Find the first slot with a higher score
+        int slot = 0;
+        while (slot < poolSize && pool[slot].idle < candidate.idle) {
+            slot++;
+        }
+        if (poolSize == POOL_SIZE) {
+            if (slot == 0) {
+                return; // Worse than every pooled candidate
+            }
+            // Drop the worst candidate to make room
+            System.arraycopy(pool, 1, pool, 0, slot - 1);
+            slot--;
+        } else {
+            System.arraycopy(pool, slot, pool, slot + 1, poolSize - slot);
+            poolSize++;
+        }
+        pool[slot] = candidate;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(pool, index + 1, pool, index, poolSize - index - 1);
+        pool[--poolSize] = null;
+    }
+
+    private static int decayedFrequency(ValueWrapper wrapper, long now) {
+        long periods = (now - wrapper.getAccessTime()) / LFU_DECAY_MILLIS;
+        return (int) Math.max(0, wrapper.getFrequency() - periods);
+    }
+
+    /**
+     * Increments a counter with probability 1 / ((counter - initial) * factor + 1), so that it
+     * grows logarithmically with the number of accesses and fits in 0..255.
+     */
+    private static int logIncrement(int counter) {
+        if (counter >= LFU_MAX_COUNTER) {
+            return LFU_MAX_COUNTER;
+        }
+        int base = Math.max(0, counter - ValueWrapper.INITIAL_FREQUENCY);
+        double probability = 1.0 / (base * LFU_LOG_FACTOR + 1);
+        return ThreadLocalRandom.current().nextDouble() < probability ? counter + 1 : counter;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.playgami.challenge.memdb.eviction;
+
+// Eviction policy for sorted set members.
+public enum SortedSetEvictionPolicy {
+    // Pick a random set and remove its lowest scores
+    RANDOM_LOWEST_SCORE,
+    // Remove the lowest scores of the least recently used set
+    LRU_SET,
+    // Trim the lowest scores of the largest sets
+    LARGEST_SETS
+} 
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import java.util.Map;
+
+/**
+ * Interface for sorted set eviction policies.
+ * Defines how to select and remove entries from sorted sets when memory is constrained.
+ */
+public interface SortedSetEvictionStrategy {
+    // Sets sampled per selection by the policies that compare sets
+    int SAMPLES = 5;
+
+    /**
+     * Removes a member from a set and releases its memory, if it is still stored under the score.
+     */
+    @FunctionalInterface
+    interface MemberRemover {
+        boolean remove(SortedSetValue set, double score, String member);
+    }
+
+    /**
+     * Selects and removes a batch of entries from the registered sorted sets based on the policy.
+     * @param registry registry of the live sorted sets
+     * @param remover removes a member with exact memory accounting
+     * @param maxMembers upper bound of members removed by this call
+     * @return the number of members removed, 0 if no entries could be removed
+     */
+    int evict(SortedSetRegistry registry, MemberRemover remover, int maxMembers);
+
+    SortedSetEvictionPolicy getPolicy();
+
+    static SortedSetEvictionStrategy forPolicy(SortedSetEvictionPolicy policy) {
+        switch (policy) {
+            case LRU_SET:
+                return new LRUSetEvictionPolicy();
+            case LARGEST_SETS:
+                return new LargestSetsEvictionPolicy();
+            default:
+                return new RandomLowestScoreEvictionPolicy();
+        }
+    }
+
+    /**
+     * Removes up to maxMembers of the lowest scores of a set.
+     */
+    static int removeLowest(SortedSetValue set, MemberRemover remover, int maxMembers) {
+        int removed = 0;
+        // A concurrent ZADD can replace the lowest member between reading and removing it
+        for (int attempts = 0; removed < maxMembers && attempts < 2 * maxMembers; attempts++) {
+            Map.Entry<Double, String> lowest = set.lowest();
+            if (lowest == null) {
+                break;
+            }
+            if (remover.remove(set, lowest.getKey(), lowest.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+} 
\ No newline at end of file
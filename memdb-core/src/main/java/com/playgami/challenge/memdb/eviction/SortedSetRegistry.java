@@ -0,0 +1,64 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Registry of the live sorted sets that supports O(1) random sampling.
+ * Sets are kept in an array list with their positions in an identity map, and removal swaps
+ * the last set into the freed slot. Registration happens only when a set is created or
+ * dropped, so the lock is not taken on the member read/write path.
+ */
+public class SortedSetRegistry {
+    private final List<SortedSetValue> sets = new ArrayList<>();
+    private final Map<SortedSetValue, Integer> positions = new IdentityHashMap<>();
+
+    public synchronized void register(SortedSetValue set) {
+        if (positions.putIfAbsent(set, sets.size()) == null) {
+            sets.add(set);
+        }
+    }
+
+    public synchronized void unregister(SortedSetValue set) {
+        Integer position = positions.remove(set);
+        if (position == null) {
+            return;
+        }
+        SortedSetValue last = sets.remove(sets.size() - 1);
+        if (last != set) {
+            sets.set(position, last);
+            positions.put(last, position);
+        }
+    }
+
+    /**
+     * Returns up to count distinct sets picked at random.
+     */
+    public synchronized List<SortedSetValue> sample(int count) {
+        if (sets.size() <= count) {
+            return new ArrayList<>(sets);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<SortedSetValue> sample = new ArrayList<>(count);
+        while (sample.size() < count) {
+            SortedSetValue set = sets.get(random.nextInt(sets.size()));
+            if (!sample.contains(set)) {
+                sample.add(set);
+            }
+        }
+        return sample;
+    }
+
+    public synchronized int size() {
+        return sets.size();
+    }
+
+    public synchronized void clear() {
+        sets.clear();
+        positions.clear();
+    }
+} 
\ No newline at end of file
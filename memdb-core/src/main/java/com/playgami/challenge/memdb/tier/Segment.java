@@ -0,0 +1,113 @@
+package com.playgami.challenge.memdb.tier;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size segment file, mapped into memory and filled with records from the start:
+ * key length, value length, then the UTF-8 key and value.
+ * Appends are serialized by the SpillStore. Reads use absolute positions only, so they need no
+ * lock; they see a record once its location is published through the index.
+ */
+final class Segment {
+    static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int writePosition;
+    // Bytes of records that are no longer referenced by the index
+    private final AtomicLong deadBytes = new AtomicLong();
+    // Set once compaction starts copying the segment; guarded by the SpillStore
+    private boolean retired;
+
+    private Segment(Path path, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    static Segment create(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid once the channel is closed
+            return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    boolean hasRoom(int length) {
+        return writePosition + length <= capacity;
+    }
+
+    /**
+     * Appends a record and returns its offset.
+     */
+    int append(byte[] key, byte[] value) {
+        int offset = writePosition;
+        buffer.putInt(offset, key.length);
+        buffer.putInt(offset + Integer.BYTES, value.length);
+        buffer.put(offset + RECORD_HEADER, key);
+        buffer.put(offset + RECORD_HEADER + key.length, value);
+        writePosition += RECORD_HEADER + key.length + value.length;
+        return offset;
+    }
+
+    int recordLength(int offset) {
+        return RECORD_HEADER + buffer.getInt(offset) + buffer.getInt(offset + Integer.BYTES);
+    }
+
+    String readKey(int offset) {
+        byte[] key = new byte[buffer.getInt(offset)];
+        buffer.get(offset + RECORD_HEADER, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    byte[] readValueBytes(int offset) {
+        int keyLength = buffer.getInt(offset);
+        byte[] value = new byte[buffer.getInt(offset + Integer.BYTES)];
+        buffer.get(offset + RECORD_HEADER + keyLength, value);
+        return value;
+    }
+
+    String readValue(int offset) {
+        return new String(readValueBytes(offset), StandardCharsets.UTF_8);
+    }
+
+    void markDead(int length) {
+        deadBytes.addAndGet(length);
+    }
+
+    long deadBytes() {
+        return deadBytes.get();
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Deletes the file. Readers still holding a location keep reading the mapping, which is
+     * released once it is no longer referenced.
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.playgami.challenge.memdb.tier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A disk tier for values evicted from memory: an append-only log of memory-mapped segment
+ * files, with an on-heap index from each spilled key to its record.
+ * Records are never updated in place. Spilling a key again or removing it leaves its old record
+ * dead, and a background compactor copies the live records of mostly dead segments into the
+ * active one and deletes their files. Reads go through the mapping without locking.
+ * The tier belongs to one MemDB instance: its directory is created on start and deleted on close.
+ */
+public class SpillStore implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(SpillStore.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final double compactionDeadRatio;
+    private final ConcurrentHashMap<String, SpilledValue> index = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService compactor;
+    // Segments, oldest first; the last one is the active segment records are appended to
+    private final List<Segment> segments = new ArrayList<>();
+    private long nextSegmentId;
+    private boolean closed;
+
+    /**
+     * Creates a tier in a new directory under parent, holding at most maxBytes of segments of
+     * segmentBytes each. Sealed segments are compacted every compactionMillis once at least
+     * compactionDeadRatio of their bytes are dead.
+     */
+    public SpillStore(Path parent, int segmentBytes, long maxBytes, double compactionDeadRatio, long compactionMillis) {
+        try {
+            Files.createDirectories(parent);
+            this.directory = Files.createTempDirectory(parent, "memdb-tier-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create tier directory under " + parent, e);
+        }
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.compactionDeadRatio = compactionDeadRatio;
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memdb-tier-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                logger.error("Tier compaction failed: {}", e.getMessage(), e);
+            }
+        }, compactionMillis, compactionMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a value to the tier and indexes it under key, replacing any earlier record.
+     * Returns its location, or null if the tier has no room for it.
+     */
+    public SpilledValue spill(String key, String value, Long expiryTime) {
+        SpilledValue spilled = write(key, value, expiryTime);
+        if (spilled != null && !publish(key, spilled)) {
+            discard(spilled);
+            return null;
+        }
+        return spilled;
+    }
+
+    /**
+     * Writes a value to the tier without indexing it, and returns its location, or null if the
+     * tier has no room for it. Writing may create and map a segment file, so callers holding a
+     * lock write first and publish under the lock; an unpublished record must be discarded.
+     */
+    public SpilledValue write(String key, String value, Long expiryTime) {
+        return append(key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8), expiryTime, false);
+    }
+
+    /**
+     * Indexes a record written by write under key, replacing any earlier record. Does no I/O.
+     * Returns false if the record's segment was compacted or cleared since it was written,
+     * leaving the record for the caller to discard.
+     */
+    public boolean publish(String key, SpilledValue spilled) {
+        SpilledValue previous;
+        synchronized (this) {
+            // Checked along with the indexing, so that a compaction never takes the record for dead
+            if (spilled.segment.isRetired() || !segments.contains(spilled.segment)) {
+                return false;
+            }
+            previous = index.put(key, spilled);
+        }
+        if (previous != null) {
+            previous.segment.markDead(previous.length);
+        }
+        return true;
+    }
+
+    /**
+     * Marks a record written by write and never published as dead.
+     */
+    public void discard(SpilledValue spilled) {
+        spilled.segment.markDead(spilled.length);
+    }
+
+    /**
+     * Returns the location of a spilled key, or null if it is not in the tier.
+     */
+    public SpilledValue get(String key) {
+        return index.get(key);
+    }
+
+    /**
+     * Reads a spilled value through the mapping.
+     */
+    public String read(SpilledValue spilled) {
+        return spilled.segment.readValue(spilled.offset);
+    }
+
+    /**
+     * Removes a key from the tier and returns its location, or null if it was not spilled.
+     */
+    public SpilledValue remove(String key) {
+        SpilledValue removed = index.remove(key);
+        if (removed != null) {
+            removed.segment.markDead(removed.length);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes a key from the tier if it is still stored at the given location.
+     */
+    public boolean remove(String key, SpilledValue spilled) {
+        if (index.remove(key, spilled)) {
+            spilled.segment.markDead(spilled.length);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a weakly consistent view of the spilled keys.
+     */
+    public Set<String> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Returns the number of spilled keys.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the bytes of segment files on disk.
+     */
+    public synchronized long diskBytes() {
+        return (long) segments.size() * segmentBytes;
+    }
+
+    /**
+     * Appends a record to the active segment, rolling to a new one when it is full.
+     * Compaction may exceed maxBytes by the segment it is about to free.
+     */
+    private synchronized SpilledValue append(byte[] key, byte[] value, Long expiryTime, boolean compacting) {
+        int length = Segment.RECORD_HEADER + key.length + value.length;
+        if (closed || length > segmentBytes) {
+            return null;
+        }
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active == null || !active.hasRoom(length)) {
+            if (!compacting && diskBytes() + segmentBytes > maxBytes) {
+                return null;
+            }
+            Path path = directory.resolve("segment-" + nextSegmentId++ + ".dat");
+            try {
+                active = Segment.create(path, segmentBytes);
+            } catch (IOException e) {
+                logger.warn("Cannot create tier segment {}: {}", path, e.getMessage());
+                return null;
+            }
+            segments.add(active);
+        }
+        return new SpilledValue(active, active.append(key, value), length, expiryTime);
+    }
+
+    /**
+     * Compacts every sealed segment with enough dead bytes. Run by the compactor.
+     */
+    void compact() {
+        List<Segment> sealed;
+        synchronized (this) {
+            sealed = segments.size() > 1 ? new ArrayList<>(segments.subList(0, segments.size() - 1)) : List.of();
+        }
+        for (Segment segment : sealed) {
+            // Sealed segments are never appended to again, so their write position is final
+            if (segment.deadBytes() >= segment.writePosition() * compactionDeadRatio) {
+                compact(segment);
+            }
+        }
+    }
+
+    /**
+     * Copies the live records of a segment to the active one and deletes it.
+     * A record is live while the index still points at it.
+     */
+    private void compact(Segment segment) {
+        synchronized (this) {
+            // Records written to the segment but not yet published are left unpublished
+            segment.retire();
+        }
+        int end = segment.writePosition();
+        for (int offset = 0; offset < end; offset += segment.recordLength(offset)) {
+            String key = segment.readKey(offset);
+            SpilledValue current = index.get(key);
+            if (current == null || current.segment != segment || current.offset != offset) {
+                continue;
+            }
+            SpilledValue moved = append(key.getBytes(StandardCharsets.UTF_8), segment.readValueBytes(offset),
+                    current.getExpiryTime(), true);
+            if (moved == null) {
+                return;
+            }
+            if (!index.replace(key, current, moved)) {
+                // Removed or spilled again meanwhile
+                moved.segment.markDead(moved.length);
+            }
+        }
+        synchronized (this) {
+            if (!segments.remove(segment)) {
+                return;
+            }
+        }
+        try {
+            segment.delete();
+        } catch (IOException e) {
+            logger.warn("Cannot delete tier segment: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes every spilled key and deletes the segment files.
+     */
+    public synchronized void clear() {
+        index.clear();
+        for (Segment segment : segments) {
+            try {
+                segment.delete();
+            } catch (IOException e) {
+                logger.warn("Cannot delete tier segment: {}", e.getMessage());
+            }
+        }
+        segments.clear();
+    }
+
+    /**
+     * Stops the compactor and deletes the tier directory.
+     */
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        synchronized (this) {
+            clear();
+            closed = true;
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            logger.warn("Cannot delete tier directory {}: {}", directory, e.getMessage());
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.playgami.challenge.memdb.tier;
+
+/**
+ * The on-heap index entry of a spilled value: where its record lives and when it expires.
+ */
+public final class SpilledValue {
+    final Segment segment;
+    final int offset;
+    final int length;
+    private final Long expiryTime; // null means no expiry
+
+    SpilledValue(Segment segment, int offset, int length, Long expiryTime) {
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+        this.expiryTime = expiryTime;
+    }
+
+    public Long getExpiryTime() {
+        return expiryTime;
+    }
+
+    public boolean isExpired() {
+        return expiryTime != null && expiryTime <= System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the size of the record on disk.
+     */
+    public int getLength() {
+        return length;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapValueTest {
+
+    @Test
+    void testSetBitReturnsPreviousValue() {
+        BitmapValue bitmap = new BitmapValue();
+        assertEquals(0, bitmap.setBit(7, 1));
+        assertEquals(1, bitmap.setBit(7, 1));
+        assertEquals(1, bitmap.getBit(7));
+        assertEquals(0, bitmap.getBit(6));
+        assertEquals(0, bitmap.getBit(1_000_000));
+        assertEquals(1, bitmap.setBit(7, 0));
+        assertEquals(0, bitmap.getBit(7));
+        // Clearing a bit still extends the bitmap, as in Redis
+        assertEquals(1, bitmap.byteLength());
+    }
+
+    @Test
+    void testCountMatchesBitSetOverRanges() {
+        Random random = new Random(42);
+        BitmapValue bitmap = new BitmapValue();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 2_000; i++) {
+            int offset = random.nextInt(5_000);
+            bitmap.setBit(offset, 1);
+            expected.set(offset);
+        }
+        long bytes = bitmap.byteLength();
+        assertEquals(expected.cardinality(), bitmap.count(0, -1, false));
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt((int) bytes);
+            int end = start + random.nextInt((int) bytes - start);
+            assertEquals(expected.get(start * 8, end * 8 + 8).cardinality(), bitmap.count(start, end, false));
+            int startBit = random.nextInt((int) bytes * 8);
+            int endBit = startBit + random.nextInt((int) bytes * 8 - startBit);
+            assertEquals(expected.get(startBit, endBit + 1).cardinality(), bitmap.count(startBit, endBit, true));
+        }
+    }
+
+    @Test
+    void testCountWithNegativeAndOutOfRangeIndexes() {
+        BitmapValue bitmap = new BitmapValue();
+        bitmap.setBit(0, 1);
+        bitmap.setBit(9, 1);
+        bitmap.setBit(23, 1);
+        assertEquals(3, bitmap.count(0, -1, false));
+        assertEquals(1, bitmap.count(-1, -1, false));
+        assertEquals(2, bitmap.count(-2, 100, false));
+        assertEquals(1, bitmap.count(-1, -1, true));
+        assertEquals(0, bitmap.count(2, 1, false));
+        assertEquals(0, bitmap.count(5, 10, false));
+    }
+
+    @Test
+    void testCombine() {
+        BitmapValue left = new BitmapValue();
+        BitmapValue right = new BitmapValue();
+        left.setBit(1, 1);
+        left.setBit(2, 1);
+        right.setBit(2, 1);
+        right.setBit(100, 1);
+
+        BitmapValue and = BitmapValue.combine(BitOperation.AND, List.of(left, right));
+        assertEquals(13, and.byteLength());
+        assertEquals(1, and.count(0, -1, false));
+        assertEquals(1, and.getBit(2));
+
+        BitmapValue or = BitmapValue.combine(BitOperation.OR, List.of(left, right));
+        assertEquals(3, or.count(0, -1, false));
+
+        BitmapValue xor = BitmapValue.combine(BitOperation.XOR, List.of(left, right));
+        assertEquals(2, xor.count(0, -1, false));
+        assertEquals(0, xor.getBit(2));
+
+        // NOT stops at the last byte of its source
+        BitmapValue not = BitmapValue.combine(BitOperation.NOT, List.of(left));
+        assertEquals(1, not.byteLength());
+        assertEquals(6, not.count(0, -1, false));
+        assertEquals(0, not.getBit(8));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BitmapValue.combine(BitOperation.NOT, List.of(left, right)));
+    }
+
+    @Test
+    void testGrowthIsChargedByAllocatedWords() {
+        BitmapValue bitmap = new BitmapValue();
+        bitmap.setBit(63, 1);
+        assertEquals(Long.BYTES, bitmap.dataSize());
+        bitmap.setBit(64 * 100, 1);
+        assertEquals(101 * Long.BYTES, bitmap.dataSize());
+        assertEquals(0, bitmap.savedBytes());
+    }
+
+    @Test
+    void testOrRestoresWhatBytesReturns() {
+        BitmapValue bitmap = new BitmapValue();
+        bitmap.setBit(3, 1);
+        bitmap.setBit(70, 1);
+        bitmap.setBit(1000, 1);
+        byte[] bytes = bitmap.bytes(0, (int) bitmap.byteLength());
+        assertEquals(1 << 3, bytes[0]);
+        assertEquals(1 << 6, bytes[8]);
+
+        BitmapValue restored = new BitmapValue();
+        // Split across a word boundary, and extended by a trailing zero byte
+        restored.or(0, java.util.Arrays.copyOfRange(bytes, 0, 13));
+        restored.or(13, java.util.Arrays.copyOfRange(bytes, 13, bytes.length));
+        restored.or(bytes.length, new byte[1]);
+        assertEquals(bitmap.byteLength() + 1, restored.byteLength());
+        assertEquals(3, restored.count(0, -1, false));
+        assertEquals(1, restored.getBit(70));
+        assertEquals(1, restored.getBit(1000));
+        // Bits already set stay set
+        restored.or(0, new byte[] {1});
+        assertEquals(1, restored.getBit(0));
+        assertEquals(1, restored.getBit(3));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobPatternTest {
+
+    @Test
+    void testWildcards() {
+        assertTrue(new GlobPattern("*").matches(""));
+        assertTrue(new GlobPattern("player:*").matches("player:123:inventory"));
+        assertFalse(new GlobPattern("player:*").matches("match:1"));
+        assertTrue(new GlobPattern("*:score").matches("match:456:score"));
+        assertTrue(new GlobPattern("p*r*y").matches("player:ready"));
+        assertFalse(new GlobPattern("p*r*y").matches("player:readx"));
+        assertTrue(new GlobPattern("h?llo").matches("hello"));
+        assertFalse(new GlobPattern("h?llo").matches("hllo"));
+        assertTrue(new GlobPattern("a*b*c*d").matches("aXbYbZcWd"));
+    }
+
+    @Test
+    void testCharacterClasses() {
+        assertTrue(new GlobPattern("h[ae]llo").matches("hallo"));
+        assertFalse(new GlobPattern("h[ae]llo").matches("hillo"));
+        assertTrue(new GlobPattern("h[^e]llo").matches("hallo"));
+        assertFalse(new GlobPattern("h[^e]llo").matches("hello"));
+        assertTrue(new GlobPattern("key[0-9]").matches("key7"));
+        assertTrue(new GlobPattern("key[9-0]").matches("key7"));
+        assertFalse(new GlobPattern("key[0-9]").matches("keyx"));
+    }
+
+    @Test
+    void testEscapes() {
+        assertTrue(new GlobPattern("what\\?").matches("what?"));
+        assertFalse(new GlobPattern("what\\?").matches("whats"));
+        assertTrue(new GlobPattern("star\\*").matches("star*"));
+        assertFalse(new GlobPattern("star\\*").matches("stars"));
+    }
+
+    @Test
+    void testLiteralPrefix() {
+        assertEquals("player:", new GlobPattern("player:*").literalPrefix());
+        assertEquals("h", new GlobPattern("h[ae]llo").literalPrefix());
+        assertEquals("key", new GlobPattern("key\\*").literalPrefix());
+        assertEquals("", new GlobPattern("*:score").literalPrefix());
+        assertEquals("exact", new GlobPattern("exact").literalPrefix());
+    }
+} 
\ No newline at end of file
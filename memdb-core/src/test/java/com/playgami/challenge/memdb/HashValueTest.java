@@ -0,0 +1,68 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashValueTest {
+
+    @Test
+    void testConvertsPastEntryThreshold() {
+        HashValue hash = new HashValue(2, 64);
+        hash.put("a", "1");
+        hash.put("b", "2");
+        assertEquals(HashValue.Encoding.PACKED, hash.getEncoding());
+
+        hash.put("c", "3");
+        assertEquals(HashValue.Encoding.HASHTABLE, hash.getEncoding());
+        assertEquals(Map.of("a", "1", "b", "2", "c", "3"), hash.entries());
+        assertEquals(3, hash.size());
+    }
+
+    @Test
+    void testConvertsOnLongValue() {
+        HashValue hash = new HashValue(128, 4);
+        hash.put("name", "bob");
+        assertEquals(HashValue.Encoding.PACKED, hash.getEncoding());
+
+        hash.put("name", "alice");
+        assertEquals(HashValue.Encoding.HASHTABLE, hash.getEncoding());
+        assertEquals("alice", hash.get("name"));
+    }
+
+    @Test
+    void testDataSizeTracksFieldsAndValues() {
+        HashValue hash = new HashValue(1, 64);
+        assertNull(hash.put("name", "alice"));
+        assertEquals(9, hash.dataSize());
+        assertEquals("alice", hash.put("name", "bob"));
+        assertEquals(7, hash.dataSize());
+
+        // The size carries over the conversion to a hash table
+        hash.put("level", "7");
+        assertEquals(HashValue.Encoding.HASHTABLE, hash.getEncoding());
+        assertEquals(13, hash.dataSize());
+    }
+
+    @Test
+    void testIncrementBy() {
+        HashValue hash = new HashValue();
+        assertEquals(5, hash.incrementBy("coins", 5));
+        assertEquals(2, hash.incrementBy("coins", -3));
+        assertEquals("2", hash.get("coins"));
+
+        hash.put("name", "alice");
+        assertThrows(IllegalArgumentException.class, () -> hash.incrementBy("name", 1));
+        hash.put("big", String.valueOf(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> hash.incrementBy("big", 1));
+    }
+
+    @Test
+    void testPackedHashUsesLessMemory() {
+        HashValue hash = new HashValue();
+        for (int i = 0; i < 20; i++) {
+            hash.put("field" + i, "value" + i);
+        }
+        assertTrue(hash.memoryUsage() < hash.tableMemoryUsage());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+    // Three standard errors of 1.04 / sqrt(16384)
+    private static final double TOLERANCE = 3 * 0.0081;
+
+    @Test
+    void testSmallCardinalitiesAreNearlyExact() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            hll.add("player" + i);
+        }
+        assertEquals(HyperLogLog.Encoding.SPARSE, hll.getEncoding());
+        assertEquals(100, hll.cardinality(), 2);
+    }
+
+    @Test
+    void testEstimateStaysWithinStandardError() {
+        HyperLogLog hll = new HyperLogLog();
+        int count = 0;
+        for (int target : new int[] {1_000, 10_000, 100_000, 500_000}) {
+            while (count < target) {
+                hll.add("player" + count++);
+            }
+            assertEquals(target, hll.cardinality(), target * TOLERANCE);
+        }
+        assertEquals(HyperLogLog.Encoding.DENSE, hll.getEncoding());
+        assertEquals(HyperLogLog.DENSE_BYTES, hll.dataSize());
+    }
+
+    @Test
+    void testDuplicatesDoNotChangeTheEstimate() {
+        HyperLogLog hll = new HyperLogLog();
+        assertTrue(hll.add("player1"));
+        assertFalse(hll.add("player1"));
+        assertEquals(1, hll.cardinality());
+    }
+
+    @Test
+    void testConvertsToDensePastSparseLimit() {
+        HyperLogLog hll = new HyperLogLog(64);
+        for (int i = 0; i < 16; i++) {
+            hll.add("player" + i);
+        }
+        assertEquals(HyperLogLog.Encoding.SPARSE, hll.getEncoding());
+        long sparseEstimate = hll.cardinality();
+
+        hll.add("player16");
+        hll.add("player17");
+        assertEquals(HyperLogLog.Encoding.DENSE, hll.getEncoding());
+        // The registers carry over to the dense encoding
+        assertEquals(sparseEstimate + 2, hll.cardinality());
+    }
+
+    @Test
+    void testMergeCountsTheUnion() {
+        HyperLogLog europe = new HyperLogLog();
+        HyperLogLog america = new HyperLogLog();
+        HyperLogLog all = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            europe.add("player" + i);
+            all.add("player" + i);
+        }
+        for (int i = 20_000; i < 50_000; i++) {
+            america.add("player" + i);
+            all.add("player" + i);
+        }
+        europe.merge(america);
+        // Merging yields exactly the registers of counting the union directly
+        assertEquals(all.cardinality(), europe.cardinality());
+        assertEquals(50_000, europe.cardinality(), 50_000 * TOLERANCE);
+    }
+
+    @Test
+    void testAddGrowthBoundCoversTheGrowth() {
+        HyperLogLog hll = new HyperLogLog(256);
+        // The sparse array doubles from 8 entries to 32
+        assertEquals(24 * Integer.BYTES, hll.addGrowthBound(20));
+        long before = hll.dataSize();
+        for (int i = 0; i < 20; i++) {
+            hll.add("player" + i);
+        }
+        assertTrue(hll.dataSize() - before <= 24 * Integer.BYTES);
+        // Past sparseMaxBytes the counter may convert to the dense registers
+        assertEquals(HyperLogLog.DENSE_BYTES - hll.dataSize(), hll.addGrowthBound(100));
+        for (int i = 20; i < 120; i++) {
+            hll.add("player" + i);
+        }
+        assertEquals(HyperLogLog.Encoding.DENSE, hll.getEncoding());
+        assertEquals(0, hll.addGrowthBound(100));
+    }
+
+    @Test
+    void testPackedRegistersRoundTrip() {
+        HyperLogLog sparse = new HyperLogLog();
+        HyperLogLog dense = new HyperLogLog(64);
+        for (int i = 0; i < 100; i++) {
+            sparse.add("player" + i);
+            dense.add("player" + i);
+        }
+        assertEquals(HyperLogLog.Encoding.SPARSE, sparse.getEncoding());
+        assertEquals(HyperLogLog.Encoding.DENSE, dense.getEncoding());
+        // Both encodings pack to the same registers
+        assertArrayEquals(dense.packedRegisters(), sparse.packedRegisters());
+        assertEquals(sparse.cardinality(), HyperLogLog.fromPackedRegisters(sparse.packedRegisters()).cardinality());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromPackedRegisters(new byte[16]));
+        byte[] impossible = new byte[HyperLogLog.DENSE_BYTES];
+        impossible[0] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromPackedRegisters(impossible));
+    }
+} 
\ No newline at end of file
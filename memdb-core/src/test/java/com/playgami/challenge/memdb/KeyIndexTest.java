@@ -0,0 +1,81 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyIndexTest {
+
+    private static List<String> collect(KeyIndex index, String prefix, String after, int limit) {
+        List<String> keys = new ArrayList<>();
+        index.collect(prefix, after, limit, keys);
+        return keys;
+    }
+
+    @Test
+    void testCollectsKeysUnderPrefixInOrder() {
+        KeyIndex index = new KeyIndex();
+        for (String key : List.of("player:2", "player:10", "match:1", "player", "player:1", "play")) {
+            index.add(key);
+        }
+        assertEquals(6, index.size());
+        assertEquals(List.of("player", "player:1", "player:10", "player:2"), collect(index, "player", null, 100));
+        assertEquals(List.of("player:1", "player:10", "player:2"), collect(index, "player:", null, 100));
+        assertEquals(List.of("play", "player", "player:1"), collect(index, "pla", null, 3));
+        assertEquals(List.of("player:10", "player:2"), collect(index, "player", "player:1", 100));
+        assertEquals(List.of("match:1"), collect(index, "", "imp", 1));
+        assertTrue(collect(index, "players", null, 100).isEmpty());
+        assertTrue(collect(index, "q", null, 100).isEmpty());
+    }
+
+    @Test
+    void testRemoveMergesNodesAndReleasesBytes() {
+        KeyIndex index = new KeyIndex();
+        long total = 0;
+        total += index.add("player:1");
+        total += index.add("player:10");
+        total += index.add("player:2");
+        assertEquals(0, index.add("player:2"));
+        assertEquals(total, index.bytes());
+        assertTrue(total > 0);
+
+        assertEquals(0, index.remove("player:"));
+        assertEquals(0, index.remove("missing"));
+        total += index.remove("player:1");
+        assertEquals(List.of("player:10", "player:2"), collect(index, "player:", null, 100));
+        total += index.remove("player:10");
+        total += index.remove("player:2");
+        assertEquals(0, total);
+        assertEquals(0, index.bytes());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testMatchesSortedSetUnderRandomChanges() {
+        KeyIndex index = new KeyIndex();
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String key = "k" + Integer.toString(random.nextInt(3000), 7);
+            if (random.nextBoolean()) {
+                index.add(key);
+                expected.add(key);
+            } else {
+                index.remove(key);
+                expected.remove(key);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        assertEquals(new ArrayList<>(expected), collect(index, "", null, Integer.MAX_VALUE));
+        assertEquals(new ArrayList<>(expected.subSet("k12", "k13")), collect(index, "k12", null, Integer.MAX_VALUE));
+        assertEquals(new ArrayList<>(expected.tailSet("k3", false)).subList(0, 5), collect(index, "", "k3", 5));
+
+        for (String key : expected) {
+            index.remove(key);
+        }
+        assertEquals(0, index.bytes());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBBuilderTest {
+
+    @Test
+    void testDefaultsMatchSettings() {
+        try (MemDB memDB = MemDB.builder().build()) {
+            assertEquals(MemDBSettings.DEFAULT_MAX_MEMORY, memDB.getMaxMemory());
+            memDB.set("player:1", "alice");
+            assertEquals("alice", memDB.get("player:1"));
+        }
+    }
+
+    @Test
+    void testAppliesOptions() {
+        try (MemDB memDB = MemDB.builder()
+                .maxMemory(1024 * 1024)
+                .evictionPolicy(EvictionPolicy.SAMPLED_LFU)
+                .evictionSamples(8)
+                .timeSeriesRetention(Duration.ofHours(1))
+                .keyIndex(true)
+                .configure(settings -> settings.setLazyfreeThreshold(0))
+                .build()) {
+            assertEquals(1024 * 1024, memDB.getMaxMemory());
+            memDB.set("player:1", "alice");
+            assertTrue(memDB.getStats().getKeyIndexBytes() > 0);
+        }
+    }
+
+    @Test
+    void testRejectsInconsistentSettings() {
+        assertThrows(IllegalArgumentException.class, () -> MemDB.builder().maxMemory(0).build());
+        assertThrows(IllegalArgumentException.class, () -> MemDB.builder().evictionWatermarks(0.5, 0.9).build());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,203 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBConcurrencyTest {
+    private static final int THREADS = 4;
+    private static final int ITERATIONS = 20_000;
+    private static final int KEYS = 8;
+
+    private MemDB memDB;
+
+    @BeforeEach
+    void setUp() {
+        memDB = new MemDB(new LRUEvictionStrategy(), new MemDBSettings());
+    }
+
+    @AfterEach
+    void tearDown() {
+        memDB.close();
+    }
+
+    @Test
+    void testConcurrentSetAndIncrKeepAccountingExact() throws Exception {
+        race(i -> memDB.set("key" + (i % KEYS), "value-" + i),
+                i -> memDB.incr("key" + (i % KEYS)));
+
+        assertEquals(KEYS, memDB.dbSize());
+        deleteAll();
+        assertEquals(0, memDB.dbSize());
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testConcurrentWritesReleaseSharedValuesOnce() throws Exception {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setDedupEnabled(true);
+        memDB.close();
+        memDB = new MemDB(new LRUEvictionStrategy(), settings);
+        String[] regions = {"eu-west", "us-east", "ap-south"};
+
+        race(i -> memDB.set("key" + (i % KEYS), regions[i % regions.length]),
+                i -> memDB.incr("key" + (i % KEYS)),
+                i -> memDB.del("key" + (i % KEYS)));
+
+        // A pooled value released twice would leave usage below zero once every key is gone
+        deleteAll();
+        assertEquals(0, memDB.dbSize());
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testConcurrentHsetAndSetKeepAccountingExact() throws Exception {
+        race(i -> {
+                    try {
+                        memDB.hset("key" + (i % KEYS), Map.of("field" + (i % 16), "value-" + i));
+                    } catch (WrongTypeException e) {
+                        // The key holds a string at the moment
+                    }
+                },
+                i -> memDB.set("key" + (i % KEYS), "value-" + i));
+
+        deleteAll();
+        assertEquals(0, memDB.dbSize());
+        assertEquals(0, memDB.keyCountsByType().get(HashValue.TYPE));
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testConcurrentHsetAndZaddNeverShareAKey() throws Exception {
+        race(i -> {
+                    try {
+                        memDB.hset("key" + (i % KEYS), Map.of("field", "value"));
+                    } catch (WrongTypeException e) {
+                        // The key holds a sorted set at the moment
+                    }
+                },
+                i -> {
+                    try {
+                        memDB.zadd("key" + (i % KEYS), i, "member");
+                    } catch (WrongTypeException e) {
+                        // The key holds a hash at the moment
+                    }
+                },
+                i -> {
+                    if (i % 16 == 0) {
+                        memDB.del("key" + (i % KEYS));
+                    }
+                });
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "key" + i;
+            assertFalse(memDB.zcard(key) > 0 && !memDB.hgetall(key).isEmpty(), key + " holds a hash and a sorted set");
+        }
+    }
+
+    @Test
+    void testConcurrentSetbitAndBitopKeepAccountingExact() throws Exception {
+        memDB.setbit("source", 4096, 1);
+        long sourceBytes = memDB.getCurrentMemoryUsed();
+
+        race(i -> memDB.setbit("key" + (i % KEYS), i % 8192, 1),
+                i -> memDB.bitop(BitOperation.OR, "key" + (i % KEYS), List.of("source")));
+
+        deleteAll();
+        assertEquals(1, memDB.dbSize());
+        assertEquals(1, memDB.keyCountsByType().get(BitmapValue.TYPE));
+        assertEquals(sourceBytes, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testConcurrentWritesAndFlushKeepAccountingExact() throws Exception {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setKeyIndexEnabled(true);
+        memDB.close();
+        memDB = new MemDB(new LRUEvictionStrategy(), settings);
+
+        race(i -> memDB.set("key" + (i % KEYS), "value-" + i),
+                i -> memDB.hset("hash" + (i % KEYS), Map.of("field" + (i % 16), "value-" + i)),
+                i -> memDB.zadd("board", i, "player" + (i % 64)),
+                i -> {
+                    if (i % 100 == 0) {
+                        memDB.flush(i % 200 == 0);
+                    }
+                });
+
+        // A write landing in a detached keyspace, or counted in another one, would survive this
+        memDB.flush(false);
+        memDB.awaitLazyFree();
+        assertEquals(0, memDB.dbSize());
+        assertEquals(0, memDB.keyCountsByType().get(HashValue.TYPE));
+        assertEquals(List.of(), memDB.keys("*"));
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testDelBetweenCreationAndIndexingLeavesNoKeyIndexEntry() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setKeyIndexEnabled(true);
+        // Deletes the key once its creation is visible, before the write indexes it
+        AtomicBoolean racing = new AtomicBoolean(true);
+        memDB.close();
+        memDB = new MemDB(new LRUEvictionStrategy() {
+            @Override
+            public void onAccess(String key, ValueWrapper wrapper) {
+                super.onAccess(key, wrapper);
+                if (racing.getAndSet(false)) {
+                    memDB.del(key);
+                }
+            }
+        }, settings);
+
+        memDB.set("key0", "value");
+
+        assertNull(memDB.get("key0"));
+        assertEquals(List.of(), memDB.keys("key*"));
+        // An entry left behind would stay charged
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    /**
+     * Runs each writer on its own threads, ITERATIONS times, and fails with the first error thrown.
+     */
+    private static void race(IntConsumer... writers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * writers.length);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (IntConsumer writer : writers) {
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            writer.accept(i);
+                        }
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void deleteAll() {
+        for (int i = 0; i < KEYS; i++) {
+            memDB.del("key" + i);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBEngineTest {
+
+    @Test
+    void testTimeSeriesTrimReleasesMemory() {
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), new MemDBSettings())) {
+            for (int i = 0; i < 10_000; i++) {
+                memDB.tsAdd("queue", i * 1000L, i % 7, 60_000);
+            }
+            long full = memDB.getCurrentMemoryUsed();
+            memDB.trimTimeSeries();
+            // Only the last minute, rounded up to whole chunks, is left
+            assertTrue(memDB.getCurrentMemoryUsed() < full / 10);
+            assertEquals(61, memDB.tsRange("queue", 0, Long.MAX_VALUE).size());
+
+            memDB.del("queue");
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+            assertEquals(0L, memDB.keyCountsByType().get("timeseries"));
+            // The trimmer forgets deleted series
+            memDB.trimTimeSeries();
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+        }
+    }
+
+    @Test
+    void testCompressedValues() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setCompressionEnabled(true);
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), settings)) {
+            String json = ValueCompressorTest.profileJson(500);
+            memDB.set("profiles", json);
+            memDB.set("small", "online");
+            assertEquals(json, memDB.get("profiles"));
+            assertEquals("online", memDB.get("small"));
+
+            // Charged by compressed size
+            long used = memDB.getCurrentMemoryUsed();
+            assertTrue(used < json.length() / 4);
+            MemoryUsage usage = memDB.memoryUsage("profiles");
+            assertEquals("compressed", usage.getEncoding());
+            assertTrue(usage.getSavedBytes() > json.length() / 2);
+            assertEquals("raw", memDB.memoryUsage("small").getEncoding());
+            assertEquals(1, memDB.getStats().getCompressedValues());
+
+            // Overwriting and deleting release exactly what was charged
+            memDB.set("profiles", "gone");
+            assertEquals("profiles".length() + "gone".length() + "small".length() + "online".length(), memDB.getCurrentMemoryUsed());
+            memDB.del("profiles");
+            memDB.del("small");
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+        }
+    }
+
+    @Test
+    void testDedupSharesEqualValues() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setDedupEnabled(true);
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), settings)) {
+            long keyBytes = 0;
+            for (int i = 0; i < 1000; i++) {
+                memDB.set("player" + i, i % 3 == 0 ? "offline" : "online");
+                keyBytes += ("player" + i).length();
+            }
+            // Each distinct value is charged once
+            assertEquals(keyBytes + "offline".length() + "online".length(), memDB.getCurrentMemoryUsed());
+            assertSame(memDB.get("player1"), memDB.get("player2"));
+            assertEquals("shared", memDB.memoryUsage("player1").getEncoding());
+
+            // INCR replaces a shared value with a counter of its own
+            memDB.set("count", "online");
+            assertEquals(1, memDB.incr("count"));
+            memDB.del("count");
+
+            for (int i = 0; i < 1000; i++) {
+                if (i % 3 == 0) {
+                    memDB.set("player" + i, "online");
+                }
+            }
+            assertEquals(keyBytes + "online".length(), memDB.getCurrentMemoryUsed());
+            for (int i = 0; i < 1000; i++) {
+                memDB.del("player" + i);
+            }
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+        }
+    }
+
+    @Test
+    void testDelAndUnlinkRemoveSortedSets() throws InterruptedException {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setLazyfreeThreshold(10);
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), settings)) {
+            memDB.zadd("small", 1, "alice");
+            assertTrue(memDB.del("small"));
+            assertEquals(0, memDB.zcard("small"));
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+
+            for (int i = 0; i < 10000; i++) {
+                memDB.zadd("board", i, "player" + i);
+            }
+            assertTrue(memDB.getCurrentMemoryUsed() > 0);
+            assertTrue(memDB.unlink("board"));
+            // Gone at once, released in the background
+            assertEquals(0, memDB.zcard("board"));
+            assertNull(memDB.memoryUsage("board"));
+            assertFalse(memDB.unlink("board"));
+            awaitLazyFree(memDB);
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+            assertEquals(1, memDB.getStats().getLazyfreedObjects());
+        }
+    }
+
+    @Test
+    void testFlushAsyncEmptiesKeyspaceAtOnce() throws InterruptedException {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setKeyIndexEnabled(true);
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), settings)) {
+            for (int i = 0; i < 1000; i++) {
+                memDB.set("key" + i, "value" + i);
+                memDB.zadd("board", i, "player" + i);
+            }
+            memDB.hset("profile", Map.of("name", "alice"));
+
+            memDB.flush(true);
+            assertEquals(0, memDB.dbSize());
+            assertNull(memDB.get("key1"));
+            assertEquals(0, memDB.zcard("board"));
+            assertEquals(0L, memDB.keyCountsByType().get("hash"));
+            assertTrue(memDB.keys("*").isEmpty());
+
+            // Writes after the flush survive it
+            memDB.set("key1", "new");
+            awaitLazyFree(memDB);
+            assertEquals("new", memDB.get("key1"));
+            assertEquals(1, memDB.dbSize());
+            assertEquals(List.of("key1"), memDB.keys("key*"));
+            assertEquals("key1".length() + "new".length() + memDB.getStats().getKeyIndexBytes(), memDB.getCurrentMemoryUsed());
+
+            memDB.flush(false);
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+            assertEquals(0, memDB.getStats().getLazyfreePendingObjects());
+        }
+    }
+
+    @Test
+    void testKeyIndexServesPrefixQueries() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setKeyIndexEnabled(true);
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy(), settings)) {
+            long keyBytes = 0;
+            for (int i = 0; i < 500; i++) {
+                memDB.set("player:" + i + ":name", "v");
+                memDB.set("match:" + i, "v");
+                keyBytes += ("player:" + i + ":name").length() + ("match:" + i).length() + 2;
+            }
+            long indexBytes = memDB.getStats().getKeyIndexBytes();
+            assertTrue(indexBytes > 0);
+            assertTrue(memDB.getCurrentMemoryUsed() > keyBytes + indexBytes - 100);
+
+            List<String> players = memDB.keys("player:1?:name");
+            assertEquals(10, players.size());
+            assertEquals("player:10:name", players.get(0));
+
+            // SCAN with a literal prefix pages through the keys under it in order
+            List<String> seen = new ArrayList<>();
+            String cursor = "0";
+            do {
+                ScanResult<String> page = memDB.scan(cursor, "player:*", 50, null);
+                seen.addAll(page.getItems());
+                cursor = page.getCursor();
+            } while (!cursor.equals("0"));
+            assertEquals(500, seen.size());
+            assertEquals(seen.stream().sorted().toList(), seen);
+            assertThrows(IllegalArgumentException.class, () -> memDB.scan("k!!", "player:*", 10, null));
+
+            assertEquals(500, memDB.delPrefix("player:"));
+            assertEquals(500, memDB.keys("*").size());
+            assertTrue(memDB.getStats().getKeyIndexBytes() < indexBytes);
+            assertEquals(500, memDB.delPrefix("match:"));
+            assertEquals(0, memDB.getStats().getKeyIndexBytes());
+            assertEquals(0, memDB.getCurrentMemoryUsed());
+        }
+    }
+
+    private static void awaitLazyFree(MemDB memDB) throws InterruptedException {
+        memDB.awaitLazyFree();
+        assertEquals(0, memDB.getStats().getLazyfreePendingObjects());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SampledEvictionStrategy;
+import com.playgami.challenge.memdb.eviction.SortedSetEvictionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBEvictionTest {
+    private static final long MAX_MEMORY = 10_000;
+
+    private MemDB memDB;
+
+    @BeforeEach
+    void setUp() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setMaxMemory(MAX_MEMORY);
+        settings.setEvictionHighWatermark(0.9);
+        settings.setEvictionLowWatermark(0.5);
+        settings.setMaxEvictionsPerCycle(10);
+        settings.setMaxBackpressureMillis(200);
+        memDB = new MemDB(new LRUEvictionStrategy(), settings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        memDB.close();
+    }
+
+    @Test
+    void testWritesNeverExceedHardLimit() throws InterruptedException {
+        for (int i = 0; i < 2000; i++) {
+            memDB.set("key" + i, "value-" + i);
+            assertTrue(memDB.getCurrentMemoryUsed() <= MAX_MEMORY);
+        }
+        assertTrue(memDB.getStats().getEvictedKeys() > 0);
+        assertEquals("value-1999", memDB.get("key1999"));
+        // Evicted keys leave the keyspace SCAN walks, once the background evictor settles
+        long evicted;
+        do {
+            evicted = memDB.getStats().getEvictedKeys();
+            Thread.sleep(50);
+        } while (memDB.getStats().getEvictedKeys() != evicted);
+        ScanResult<String> scan = memDB.scan("0", null, 4000, null);
+        assertEquals(memDB.dbSize(), scan.getItems().size());
+    }
+
+    @Test
+    void testBackgroundEvictionReachesLowWatermark() throws InterruptedException {
+        // Fill up to just above the high watermark without hitting the hard limit
+        int i = 0;
+        while (memDB.getCurrentMemoryUsed() < MAX_MEMORY * 0.9) {
+            memDB.set("key" + i, "value-" + i);
+            i++;
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (memDB.getCurrentMemoryUsed() > MAX_MEMORY * 0.5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(memDB.getCurrentMemoryUsed() <= MAX_MEMORY * 0.5);
+    }
+
+    @Test
+    void testEvictionReleasesSharedValues() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setMaxMemory(MAX_MEMORY);
+        settings.setEvictionLowWatermark(0.5);
+        settings.setMaxBackpressureMillis(200);
+        settings.setDedupEnabled(true);
+        try (MemDB pooled = new MemDB(new LRUEvictionStrategy(), settings)) {
+            // Filled to just below the high watermark, so the background evictor stays idle
+            String[] regions = {"eu-west", "us-east", "ap-south"};
+            int keys = 0;
+            while (pooled.getCurrentMemoryUsed() < MAX_MEMORY * 0.85) {
+                pooled.set("player" + keys, regions[keys % regions.length]);
+                keys++;
+            }
+
+            // Evict on the test thread, then delete the survivors: every shared value must be released
+            int evicted;
+            do {
+                evicted = pooled.checkMemoryLimit();
+            } while (evicted > 0);
+            assertTrue(pooled.getStats().getEvictedKeys() > 0);
+            for (int i = 0; i < keys; i++) {
+                pooled.del("player" + i);
+            }
+            assertEquals(0, pooled.getCurrentMemoryUsed());
+        }
+    }
+
+    @Test
+    void testOversizedWriteIsRejected() {
+        String hugeValue = "x".repeat((int) MAX_MEMORY + 1);
+        assertThrows(MemoryLimitExceededException.class, () -> memDB.set("huge", hugeValue));
+        assertNull(memDB.get("huge"));
+        assertEquals(1, memDB.getStats().getRejectedWrites());
+    }
+
+    @Test
+    void testHyperLogLogConversionToDenseIsReserved() {
+        List<String> players = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            players.add("player" + i);
+        }
+        assertTrue(memDB.pfadd("players", players));
+        long used = memDB.getCurrentMemoryUsed();
+        for (int i = 10; i < 1000; i++) {
+            players.add("player" + i);
+        }
+        // The dense registers alone are larger than the limit
+        assertThrows(MemoryLimitExceededException.class, () -> memDB.pfadd("players", players));
+        assertEquals(used, memDB.getCurrentMemoryUsed());
+        assertEquals(10, memDB.pfcount(List.of("players")));
+    }
+
+    @Test
+    void testOversizedMsetWritesNothing() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("small", "value");
+        entries.put("huge", "x".repeat((int) MAX_MEMORY));
+        assertThrows(MemoryLimitExceededException.class, () -> memDB.mset(entries));
+        assertNull(memDB.get("small"));
+        assertEquals(0, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testConcurrentWritesNeverExceedHardLimit() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    // Writers racing for the last bytes below the limit must not all get them
+                    for (int i = 0; i < 2000; i++) {
+                        try {
+                            memDB.set("t" + thread + "-" + i, "value-" + i);
+                        } catch (MemoryLimitExceededException e) {
+                            // The evictor fell behind
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(memDB.getStats().getEvictedKeys() > 0);
+        assertTrue(memDB.getCurrentMemoryUsed() <= MAX_MEMORY);
+        assertTrue(memDB.getStats().getPeakMemoryUsed() <= MAX_MEMORY);
+    }
+
+    @Test
+    void testSampledLruKeepsRecentlyUsedKeys() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setMaxMemory(MAX_MEMORY);
+        settings.setEvictionLowWatermark(0.5);
+        settings.setMaxBackpressureMillis(200);
+        // Accesses stamped from a logical clock, so that every key has a distinct access time
+        AtomicLong clock = new AtomicLong();
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(false, 5) {
+            @Override
+            public void onAccess(String key, ValueWrapper wrapper) {
+                wrapper.setAccessTime(clock.incrementAndGet());
+            }
+        };
+        try (MemDB sampled = new MemDB(strategy, settings)) {
+            assertEquals(EvictionPolicy.SAMPLED_LRU, sampled.getEvictionPolicy());
+            // Cold keys up to just below the high watermark, so the background evictor stays idle,
+            // then a recently used key
+            int i = 0;
+            while (sampled.getCurrentMemoryUsed() < MAX_MEMORY * 0.85) {
+                sampled.set("key" + i, "value-" + i);
+                i++;
+            }
+            sampled.set("hot", "value");
+
+            // Evict down to the low watermark on the test thread
+            int evicted;
+            do {
+                evicted = sampled.checkMemoryLimit();
+            } while (evicted > 0);
+            assertTrue(sampled.getCurrentMemoryUsed() <= MAX_MEMORY * 0.5);
+            assertEquals("value", sampled.get("hot"));
+        }
+    }
+
+    @Test
+    void testSortedSetEvictionAccountsMemoryExactly() throws InterruptedException {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setMaxMemory(MAX_MEMORY);
+        settings.setEvictionLowWatermark(0.5);
+        settings.setMaxBackpressureMillis(200);
+        settings.setSortedSetEvictionPolicy(SortedSetEvictionPolicy.LARGEST_SETS);
+        try (MemDB sets = new MemDB(new LRUEvictionStrategy(), settings)) {
+            // Keys and members of fixed length, so every member costs the same
+            for (int i = 0; i < 1000; i++) {
+                sets.zadd("set" + (i % 5), i, String.format("m%04d", i));
+                assertTrue(sets.getCurrentMemoryUsed() <= MAX_MEMORY);
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sets.getCurrentMemoryUsed() > MAX_MEMORY * 0.5 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            long members = 0;
+            for (int i = 0; i < 5; i++) {
+                members += sets.zcard("set" + i);
+            }
+            assertTrue(sets.getStats().getEvictedKeys() > 0);
+            assertEquals(members * ("set0".length() + "m0000".length() + 8), sets.getCurrentMemoryUsed());
+        }
+    }
+
+    @Test
+    void testInvalidWatermarksAreRejected() {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setEvictionHighWatermark(0.5);
+        settings.setEvictionLowWatermark(0.8);
+        assertThrows(IllegalArgumentException.class, () -> new MemDB(new LRUEvictionStrategy(), settings));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.playgami.challenge.memdb;
+
+import com.playgami.challenge.memdb.eviction.EvictionStrategy;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemDBTieredStorageTest {
+    private static final long MAX_MEMORY = 10_000;
+    private static final int KEYS = 2000;
+
+    @TempDir
+    Path tierDirectory;
+
+    private MemDB memDB;
+
+    private MemDB open(boolean promoteOnRead) throws InterruptedException {
+        return open(promoteOnRead, new LRUEvictionStrategy());
+    }
+
+    private MemDB open(boolean promoteOnRead, EvictionStrategy evictionStrategy) throws InterruptedException {
+        MemDBSettings settings = new MemDBSettings();
+        settings.setMaxMemory(MAX_MEMORY);
+        settings.setEvictionHighWatermark(0.9);
+        settings.setEvictionLowWatermark(0.5);
+        settings.setMaxBackpressureMillis(200);
+        settings.setTierEnabled(true);
+        settings.setTierDirectory(tierDirectory.toString());
+        settings.setTierSegmentBytes(64 * 1024);
+        settings.setTierMaxBytes(1024 * 1024);
+        settings.setTierPromoteOnRead(promoteOnRead);
+        memDB = new MemDB(evictionStrategy, settings);
+        for (int i = 0; i < KEYS; i++) {
+            memDB.set("key" + i, "value-" + i);
+        }
+        awaitEvictor();
+        return memDB;
+    }
+
+    /**
+     * Waits for the background evictor to finish its cycle, so that key counts are stable.
+     */
+    private void awaitEvictor() throws InterruptedException {
+        long evicted;
+        do {
+            evicted = memDB.getStats().getEvictedKeys();
+            Thread.sleep(50);
+        } while (memDB.getStats().getEvictedKeys() != evicted);
+    }
+
+    @AfterEach
+    void tearDown() {
+        memDB.close();
+    }
+
+    @Test
+    void testEvictedKeysRemainReadable() throws InterruptedException {
+        open(false);
+        assertTrue(memDB.getStats().getSpilledKeys() > 0);
+        assertTrue(memDB.getCurrentMemoryUsed() <= MAX_MEMORY);
+        assertEquals("spilled", memDB.memoryUsage("key0").getEncoding());
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals("value-" + i, memDB.get("key" + i));
+        }
+        assertEquals(KEYS, memDB.dbSize());
+        assertEquals(KEYS, memDB.keyCountsByType().get("string"));
+        assertEquals(0, memDB.getStats().getPromotedKeys());
+        assertEquals("spilled", memDB.memoryUsage("key0").getEncoding());
+        // Spilled keys stay in the keyspace SCAN walks
+        assertEquals(KEYS, memDB.scan("0", null, KEYS * 2, null).getItems().size());
+    }
+
+    @Test
+    void testWritesAndDeletesReachSpilledKeys() throws InterruptedException {
+        open(false);
+        assertTrue(memDB.del("key0"));
+        assertNull(memDB.get("key0"));
+        assertFalse(memDB.del("key0"));
+
+        memDB.set("key1", "rewritten");
+        assertEquals("rewritten", memDB.get("key1"));
+        assertEquals("raw", memDB.memoryUsage("key1").getEncoding());
+
+        // INCR loads the spilled value first
+        memDB.set("counter", "41");
+        for (int i = 0; i < KEYS; i++) {
+            memDB.set("filler" + i, "value-" + i);
+        }
+        awaitEvictor();
+        assertEquals("spilled", memDB.memoryUsage("counter").getEncoding());
+        assertEquals(42, memDB.incr("counter"));
+
+        assertThrows(WrongTypeException.class, () -> memDB.hset("key2", Map.of("field", "value")));
+        assertThrows(WrongTypeException.class, () -> memDB.hget("key2", "field"));
+        assertEquals(2 * KEYS, memDB.dbSize());
+    }
+
+    @Test
+    void testPromotionForWriteRespectsMemoryLimit() throws InterruptedException {
+        AtomicBoolean paused = new AtomicBoolean();
+        CountDownLatch resumed = new CountDownLatch(1);
+        // Holds up the evictor thread while paused
+        open(false, new LRUEvictionStrategy() {
+            @Override
+            public String selectKeyToEvict(Map<String, AtomicReference<ValueWrapper>> keyValueStore,
+                                           Map<String, Long> lastAccessTime) {
+                if (paused.get()) {
+                    try {
+                        resumed.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+                return super.selectKeyToEvict(keyValueStore, lastAccessTime);
+            }
+        });
+        assertEquals("spilled", memDB.memoryUsage("key0").getEncoding());
+        memDB.set("key0", "41");
+        for (int i = 1; i < KEYS; i++) {
+            memDB.set("key" + i, "value-" + i);
+        }
+        awaitEvictor();
+        assertEquals("spilled", memDB.memoryUsage("key0").getEncoding());
+
+        // Memory is full, and the evictor cannot make room for the counter
+        paused.set(true);
+        memDB.set("filler", "x".repeat((int) (MAX_MEMORY - memDB.getCurrentMemoryUsed()) - "filler".length()));
+        assertThrows(MemoryLimitExceededException.class, () -> memDB.incr("key0"));
+        assertEquals(MAX_MEMORY, memDB.getStats().getPeakMemoryUsed());
+        assertEquals("spilled", memDB.memoryUsage("key0").getEncoding());
+
+        resumed.countDown();
+        assertEquals(42, memDB.incr("key0"));
+    }
+
+    @Test
+    void testReadPromotesSpilledKeyBelowHighWatermark() throws InterruptedException {
+        open(true);
+        // Free memory by deleting the most recent keys, which are still in memory
+        int keys = KEYS;
+        while (memDB.getCurrentMemoryUsed() > MAX_MEMORY * 0.5) {
+            memDB.del("key" + --keys);
+        }
+        long memoryUsed = memDB.getCurrentMemoryUsed();
+
+        assertEquals("value-0", memDB.get("key0"));
+        assertEquals(1, memDB.getStats().getPromotedKeys());
+        assertEquals("raw", memDB.memoryUsage("key0").getEncoding());
+        assertTrue(memDB.getCurrentMemoryUsed() > memoryUsed);
+        assertEquals(keys, memDB.dbSize());
+    }
+
+    @Test
+    void testDeleteWinsOverConcurrentPromotion() throws Exception {
+        open(true);
+        int keys = KEYS;
+        while (memDB.getCurrentMemoryUsed() > MAX_MEMORY * 0.5) {
+            memDB.del("key" + --keys);
+        }
+        List<Integer> spilled = new ArrayList<>();
+        for (int i = 0; i < keys; i++) {
+            if ("spilled".equals(memDB.memoryUsage("key" + i).getEncoding())) {
+                spilled.add(i);
+            }
+        }
+        assertFalse(spilled.isEmpty());
+
+        // A reader keeps promoting the spilled keys while they are deleted
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> reads = reader.submit(() -> {
+                while (running.get()) {
+                    for (int i : spilled) {
+                        memDB.get("key" + i);
+                    }
+                }
+            });
+            for (int i : spilled) {
+                memDB.del("key" + i);
+                assertNull(memDB.get("key" + i));
+            }
+            running.set(false);
+            reads.get();
+        } finally {
+            reader.shutdownNow();
+        }
+        for (int i : spilled) {
+            assertNull(memDB.get("key" + i));
+        }
+        assertEquals(keys - spilled.size(), memDB.dbSize());
+    }
+
+    @Test
+    void testClearEmptiesTier() throws InterruptedException {
+        open(false);
+        memDB.clear();
+        assertNull(memDB.get("key0"));
+        assertEquals(0, memDB.dbSize());
+    }
+} 
\ No newline at end of file
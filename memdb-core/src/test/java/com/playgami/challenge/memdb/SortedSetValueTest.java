@@ -0,0 +1,127 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedSetValueTest {
+
+    @Test
+    void testConvertsPastEntryThreshold() {
+        SortedSetValue set = new SortedSetValue("key", 4, 64);
+        for (int i = 0; i < 4; i++) {
+            set.put("member" + i, i);
+        }
+        assertEquals(SortedSetValue.Encoding.PACKED, set.getEncoding());
+
+        set.put("member4", 4);
+        assertEquals(SortedSetValue.Encoding.INDEXED, set.getEncoding());
+        assertEquals(5, set.size());
+        assertEquals(List.of("member0", "member1", "member2", "member3", "member4"), set.range(0, 4));
+    }
+
+    @Test
+    void testConvertsOnLongMember() {
+        SortedSetValue set = new SortedSetValue("key", 64, 8);
+        set.put("short", 1);
+        assertEquals(SortedSetValue.Encoding.PACKED, set.getEncoding());
+
+        set.put("much-longer-member", 2);
+        assertEquals(SortedSetValue.Encoding.INDEXED, set.getEncoding());
+        assertEquals(2.0, set.score("much-longer-member").doubleValue());
+    }
+
+    @Test
+    void testNeverConvertsBack() {
+        SortedSetValue set = new SortedSetValue("key", 2, 64);
+        set.put("a", 1);
+        set.put("b", 2);
+        set.put("c", 3);
+        assertTrue(set.remove(3, "c"));
+        assertTrue(set.remove(2, "b"));
+
+        assertEquals(SortedSetValue.Encoding.INDEXED, set.getEncoding());
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void testPackedAndIndexedEncodingsAgree() {
+        SortedSetValue packed = new SortedSetValue("packed", Integer.MAX_VALUE, Integer.MAX_VALUE);
+        SortedSetValue indexed = new SortedSetValue("indexed", 0, 0);
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String member = "m" + random.nextInt(40);
+            double score = random.nextInt(20);
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(indexed.put(member, score), packed.put(member, score));
+                case 1 -> assertEquals(indexed.incrementBy(member, score), packed.incrementBy(member, score));
+                default -> assertEquals(indexed.remove(score, member), packed.remove(score, member));
+            }
+        }
+        assertEquals(SortedSetValue.Encoding.PACKED, packed.getEncoding());
+        assertEquals(SortedSetValue.Encoding.INDEXED, indexed.getEncoding());
+
+        assertEquals(indexed.size(), packed.size());
+        assertEquals(indexed.range(0, 100), packed.range(0, 100));
+        assertEquals(indexed.lowest(), packed.lowest());
+        for (int i = 0; i < 40; i++) {
+            String member = "m" + i;
+            assertEquals(indexed.score(member), packed.score(member));
+            assertEquals(indexed.rank(member), packed.rank(member));
+            assertEquals(indexed.reverseRank(member), packed.reverseRank(member));
+        }
+        for (String[] bounds : new String[][] {{"-inf", "+inf"}, {"5", "10"}, {"(5", "(10"}, {"10", "5"}, {"(20", "+inf"}}) {
+            ScoreRange range = ScoreRange.parse(bounds[0], bounds[1]);
+            assertEquals(indexed.rangeByScore(range), packed.rangeByScore(range));
+            assertEquals(indexed.count(range), packed.count(range));
+        }
+        assertEquals(entries(indexed), entries(packed));
+        assertEquals(packed.rangeByScore(ScoreRange.parse("-inf", "+inf")), entries(packed));
+    }
+
+    private static List<Map.Entry<String, Double>> entries(SortedSetValue set) {
+        List<Map.Entry<String, Double>> entries = new ArrayList<>();
+        set.iterator().forEachRemaining(entries::add);
+        return entries;
+    }
+
+    @Test
+    void testIncrementOverflowIsRejected() {
+        SortedSetValue set = new SortedSetValue("key");
+        set.put("alice", Double.MAX_VALUE);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> set.incrementBy("alice", Double.MAX_VALUE));
+        assertEquals("increment would produce NaN or Infinity", e.getMessage());
+        assertEquals(Double.valueOf(Double.MAX_VALUE), set.score("alice"));
+
+        // An infinite score stays infinite
+        set.put("bob", Double.POSITIVE_INFINITY);
+        assertEquals(Double.valueOf(Double.POSITIVE_INFINITY), set.incrementBy("bob", 1));
+        assertEquals(Double.valueOf(Double.POSITIVE_INFINITY), set.score("bob"));
+    }
+
+    @Test
+    void testNegativeZeroIsStoredAsZero() {
+        SortedSetValue set = new SortedSetValue("key");
+        set.put("alice", -0.0);
+        assertEquals(Double.valueOf(0.0), set.score("alice"));
+        assertEquals(Double.valueOf(0.0), set.put("alice", 0.0));
+        set.incrementBy("bob", -0.0);
+        assertEquals(Double.valueOf(0.0), set.score("bob"));
+        // One score, so members sort by name
+        assertEquals(List.of("alice", "bob"), set.range(0, 1));
+        assertTrue(set.remove(0.0, "bob"));
+    }
+
+    @Test
+    void testPackedSetUsesLessMemory() {
+        SortedSetValue set = new SortedSetValue("key");
+        for (int i = 0; i < 32; i++) {
+            set.put("player" + i, i);
+        }
+        assertTrue(set.memoryUsage() * 2 < set.indexedMemoryUsage());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesTest {
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void testIrregularSamplesRoundTrip() {
+        Random random = new Random(7);
+        TimeSeries series = new TimeSeries(100, 0);
+        List<TimeSeries.Sample> expected = new ArrayList<>();
+        long timestamp = START;
+        for (int i = 0; i < 5_000; i++) {
+            // Mix on-schedule, jittered and far-apart timestamps to hit every delta-of-delta bucket
+            int kind = random.nextInt(4);
+            timestamp += kind == 0 ? 1000 : kind == 1 ? 1 + random.nextInt(5_000) : kind == 2 ? 1 + random.nextInt(Integer.MAX_VALUE) : 1000;
+            double value = random.nextBoolean() ? Math.round(random.nextGaussian() * 10) + 1000 : random.nextGaussian() * 1e6;
+            series.add(timestamp, value);
+            expected.add(new TimeSeries.Sample(timestamp, value));
+        }
+        assertEquals(expected, series.range(0, Long.MAX_VALUE));
+        assertEquals(5_000, series.size());
+        assertEquals(expected.subList(1_000, 2_001),
+                series.range(expected.get(1_000).getTimestamp(), expected.get(2_000).getTimestamp()));
+    }
+
+    @Test
+    void testRegularTelemetryCompresses() {
+        Random random = new Random(42);
+        TimeSeries series = new TimeSeries();
+        double ccu = 5_000;
+        for (int i = 0; i < 86_400; i++) {
+            ccu += Math.round(random.nextGaussian() * 5);
+            series.add(START + i * 1000L, ccu);
+        }
+        // A day of per-second samples in under 2 bytes each, against 16 uncompressed
+        assertTrue(series.dataSize() < 2 * 86_400, "charged " + series.dataSize());
+        assertTrue(series.savedBytes() > 12 * 86_400);
+    }
+
+    @Test
+    void testAggregateMatchesDecodedSamples() {
+        Random random = new Random(3);
+        TimeSeries series = new TimeSeries(64, 0);
+        for (int i = 0; i < 10_000; i++) {
+            series.add(START + i * 1000L + random.nextInt(500), random.nextInt(100));
+        }
+        long from = START + 123_456;
+        long to = START + 8_765_432;
+        for (long bucket : new long[] {1_000, 60_000, 3_600_000}) {
+            for (TimeSeries.Aggregation aggregation : TimeSeries.Aggregation.values()) {
+                List<TimeSeries.Sample> actual = series.aggregate(from, to, aggregation, bucket);
+                List<TimeSeries.Sample> expected = aggregate(series.range(from, to), aggregation, bucket);
+                assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getTimestamp(), actual.get(i).getTimestamp());
+                    assertEquals(expected.get(i).getValue(), actual.get(i).getValue(), 1e-9);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> series.aggregate(0, 1, TimeSeries.Aggregation.SUM, 0));
+    }
+
+    @Test
+    void testSamplesMustBeAppendedInOrder() {
+        TimeSeries series = new TimeSeries();
+        series.add(START, 1);
+        assertThrows(IllegalArgumentException.class, () -> series.add(START, 2));
+        assertThrows(IllegalArgumentException.class, () -> series.add(START - 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> series.add(-1, 2));
+        assertEquals(1, series.size());
+    }
+
+    @Test
+    void testRetentionHidesAndTrimsExpiredSamples() {
+        TimeSeries series = new TimeSeries(10, 60_000);
+        for (int i = 0; i < 300; i++) {
+            series.add(START + i * 1000L, i);
+        }
+        // Samples older than the latest by more than a minute are hidden straight away
+        List<TimeSeries.Sample> visible = series.range(0, Long.MAX_VALUE);
+        assertEquals(61, visible.size());
+        assertEquals(START + 239_000, visible.get(0).getTimestamp());
+
+        long before = series.dataSize();
+        assertTrue(series.trim());
+        assertTrue(series.dataSize() < before / 3);
+        // Trimming drops whole chunks, so it keeps the chunk straddling the cutoff
+        assertEquals(70, series.size());
+        assertEquals(visible, series.range(0, Long.MAX_VALUE));
+        assertFalse(series.trim());
+    }
+
+    private static List<TimeSeries.Sample> aggregate(List<TimeSeries.Sample> samples, TimeSeries.Aggregation aggregation,
+                                                     long bucketMillis) {
+        List<TimeSeries.Sample> buckets = new ArrayList<>();
+        int i = 0;
+        while (i < samples.size()) {
+            long bucket = samples.get(i).getTimestamp() / bucketMillis * bucketMillis;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            int count = 0;
+            for (; i < samples.size() && samples.get(i).getTimestamp() < bucket + bucketMillis; i++) {
+                double value = samples.get(i).getValue();
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+                count++;
+            }
+            double value = aggregation == TimeSeries.Aggregation.MIN ? min
+                    : aggregation == TimeSeries.Aggregation.MAX ? max
+                    : aggregation == TimeSeries.Aggregation.AVG ? sum / count : sum;
+            buckets.add(new TimeSeries.Sample(bucket, value));
+        }
+        return buckets;
+    }
+} 
\ No newline at end of file
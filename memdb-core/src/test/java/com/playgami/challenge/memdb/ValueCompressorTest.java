@@ -0,0 +1,64 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueCompressorTest {
+    static String profileJson(int players) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < players; i++) {
+            sb.append(i > 0 ? "," : "")
+                    .append("{\"id\":").append(i)
+                    .append(",\"name\":\"player").append(i)
+                    .append("\",\"region\":\"eu-west\",\"status\":\"online\",\"level\":").append(i % 50).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    @Test
+    void testDeflateRoundTrip() {
+        MemDBStats stats = new MemDBStats();
+        ValueCompressor compressor = new ValueCompressor(ValueCodec.forCodec(CompressionCodec.DEFLATE), 1024, 0.8, stats);
+        String value = profileJson(500) + "\u00e9t\u00e9";
+
+        CompressedValue compressed = compressor.compress(value);
+        assertNotNull(compressed);
+        assertTrue(compressed.data.length < value.length() / 4);
+        assertEquals(value, compressor.decompress(compressed));
+        assertEquals(1, stats.getCompressedValues());
+        assertTrue(stats.getCompressionRatio() > 4);
+    }
+
+    @Test
+    void testLz4RoundTrip() {
+        ValueCompressor compressor = new ValueCompressor(ValueCodec.forCodec(CompressionCodec.LZ4), 1024, 0.8, new MemDBStats());
+        String value = profileJson(500);
+
+        CompressedValue compressed = compressor.compress(value);
+        assertNotNull(compressed);
+        assertTrue(compressed.data.length < value.length() / 2);
+        assertEquals(value, compressor.decompress(compressed));
+    }
+
+    @Test
+    void testShortAndIncompressibleValuesAreStoredAsIs() {
+        MemDBStats stats = new MemDBStats();
+        ValueCompressor compressor = new ValueCompressor(ValueCodec.forCodec(CompressionCodec.DEFLATE), 1024, 0.8, stats);
+        assertNull(compressor.compress(profileJson(5)));
+        assertEquals(0, stats.getSkippedCompressions());
+
+        // Random characters across a wide range barely compress
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 4096; i++) {
+            sb.append((char) (33 + random.nextInt(90)));
+        }
+        assertNull(compressor.compress(sb.toString()));
+        assertEquals(1, stats.getSkippedCompressions());
+        assertEquals(0, stats.getCompressedValues());
+        assertEquals(1.0, stats.getCompressionRatio());
+    }
+} 
\ No newline at end of file
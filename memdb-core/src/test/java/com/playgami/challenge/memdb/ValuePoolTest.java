@@ -0,0 +1,47 @@
+package com.playgami.challenge.memdb;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValuePoolTest {
+    @Test
+    void testEqualValuesShareOneChargedInstance() {
+        AtomicLong memoryUsed = new AtomicLong();
+        ValuePool pool = new ValuePool(10, 16, memoryUsed);
+
+        String first = pool.acquire(new String("online"));
+        String second = pool.acquire(new String("online"));
+        assertSame(first, second);
+        assertEquals("online".length(), memoryUsed.get());
+        assertEquals(1, pool.size());
+
+        pool.release("online");
+        assertEquals("online".length(), memoryUsed.get());
+        pool.release("online");
+        assertEquals(0, memoryUsed.get());
+        assertEquals(0, pool.size());
+        // A released value gets a new canonical instance
+        assertNotSame(first, pool.acquire(new String("online")));
+    }
+
+    @Test
+    void testPoolIsBounded() {
+        AtomicLong memoryUsed = new AtomicLong();
+        ValuePool pool = new ValuePool(2, 16, memoryUsed);
+
+        assertNull(pool.acquire("x".repeat(17)));
+        assertNotNull(pool.acquire("eu-west"));
+        assertNotNull(pool.acquire("us-east"));
+        assertNull(pool.acquire("ap-south"));
+        // Pooled values still share once the pool is full
+        assertNotNull(pool.acquire("eu-west"));
+        assertEquals(2, pool.size());
+
+        pool.release("us-east");
+        assertNotNull(pool.acquire("ap-south"));
+        assertEquals("eu-west".length() + "ap-south".length(), memoryUsed.get());
+    }
+} 
\ No newline at end of file
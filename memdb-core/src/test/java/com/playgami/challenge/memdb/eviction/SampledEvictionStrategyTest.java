@@ -0,0 +1,87 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.ValueWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledEvictionStrategyTest {
+    private static final int KEYS = 50;
+
+    private Map<String, AtomicReference<ValueWrapper>> store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentHashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            store.put("key" + i, new AtomicReference<>(new ValueWrapper("value" + i)));
+        }
+    }
+
+    @Test
+    void testSampledLruEvictsLongestIdleKey() {
+        // Sampling at least as many keys as the store holds makes the choice exact
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(false, KEYS);
+        store.get("key7").get().setAccessTime(System.currentTimeMillis() - 60_000);
+        store.get("key3").get().setAccessTime(System.currentTimeMillis() - 30_000);
+
+        assertEquals("key7", strategy.selectKeyToEvict(store, null));
+        store.remove("key7");
+        assertEquals("key3", strategy.selectKeyToEvict(store, null));
+    }
+
+    @Test
+    void testSampledLfuEvictsLeastFrequentlyUsedKey() {
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(true, KEYS);
+        for (int i = 0; i < KEYS; i++) {
+            store.get("key" + i).get().setFrequency(100);
+        }
+        store.get("key11").get().setFrequency(1);
+
+        assertEquals("key11", strategy.selectKeyToEvict(store, null));
+    }
+
+    @Test
+    void testLfuCounterGrowsWithAccesses() {
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(true, KEYS);
+        ValueWrapper wrapper = store.get("key0").get();
+        for (int i = 0; i < 1000; i++) {
+            strategy.onAccess("key0", wrapper);
+        }
+        assertTrue(wrapper.getFrequency() > ValueWrapper.INITIAL_FREQUENCY);
+        assertTrue(wrapper.getFrequency() <= SampledEvictionStrategy.LFU_MAX_COUNTER);
+    }
+
+    @Test
+    void testExpiredKeysAreEvictedFirst() {
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(false, KEYS + 1);
+        store.get("key1").get().setAccessTime(System.currentTimeMillis() - 60_000);
+        store.put("expired", new AtomicReference<>(new ValueWrapper("value", System.currentTimeMillis() - 1)));
+
+        assertEquals("expired", strategy.selectKeyToEvict(store, null));
+    }
+
+    @Test
+    void testStaleCandidatesAreSkipped() {
+        SampledEvictionStrategy strategy = new SampledEvictionStrategy(false, KEYS);
+        store.get("key5").get().setAccessTime(System.currentTimeMillis() - 60_000);
+        assertEquals("key5", strategy.selectKeyToEvict(store, null));
+
+        // The pool still holds candidates for keys that are deleted or rewritten meanwhile
+        store.clear();
+        assertNull(strategy.selectKeyToEvict(store, null));
+    }
+
+    @Test
+    void testForPolicyCreatesMatchingStrategy() {
+        assertEquals(EvictionPolicy.LRU, EvictionStrategy.forPolicy(EvictionPolicy.LRU, 5).getPolicy());
+        assertEquals(EvictionPolicy.SAMPLED_LRU, EvictionStrategy.forPolicy(EvictionPolicy.SAMPLED_LRU, 5).getPolicy());
+        assertEquals(EvictionPolicy.SAMPLED_LFU, EvictionStrategy.forPolicy(EvictionPolicy.SAMPLED_LFU, 5).getPolicy());
+        assertThrows(IllegalArgumentException.class, () -> new SampledEvictionStrategy(false, 0));
+    }
+} 
\ No newline at end of file
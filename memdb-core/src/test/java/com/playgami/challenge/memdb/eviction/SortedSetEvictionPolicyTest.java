@@ -0,0 +1,101 @@
+package com.playgami.challenge.memdb.eviction;
+
+import com.playgami.challenge.memdb.SortedSetValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedSetEvictionPolicyTest {
+    private SortedSetRegistry registry;
+    private SortedSetEvictionStrategy.MemberRemover remover;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SortedSetRegistry();
+        remover = (set, score, member) -> {
+            boolean removed = set.remove(score, member);
+            if (set.isEmpty()) {
+                registry.unregister(set);
+            }
+            return removed;
+        };
+    }
+
+    private SortedSetValue addSet(String key, int members) {
+        SortedSetValue set = new SortedSetValue(key);
+        for (int i = 0; i < members; i++) {
+            set.put(key + ":" + i, i);
+        }
+        registry.register(set);
+        return set;
+    }
+
+    @Test
+    void testRegistrySwapRemove() {
+        SortedSetValue a = addSet("a", 1);
+        SortedSetValue b = addSet("b", 1);
+        SortedSetValue c = addSet("c", 1);
+        registry.unregister(a);
+        registry.unregister(a);
+
+        assertEquals(2, registry.size());
+        Set<SortedSetValue> sampled = new HashSet<>(registry.sample(5));
+        assertEquals(Set.of(b, c), sampled);
+        assertEquals(1, registry.sample(1).size());
+    }
+
+    @Test
+    void testRandomLowestScoreRemovesLowestScores() {
+        SortedSetValue set = addSet("scores", 10);
+        int removed = new RandomLowestScoreEvictionPolicy().evict(registry, remover, 3);
+
+        assertEquals(3, removed);
+        assertEquals(7, set.size());
+        assertEquals(3.0, set.lowest().getKey().doubleValue());
+    }
+
+    @Test
+    void testLruSetEvictsOldestSet() {
+        SortedSetValue old = addSet("old", 5);
+        SortedSetValue recent = addSet("recent", 5);
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        recent.touch();
+
+        int removed = new LRUSetEvictionPolicy().evict(registry, remover, 10);
+
+        assertEquals(5, removed);
+        assertTrue(old.isEmpty());
+        assertEquals(5, recent.size());
+        assertEquals(List.of(recent), registry.sample(5));
+    }
+
+    @Test
+    void testLargestSetsTrimsBiggestSetFirst() {
+        SortedSetValue small = addSet("small", 3);
+        SortedSetValue large = addSet("large", 20);
+
+        int removed = new LargestSetsEvictionPolicy().evict(registry, remover, 10);
+
+        assertEquals(10, removed);
+        assertEquals(3, small.size());
+        assertEquals(10, large.size());
+    }
+
+    @Test
+    void testEvictOnEmptyRegistry() {
+        for (SortedSetEvictionPolicy policy : SortedSetEvictionPolicy.values()) {
+            SortedSetEvictionStrategy strategy = SortedSetEvictionStrategy.forPolicy(policy);
+            assertEquals(policy, strategy.getPolicy());
+            assertEquals(0, strategy.evict(registry, remover, 10));
+        }
+    }
+} 
\ No newline at end of file
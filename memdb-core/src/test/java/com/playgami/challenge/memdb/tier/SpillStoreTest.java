@@ -0,0 +1,130 @@
+package com.playgami.challenge.memdb.tier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillStoreTest {
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path parent;
+
+    private SpillStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Compaction is run by the tests themselves
+        store = new SpillStore(parent, SEGMENT_BYTES, 4 * SEGMENT_BYTES, 0.5, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void testSpillReadAndRemove() {
+        SpilledValue spilled = store.spill("key", "val\u00fce", null);
+        assertNotNull(spilled);
+        assertSame(spilled, store.get("key"));
+        assertEquals("val\u00fce", store.read(spilled));
+        assertEquals(1, store.size());
+
+        // Spilling again replaces the record
+        SpilledValue respilled = store.spill("key", "other", 42L);
+        assertEquals("other", store.read(store.get("key")));
+        assertEquals(42L, store.get("key").getExpiryTime());
+        assertTrue(store.get("key").isExpired());
+
+        // A conditional remove of a stale location does nothing
+        assertFalse(store.remove("key", spilled));
+        assertTrue(store.remove("key", respilled));
+        assertNull(store.get("key"));
+        assertNull(store.remove("key"));
+    }
+
+    @Test
+    void testSpillFailsWhenTierIsFull() {
+        String value = "x".repeat(200);
+        int spilled = 0;
+        while (store.spill("key" + spilled, value, null) != null) {
+            spilled++;
+        }
+        // Four segments of four records each
+        assertEquals(16, spilled);
+        assertEquals(4L * SEGMENT_BYTES, store.diskBytes());
+        // A record larger than a segment never fits
+        assertNull(store.spill("huge", "x".repeat(SEGMENT_BYTES), null));
+    }
+
+    @Test
+    void testCompactionKeepsLiveValuesAndDeletesSegment() throws Exception {
+        String value = "x".repeat(200);
+        for (int i = 0; i < 8; i++) {
+            store.spill("key" + i, value + i, null);
+        }
+        assertEquals(2L * SEGMENT_BYTES, store.diskBytes());
+        // Three of the four records of the first segment die
+        store.remove("key0");
+        store.remove("key1");
+        store.spill("key2", "rewritten", null);
+
+        store.compact();
+
+        for (int i = 0; i < 8; i++) {
+            String expected = i < 2 ? null : i == 2 ? "rewritten" : value + i;
+            SpilledValue spilled = store.get("key" + i);
+            assertEquals(expected, spilled != null ? store.read(spilled) : null);
+        }
+        assertEquals(6, store.size());
+        // The first segment is gone; the second and the active one holding the moved record remain
+        assertEquals(2L * SEGMENT_BYTES, store.diskBytes());
+        try (Stream<Path> files = Files.list(parent)) {
+            Path directory = files.findFirst().orElseThrow();
+            try (Stream<Path> segments = Files.list(directory)) {
+                assertFalse(segments.anyMatch(path -> path.getFileName().toString().equals("segment-0.dat")));
+            }
+        }
+    }
+
+    @Test
+    void testRecordOfCompactedSegmentIsNotPublished() {
+        String value = "x".repeat(200);
+        // Written but not yet published, then sealed in the first segment by later spills
+        SpilledValue pending = store.write("pending", value, null);
+        for (int i = 0; i < 7; i++) {
+            store.spill("key" + i, value + i, null);
+        }
+        for (int i = 0; i < 3; i++) {
+            store.remove("key" + i);
+        }
+
+        store.compact();
+
+        assertFalse(store.publish("pending", pending));
+        assertNull(store.get("pending"));
+        store.discard(pending);
+        // A record written to the active segment publishes
+        SpilledValue written = store.write("written", "value", null);
+        assertTrue(store.publish("written", written));
+        assertEquals("value", store.read(store.get("written")));
+    }
+
+    @Test
+    void testCloseDeletesDirectory() throws Exception {
+        store.spill("key", "value", null);
+        store.close();
+        try (Stream<Path> files = Files.list(parent)) {
+            assertEquals(0, files.count());
+        }
+        assertNull(store.spill("key", "value", null));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,310 @@
+package com.playgami.challenge.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MemDB client keeping a near cache of the string values it reads, so that repeated reads of
+ * hot keys never leave the JVM. The cache is kept coherent by the server's invalidation stream
+ * (GET /tracking): the server tells the client of every change of a key it read, or, in
+ * broadcast mode, of every key under the client's prefixes.
+ * While the stream is down, reads go to the server and nothing is cached; the cache is dropped
+ * whenever the stream closes, as invalidations may have been missed, and the client reconnects.
+ * A read is marked in flight in the cache before it is sent, and its reply is cached only if no
+ * invalidation removed the mark meanwhile, so a reply racing an invalidation is never cached.
+ */
+public class NearCacheClient implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(NearCacheClient.class);
+    private static final String CLIENT_ID_HEADER = "X-MemDB-Client-Id";
+    private static final String NIL_RESPONSE = "(nil)";
+    // Cached for keys the server holds no value for
+    private static final Object NIL = new Object();
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final URI baseUri;
+    private final int maxEntries;
+    private final boolean broadcast;
+    private final List<String> prefixes;
+    private final HttpClient http = HttpClient.newHttpClient();
+    // Cached values, NIL, or the in-flight mark of a read
+    private final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final Thread listener;
+    private final CountDownLatch connected = new CountDownLatch(1);
+    // Id the server gave this client on the current stream, or null while it is down
+    private volatile String clientId;
+    private volatile InputStream stream;
+    private volatile boolean closed;
+
+    /**
+     * Creates a client caching the keys it reads, tracked one by one by the server.
+     */
+    public NearCacheClient(URI baseUri, int maxEntries) {
+        this(baseUri, maxEntries, false, List.of());
+    }
+
+    /**
+     * Creates a client caching only keys under the prefixes, or every key if there are none, and
+     * told of every change to them, whether it read them or not. Suits a small set of hot keys
+     * read by many clients, as the server keeps no per-key state.
+     */
+    public static NearCacheClient broadcast(URI baseUri, int maxEntries, List<String> prefixes) {
+        return new NearCacheClient(baseUri, maxEntries, true, prefixes);
+    }
+
+    private NearCacheClient(URI baseUri, int maxEntries, boolean broadcast, List<String> prefixes) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Near cache size must be greater than zero");
+        }
+        this.baseUri = baseUri;
+        this.maxEntries = maxEntries;
+        this.broadcast = broadcast;
+        this.prefixes = List.copyOf(prefixes);
+        this.listener = new Thread(this::listen, "memdb-near-cache");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Waits until the invalidation stream is open; reads are not cached before.
+     */
+    public boolean awaitConnected(long timeout, TimeUnit unit) throws InterruptedException {
+        return connected.await(timeout, unit);
+    }
+
+    /**
+     * Returns the value of a key, or null if it has none, from the near cache when possible.
+     */
+    public String get(String key) throws IOException, InterruptedException {
+        Object cached = cache.get(key);
+        if (cached instanceof String) {
+            hits.increment();
+            return (String) cached;
+        }
+        if (cached == NIL) {
+            hits.increment();
+            return null;
+        }
+        misses.increment();
+        String id = clientId;
+        if (id == null || !cacheable(key)) {
+            return fetch(key, null);
+        }
+        Object inFlight = new Object();
+        cache.put(key, inFlight);
+        String value;
+        try {
+            value = fetch(key, broadcast ? null : id);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            cache.remove(key, inFlight);
+            throw e;
+        }
+        // Invalidated meanwhile, or the stream dropped and may have missed an invalidation
+        if (!cache.replace(key, inFlight, value != null ? value : NIL) || clientId != id) {
+            cache.remove(key, inFlight);
+        }
+        trim();
+        return value;
+    }
+
+    /**
+     * Sets the value of a key. The cached copy is dropped; the next read fetches the new value.
+     */
+    public void set(String key, String value) throws IOException, InterruptedException {
+        cache.remove(key);
+        send(HttpRequest.newBuilder(uri("/set?key=" + encode(key) + "&value=" + encode(value)))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    /**
+     * Deletes a key, dropping the cached copy.
+     */
+    public void del(String key) throws IOException, InterruptedException {
+        cache.remove(key);
+        send(HttpRequest.newBuilder(uri("/del?key=" + encode(key))).DELETE().build());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of keys cached.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private boolean cacheable(String key) {
+        if (!broadcast || prefixes.isEmpty()) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a key from the server, on behalf of the tracking client id unless it is null.
+     */
+    String fetch(String key, String id) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/get?key=" + encode(key))).GET();
+        if (id != null) {
+            request.header(CLIENT_ID_HEADER, id);
+        }
+        String body = send(request.build());
+        return body.equals(NIL_RESPONSE) ? null : body;
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            throw new IOException("MemDB returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    /**
+     * Drops arbitrary entries past maxEntries.
+     */
+    private void trim() {
+        Iterator<String> keys = cache.keySet().iterator();
+        while (cache.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Reads the invalidation stream until the client is closed, reconnecting when it drops.
+     */
+    private void listen() {
+        while (!closed) {
+            try {
+                readStream();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Invalidation stream from {} dropped: {}", baseUri, e.getMessage());
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            clientId = null;
+            cache.clear();
+            if (!closed) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void readStream() throws IOException, InterruptedException {
+        StringBuilder query = new StringBuilder("/tracking?bcast=").append(broadcast);
+        for (String prefix : prefixes) {
+            query.append("&prefix=").append(encode(prefix));
+        }
+        HttpRequest request = HttpRequest.newBuilder(uri(query.toString()))
+                .header("Accept", "text/event-stream").GET().build();
+        HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        stream = response.body();
+        if (closed) {
+            stream.close();
+            return;
+        }
+        if (response.statusCode() != 200) {
+            stream.close();
+            throw new IOException("MemDB returned " + response.statusCode() + " for the invalidation stream");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String event = null;
+            StringBuilder data = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (event != null) {
+                        onEvent(event, data != null ? data.toString() : "");
+                    }
+                    event = null;
+                    data = null;
+                } else if (line.startsWith("event:")) {
+                    event = line.substring("event:".length()).trim();
+                } else if (line.startsWith("data:")) {
+                    // Multi-line data arrives as several data lines
+                    String chunk = line.substring("data:".length());
+                    data = data == null ? new StringBuilder(chunk) : data.append('\n').append(chunk);
+                }
+            }
+        }
+    }
+
+    private void onEvent(String event, String data) {
+        switch (event) {
+            case "hello":
+                clientId = data.trim();
+                connected.countDown();
+                break;
+            case "invalidate":
+                cache.remove(data);
+                break;
+            case "flush":
+                cache.clear();
+                break;
+            default:
+                logger.debug("Ignoring invalidation stream event {}", event);
+        }
+    }
+
+    private URI uri(String pathAndQuery) {
+        return baseUri.resolve(pathAndQuery);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the invalidation stream and drops the cache.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        InputStream current = stream;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.debug("Closing invalidation stream: {}", e.getMessage());
+            }
+        }
+        listener.interrupt();
+        cache.clear();
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.playgami.challenge.config;
+
+import com.playgami.challenge.memdb.MemDBSettings;
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logical databases of the server, bound from the "memdb.databases" properties prefix. Database 0
+ * uses the "memdb" settings; every other database starts from a copy of them, replacing the
+ * memory quota and eviction policy set for its index under "memdb.databases.quotas".
+ */
+public class DatabaseSettings {
+    // Number of logical databases, each running its own evictor and background threads
+    private int count = 1;
+    // Overrides of databases 1 and up, by index
+    private Map<Integer, Quota> quotas = new HashMap<>();
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Map<Integer, Quota> getQuotas() {
+        return quotas;
+    }
+
+    public void setQuotas(Map<Integer, Quota> quotas) {
+        this.quotas = quotas;
+    }
+
+    /**
+     * Returns the settings of a database other than database 0, whose settings are base.
+     */
+    public MemDBSettings settingsFor(int index, MemDBSettings base) {
+        MemDBSettings settings = base.copy();
+        Quota quota = quotas.get(index);
+        if (quota != null) {
+            if (quota.getMaxMemory() != null) {
+                settings.setMaxMemory(quota.getMaxMemory());
+            }
+            if (quota.getEvictionPolicy() != null) {
+                settings.setEvictionPolicy(quota.getEvictionPolicy());
+            }
+            if (quota.getEvictionSamples() != null) {
+                settings.setEvictionSamples(quota.getEvictionSamples());
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Checks that the settings are consistent.
+     */
+    public void validate() {
+        if (count <= 0) {
+            throw new IllegalArgumentException("At least one database is required");
+        }
+        for (Integer index : quotas.keySet()) {
+            if (index < 1 || index >= count) {
+                throw new IllegalArgumentException("Quota set for database " + index
+                        + ", expected an index from 1 to " + (count - 1) + "; database 0 uses the memdb settings");
+            }
+        }
+    }
+
+    public static class Quota {
+        // Memory limit of the database in bytes, replacing memdb.max-memory
+        private Long maxMemory;
+        private EvictionPolicy evictionPolicy;
+        private Integer evictionSamples;
+
+        public Long getMaxMemory() {
+            return maxMemory;
+        }
+
+        public void setMaxMemory(Long maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+
+        public EvictionPolicy getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+        }
+
+        public Integer getEvictionSamples() {
+            return evictionSamples;
+        }
+
+        public void setEvictionSamples(Integer evictionSamples) {
+            this.evictionSamples = evictionSamples;
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.playgami.challenge.config;
+
+import com.playgami.challenge.controller.MemDBController;
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.MemDBSettings;
+import com.playgami.challenge.memdb.eviction.EvictionStrategy;
+import com.playgami.challenge.service.Databases;
+import com.playgami.challenge.service.MemDBCommandService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires the engine of the memdb-core module, which knows nothing of Spring, into the server:
+ * its settings are bound from the "memdb" properties prefix.
+ */
+@Configuration
+public class MemDBConfiguration {
+    @Bean
+    @ConfigurationProperties(prefix = "memdb")
+    public MemDBSettings memDBSettings() {
+        return new MemDBSettings();
+    }
+
+    @Bean
+    public EvictionStrategy evictionStrategy(MemDBSettings settings) {
+        return EvictionStrategy.forPolicy(settings.getEvictionPolicy(), settings.getEvictionSamples());
+    }
+
+    @Bean
+    public MemDB memDB(EvictionStrategy evictionStrategy, MemDBSettings settings) {
+        return new MemDB(evictionStrategy, settings);
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "memdb.databases")
+    public DatabaseSettings databaseSettings() {
+        return new DatabaseSettings();
+    }
+
+    /**
+     * Database 0 is the engine bean; the others are built from copies of its settings.
+     */
+    @Bean
+    public Databases databases(MemDB memDB, MemDBSettings settings, DatabaseSettings databaseSettings) {
+        databaseSettings.validate();
+        List<MemDB> others = new ArrayList<>();
+        try {
+            for (int index = 1; index < databaseSettings.getCount(); index++) {
+                MemDBSettings indexSettings = databaseSettings.settingsFor(index, settings);
+                others.add(new MemDB(EvictionStrategy.forPolicy(indexSettings.getEvictionPolicy(),
+                        indexSettings.getEvictionSamples()), indexSettings));
+            }
+        } catch (RuntimeException e) {
+            others.forEach(MemDB::close);
+            throw e;
+        }
+        return new Databases(memDB, others);
+    }
+
+    /**
+     * Keeps the engine and the command path eager when the fast-startup profile makes every other
+     * bean lazy, so that the first command does not pay for their creation.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerCommandPath() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MemDB.class, Databases.class, MemDBCommandService.class, MemDBController.class);
+    }
+} 
\ No newline at end of file
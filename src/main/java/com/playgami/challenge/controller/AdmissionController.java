@@ -0,0 +1,24 @@
+package com.playgami.challenge.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Exposes the admission control counters, which are never themselves rate limited.
+ */
+@RestController
+public class AdmissionController {
+    private final AdmissionFilter admissionFilter;
+
+    public AdmissionController(AdmissionFilter admissionFilter) {
+        this.admissionFilter = admissionFilter;
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> admission() {
+        return ResponseEntity.ok(admissionFilter.getAdmissionControl().stats());
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.playgami.challenge.controller;
+
+import com.playgami.challenge.service.AdmissionControl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Runs admission control in front of every endpoint. A request over its client's rate gets HTTP
+ * 429 and one arriving while the server runs its concurrency limit gets HTTP 503, both with a
+ * Retry-After header in seconds and the retry delay in milliseconds in the error reply. Clients
+ * are identified by the X-MemDB-Api-Key header, or by their address without one.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String API_KEY_HEADER = "X-MemDB-Api-Key";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionFilter(@Value("${memdb.admission.enabled:false}") boolean enabled,
+                           @Value("${memdb.admission.rate:1000}") double rate,
+                           @Value("${memdb.admission.burst:2000}") long burst,
+                           @Value("${memdb.admission.max-concurrent:0}") int maxConcurrent,
+                           @Value("${memdb.admission.expensive-cost:10}") int expensiveCost,
+                           @Value("${memdb.admission.large-range:100}") long largeRange,
+                           @Value("${memdb.admission.max-clients:10000}") int maxClients) {
+        this.admissionControl = new AdmissionControl(enabled, rate, burst, maxConcurrent, expensiveCost, largeRange, maxClients);
+    }
+
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // The invalidation stream stays open as long as its client, and the counters must stay readable
+        String path = request.getServletPath();
+        return !admissionControl.isEnabled() || path.equals("/tracking") || path.equals("/admission");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader(API_KEY_HEADER);
+        if (client == null || client.isBlank()) {
+            client = request.getRemoteAddr();
+        }
+        try (AdmissionControl.Ticket ticket = admissionControl.admit(client, cost(request))) {
+            if (!ticket.isAdmitted()) {
+                HttpStatus status = ticket.isOverloaded() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+                response.setStatus(status.value());
+                // Retry-After only has whole seconds
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((ticket.getRetryAfterMillis() + 999) / 1000));
+                response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+                response.getWriter().write(ticket.getMessage());
+                return;
+            }
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Prices the command of the command endpoint, or the command a REST endpoint is named after.
+     */
+    private int cost(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path.equals("/")) {
+            String cmd = request.getParameter("cmd");
+            if (cmd == null || cmd.isBlank()) {
+                return 1;
+            }
+            String[] parts = cmd.trim().split("\\s+");
+            return admissionControl.cost(parts[0].toUpperCase(Locale.ROOT), Arrays.copyOfRange(parts, 1, parts.length));
+        }
+        String command = path.substring(1).toUpperCase(Locale.ROOT).replace('/', '.');
+        String[] args = {request.getParameter("key"), request.getParameter("start"), request.getParameter("end")};
+        return admissionControl.cost(command, args);
+    }
+} 
\ No newline at end of file
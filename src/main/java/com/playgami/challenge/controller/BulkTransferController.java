@@ -0,0 +1,56 @@
+package com.playgami.challenge.controller;
+
+import com.playgami.challenge.service.ExportService;
+import com.playgami.challenge.service.ImportResult;
+import com.playgami.challenge.service.ImportService;
+import com.playgami.challenge.service.TransferFormat;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk loading and dumping of the dataset, streamed so that neither side holds it in memory.
+ */
+@RestController
+public class BulkTransferController {
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransferController.class);
+    private final ImportService importService;
+    private final ExportService exportService;
+
+    public BulkTransferController(ImportService importService, ExportService exportService) {
+        this.importService = importService;
+        this.exportService = exportService;
+    }
+
+    // The body is read straight from the request stream, record by record, so the servlet
+    // container's flow control throttles the client to the rate the store absorbs writes
+    @PostMapping("/import")
+    public ResponseEntity<String> importData(@RequestParam(defaultValue = "ndjson") String format,
+                                             HttpServletRequest request) throws IOException {
+        TransferFormat transferFormat = TransferFormat.parse(format);
+        logger.info("Received import request in {} format from {}", transferFormat, request.getRemoteAddr());
+        try (InputStream in = request.getInputStream()) {
+            ImportResult result = importService.importStream(in, transferFormat);
+            return ResponseEntity.ok(result.toString());
+        }
+    }
+
+    // Records are written to the response as the keyspace is iterated; an error once the first
+    // bytes are sent can only cut the response short
+    @GetMapping("/export")
+    public void exportData(@RequestParam(defaultValue = "ndjson") String format,
+                           @RequestParam(defaultValue = "") String prefix,
+                           HttpServletResponse response) throws IOException {
+        TransferFormat transferFormat = TransferFormat.parse(format);
+        logger.info("Received export request in {} format for prefix '{}'", transferFormat, prefix);
+        response.setContentType(transferFormat == TransferFormat.RESP ? "application/octet-stream" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        exportService.export(response.getOutputStream(), transferFormat, prefix);
+    }
+} 
\ No newline at end of file
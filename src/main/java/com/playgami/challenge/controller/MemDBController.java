@@ -1,15 +1,24 @@
 package com.playgami.challenge.controller;
 
+import com.playgami.challenge.memdb.BitOperation;
+import com.playgami.challenge.memdb.MemoryUsage;
+import com.playgami.challenge.memdb.ScoreRange;
 import com.playgami.challenge.memdb.StorageEngine;
+import com.playgami.challenge.memdb.TimeSeries;
+import com.playgami.challenge.service.ClientTracking;
+import com.playgami.challenge.service.HotKeys;
 import com.playgami.challenge.service.MemDBCommandService;
 import com.playgami.challenge.util.ValidationUtil;
 import com.playgami.challenge.service.CommandResult;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 public class MemDBController {
@@ -18,18 +27,33 @@ public class MemDBController {
     private static final String NIL_RESPONSE = "(nil)";
     private static final String KEY_FIELD    = "Key";
     private static final String VALUE_FIELD  = "Value";
+    private static final String FIELD_FIELD  = "Field";
     private final StorageEngine storageEngine;
     private final MemDBCommandService memDBCommandService;
+    private final ClientTracking clientTracking;
 
-    public MemDBController(StorageEngine storageEngine, MemDBCommandService memDBCommandService) {
+    public MemDBController(StorageEngine storageEngine, MemDBCommandService memDBCommandService,
+                           ClientTracking clientTracking) {
         this.storageEngine = storageEngine;
         this.memDBCommandService = memDBCommandService;
+        this.clientTracking = clientTracking;
     }
 
-    // Redis-style command endpoint at root level
+    // Runs before every endpoint of this controller: each REST call is one command, while the
+    // command endpoint leaves counting to the command service, which knows the database
+    @ModelAttribute
+    void countCommand(HttpServletRequest request) {
+        if (!request.getServletPath().equals("/")) {
+            storageEngine.recordCommand();
+        }
+    }
+
+    // Redis-style command endpoint at root level; db selects the logical database, like SELECT
     @GetMapping("/")
-    public ResponseEntity<String> executeCommand(@RequestParam String cmd) {
-        CommandResult result = memDBCommandService.executeCommand(cmd);
+    public ResponseEntity<String> executeCommand(@RequestParam String cmd, @RequestParam(defaultValue = "0") int db,
+                                                 HttpServletRequest request) {
+        String client = request.getRemoteAddr() + ":" + request.getRemotePort();
+        CommandResult result = memDBCommandService.executeCommand(cmd, client, db);
         if (result.isError()) {
             return ResponseEntity.badRequest().body(result.getResponse());
         }
@@ -48,8 +72,13 @@ public class MemDBController {
     }
 
     @GetMapping("/get")
-    public ResponseEntity<String> get(@RequestParam String key) {
+    public ResponseEntity<String> get(@RequestParam String key,
+                                      @RequestHeader(value = ClientTracking.CLIENT_ID_HEADER, required = false) Long clientId) {
         ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        if (clientId != null) {
+            // Recorded before the read, so that a write the read misses still invalidates the client's copy
+            clientTracking.recordRead(clientId, key);
+        }
         String value = storageEngine.get(key);
         return ResponseEntity.ok(value != null ? value : NIL_RESPONSE);
     }
@@ -63,6 +92,21 @@ public class MemDBController {
         return ResponseEntity.ok(deleted ? OK_RESPONSE : NIL_RESPONSE);
     }
 
+    @DeleteMapping("/unlink")
+    public ResponseEntity<String> unlink(@RequestParam String key) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        boolean deleted = storageEngine.unlink(key);
+        return ResponseEntity.ok(deleted ? OK_RESPONSE : NIL_RESPONSE);
+    }
+
+    // Empties every database, like the FLUSHALL command, not just database 0
+    @PostMapping("/flushall")
+    public ResponseEntity<String> flushAll(@RequestParam(defaultValue = "false") boolean async) {
+        logger.info("Received flushall request, async: {}", async);
+        memDBCommandService.flushAll(async);
+        return ResponseEntity.ok(OK_RESPONSE);
+    }
+
     @GetMapping("/dbsize")
     public ResponseEntity<String> dbSize() {
         return ResponseEntity.ok(String.valueOf(storageEngine.dbSize()));
@@ -113,6 +157,252 @@ public class MemDBController {
         return ResponseEntity.ok(range);
     }
 
+    @GetMapping("/zrevrank")
+    public ResponseEntity<String> zrevrank(
+            @RequestParam String key,
+            @RequestParam String value) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(value, VALUE_FIELD);
+        Long rank = storageEngine.zrevrank(key, value);
+        return ResponseEntity.ok(rank != null ? String.valueOf(rank) : NIL_RESPONSE);
+    }
+
+    @GetMapping("/zscore")
+    public ResponseEntity<String> zscore(
+            @RequestParam String key,
+            @RequestParam String value) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(value, VALUE_FIELD);
+        Double score = storageEngine.zscore(key, value);
+        return ResponseEntity.ok(score != null ? MemDBCommandService.formatScore(score) : NIL_RESPONSE);
+    }
+
+    @PostMapping("/zincrby")
+    public ResponseEntity<String> zincrby(
+            @RequestParam String key,
+            @RequestParam double increment,
+            @RequestParam String value) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(value, VALUE_FIELD);
+        if (Double.isInfinite(increment) || Double.isNaN(increment)) {
+            throw new IllegalArgumentException("Increment is not a valid float");
+        }
+        double score = storageEngine.zincrby(key, increment, value);
+        return ResponseEntity.ok(MemDBCommandService.formatScore(score));
+    }
+
+    // Returns members, or alternating members and scores when withscores is set
+    @GetMapping("/zrangebyscore")
+    public ResponseEntity<List<String>> zrangeByScore(
+            @RequestParam String key,
+            @RequestParam String min,
+            @RequestParam String max,
+            @RequestParam(defaultValue = "false") boolean withscores) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : storageEngine.zrangeByScore(key, ScoreRange.parse(min, max))) {
+            result.add(entry.getKey());
+            if (withscores) {
+                result.add(MemDBCommandService.formatScore(entry.getValue()));
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/zcount")
+    public ResponseEntity<String> zcount(
+            @RequestParam String key,
+            @RequestParam String min,
+            @RequestParam String max) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        long count = storageEngine.zcount(key, ScoreRange.parse(min, max));
+        return ResponseEntity.ok(String.valueOf(count));
+    }
+
+    @PostMapping("/hset")
+    public ResponseEntity<String> hset(
+            @RequestParam String key,
+            @RequestParam String field,
+            @RequestParam String value) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(field, FIELD_FIELD);
+        ValidationUtil.validateKeyOrValue(value, VALUE_FIELD);
+        long added = storageEngine.hset(key, Map.of(field, value));
+        return ResponseEntity.ok(String.valueOf(added));
+    }
+
+    @GetMapping("/hget")
+    public ResponseEntity<String> hget(
+            @RequestParam String key,
+            @RequestParam String field) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(field, FIELD_FIELD);
+        String value = storageEngine.hget(key, field);
+        return ResponseEntity.ok(value != null ? value : NIL_RESPONSE);
+    }
+
+    // Returns the values in field order, with null for missing fields
+    @GetMapping("/hmget")
+    public ResponseEntity<List<String>> hmget(
+            @RequestParam String key,
+            @RequestParam List<String> field) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        return ResponseEntity.ok(storageEngine.hmget(key, field));
+    }
+
+    @GetMapping("/hgetall")
+    public ResponseEntity<Map<String, String>> hgetall(@RequestParam String key) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        return ResponseEntity.ok(storageEngine.hgetall(key));
+    }
+
+    @PostMapping("/hincrby")
+    public ResponseEntity<String> hincrby(
+            @RequestParam String key,
+            @RequestParam String field,
+            @RequestParam long increment) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        ValidationUtil.validateKeyOrValue(field, FIELD_FIELD);
+        long value = storageEngine.hincrby(key, field, increment);
+        return ResponseEntity.ok(String.valueOf(value));
+    }
+
+    @PostMapping("/pfadd")
+    public ResponseEntity<String> pfadd(
+            @RequestParam String key,
+            @RequestParam List<String> element) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        boolean changed = storageEngine.pfadd(key, element);
+        return ResponseEntity.ok(changed ? "1" : "0");
+    }
+
+    // Counts the union of all given keys
+    @GetMapping("/pfcount")
+    public ResponseEntity<String> pfcount(@RequestParam List<String> key) {
+        key.forEach(k -> ValidationUtil.validateKeyOrValue(k, KEY_FIELD));
+        return ResponseEntity.ok(String.valueOf(storageEngine.pfcount(key)));
+    }
+
+    @PostMapping("/pfmerge")
+    public ResponseEntity<String> pfmerge(
+            @RequestParam String destkey,
+            @RequestParam List<String> sourcekey) {
+        ValidationUtil.validateKeyOrValue(destkey, KEY_FIELD);
+        sourcekey.forEach(k -> ValidationUtil.validateKeyOrValue(k, KEY_FIELD));
+        storageEngine.pfmerge(destkey, sourcekey);
+        return ResponseEntity.ok(OK_RESPONSE);
+    }
+
+    @PostMapping("/setbit")
+    public ResponseEntity<String> setbit(
+            @RequestParam String key,
+            @RequestParam long offset,
+            @RequestParam int value) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        return ResponseEntity.ok(String.valueOf(storageEngine.setbit(key, offset, value)));
+    }
+
+    @GetMapping("/getbit")
+    public ResponseEntity<String> getbit(
+            @RequestParam String key,
+            @RequestParam long offset) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        return ResponseEntity.ok(String.valueOf(storageEngine.getbit(key, offset)));
+    }
+
+    // Counts the whole bitmap by default; unit=BIT reads start and end as bit offsets
+    @GetMapping("/bitcount")
+    public ResponseEntity<String> bitcount(
+            @RequestParam String key,
+            @RequestParam(defaultValue = "0") long start,
+            @RequestParam(defaultValue = "-1") long end,
+            @RequestParam(defaultValue = "BYTE") String unit) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        boolean bitUnit = unit.equalsIgnoreCase("BIT");
+        if (!bitUnit && !unit.equalsIgnoreCase("BYTE")) {
+            throw new IllegalArgumentException("Unit must be BYTE or BIT");
+        }
+        return ResponseEntity.ok(String.valueOf(storageEngine.bitcount(key, start, end, bitUnit)));
+    }
+
+    @PostMapping("/bitop")
+    public ResponseEntity<String> bitop(
+            @RequestParam String operation,
+            @RequestParam String destkey,
+            @RequestParam List<String> sourcekey) {
+        ValidationUtil.validateKeyOrValue(destkey, KEY_FIELD);
+        sourcekey.forEach(k -> ValidationUtil.validateKeyOrValue(k, KEY_FIELD));
+        BitOperation bitOperation;
+        try {
+            bitOperation = BitOperation.valueOf(operation.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Operation must be AND, OR, XOR or NOT");
+        }
+        return ResponseEntity.ok(String.valueOf(storageEngine.bitop(bitOperation, destkey, sourcekey)));
+    }
+
+    // Stamps the sample with the server time when no timestamp is given; retention applies on creation
+    @PostMapping("/ts/add")
+    public ResponseEntity<String> tsAdd(
+            @RequestParam String key,
+            @RequestParam(required = false) Long timestamp,
+            @RequestParam double value,
+            @RequestParam(required = false) Long retention) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        long sampleTimestamp = timestamp != null ? timestamp : System.currentTimeMillis();
+        if (retention != null) {
+            storageEngine.tsAdd(key, sampleTimestamp, value, retention);
+        } else {
+            storageEngine.tsAdd(key, sampleTimestamp, value);
+        }
+        return ResponseEntity.ok(String.valueOf(sampleTimestamp));
+    }
+
+    @GetMapping("/ts/range")
+    public ResponseEntity<List<TimeSeries.Sample>> tsRange(
+            @RequestParam String key,
+            @RequestParam(defaultValue = "-") String from,
+            @RequestParam(defaultValue = "+") String to) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        return ResponseEntity.ok(storageEngine.tsRange(key, TimeSeries.parseRangeBound(from), TimeSeries.parseRangeBound(to)));
+    }
+
+    @GetMapping("/ts/agg")
+    public ResponseEntity<List<TimeSeries.Sample>> tsAggregate(
+            @RequestParam String key,
+            @RequestParam(defaultValue = "-") String from,
+            @RequestParam(defaultValue = "+") String to,
+            @RequestParam String aggregation,
+            @RequestParam long bucket) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        TimeSeries.Aggregation type;
+        try {
+            type = TimeSeries.Aggregation.valueOf(aggregation.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Aggregation must be MIN, MAX, AVG or SUM");
+        }
+        return ResponseEntity.ok(storageEngine.tsAggregate(key, TimeSeries.parseRangeBound(from),
+                TimeSeries.parseRangeBound(to), type, bucket));
+    }
+
+    @GetMapping("/info")
+    public ResponseEntity<String> info(@RequestParam(required = false) String section,
+                                       @RequestParam(defaultValue = "0") int db) {
+        return ResponseEntity.ok(memDBCommandService.info(section, db));
+    }
+
+    @GetMapping("/hotkeys")
+    public ResponseEntity<List<HotKeys.Entry>> hotKeys(@RequestParam(defaultValue = "10") int count) {
+        return ResponseEntity.ok(memDBCommandService.hotKeys(Math.max(count, 0)));
+    }
+
+    @GetMapping("/memory/usage")
+    public ResponseEntity<MemoryUsage> memoryUsage(@RequestParam String key) {
+        ValidationUtil.validateKeyOrValue(key, KEY_FIELD);
+        MemoryUsage usage = storageEngine.memoryUsage(key);
+        return usage != null ? ResponseEntity.ok(usage) : ResponseEntity.notFound().build();
+    }
+
     @PostMapping("/setex")
     public ResponseEntity<String> setEx(
             @RequestParam String key,
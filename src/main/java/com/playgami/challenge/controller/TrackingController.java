@@ -0,0 +1,62 @@
+package com.playgami.challenge.controller;
+
+import com.playgami.challenge.service.ClientTracking;
+import com.playgami.challenge.service.InvalidationSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Invalidation stream of client-side caching, as server-sent events. The stream opens with a
+ * "hello" event carrying the client id, which reads then pass in the X-MemDB-Client-Id header;
+ * it then carries an "invalidate" event per changed key and a "flush" event when every key was
+ * removed. The client is unregistered when the stream closes.
+ */
+@RestController
+public class TrackingController {
+    private static final Logger logger = LoggerFactory.getLogger(TrackingController.class);
+    private final ClientTracking clientTracking;
+
+    public TrackingController(ClientTracking clientTracking) {
+        this.clientTracking = clientTracking;
+    }
+
+    @GetMapping(value = "/tracking", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter track(@RequestParam(defaultValue = "false") boolean bcast,
+                            @RequestParam(required = false) List<String> prefix) {
+        // Never times out; the stream lives as long as the client's connection
+        SseEmitter emitter = new SseEmitter(0L);
+        long id = clientTracking.register(new InvalidationSink() {
+            @Override
+            public void invalidate(String key) throws IOException {
+                emitter.send(SseEmitter.event().name("invalidate").data(key));
+            }
+
+            @Override
+            public void invalidateAll() throws IOException {
+                emitter.send(SseEmitter.event().name("flush").data(""));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        }, bcast, prefix != null ? prefix : List.of());
+        emitter.onCompletion(() -> clientTracking.unregister(id));
+        emitter.onTimeout(() -> clientTracking.unregister(id));
+        emitter.onError(e -> clientTracking.unregister(id));
+        try {
+            emitter.send(SseEmitter.event().name("hello").data(String.valueOf(id)));
+        } catch (IOException e) {
+            logger.info("Tracking client {} went away: {}", id, e.getMessage());
+            clientTracking.unregister(id);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+} 
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.playgami.challenge.exception;
 
+import com.playgami.challenge.memdb.MemoryLimitExceededException;
+import com.playgami.challenge.memdb.WrongTypeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,6 +19,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body("ERROR: " + e.getMessage());
     }
 
+    @ExceptionHandler(MemoryLimitExceededException.class)
+    public ResponseEntity<String> handleMemoryLimitExceeded(MemoryLimitExceededException e) {
+        logger.warn("Write rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).body("ERROR: " + e.getMessage());
+    }
+
+    @ExceptionHandler(WrongTypeException.class)
+    public ResponseEntity<String> handleWrongType(WrongTypeException e) {
+        logger.warn("Wrong type: {}", e.getMessage());
+        return ResponseEntity.badRequest().body("ERROR: " + e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGenericException(Exception e) {
         logger.error("Unexpected error: {}", e.getMessage(), e);
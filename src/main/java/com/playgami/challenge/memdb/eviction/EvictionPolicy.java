@@ -1,7 +0,0 @@
-package com.playgami.challenge.memdb.eviction;
-
-// Eviction policy for the MemDB. Extensible to other policies.
-public enum EvictionPolicy {
-    // Least Recently Used
-    LRU
-} 
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.playgami.challenge.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a request may run, before it reaches the engine, so that one client flooding
+ * the server cannot push up everyone's latency. Each client, identified by its API key or
+ * address, draws from a token bucket of its own, where a cheap command costs one token and a
+ * command walking many keys, members or samples costs more. Independently, at most a fixed number
+ * of requests run at once. A request over either limit is refused at once with a retry hint,
+ * rather than queued behind the work it would slow down.
+ */
+public class AdmissionControl {
+    // Commands walking many keys, members or samples, or moving data in bulk
+    private static final Set<String> EXPENSIVE_COMMANDS = Set.of("KEYS", "SCAN", "DELPREFIX", "FLUSHDB", "FLUSHALL",
+            "MSET", "ZRANGEBYSCORE", "ZSCAN", "HGETALL", "PFMERGE", "BITOP", "TS.RANGE", "TS.AGG", "IMPORT", "EXPORT");
+    // Hint given to requests refused for the concurrency limit, which clears as soon as any request completes
+    private static final long OVERLOADED_RETRY_MILLIS = 100;
+    // Interval between sweeps of idle clients once there are more than maxClients
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int THROTTLED_CLIENTS_REPORTED = 10;
+
+    private final boolean enabled;
+    private final double rate;
+    private final long burst;
+    private final int maxConcurrent;
+    private final int expensiveCost;
+    private final long largeRange;
+    private final int maxClients;
+    private final Semaphore concurrency;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    // Shared by the clients seen while maxClients others are active, so that their number stays bounded
+    private final Client overflow;
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    /**
+     * @param rate          tokens refilled per second in each client's bucket; 0 for no per-client limit
+     * @param burst         capacity of each client's bucket
+     * @param maxConcurrent requests running at once at most; 0 for no limit
+     * @param expensiveCost tokens taken by an expensive command
+     * @param largeRange    members beyond which a ZRANGE is expensive
+     * @param maxClients    client buckets kept before idle ones are dropped
+     */
+    public AdmissionControl(boolean enabled, double rate, long burst, int maxConcurrent, int expensiveCost,
+                            long largeRange, int maxClients) {
+        if (rate < 0 || maxConcurrent < 0) {
+            throw new IllegalArgumentException("Admission rate and concurrency limit must not be negative");
+        }
+        if (burst <= 0 || expensiveCost <= 0 || largeRange <= 0 || maxClients <= 0) {
+            throw new IllegalArgumentException("Admission burst, expensive cost, large range and max clients must be greater than zero");
+        }
+        this.enabled = enabled;
+        this.rate = rate;
+        this.burst = burst;
+        this.maxConcurrent = maxConcurrent;
+        this.expensiveCost = expensiveCost;
+        this.largeRange = largeRange;
+        this.maxClients = maxClients;
+        this.concurrency = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+        this.overflow = rate > 0 ? new Client(rate, burst, System.nanoTime()) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the tokens a command costs, given its arguments after the command name.
+     */
+    public int cost(String command, String[] args) {
+        if (EXPENSIVE_COMMANDS.contains(command)) {
+            return expensiveCost;
+        }
+        if (command.equals("ZRANGE") && args.length >= 3 && isLargeRange(args[1], args[2])) {
+            return expensiveCost;
+        }
+        return 1;
+    }
+
+    private boolean isLargeRange(String start, String end) {
+        try {
+            long from = Long.parseLong(start);
+            long to = Long.parseLong(end);
+            // Negative indexes count from the end, so the number of members is unknown
+            return from < 0 || to < 0 || to - from + 1 > largeRange;
+        } catch (NumberFormatException e) {
+            // Refused by the command itself
+            return false;
+        }
+    }
+
+    /**
+     * Admits a request of a client costing the given tokens, or refuses it. An admitted ticket must
+     * be closed once the request completed.
+     */
+    public Ticket admit(String client, int cost) {
+        if (!enabled) {
+            return Ticket.ADMITTED;
+        }
+        if (concurrency != null && !concurrency.tryAcquire()) {
+            overloaded.increment();
+            return new Ticket(false, true, OVERLOADED_RETRY_MILLIS, null);
+        }
+        if (rate > 0) {
+            long now = System.nanoTime();
+            Client state = client(client, now);
+            long waitNanos = state.bucket.tryTake(cost, now);
+            if (waitNanos > 0) {
+                if (concurrency != null) {
+                    concurrency.release();
+                }
+                state.rejected.increment();
+                rateLimited.increment();
+                // Rounded up, so that a client retrying on time finds its tokens
+                long retryMillis = (waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+                return new Ticket(false, false, retryMillis, null);
+            }
+        }
+        admitted.increment();
+        return concurrency != null ? new Ticket(true, false, 0, concurrency) : Ticket.ADMITTED;
+    }
+
+    private Client client(String id, long now) {
+        Client state = clients.get(id);
+        if (state != null) {
+            return state;
+        }
+        if (clients.size() >= maxClients) {
+            sweep(now);
+            if (clients.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return clients.computeIfAbsent(id, key -> new Client(rate, burst, now));
+    }
+
+    /**
+     * Forgets clients whose bucket refilled, at most once per sweep interval.
+     */
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        clients.values().removeIf(state -> state.bucket.isFull(now));
+    }
+
+    /**
+     * Returns the admission counters: requests admitted and refused by each limit, requests running,
+     * clients tracked, and the clients refused most, with their refusals.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("admitted", admitted.sum());
+        stats.put("rate_limited", rateLimited.sum());
+        stats.put("overloaded", overloaded.sum());
+        stats.put("in_flight", concurrency != null ? maxConcurrent - concurrency.availablePermits() : 0);
+        stats.put("clients", clients.size());
+        List<Map.Entry<String, Long>> throttled = new ArrayList<>();
+        for (Map.Entry<String, Client> entry : clients.entrySet()) {
+            long rejected = entry.getValue().rejected.sum();
+            if (rejected > 0) {
+                throttled.add(Map.entry(entry.getKey(), rejected));
+            }
+        }
+        throttled.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : throttled.subList(0, Math.min(throttled.size(), THROTTLED_CLIENTS_REPORTED))) {
+            top.put(entry.getKey(), entry.getValue());
+        }
+        stats.put("throttled_clients", top);
+        return stats;
+    }
+
+    private static final class Client {
+        private final TokenBucket bucket;
+        private final LongAdder rejected = new LongAdder();
+
+        Client(double rate, long burst, long now) {
+            this.bucket = new TokenBucket(rate, burst, now);
+        }
+    }
+
+    /**
+     * Outcome of an admission. Closing an admitted ticket frees its concurrency slot.
+     */
+    public static final class Ticket implements AutoCloseable {
+        static final Ticket ADMITTED = new Ticket(true, false, 0, null);
+
+        private final boolean admitted;
+        private final boolean overloaded;
+        private final long retryAfterMillis;
+        // Concurrency slot held by an admitted request, released on close
+        private Semaphore slot;
+
+        Ticket(boolean admitted, boolean overloaded, long retryAfterMillis, Semaphore slot) {
+            this.admitted = admitted;
+            this.overloaded = overloaded;
+            this.retryAfterMillis = retryAfterMillis;
+            this.slot = slot;
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        /**
+         * Returns whether the request was refused for the concurrency limit rather than its client's rate.
+         */
+        public boolean isOverloaded() {
+            return overloaded;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        /**
+         * Returns the error reply of a refused request.
+         */
+        public String getMessage() {
+            return (overloaded ? "ERR too many concurrent requests" : "ERR rate limit exceeded")
+                    + ", retry in " + retryAfterMillis + " ms";
+        }
+
+        @Override
+        public void close() {
+            if (slot != null) {
+                slot.release();
+                slot = null;
+            }
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,291 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.KeyChangeListener;
+import com.playgami.challenge.memdb.MemDBStats;
+import com.playgami.challenge.memdb.StorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-assisted client-side caching, as Redis' CLIENT TRACKING. A client registers an
+ * invalidation sink and is told when keys it may have cached change, are deleted, expire or are
+ * evicted, so that it can serve reads from a local cache in between.
+ * In the default mode, the server remembers which clients read which keys, and forgets a key
+ * once it has sent its invalidations: the client reads it again before caching it again. The
+ * table of remembered keys is bounded; past maxKeys, remembered keys are invalidated early, in
+ * no particular order.
+ * In broadcast mode, nothing is remembered: the client is told of every change of a key under
+ * one of its prefixes, and caches only such keys.
+ * Each client's invalidations are queued and sent in order by a dispatcher thread, so writers
+ * never wait for a client's connection, nor clients for each other's. A client more than
+ * maxPending invalidations behind is dropped, as it can no longer trust its cache.
+ */
+@Service
+public class ClientTracking implements KeyChangeListener, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ClientTracking.class);
+    // Request header by which a read identifies the tracking client it is made for
+    public static final String CLIENT_ID_HEADER = "X-MemDB-Client-Id";
+    // Queued in place of a key to invalidate everything; compared by identity
+    private static final String FLUSH = new String("*");
+
+    private final MemDBStats stats;
+    private final int maxKeys;
+    private final int maxPending;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ConcurrentHashMap<Long, TrackedClient> clients = new ConcurrentHashMap<>();
+    private final List<TrackedClient> broadcastClients = new CopyOnWriteArrayList<>();
+    // Keys read by default mode clients, with the ids of the clients that read them
+    private final ConcurrentHashMap<String, Set<Long>> readers = new ConcurrentHashMap<>();
+    private final ExecutorService dispatcher;
+
+    public ClientTracking(StorageEngine storageEngine, @Value("${memdb.tracking.max-keys:1000000}") int maxKeys,
+                          @Value("${memdb.tracking.max-pending:1024}") int maxPending) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Tracking table size must be greater than zero");
+        }
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Pending invalidations per client must be greater than zero");
+        }
+        this.stats = storageEngine.getStats();
+        this.maxKeys = maxKeys;
+        this.maxPending = maxPending;
+        // A thread per client being sent to, so that a stalled connection holds up nobody else
+        AtomicLong threads = new AtomicLong();
+        this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "memdb-tracking-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        storageEngine.setKeyChangeListener(this);
+    }
+
+    /**
+     * Registers a client and returns its id. In broadcast mode the client is told of changes to
+     * keys under its prefixes, or to every key when it has none; otherwise of changes to the keys
+     * it reads with its id.
+     */
+    public long register(InvalidationSink sink, boolean broadcast, List<String> prefixes) {
+        TrackedClient client = new TrackedClient(nextId.getAndIncrement(), sink, broadcast, List.copyOf(prefixes),
+                maxPending);
+        clients.put(client.id, client);
+        if (broadcast) {
+            broadcastClients.add(client);
+        }
+        stats.recordTrackingClients(clients.size());
+        logger.info("Tracking client {} registered, broadcast: {}, prefixes: {}", client.id, broadcast, prefixes);
+        return client.id;
+    }
+
+    /**
+     * Forgets a client, typically once its connection closed.
+     */
+    public void unregister(long id) {
+        TrackedClient client = clients.remove(id);
+        if (client != null) {
+            unregister(client);
+        }
+    }
+
+    /**
+     * Forgets a client already removed from the client table.
+     */
+    private void unregister(TrackedClient client) {
+        broadcastClients.remove(client);
+        if (clients.isEmpty()) {
+            // Nobody is left to tell; ids of departed clients are otherwise pruned as keys change
+            readers.clear();
+            stats.recordTrackingKeys(0);
+        }
+        stats.recordTrackingClients(clients.size());
+        logger.info("Tracking client {} unregistered", client.id);
+    }
+
+    /**
+     * Remembers that a client is about to read a key. Called before the read, so that any write
+     * the read may miss is followed by an invalidation. Ignored for unknown and broadcast clients.
+     */
+    public void recordRead(long id, String key) {
+        TrackedClient client = clients.get(id);
+        if (client == null || client.broadcast) {
+            return;
+        }
+        boolean[] added = new boolean[1];
+        // Added under the key's lock, so that a concurrent invalidation either sees the id or follows it
+        readers.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                added[0] = true;
+            }
+            ids.add(id);
+            return ids;
+        });
+        if (added[0]) {
+            int size = readers.size();
+            stats.recordTrackingKeys(size);
+            if (size > maxKeys) {
+                evictTrackedKey();
+            }
+        }
+    }
+
+    /**
+     * Forgets the first key the table iterates, which is not necessarily the oldest, invalidating
+     * it for its readers as if it had changed.
+     */
+    private void evictTrackedKey() {
+        Iterator<String> keys = readers.keySet().iterator();
+        if (keys.hasNext()) {
+            keyChanged(keys.next());
+        }
+    }
+
+    @Override
+    public void keyChanged(String key) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = readers.remove(key);
+        if (ids != null) {
+            stats.recordTrackingKeys(readers.size());
+            for (Long id : ids) {
+                TrackedClient client = clients.get(id);
+                if (client != null) {
+                    send(client, key);
+                }
+            }
+        }
+        for (TrackedClient client : broadcastClients) {
+            if (client.matches(key)) {
+                send(client, key);
+            }
+        }
+    }
+
+    @Override
+    public void keyspaceFlushed() {
+        if (clients.isEmpty()) {
+            return;
+        }
+        readers.clear();
+        stats.recordTrackingKeys(0);
+        for (TrackedClient client : clients.values()) {
+            send(client, null);
+        }
+    }
+
+    /**
+     * Queues an invalidation of a key, or of everything when key is null, dropping the client if
+     * its queue is full, and schedules the client's dispatch unless it is running.
+     */
+    private void send(TrackedClient client, String key) {
+        stats.recordInvalidation();
+        if (!client.pending.offer(key != null ? key : FLUSH)) {
+            drop(client, maxPending + " invalidations pending");
+            return;
+        }
+        if (client.dispatching.compareAndSet(false, true)) {
+            dispatcher.execute(() -> dispatch(client));
+        }
+    }
+
+    /**
+     * Sends a client's queued invalidations in order, until its queue is empty.
+     */
+    private void dispatch(TrackedClient client) {
+        while (true) {
+            String key;
+            while ((key = client.pending.poll()) != null) {
+                if (!clients.containsKey(client.id)) {
+                    client.pending.clear();
+                    return;
+                }
+                try {
+                    if (key != FLUSH) {
+                        client.sink.invalidate(key);
+                    } else {
+                        client.sink.invalidateAll();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    drop(client, e.getMessage());
+                    return;
+                }
+            }
+            client.dispatching.set(false);
+            // Carry on if an invalidation was queued after the queue was found empty, unless its
+            // sender scheduled a dispatch of its own
+            if (client.pending.isEmpty() || !client.dispatching.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Unregisters a client that can no longer be told of changes and ends its stream. The stream
+     * is ended on a dispatcher thread, as a stalled connection may hold it.
+     */
+    private void drop(TrackedClient client, String reason) {
+        if (clients.remove(client.id, client)) {
+            logger.info("Dropping tracking client {}: {}", client.id, reason);
+            unregister(client);
+            client.pending.clear();
+            dispatcher.execute(client.sink::close);
+        }
+    }
+
+    /**
+     * Returns the number of registered clients.
+     */
+    public int clientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        dispatcher.shutdownNow();
+    }
+
+    private static final class TrackedClient {
+        final long id;
+        final InvalidationSink sink;
+        final boolean broadcast;
+        final List<String> prefixes;
+        // Invalidations not sent yet, and whether a dispatcher thread is sending them
+        final BlockingQueue<String> pending;
+        final AtomicBoolean dispatching = new AtomicBoolean();
+
+        TrackedClient(long id, InvalidationSink sink, boolean broadcast, List<String> prefixes, int maxPending) {
+            this.id = id;
+            this.sink = sink;
+            this.broadcast = broadcast;
+            this.prefixes = prefixes;
+            this.pending = new ArrayBlockingQueue<>(maxPending);
+        }
+
+        boolean matches(String key) {
+            if (prefixes.isEmpty()) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (key.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+} 
\ No newline at end of file
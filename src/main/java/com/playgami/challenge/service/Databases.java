@@ -0,0 +1,59 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.StorageEngine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The logical databases of the server, numbered from 0 like Redis' SELECT. Each is a storage
+ * engine of its own, with its own keyspace, memory quota, eviction policy and stats, so a burst of
+ * writes to one database evicts only keys of that database. Database 0 is the engine the REST
+ * endpoints, bulk transfers and client tracking work on; the others are reached through the
+ * command endpoint.
+ */
+public class Databases implements AutoCloseable {
+    private final List<StorageEngine> engines;
+    // Databases created for the server only, closed with it; database 0 is closed by its owner
+    private final List<MemDB> owned;
+
+    public Databases(StorageEngine primary, List<MemDB> others) {
+        List<StorageEngine> engines = new ArrayList<>();
+        engines.add(primary);
+        engines.addAll(others);
+        this.engines = Collections.unmodifiableList(engines);
+        this.owned = List.copyOf(others);
+    }
+
+    public int count() {
+        return engines.size();
+    }
+
+    /**
+     * Returns the database with the given index.
+     *
+     * @throws IllegalArgumentException if there is no such database
+     */
+    public StorageEngine get(int index) {
+        if (index < 0 || index >= engines.size()) {
+            throw new IllegalArgumentException("ERR DB index is out of range");
+        }
+        return engines.get(index);
+    }
+
+    /**
+     * Returns every database, in index order.
+     */
+    public List<StorageEngine> all() {
+        return engines;
+    }
+
+    @Override
+    public void close() {
+        for (MemDB memDB : owned) {
+            memDB.close();
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.playgami.challenge.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.playgami.challenge.memdb.KeyspaceVisitor;
+import com.playgami.challenge.memdb.StorageEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the keyspace to a stream as NDJSON or RESP commands, in the record formats ImportService
+ * reads, so that an export of keys of every type can be imported again. Records are written as
+ * the keyspace is iterated, so an export of any size uses constant memory. The export is
+ * throttled to maxRecordsPerSecond, so that it takes a bounded share of CPU from live traffic.
+ */
+@Service
+public class ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // Records written between throttling checks
+    private static final int THROTTLE_BATCH = 256;
+
+    private final StorageEngine storageEngine;
+    private final long maxRecordsPerSecond;
+
+    public ExportService(StorageEngine storageEngine,
+                         @Value("${memdb.export.max-records-per-second:100000}") long maxRecordsPerSecond) {
+        if (maxRecordsPerSecond < 0) {
+            throw new IllegalArgumentException("Export rate limit must not be negative");
+        }
+        this.storageEngine = storageEngine;
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+
+    /**
+     * Writes every record of the keys starting with prefix and returns the number of records written.
+     * The stream is flushed but not closed.
+     */
+    public long export(OutputStream out, TransferFormat format, String prefix) throws IOException {
+        RecordWriter writer = format == TransferFormat.RESP ? new RespWriter(out) : new NdjsonWriter(out);
+        storageEngine.dump(prefix, writer);
+        writer.finish();
+        long elapsedNanos = System.nanoTime() - writer.startNanos;
+        logger.info("Exported {} records in {} ms ({} records/s)", writer.records,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), ImportResult.perSecond(writer.records, elapsedNanos));
+        return writer.records;
+    }
+
+    /**
+     * Counts and paces the records of one export.
+     */
+    private abstract class RecordWriter implements KeyspaceVisitor {
+        final long startNanos = System.nanoTime();
+        long records;
+
+        /**
+         * Counts a written record, sleeping whenever the export is ahead of the rate limit.
+         */
+        void written() throws IOException {
+            records++;
+            if (maxRecordsPerSecond == 0 || records % THROTTLE_BATCH != 0) {
+                return;
+            }
+            long aheadNanos = records * 1_000_000_000L / maxRecordsPerSecond - (System.nanoTime() - startNanos);
+            if (aheadNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Export interrupted");
+                }
+            }
+        }
+
+        abstract void finish() throws IOException;
+    }
+
+    /**
+     * Writes {"key","value","ttl"} string records, {"type":"zset","key","member","score"} members,
+     * {"type":"hash","key","field","value"} fields, {"type":"hyperloglog","key","value"} counters
+     * with their packed registers in base64, {"type":"bitmap","key","offset","value"} chunks of
+     * bytes in base64 and {"type":"timeseries","key","timestamp","value","retention"} samples, one
+     * per line. Numbers that are not finite are written as the strings "Infinity", "-Infinity" and "NaN".
+     */
+    private final class NdjsonWriter extends RecordWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            generator = JSON_FACTORY.createGenerator(out);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void string(String key, String value, Long expiryTime) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("key", key);
+            generator.writeStringField("value", value);
+            if (expiryTime != null) {
+                generator.writeNumberField("ttl", ttlSeconds(expiryTime));
+            }
+            generator.writeEndObject();
+            written();
+        }
+
+        @Override
+        public void sortedSetMember(String key, String member, double score) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", "zset");
+            generator.writeStringField("key", key);
+            generator.writeStringField("member", member);
+            writeNumberField("score", score);
+            generator.writeEndObject();
+            written();
+        }
+
+        @Override
+        public void hashField(String key, String field, String value) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", "hash");
+            generator.writeStringField("key", key);
+            generator.writeStringField("field", field);
+            generator.writeStringField("value", value);
+            generator.writeEndObject();
+            written();
+        }
+
+        @Override
+        public void hyperLogLog(String key, byte[] registers) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", "hyperloglog");
+            generator.writeStringField("key", key);
+            generator.writeStringField("value", Base64.getEncoder().encodeToString(registers));
+            generator.writeEndObject();
+            written();
+        }
+
+        @Override
+        public void bitmapChunk(String key, long byteOffset, byte[] bytes, long byteLength) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", "bitmap");
+            generator.writeStringField("key", key);
+            generator.writeNumberField("offset", byteOffset);
+            generator.writeStringField("value", Base64.getEncoder().encodeToString(bytes));
+            generator.writeEndObject();
+            written();
+        }
+
+        @Override
+        public void timeSeriesSample(String key, long timestamp, double value, long retentionMillis) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", "timeseries");
+            generator.writeStringField("key", key);
+            generator.writeNumberField("timestamp", timestamp);
+            writeNumberField("value", value);
+            generator.writeNumberField("retention", retentionMillis);
+            generator.writeEndObject();
+            written();
+        }
+
+        // JSON has no literals for infinities and NaN
+        private void writeNumberField(String name, double number) throws IOException {
+            if (!Double.isFinite(number)) {
+                generator.writeStringField(name, String.valueOf(number));
+            } else {
+                generator.writeNumberField(name, number);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (records > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    /**
+     * Writes SET key value [EX seconds], ZADD key score member, HSET key field value, SETBIT key
+     * offset value and TS.ADD key timestamp value RETENTION milliseconds commands, as fed to
+     * redis-cli --pipe. A bitmap is written as a SETBIT per set bit, plus one clearing its last
+     * bit if that is not set, so that it keeps its length. Redis has no command restoring a
+     * HyperLogLog's registers, so a HyperLogLog is written as PFRESTORE key registers, with its
+     * packed registers in base64, which ImportService reads and Redis rejects as unknown.
+     */
+    private final class RespWriter extends RecordWriter {
+        private final OutputStream out;
+
+        RespWriter(OutputStream out) {
+            this.out = new BufferedOutputStream(out, 64 * 1024);
+        }
+
+        @Override
+        public void string(String key, String value, Long expiryTime) throws IOException {
+            if (expiryTime != null) {
+                writeCommand("SET", key, value, "EX", String.valueOf(ttlSeconds(expiryTime)));
+            } else {
+                writeCommand("SET", key, value);
+            }
+            written();
+        }
+
+        @Override
+        public void sortedSetMember(String key, String member, double score) throws IOException {
+            String scoreText = Double.isInfinite(score) ? (score > 0 ? "+inf" : "-inf") : String.valueOf(score);
+            writeCommand("ZADD", key, scoreText, member);
+            written();
+        }
+
+        @Override
+        public void hashField(String key, String field, String value) throws IOException {
+            writeCommand("HSET", key, field, value);
+            written();
+        }
+
+        @Override
+        public void hyperLogLog(String key, byte[] registers) throws IOException {
+            writeCommand("PFRESTORE", key, Base64.getEncoder().encodeToString(registers));
+            written();
+        }
+
+        @Override
+        public void bitmapChunk(String key, long byteOffset, byte[] bytes, long byteLength) throws IOException {
+            for (int i = 0; i < bytes.length; i++) {
+                for (int bit = 0; bit < 8; bit++) {
+                    if ((bytes[i] & (1 << bit)) != 0) {
+                        writeCommand("SETBIT", key, String.valueOf((byteOffset + i) * 8 + bit), "1");
+                        written();
+                    }
+                }
+            }
+            if (byteOffset + bytes.length == byteLength && bytes[bytes.length - 1] >= 0) {
+                writeCommand("SETBIT", key, String.valueOf((byteOffset + bytes.length) * 8 - 1), "0");
+                written();
+            }
+        }
+
+        @Override
+        public void timeSeriesSample(String key, long timestamp, double value, long retentionMillis) throws IOException {
+            // The retention is written even when 0, so that the importing server's default does not apply
+            writeCommand("TS.ADD", key, String.valueOf(timestamp), String.valueOf(value),
+                    "RETENTION", String.valueOf(retentionMillis));
+            written();
+        }
+
+        private void writeCommand(String... arguments) throws IOException {
+            writeHeader('*', arguments.length);
+            for (String argument : arguments) {
+                byte[] bytes = argument.getBytes(StandardCharsets.UTF_8);
+                writeHeader('$', bytes.length);
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+        }
+
+        private void writeHeader(char type, int length) throws IOException {
+            out.write(type);
+            out.write(Integer.toString(length).getBytes(StandardCharsets.US_ASCII));
+            out.write('\r');
+            out.write('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Returns the seconds left before an expiry time, rounded up so that the key keeps at least its remaining life.
+     */
+    private static long ttlSeconds(long expiryTime) {
+        return Math.max(1, (expiryTime - System.currentTimeMillis() + 999) / 1000);
+    }
+} 
\ No newline at end of file
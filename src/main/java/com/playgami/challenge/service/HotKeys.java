@@ -0,0 +1,272 @@
+package com.playgami.challenge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the keys receiving the most commands, cheaply enough to stay enabled in production.
+ * A count-min sketch estimates how often each key was accessed, and the keys with the highest
+ * estimates are kept in a small top-K table. The sketch is striped by thread: threads hammering
+ * the same hot key increment counters of their own stripe, and an estimate sums the stripes.
+ * Recording allocates nothing and takes no lock; the table is only offered keys that may enter
+ * it, and skipped when another thread is updating it. Every decay period the counts are halved,
+ * so the table follows current traffic and a key that cooled down leaves it.
+ */
+@Component
+public class HotKeys implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(HotKeys.class);
+    // Past this many hits in a stripe, a key is offered to the table every SAMPLE_EVERY hits only
+    private static final long SAMPLE_FROM = 16;
+    private static final long SAMPLE_EVERY = 8;
+
+    private final boolean enabled;
+    private final int depth;
+    private final int width;
+    private final int stripes;
+    // Counters of every stripe, row after row: ((stripe * depth) + row) * width + column
+    private final AtomicLongArray counters;
+    // Top-K table, guarded by tableLock; slots holding a null key are free
+    private final String[] keys;
+    private final long[] counts;
+    private final ReentrantLock tableLock = new ReentrantLock();
+    // Lowest count of a full table, which a key must exceed to enter it; 0 while it has free slots
+    private volatile long admissionThreshold;
+    private final ScheduledExecutorService decayer;
+
+    public HotKeys(@Value("${memdb.hotkeys.enabled:true}") boolean enabled,
+                   @Value("${memdb.hotkeys.top-k:16}") int topK,
+                   @Value("${memdb.hotkeys.sketch-width:1024}") int width,
+                   @Value("${memdb.hotkeys.sketch-depth:4}") int depth,
+                   @Value("${memdb.hotkeys.decay-millis:10000}") long decayMillis) {
+        if (topK <= 0 || depth <= 0 || decayMillis <= 0) {
+            throw new IllegalArgumentException("Hot key table size, sketch depth and decay period must be greater than zero");
+        }
+        if (width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Hot key sketch width must be a power of two");
+        }
+        this.enabled = enabled;
+        this.depth = depth;
+        this.width = width;
+        // A power of two of at least one stripe per processor, up to 16
+        this.stripes = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 16) * 2 - 1);
+        this.counters = new AtomicLongArray(enabled ? stripes * depth * width : 0);
+        this.keys = new String[topK];
+        this.counts = new long[topK];
+        if (enabled) {
+            this.decayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "memdb-hotkeys-decay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            decayer.scheduleWithFixedDelay(() -> {
+                try {
+                    decay();
+                } catch (RuntimeException e) {
+                    logger.error("Hot key decay failed: {}", e.getMessage(), e);
+                }
+            }, decayMillis, decayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.decayer = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts an access to a key.
+     */
+    public void record(String key) {
+        if (!enabled) {
+            return;
+        }
+        int hash = mix(key.hashCode());
+        // Odd, so that the rows of a key never all fall in the same column
+        int step = (hash >>> 16) | 1;
+        int base = stripe() * depth * width;
+        long local = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (hash + row * step) & (width - 1);
+            local = Math.min(local, counters.incrementAndGet(base + row * width + column));
+        }
+        // The stripe sees about its share of the key's traffic; most keys stop here
+        if (local * stripes < admissionThreshold) {
+            return;
+        }
+        if (local > SAMPLE_FROM && local % SAMPLE_EVERY != 0) {
+            return;
+        }
+        long estimate = estimate(hash, step);
+        if (estimate < admissionThreshold || !tableLock.tryLock()) {
+            return;
+        }
+        try {
+            offer(key, estimate);
+        } finally {
+            tableLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the estimated accesses to a key over the last decay periods; never an underestimate.
+     */
+    public long estimate(String key) {
+        if (!enabled) {
+            return 0;
+        }
+        int hash = mix(key.hashCode());
+        return estimate(hash, (hash >>> 16) | 1);
+    }
+
+    private long estimate(int hash, int step) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (hash + row * step) & (width - 1);
+            long sum = 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                sum += counters.get((stripe * depth + row) * width + column);
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    /**
+     * Updates the count of a key in the table, or lets it replace the coldest key. Holds tableLock.
+     */
+    private void offer(String key, long estimate) {
+        int free = -1;
+        int coldest = -1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                free = free < 0 ? i : free;
+            } else if (keys[i].equals(key)) {
+                counts[i] = Math.max(counts[i], estimate);
+                updateThreshold();
+                return;
+            } else if (coldest < 0 || counts[i] < counts[coldest]) {
+                coldest = i;
+            }
+        }
+        int slot = free >= 0 ? free : (estimate > counts[coldest] ? coldest : -1);
+        if (slot >= 0) {
+            keys[slot] = key;
+            counts[slot] = estimate;
+            updateThreshold();
+        }
+    }
+
+    private void updateThreshold() {
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                admissionThreshold = 0;
+                return;
+            }
+            lowest = Math.min(lowest, counts[i]);
+        }
+        admissionThreshold = lowest;
+    }
+
+    /**
+     * Returns up to count of the hottest keys, hottest first, with their current estimates.
+     */
+    public List<Entry> get(int count) {
+        List<Entry> entries = new ArrayList<>();
+        tableLock.lock();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    // The table lags behind the sketch by the hits that were not sampled
+                    counts[i] = Math.max(counts[i], estimate(keys[i]));
+                    entries.add(new Entry(keys[i], counts[i]));
+                }
+            }
+            updateThreshold();
+        } finally {
+            tableLock.unlock();
+        }
+        entries.sort(Comparator.comparingLong(Entry::getCount).reversed().thenComparing(Entry::getKey));
+        return entries.size() > count ? new ArrayList<>(entries.subList(0, count)) : entries;
+    }
+
+    /**
+     * Halves every count, dropping keys of the table whose count reaches zero. Run by the decayer.
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long current;
+            do {
+                current = counters.get(i);
+            } while (current != 0 && !counters.compareAndSet(i, current, current >>> 1));
+        }
+        tableLock.lock();
+        try {
+            for (int i = 0; i < keys.length; i++) {
+                counts[i] >>>= 1;
+                if (counts[i] == 0) {
+                    keys[i] = null;
+                }
+            }
+            updateThreshold();
+        } finally {
+            tableLock.unlock();
+        }
+    }
+
+    private int stripe() {
+        return mix((int) Thread.currentThread().getId()) & (stripes - 1);
+    }
+
+    // Finalizer of MurmurHash3, spreading String hash codes that differ in few bits
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    @Override
+    public void close() {
+        if (decayer != null) {
+            decayer.shutdownNow();
+        }
+    }
+
+    public static final class Entry {
+        private final String key;
+        private final long count;
+
+        Entry(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return key + " " + count;
+        }
+    }
+} 
\ No newline at end of file
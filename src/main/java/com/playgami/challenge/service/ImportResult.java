@@ -0,0 +1,39 @@
+package com.playgami.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a completed import, rendered like an INFO section.
+ */
+public class ImportResult {
+    private final long records;
+    private final long elapsedNanos;
+
+    public ImportResult(long records, long elapsedNanos) {
+        this.records = records;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public long getRecordsPerSecond() {
+        return perSecond(records, elapsedNanos);
+    }
+
+    static long perSecond(long records, long elapsedNanos) {
+        return elapsedNanos > 0 ? records * 1_000_000_000L / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "records:" + records + "\r\n"
+                + "elapsed_ms:" + getElapsedMillis() + "\r\n"
+                + "records_per_sec:" + getRecordsPerSecond();
+    }
+} 
\ No newline at end of file
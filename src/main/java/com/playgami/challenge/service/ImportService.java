@@ -0,0 +1,390 @@
+package com.playgami.challenge.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.playgami.challenge.memdb.StorageEngine;
+import com.playgami.challenge.memdb.WrongTypeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads a stream of records into the storage engine, as NDJSON or RESP commands.
+ * The stream is parsed incrementally, so imports of any size use constant memory. Plain string
+ * values are collected into batches written with MSET, which checks memory once per batch;
+ * other records are written one by one, after the pending batch so that records apply in
+ * stream order.
+ * An invalid record stops the import; the records before it stay imported.
+ */
+@Service
+public class ImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportService.class);
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    // Fields of an NDJSON record; each holds a string or a number
+    private static final Set<String> RECORD_FIELDS = Set.of("type", "key", "value", "member", "field", "score", "ttl",
+            "offset", "timestamp", "retention");
+
+    private final StorageEngine storageEngine;
+    private final int batchSize;
+    private final long progressInterval;
+
+    public ImportService(StorageEngine storageEngine,
+                         @Value("${memdb.import.batch-size:1000}") int batchSize,
+                         @Value("${memdb.import.progress-interval:1000000}") long progressInterval) {
+        if (batchSize <= 0 || progressInterval <= 0) {
+            throw new IllegalArgumentException("Import batch size and progress interval must be greater than zero");
+        }
+        this.storageEngine = storageEngine;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Imports every record of a stream and returns the import statistics.
+     * @throws IllegalArgumentException if a record is invalid, naming the record and how many were imported
+     */
+    public ImportResult importStream(InputStream in, TransferFormat format) throws IOException {
+        Batch batch = new Batch();
+        try {
+            if (format == TransferFormat.RESP) {
+                readResp(in, batch);
+            } else {
+                readNdjson(in, batch);
+            }
+            batch.flush();
+        } catch (IllegalArgumentException | WrongTypeException | JsonParseException e) {
+            // The records before the invalid one were valid, so they are imported
+            batch.flush();
+            throw new IllegalArgumentException("Import failed at record " + (batch.records + 1) + " after "
+                    + batch.records + " records: " + e.getMessage(), e);
+        }
+        ImportResult result = new ImportResult(batch.records, System.nanoTime() - batch.startNanos);
+        logger.info("Imported {} records in {} ms ({} records/s)", result.getRecords(), result.getElapsedMillis(),
+                result.getRecordsPerSecond());
+        return result;
+    }
+
+    /**
+     * Reads records such as {"key":"k","value":"v","ttl":60}, {"type":"zset","key":"k","member":"m","score":1},
+     * {"type":"hash","key":"k","field":"f","value":"v"}, {"type":"hyperloglog","key":"k","value":"<base64>"},
+     * {"type":"bitmap","key":"k","offset":0,"value":"<base64>"} and
+     * {"type":"timeseries","key":"k","timestamp":1,"value":2.5,"retention":0}, one per line, as
+     * ExportService writes them. The type defaults to string, and the retention of a time series
+     * to the server's. Other fields are skipped; an object or array in place of a record field is rejected.
+     */
+    private void readNdjson(InputStream in, Batch batch) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("expected a JSON object on line " + parser.getTokenLocation().getLineNr());
+                }
+                String type = "string";
+                String key = null;
+                String value = null;
+                String member = null;
+                String field = null;
+                Double score = null;
+                long ttl = 0;
+                Long offset = null;
+                Long timestamp = null;
+                Long retention = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    JsonToken valueToken = parser.nextToken();
+                    if (valueToken != null && !valueToken.isScalarValue() && RECORD_FIELDS.contains(name)) {
+                        throw new IllegalArgumentException("field " + name + " is not a string or a number on line "
+                                + parser.getTokenLocation().getLineNr());
+                    }
+                    switch (name) {
+                        case "type":
+                            type = parser.getText();
+                            break;
+                        case "key":
+                            key = parser.getText();
+                            break;
+                        case "value":
+                            value = parser.getText();
+                            break;
+                        case "member":
+                            member = parser.getText();
+                            break;
+                        case "field":
+                            field = parser.getText();
+                            break;
+                        case "score":
+                            // Infinite scores are written as strings, as JSON has no literal for them
+                            score = valueToken == JsonToken.VALUE_STRING ? parseScore(parser.getText()) : parser.getDoubleValue();
+                            break;
+                        case "ttl":
+                            ttl = parser.getLongValue();
+                            break;
+                        case "offset":
+                            offset = parser.getLongValue();
+                            break;
+                        case "timestamp":
+                            timestamp = parser.getLongValue();
+                            break;
+                        case "retention":
+                            retention = parser.getLongValue();
+                            break;
+                        default:
+                            parser.skipChildren();
+                    }
+                }
+                switch (type) {
+                    case "hyperloglog":
+                        batch.hyperLogLog(key, decode(value));
+                        break;
+                    case "bitmap":
+                        if (offset == null) {
+                            throw new IllegalArgumentException("offset is missing");
+                        }
+                        batch.bitmap(key, offset, decode(value));
+                        break;
+                    case "timeseries":
+                        if (timestamp == null) {
+                            throw new IllegalArgumentException("timestamp is missing");
+                        }
+                        batch.sample(key, timestamp, parseSampleValue(value), retention);
+                        break;
+                    default:
+                        batch.apply(type, key, value, member, field, score, ttl);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads SET key value [EX seconds], ZADD key score member [score member ...],
+     * HSET key field value [field value ...], SETBIT key offset value,
+     * TS.ADD key timestamp value [RETENTION milliseconds] and PFRESTORE key registers commands.
+     */
+    private void readResp(InputStream in, Batch batch) throws IOException {
+        RespReader reader = new RespReader(in);
+        String[] command;
+        while ((command = reader.next()) != null) {
+            String name = command[0].toUpperCase(Locale.ROOT);
+            if (name.equals("SET") && (command.length == 3 || command.length == 5 && command[3].equalsIgnoreCase("EX"))) {
+                batch.apply("string", command[1], command[2], null, null, null,
+                        command.length == 5 ? parseTtl(command[4]) : 0);
+            } else if (name.equals("ZADD") && command.length >= 4 && command.length % 2 == 0) {
+                for (int i = 2; i < command.length; i += 2) {
+                    batch.apply("zset", command[1], null, command[i + 1], null, parseScore(command[i]), 0);
+                }
+            } else if (name.equals("HSET") && command.length >= 4 && command.length % 2 == 0) {
+                for (int i = 2; i < command.length; i += 2) {
+                    batch.apply("hash", command[1], command[i + 1], null, command[i], null, 0);
+                }
+            } else if (name.equals("SETBIT") && command.length == 4) {
+                batch.setbit(command[1], parseLong(command[2], "bit offset"), parseBit(command[3]));
+            } else if (name.equals("TS.ADD") && (command.length == 4 || command.length == 6 && command[4].equalsIgnoreCase("RETENTION"))) {
+                batch.sample(command[1], parseLong(command[2], "timestamp"), parseSampleValue(command[3]),
+                        command.length == 6 ? parseLong(command[5], "retention") : null);
+            } else if (name.equals("PFRESTORE") && command.length == 3) {
+                batch.hyperLogLog(command[1], decode(command[2]));
+            } else {
+                throw new IllegalArgumentException("unsupported command " + name + " with " + (command.length - 1) + " arguments");
+            }
+        }
+    }
+
+    private static double parseScore(String text) {
+        double score;
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "inf":
+            case "+inf":
+            case "infinity":
+                score = Double.POSITIVE_INFINITY;
+                break;
+            case "-inf":
+            case "-infinity":
+                score = Double.NEGATIVE_INFINITY;
+                break;
+            default:
+                try {
+                    score = Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("score is not a valid float: " + text);
+                }
+        }
+        if (Double.isNaN(score)) {
+            throw new IllegalArgumentException("score is not a valid float: " + text);
+        }
+        return score;
+    }
+
+    private static double parseSampleValue(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("value is missing");
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("value is not a valid float: " + text);
+        }
+    }
+
+    private static long parseLong(String text, String name) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + name + ": " + text);
+        }
+    }
+
+    private static int parseBit(String text) {
+        if (!text.equals("0") && !text.equals("1")) {
+            throw new IllegalArgumentException("bit is not 0 or 1: " + text);
+        }
+        return Integer.parseInt(text);
+    }
+
+    private static byte[] decode(String base64) {
+        if (base64 == null) {
+            throw new IllegalArgumentException("value is missing");
+        }
+        try {
+            return Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("value is not valid base64");
+        }
+    }
+
+    private static long parseTtl(String text) {
+        long seconds;
+        try {
+            seconds = Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid EX seconds value: " + text);
+        }
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("EX seconds must be greater than zero");
+        }
+        return seconds;
+    }
+
+    /**
+     * Applies records to the storage engine, batching plain string values.
+     */
+    private final class Batch {
+        final long startNanos = System.nanoTime();
+        // String values waiting for the next MSET; a key written twice keeps its last value
+        final Map<String, String> strings = new LinkedHashMap<>();
+        long records;
+
+        void apply(String type, String key, String value, String member, String field, Double score, long ttl) {
+            requireKey(key);
+            if (ttl < 0) {
+                throw new IllegalArgumentException("ttl must not be negative");
+            }
+            switch (type) {
+                case "string":
+                    require(value, "value");
+                    if (ttl > 0) {
+                        flush();
+                        storageEngine.setEx(key, value, ttl);
+                    } else {
+                        strings.put(key, value);
+                        if (strings.size() >= batchSize) {
+                            flush();
+                        }
+                    }
+                    break;
+                case "zset":
+                    require(member, "member");
+                    if (score == null) {
+                        throw new IllegalArgumentException("score is missing");
+                    }
+                    flush();
+                    storageEngine.zadd(key, score, member);
+                    break;
+                case "hash":
+                    require(field, "field");
+                    require(value, "value");
+                    flush();
+                    storageEngine.hset(key, Map.of(field, value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unsupported type " + type);
+            }
+            applied();
+        }
+
+        void hyperLogLog(String key, byte[] registers) {
+            requireKey(key);
+            flush();
+            storageEngine.pfrestore(key, registers);
+            applied();
+        }
+
+        void bitmap(String key, long byteOffset, byte[] bytes) {
+            requireKey(key);
+            flush();
+            storageEngine.bitrestore(key, byteOffset, bytes);
+            applied();
+        }
+
+        void setbit(String key, long offset, int value) {
+            requireKey(key);
+            flush();
+            storageEngine.setbit(key, offset, value);
+            applied();
+        }
+
+        /**
+         * Appends a sample, to a series created with the given retention or, if null, the server's default.
+         */
+        void sample(String key, long timestamp, double value, Long retentionMillis) {
+            requireKey(key);
+            flush();
+            if (retentionMillis != null) {
+                storageEngine.tsAdd(key, timestamp, value, retentionMillis);
+            } else {
+                storageEngine.tsAdd(key, timestamp, value);
+            }
+            applied();
+        }
+
+        private void applied() {
+            // Each record counts as the command it stands for, however the writes are batched
+            storageEngine.recordCommand();
+            records++;
+            if (records % progressInterval == 0) {
+                long elapsedNanos = System.nanoTime() - startNanos;
+                logger.info("Import progress: {} records ({} records/s)", records,
+                        ImportResult.perSecond(records, elapsedNanos));
+            }
+        }
+
+        void flush() {
+            if (!strings.isEmpty()) {
+                storageEngine.mset(strings);
+                strings.clear();
+            }
+        }
+
+        private void requireKey(String key) {
+            if (key == null || key.isEmpty()) {
+                throw new IllegalArgumentException("key is missing");
+            }
+        }
+
+        private void require(String value, String name) {
+            if (value == null) {
+                throw new IllegalArgumentException(name + " is missing");
+            }
+        }
+    }
+} 
\ No newline at end of file
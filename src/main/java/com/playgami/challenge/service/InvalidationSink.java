@@ -0,0 +1,25 @@
+package com.playgami.challenge.service;
+
+import java.io.IOException;
+
+/**
+ * Where the invalidation messages of a tracking client go, such as a server-sent event stream.
+ * Called by one dispatcher thread at a time, so implementations need not be thread-safe.
+ */
+public interface InvalidationSink {
+    /**
+     * Tells the client that a key it may have cached changed.
+     */
+    void invalidate(String key) throws IOException;
+
+    /**
+     * Tells the client to drop everything it cached.
+     */
+    void invalidateAll() throws IOException;
+
+    /**
+     * Ends the client's stream once it is dropped, so that it drops everything it cached.
+     */
+    default void close() {
+    }
+} 
\ No newline at end of file
@@ -1,35 +1,106 @@
 package com.playgami.challenge.service;
 
+import com.playgami.challenge.memdb.BitOperation;
+import com.playgami.challenge.memdb.MemoryLimitExceededException;
+import com.playgami.challenge.memdb.MemoryUsage;
+import com.playgami.challenge.memdb.ScanResult;
+import com.playgami.challenge.memdb.ScoreRange;
 import com.playgami.challenge.memdb.StorageEngine;
+import com.playgami.challenge.memdb.TimeSeries;
+import com.playgami.challenge.memdb.WrongTypeException;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import static java.util.Map.entry;
 
 @Service
 public class MemDBCommandService {
     public static final String NIL_RESPONSE = "(nil)";
-    private final StorageEngine storageEngine;
+    public static final String EMPTY_LIST_RESPONSE = "(empty list or set)";
+    // Commands whose first argument is not a key, so they are not counted by hot key tracking
+    private static final Set<String> KEYLESS_COMMANDS = Set.of("FLUSHDB", "FLUSHALL", "DBSIZE", "SELECT", "SCAN", "KEYS",
+            "DELPREFIX", "INFO", "SLOWLOG", "MEMORY", "HOTKEYS");
+    // Logical databases; every handler is given the one the command was sent to
+    private final Databases databases;
     // Maps command names to their handler functions
-    private final Map<String, Function<String[], String>> commandHandlers;
-
-    public MemDBCommandService(StorageEngine storageEngine) {
-        this.storageEngine = storageEngine;
-        this.commandHandlers = Map.of(
-            "SET", this::handleSet,
-            "GET", this::handleGet,
-            "DEL", this::handleDel,
-            "DBSIZE", this::handleDbSize,
-            "INCR", this::handleIncr,
-            "ZADD", this::handleZAdd,
-            "ZCARD", this::handleZCard,
-            "ZRANK", this::handleZRank,
-            "ZRANGE", this::handleZRange
+    private final Map<String, BiFunction<StorageEngine, String[], String>> commandHandlers;
+    // Renders the INFO report from lock-free counters
+    private final ServerInfo serverInfo;
+    // Records commands exceeding the latency threshold
+    private final SlowLog slowLog;
+    // Counts accesses per key to find the hottest ones
+    private final HotKeys hotKeys;
+
+    public MemDBCommandService(Databases databases, SlowLog slowLog, HotKeys hotKeys) {
+        this.databases = databases;
+        this.serverInfo = new ServerInfo(databases);
+        this.slowLog = slowLog;
+        this.hotKeys = hotKeys;
+        this.commandHandlers = Map.ofEntries(
+            entry("SET", this::handleSet),
+            entry("MSET", this::handleMSet),
+            entry("GET", this::handleGet),
+            entry("DEL", this::handleDel),
+            entry("UNLINK", this::handleUnlink),
+            entry("FLUSHDB", this::handleFlush),
+            entry("FLUSHALL", this::handleFlushAll),
+            entry("SELECT", this::handleSelect),
+            entry("DBSIZE", this::handleDbSize),
+            entry("SCAN", this::handleScan),
+            entry("KEYS", this::handleKeys),
+            entry("DELPREFIX", this::handleDelPrefix),
+            entry("INCR", this::handleIncr),
+            entry("ZADD", this::handleZAdd),
+            entry("ZCARD", this::handleZCard),
+            entry("ZRANK", this::handleZRank),
+            entry("ZRANGE", this::handleZRange),
+            entry("ZREVRANK", this::handleZRevRank),
+            entry("ZSCORE", this::handleZScore),
+            entry("ZINCRBY", this::handleZIncrBy),
+            entry("ZRANGEBYSCORE", this::handleZRangeByScore),
+            entry("ZCOUNT", this::handleZCount),
+            entry("ZSCAN", this::handleZScan),
+            entry("HSET", this::handleHSet),
+            entry("HGET", this::handleHGet),
+            entry("HMGET", this::handleHMGet),
+            entry("HGETALL", this::handleHGetAll),
+            entry("HINCRBY", this::handleHIncrBy),
+            entry("PFADD", this::handlePfAdd),
+            entry("PFCOUNT", this::handlePfCount),
+            entry("PFMERGE", this::handlePfMerge),
+            entry("SETBIT", this::handleSetBit),
+            entry("GETBIT", this::handleGetBit),
+            entry("BITCOUNT", this::handleBitCount),
+            entry("BITOP", this::handleBitOp),
+            entry("TS.ADD", this::handleTsAdd),
+            entry("TS.RANGE", this::handleTsRange),
+            entry("TS.AGG", this::handleTsAgg),
+            entry("INFO", this::handleInfo),
+            entry("SLOWLOG", this::handleSlowLog),
+            entry("HOTKEYS", this::handleHotKeys),
+            entry("MEMORY", this::handleMemory)
         );
     }
 
     public CommandResult executeCommand(String cmd) {
+        return executeCommand(cmd, null);
+    }
+
+    public CommandResult executeCommand(String cmd, String client) {
+        return executeCommand(cmd, client, 0);
+    }
+
+    /**
+     * Executes a command on a database on behalf of a client; the client is only used to annotate
+     * slow log entries.
+     */
+    public CommandResult executeCommand(String cmd, String client, int db) {
         // Handle empty or whitespace-only commands
         if (cmd == null || cmd.trim().isEmpty()) {
             return new CommandResult("Invalid command", true);
@@ -43,34 +114,75 @@ public class MemDBCommandService {
 
         try {
             String command = parts[0].toUpperCase();
-            Function<String[], String> handler = commandHandlers.get(command);
+            BiFunction<StorageEngine, String[], String> handler = commandHandlers.get(command);
             if (handler == null) {
                 return new CommandResult("Unknown command: " + command, true);
             }
-            String response = handler.apply(parts);
+            StorageEngine storageEngine = databases.get(db);
+            storageEngine.recordCommand();
+            if (parts.length > 1 && !KEYLESS_COMMANDS.contains(command)) {
+                // BITOP names its operation first and its destination key second
+                hotKeys.record(command.equals("BITOP") && parts.length > 2 ? parts[2] : parts[1]);
+            }
+            long startNanos = System.nanoTime();
+            String response;
+            try {
+                response = handler.apply(storageEngine, parts);
+            } finally {
+                // Failed commands are logged too: a write that waited out backpressure is the slowest
+                slowLog.record(parts, System.nanoTime() - startNanos, client);
+            }
             if (response.startsWith("ERR") || response.startsWith("Invalid") || response.startsWith("Unknown") || response.contains("EX seconds must be greater than zero") || response.contains("Invalid EX seconds value")) {
                 return new CommandResult(response, true);
             }
             return new CommandResult(response, false);
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | MemoryLimitExceededException | WrongTypeException e) {
             return new CommandResult(e.getMessage(), true);
         } catch (Exception e) {
             return new CommandResult("Error executing command: " + e.getMessage(), true);
         }
     }
 
+    public String info(String section) {
+        return info(section, 0);
+    }
+
+    /**
+     * Returns the INFO report of a database for a section, or all sections when section is null.
+     */
+    public String info(String section, int db) {
+        return serverInfo.render(section, databases.get(db));
+    }
+
+    /**
+     * Returns up to count of the hottest keys, hottest first; none when hot key tracking is disabled.
+     */
+    public List<HotKeys.Entry> hotKeys(int count) {
+        return hotKeys.get(count);
+    }
+
+    /**
+     * Formats a score the way Redis replies with it: integral scores without a fraction.
+     */
+    public static String formatScore(double score) {
+        if (score == Math.rint(score) && Math.abs(score) < 1e15) {
+            return String.valueOf((long) score);
+        }
+        return String.valueOf(score);
+    }
+
     /**
      * Handles both SET and SETEX commands:
      * - SET key value
      * - SET key value EX seconds
      */
-    private String handleSet(String[] parts) {
+    private String handleSet(StorageEngine storageEngine, String[] parts) {
         if (parts.length < 3) {
             return "Invalid SET command";
         }
         // Check if this is a SETEX command (5 parts: SET key value EX seconds)
         if (parts.length == 5 && parts[3].equalsIgnoreCase("EX")) {
-            return handleSetEx(parts);
+            return handleSetEx(storageEngine, parts);
         }
         // Regular SET command
         storageEngine.set(parts[1], parts[2]);
@@ -85,7 +197,7 @@ public class MemDBCommandService {
      * parts[3] = "EX"
      * parts[4] = seconds
      */
-    private String handleSetEx(String[] parts) {
+    private String handleSetEx(StorageEngine storageEngine, String[] parts) {
         try {
             long seconds = Long.parseLong(parts[4]);
             if (seconds <= 0) {
@@ -98,11 +210,115 @@ public class MemDBCommandService {
         }
     }
 
+    /**
+     * Handles MSET command: MSET key value [key value ...]
+     * Sets every key; a key given twice keeps its last value
+     */
+    private String handleMSet(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 3 || parts.length % 2 == 0) {
+            return "Invalid MSET command";
+        }
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 1; i < parts.length; i += 2) {
+            entries.put(parts[i], parts[i + 1]);
+        }
+        storageEngine.mset(entries);
+        return "OK";
+    }
+
+    /**
+     * Handles SCAN command: SCAN cursor [MATCH pattern] [COUNT count] [TYPE type]
+     * Returns the next cursor followed by the keys found; the cursor is 0 once the iteration is complete
+     */
+    private String handleScan(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 2 || parts.length % 2 != 0) {
+            return "Invalid SCAN command";
+        }
+        ScanOptions options = ScanOptions.parse(parts, 2, true);
+        if (options.error != null) {
+            return options.error;
+        }
+        ScanResult<String> result;
+        try {
+            result = storageEngine.scan(parts[1], options.pattern, options.count, options.type);
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+        StringBuilder sb = new StringBuilder(result.getCursor());
+        for (String key : result.getItems()) {
+            sb.append(' ').append(key);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles KEYS command: KEYS pattern
+     * Returns every key matching the pattern
+     */
+    private String handleKeys(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2) {
+            return "Invalid KEYS command";
+        }
+        List<String> keys = storageEngine.keys(parts[1]);
+        return keys.isEmpty() ? EMPTY_LIST_RESPONSE : String.join(" ", keys);
+    }
+
+    /**
+     * Handles DELPREFIX command: DELPREFIX prefix
+     * Deletes every key starting with the prefix
+     * Returns the number of keys deleted
+     */
+    private String handleDelPrefix(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2) {
+            return "Invalid DELPREFIX command";
+        }
+        return String.valueOf(storageEngine.delPrefix(parts[1]));
+    }
+
+    /**
+     * The MATCH, COUNT and TYPE options of SCAN and ZSCAN.
+     */
+    private static final class ScanOptions {
+        // Keys or members examined per call when COUNT is not given, as in Redis
+        private static final int DEFAULT_COUNT = 10;
+
+        String pattern;
+        int count = DEFAULT_COUNT;
+        String type;
+        String error;
+
+        static ScanOptions parse(String[] parts, int from, boolean allowType) {
+            ScanOptions options = new ScanOptions();
+            for (int i = from; i < parts.length; i += 2) {
+                String option = parts[i].toUpperCase();
+                if (option.equals("MATCH")) {
+                    options.pattern = parts[i + 1];
+                } else if (option.equals("COUNT")) {
+                    try {
+                        options.count = Integer.parseInt(parts[i + 1]);
+                    } catch (NumberFormatException e) {
+                        options.count = 0;
+                    }
+                    if (options.count <= 0) {
+                        options.error = "ERR COUNT must be a positive integer";
+                        return options;
+                    }
+                } else if (option.equals("TYPE") && allowType) {
+                    options.type = parts[i + 1];
+                } else {
+                    options.error = "ERR syntax error";
+                    return options;
+                }
+            }
+            return options;
+        }
+    }
+
     /**
      * Handles GET command: GET key
      * Returns the value or (nil) if key doesn't exist
      */
-    private String handleGet(String[] parts) {
+    private String handleGet(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 2) {
             return "Invalid GET command";
         }
@@ -114,7 +330,7 @@ public class MemDBCommandService {
      * Handles DEL command: DEL key
      * Returns OK if key was deleted, (nil) if key didn't exist
      */
-    private String handleDel(String[] parts) {
+    private String handleDel(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 2) {
             return "Invalid DEL command";
         }
@@ -122,28 +338,98 @@ public class MemDBCommandService {
         return deleted ? "OK" : NIL_RESPONSE;
     }
 
+    /**
+     * Handles UNLINK command: UNLINK key
+     * Deletes the key at once and frees a large value in the background
+     * Returns OK if deleted, (nil) if not found
+     */
+    private String handleUnlink(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2) {
+            return "Invalid UNLINK command";
+        }
+        boolean deleted = storageEngine.unlink(parts[1]);
+        return deleted ? "OK" : NIL_RESPONSE;
+    }
+
+    /**
+     * Handles FLUSHDB command: FLUSHDB [ASYNC|SYNC]
+     * Removes every key of the database; with ASYNC, memory is released in the background
+     */
+    private String handleFlush(StorageEngine storageEngine, String[] parts) {
+        return flush(List.of(storageEngine), parts);
+    }
+
+    /**
+     * Handles FLUSHALL command: FLUSHALL [ASYNC|SYNC]
+     * Removes every key of every database; with ASYNC, memory is released in the background
+     */
+    private String handleFlushAll(StorageEngine storageEngine, String[] parts) {
+        return flush(databases.all(), parts);
+    }
+
+    /**
+     * Removes every key of every database, as FLUSHALL does; with async, memory is released in the background.
+     */
+    public void flushAll(boolean async) {
+        for (StorageEngine engine : databases.all()) {
+            engine.flush(async);
+        }
+    }
+
+    private String flush(List<StorageEngine> engines, String[] parts) {
+        if (parts.length > 2) {
+            return "Invalid " + parts[0].toUpperCase() + " command";
+        }
+        String mode = parts.length == 2 ? parts[1].toUpperCase() : "SYNC";
+        if (!mode.equals("ASYNC") && !mode.equals("SYNC")) {
+            return "ERR syntax error";
+        }
+        for (StorageEngine engine : engines) {
+            engine.flush(mode.equals("ASYNC"));
+        }
+        return "OK";
+    }
+
     /**
      * Handles DBSIZE command: DBSIZE
      * Returns the number of keys in the database
      */
-    private String handleDbSize(String[] parts) {
+    private String handleDbSize(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 1) {
             return "Invalid DBSIZE command";
         }
         return String.valueOf(storageEngine.dbSize());
     }
 
+    /**
+     * Handles SELECT command: SELECT index
+     * Checks that the database exists. Requests are stateless, so the database a command runs on
+     * is chosen by the db parameter of each request rather than remembered for the connection
+     */
+    private String handleSelect(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2) {
+            return "Invalid SELECT command";
+        }
+        try {
+            databases.get(Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return "ERR value is not an integer or out of range";
+        }
+        return "OK";
+    }
+
     /**
      * Handles INCR command: INCR key
      * Increments the numeric value by 1
      * Returns error if value is not numeric
      */
-    private String handleIncr(String[] parts) {
+    private String handleIncr(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 2) {
             return "Invalid INCR command";
         }
         try {
-            String currentValue = storageEngine.get(parts[1]);
+            // Peeked so that the check is not counted as a read of its own
+            String currentValue = storageEngine.peek(parts[1]);
             if (currentValue != null) {
                 Long.parseLong(currentValue);
             }
@@ -158,7 +444,7 @@ public class MemDBCommandService {
      * Adds a member with score to a sorted set
      * Returns OK if added, (nil) if already exists
      */
-    private String handleZAdd(String[] parts) {
+    private String handleZAdd(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 4) {
             return "Invalid ZADD command";
         }
@@ -178,7 +464,7 @@ public class MemDBCommandService {
      * Handles ZCARD command: ZCARD key
      * Returns the number of members in a sorted set
      */
-    private String handleZCard(String[] parts) {
+    private String handleZCard(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 2) {
             return "Invalid ZCARD command";
         }
@@ -190,7 +476,7 @@ public class MemDBCommandService {
      * Returns the rank of member in the sorted set
      * Returns (nil) if member doesn't exist
      */
-    private String handleZRank(String[] parts) {
+    private String handleZRank(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 3) {
             return "Invalid ZRANK command";
         }
@@ -203,7 +489,7 @@ public class MemDBCommandService {
      * Returns members in the sorted set within the range
      * start and end must be valid integers
      */
-    private String handleZRange(String[] parts) {
+    private String handleZRange(StorageEngine storageEngine, String[] parts) {
         if (parts.length != 4) {
             return "Invalid ZRANGE command";
         }
@@ -216,4 +502,545 @@ public class MemDBCommandService {
             return "ERR start or end is not a valid integer";
         }
     }
+
+    /**
+     * Handles ZREVRANK command: ZREVRANK key member
+     * Returns the rank of member with scores ordered from high to low
+     * Returns (nil) if member doesn't exist
+     */
+    private String handleZRevRank(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 3) {
+            return "Invalid ZREVRANK command";
+        }
+        Long rank = storageEngine.zrevrank(parts[1], parts[2]);
+        return rank != null ? String.valueOf(rank) : NIL_RESPONSE;
+    }
+
+    /**
+     * Handles ZSCORE command: ZSCORE key member
+     * Returns the score of member, or (nil) if member doesn't exist
+     */
+    private String handleZScore(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 3) {
+            return "Invalid ZSCORE command";
+        }
+        Double score = storageEngine.zscore(parts[1], parts[2]);
+        return score != null ? formatScore(score) : NIL_RESPONSE;
+    }
+
+    /**
+     * Handles ZINCRBY command: ZINCRBY key increment member
+     * Atomically increments the score of member, adding it if needed
+     * Returns the new score
+     */
+    private String handleZIncrBy(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4) {
+            return "Invalid ZINCRBY command";
+        }
+        double increment;
+        try {
+            increment = Double.parseDouble(parts[2]);
+        } catch (NumberFormatException e) {
+            return "ERR value is not a valid float";
+        }
+        if (Double.isInfinite(increment) || Double.isNaN(increment)) {
+            return "ERR value is not a valid float";
+        }
+        try {
+            return formatScore(storageEngine.zincrby(parts[1], increment, parts[3]));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles ZRANGEBYSCORE command: ZRANGEBYSCORE key min max [WITHSCORES]
+     * Returns members with a score between min and max, lowest first
+     * min and max are inclusive unless prefixed with "(", and accept -inf and +inf
+     */
+    private String handleZRangeByScore(StorageEngine storageEngine, String[] parts) {
+        boolean withScores = parts.length == 5 && parts[4].equalsIgnoreCase("WITHSCORES");
+        if (parts.length != 4 && !withScores) {
+            return "Invalid ZRANGEBYSCORE command";
+        }
+        ScoreRange range;
+        try {
+            range = ScoreRange.parse(parts[2], parts[3]);
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Double> entry : storageEngine.zrangeByScore(parts[1], range)) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(entry.getKey());
+            if (withScores) {
+                sb.append(' ').append(formatScore(entry.getValue()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles ZCOUNT command: ZCOUNT key min max
+     * Returns the number of members with a score between min and max
+     */
+    private String handleZCount(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4) {
+            return "Invalid ZCOUNT command";
+        }
+        try {
+            return String.valueOf(storageEngine.zcount(parts[1], ScoreRange.parse(parts[2], parts[3])));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles ZSCAN command: ZSCAN key cursor [MATCH pattern] [COUNT count]
+     * Returns the next cursor followed by the members found and their scores
+     */
+    private String handleZScan(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 3 || parts.length % 2 == 0) {
+            return "Invalid ZSCAN command";
+        }
+        ScanOptions options = ScanOptions.parse(parts, 3, false);
+        if (options.error != null) {
+            return options.error;
+        }
+        ScanResult<Map.Entry<String, Double>> result;
+        try {
+            result = storageEngine.zscan(parts[1], parts[2], options.pattern, options.count);
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+        StringBuilder sb = new StringBuilder(result.getCursor());
+        for (Map.Entry<String, Double> entry : result.getItems()) {
+            sb.append(' ').append(entry.getKey()).append(' ').append(formatScore(entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles HSET command: HSET key field value [field value ...]
+     * Sets fields of a hash, creating it if needed
+     * Returns the number of fields added
+     */
+    private String handleHSet(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 4 || parts.length % 2 != 0) {
+            return "Invalid HSET command";
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (int i = 2; i < parts.length; i += 2) {
+            fields.put(parts[i], parts[i + 1]);
+        }
+        return String.valueOf(storageEngine.hset(parts[1], fields));
+    }
+
+    /**
+     * Handles HGET command: HGET key field
+     * Returns the value of field, or (nil) if the hash or field doesn't exist
+     */
+    private String handleHGet(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 3) {
+            return "Invalid HGET command";
+        }
+        String value = storageEngine.hget(parts[1], parts[2]);
+        return value != null ? value : NIL_RESPONSE;
+    }
+
+    /**
+     * Handles HMGET command: HMGET key field [field ...]
+     * Returns the values of the fields, space separated, with (nil) for missing fields
+     */
+    private String handleHMGet(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 3) {
+            return "Invalid HMGET command";
+        }
+        List<String> values = storageEngine.hmget(parts[1], Arrays.asList(parts).subList(2, parts.length));
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(value != null ? value : NIL_RESPONSE);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles HGETALL command: HGETALL key
+     * Returns the fields and values of the hash as space separated pairs
+     */
+    private String handleHGetAll(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2) {
+            return "Invalid HGETALL command";
+        }
+        Map<String, String> entries = storageEngine.hgetall(parts[1]);
+        if (entries.isEmpty()) {
+            return EMPTY_LIST_RESPONSE;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(entry.getKey()).append(' ').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles HINCRBY command: HINCRBY key field increment
+     * Atomically increments the integer value of field, adding it if needed
+     * Returns the new value
+     */
+    private String handleHIncrBy(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4) {
+            return "Invalid HINCRBY command";
+        }
+        long increment;
+        try {
+            increment = Long.parseLong(parts[3]);
+        } catch (NumberFormatException e) {
+            return "ERR value is not an integer or out of range";
+        }
+        try {
+            return String.valueOf(storageEngine.hincrby(parts[1], parts[2], increment));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles PFADD command: PFADD key [element ...]
+     * Adds elements to a HyperLogLog, creating it if needed
+     * Returns 1 if the estimated cardinality may have changed, 0 otherwise
+     */
+    private String handlePfAdd(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 2) {
+            return "Invalid PFADD command";
+        }
+        boolean changed = storageEngine.pfadd(parts[1], Arrays.asList(parts).subList(2, parts.length));
+        return changed ? "1" : "0";
+    }
+
+    /**
+     * Handles PFCOUNT command: PFCOUNT key [key ...]
+     * Returns the estimated number of distinct elements, across the union of all keys
+     */
+    private String handlePfCount(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 2) {
+            return "Invalid PFCOUNT command";
+        }
+        return String.valueOf(storageEngine.pfcount(Arrays.asList(parts).subList(1, parts.length)));
+    }
+
+    /**
+     * Handles PFMERGE command: PFMERGE destkey [sourcekey ...]
+     * Merges the source HyperLogLogs into destkey, creating it if needed
+     */
+    private String handlePfMerge(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 2) {
+            return "Invalid PFMERGE command";
+        }
+        storageEngine.pfmerge(parts[1], Arrays.asList(parts).subList(2, parts.length));
+        return "OK";
+    }
+
+    /**
+     * Handles SETBIT command: SETBIT key offset value
+     * Sets or clears the bit at offset, value being 0 or 1
+     * Returns the bit's previous value
+     */
+    private String handleSetBit(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4) {
+            return "Invalid SETBIT command";
+        }
+        long offset;
+        int value;
+        try {
+            offset = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return "ERR bit offset is not an integer or out of range";
+        }
+        try {
+            value = Integer.parseInt(parts[3]);
+        } catch (NumberFormatException e) {
+            return "ERR bit is not an integer or out of range";
+        }
+        try {
+            return String.valueOf(storageEngine.setbit(parts[1], offset, value));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles GETBIT command: GETBIT key offset
+     * Returns the bit at offset, 0 past the end of the bitmap or for a missing key
+     */
+    private String handleGetBit(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 3) {
+            return "Invalid GETBIT command";
+        }
+        long offset;
+        try {
+            offset = Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return "ERR bit offset is not an integer or out of range";
+        }
+        try {
+            return String.valueOf(storageEngine.getbit(parts[1], offset));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles BITCOUNT command: BITCOUNT key [start end [BYTE|BIT]]
+     * Returns the number of set bits, in the whole bitmap or between start and end,
+     * counted in bytes by default; negative indexes count from the end
+     */
+    private String handleBitCount(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 2 && parts.length != 4 && parts.length != 5) {
+            return "Invalid BITCOUNT command";
+        }
+        long start = 0;
+        long end = -1;
+        boolean bitUnit = false;
+        if (parts.length > 2) {
+            try {
+                start = Long.parseLong(parts[2]);
+                end = Long.parseLong(parts[3]);
+            } catch (NumberFormatException e) {
+                return "ERR start or end is not a valid integer";
+            }
+        }
+        if (parts.length == 5) {
+            if (parts[4].equalsIgnoreCase("BIT")) {
+                bitUnit = true;
+            } else if (!parts[4].equalsIgnoreCase("BYTE")) {
+                return "ERR syntax error";
+            }
+        }
+        return String.valueOf(storageEngine.bitcount(parts[1], start, end, bitUnit));
+    }
+
+    /**
+     * Handles BITOP command: BITOP AND|OR|XOR|NOT destkey srckey [srckey ...]
+     * Stores the bitwise combination of the source bitmaps in destkey
+     * Returns the length of the result in bytes
+     */
+    private String handleBitOp(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 4) {
+            return "Invalid BITOP command";
+        }
+        BitOperation operation;
+        try {
+            operation = BitOperation.valueOf(parts[1].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "ERR syntax error";
+        }
+        try {
+            return String.valueOf(storageEngine.bitop(operation, parts[2], Arrays.asList(parts).subList(3, parts.length)));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles TS.ADD command: TS.ADD key timestamp|* value [RETENTION milliseconds]
+     * Appends a sample to a time series, creating it if needed; * stamps it with the server time
+     * The retention period applies when the series is created
+     * Returns the timestamp of the sample
+     */
+    private String handleTsAdd(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4 && !(parts.length == 6 && parts[4].equalsIgnoreCase("RETENTION"))) {
+            return "Invalid TS.ADD command";
+        }
+        long timestamp;
+        double value;
+        try {
+            timestamp = parts[2].equals("*") ? System.currentTimeMillis() : Long.parseLong(parts[2]);
+        } catch (NumberFormatException e) {
+            return "ERR invalid timestamp";
+        }
+        try {
+            value = Double.parseDouble(parts[3]);
+        } catch (NumberFormatException e) {
+            return "ERR invalid value";
+        }
+        try {
+            if (parts.length == 6) {
+                storageEngine.tsAdd(parts[1], timestamp, value, Long.parseLong(parts[5]));
+            } else {
+                storageEngine.tsAdd(parts[1], timestamp, value);
+            }
+        } catch (NumberFormatException e) {
+            return "ERR invalid retention";
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+        return String.valueOf(timestamp);
+    }
+
+    /**
+     * Handles TS.RANGE command: TS.RANGE key from to
+     * Returns alternating timestamps and values of the samples between from and to
+     * from and to are inclusive, and accept - and + for the earliest and latest samples
+     */
+    private String handleTsRange(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 4) {
+            return "Invalid TS.RANGE command";
+        }
+        try {
+            long from = TimeSeries.parseRangeBound(parts[2]);
+            long to = TimeSeries.parseRangeBound(parts[3]);
+            return formatSamples(storageEngine.tsRange(parts[1], from, to));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Handles TS.AGG command: TS.AGG key from to MIN|MAX|AVG|SUM bucketDuration
+     * Aggregates the samples between from and to over buckets of bucketDuration milliseconds
+     * Returns alternating bucket start times and aggregated values
+     */
+    private String handleTsAgg(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 6) {
+            return "Invalid TS.AGG command";
+        }
+        TimeSeries.Aggregation aggregation;
+        try {
+            aggregation = TimeSeries.Aggregation.valueOf(parts[4].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "ERR unknown aggregation type";
+        }
+        long bucketMillis;
+        try {
+            bucketMillis = Long.parseLong(parts[5]);
+        } catch (NumberFormatException e) {
+            return "ERR bucket duration is not a valid integer";
+        }
+        try {
+            long from = TimeSeries.parseRangeBound(parts[2]);
+            long to = TimeSeries.parseRangeBound(parts[3]);
+            return formatSamples(storageEngine.tsAggregate(parts[1], from, to, aggregation, bucketMillis));
+        } catch (IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private static String formatSamples(List<TimeSeries.Sample> samples) {
+        StringBuilder sb = new StringBuilder();
+        for (TimeSeries.Sample sample : samples) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(sample.getTimestamp()).append(' ').append(formatScore(sample.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Handles INFO command: INFO [section]
+     * Returns server, memory, stats and keyspace sections, or only the requested one
+     */
+    private String handleInfo(StorageEngine storageEngine, String[] parts) {
+        if (parts.length > 2) {
+            return "Invalid INFO command";
+        }
+        return serverInfo.render(parts.length == 2 ? parts[1] : null, storageEngine);
+    }
+
+    /**
+     * Handles SLOWLOG command: SLOWLOG GET [count] | SLOWLOG LEN | SLOWLOG RESET
+     * GET returns one entry per line, newest first: id timestamp duration_us client command args...
+     */
+    private String handleSlowLog(StorageEngine storageEngine, String[] parts) {
+        if (parts.length < 2) {
+            return "Invalid SLOWLOG command";
+        }
+        String subcommand = parts[1].toUpperCase();
+        if (subcommand.equals("LEN") && parts.length == 2) {
+            return String.valueOf(slowLog.length());
+        }
+        if (subcommand.equals("RESET") && parts.length == 2) {
+            slowLog.reset();
+            return "OK";
+        }
+        if (subcommand.equals("GET") && parts.length <= 3) {
+            int count = 10;
+            if (parts.length == 3) {
+                try {
+                    count = Integer.parseInt(parts[2]);
+                } catch (NumberFormatException e) {
+                    return "ERR count is not a valid integer";
+                }
+            }
+            List<SlowLog.Entry> entries = slowLog.get(count < 0 ? Integer.MAX_VALUE : count);
+            if (entries.isEmpty()) {
+                return EMPTY_LIST_RESPONSE;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (SlowLog.Entry entry : entries) {
+                sb.append(entry).append("\r\n");
+            }
+            return sb.toString().trim();
+        }
+        return "Invalid SLOWLOG command";
+    }
+
+    /**
+     * Handles HOTKEYS command: HOTKEYS [count]
+     * Returns the hottest keys, hottest first, with their estimated accesses over the last decay
+     * periods, one per line (10 by default)
+     */
+    private String handleHotKeys(StorageEngine storageEngine, String[] parts) {
+        if (parts.length > 2) {
+            return "Invalid HOTKEYS command";
+        }
+        if (!hotKeys.isEnabled()) {
+            return "ERR hot key tracking is disabled";
+        }
+        int count = 10;
+        if (parts.length == 2) {
+            try {
+                count = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                return "ERR count is not a valid integer";
+            }
+        }
+        List<HotKeys.Entry> entries = hotKeys.get(count < 0 ? Integer.MAX_VALUE : count);
+        if (entries.isEmpty()) {
+            return EMPTY_LIST_RESPONSE;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (HotKeys.Entry entry : entries) {
+            sb.append(entry).append("\r\n");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Handles MEMORY command: MEMORY USAGE key
+     * Returns the key's type, encoding, estimated size in bytes and the bytes its encoding saves,
+     * one field per line, or (nil) if the key doesn't exist
+     */
+    private String handleMemory(StorageEngine storageEngine, String[] parts) {
+        if (parts.length != 3 || !parts[1].equalsIgnoreCase("USAGE")) {
+            return "Invalid MEMORY command";
+        }
+        MemoryUsage usage = storageEngine.memoryUsage(parts[2]);
+        if (usage == null) {
+            return NIL_RESPONSE;
+        }
+        return "type:" + usage.getType() + "\r\n"
+                + "encoding:" + usage.getEncoding() + "\r\n"
+                + "bytes:" + usage.getBytes() + "\r\n"
+                + "saved_bytes:" + usage.getSavedBytes();
+    }
 } 
\ No newline at end of file
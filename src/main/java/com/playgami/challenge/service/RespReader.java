@@ -0,0 +1,130 @@
+package com.playgami.challenge.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads commands in the RESP mass-insertion format: arrays of bulk strings, such as
+ * "*3\r\n$3\r\nSET\r\n$3\r\nkey\r\n$5\r\nvalue\r\n". Reads are buffered, so the stream is
+ * consumed incrementally and never held in memory as a whole.
+ */
+class RespReader {
+    // Upper bound of a bulk string, as Redis' proto-max-bulk-len
+    static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+    // Bytes allocated for a bulk string before its data arrives; it grows as the data does, so a
+    // declared length alone never allocates more than this
+    private static final int INITIAL_BULK_CAPACITY = 64 * 1024;
+    private static final int MAX_ARGUMENTS = 1024 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position;
+    private int limit;
+
+    RespReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the arguments of the next command, or null at the end of the stream.
+     * @throws IllegalArgumentException if the stream is not valid RESP
+     */
+    String[] next() throws IOException {
+        int first = read();
+        if (first < 0) {
+            return null;
+        }
+        if (first != '*') {
+            throw new IllegalArgumentException("expected '*', got '" + (char) first + "'");
+        }
+        long count = readLength();
+        if (count <= 0 || count > MAX_ARGUMENTS) {
+            throw new IllegalArgumentException("invalid argument count " + count);
+        }
+        String[] arguments = new String[(int) count];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = readBulkString();
+        }
+        return arguments;
+    }
+
+    private String readBulkString() throws IOException {
+        int type = read();
+        if (type != '$') {
+            throw new IllegalArgumentException(type < 0 ? "unexpected end of stream" : "expected '$', got '" + (char) type + "'");
+        }
+        long length = readLength();
+        if (length < 0 || length > MAX_BULK_LENGTH) {
+            throw new IllegalArgumentException("invalid bulk length " + length);
+        }
+        byte[] bytes = new byte[(int) Math.min(length, INITIAL_BULK_CAPACITY)];
+        int copied = 0;
+        while (copied < length) {
+            if (position == limit && !fill()) {
+                throw new IllegalArgumentException("unexpected end of stream");
+            }
+            if (copied == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            int chunk = Math.min(limit - position, bytes.length - copied);
+            System.arraycopy(buffer, position, bytes, copied, chunk);
+            position += chunk;
+            copied += chunk;
+        }
+        expect('\r');
+        expect('\n');
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a decimal length terminated by CRLF.
+     */
+    private long readLength() throws IOException {
+        long value = 0;
+        boolean negative = false;
+        int digits = 0;
+        int c = read();
+        if (c == '-') {
+            negative = true;
+            c = read();
+        }
+        while (c >= '0' && c <= '9') {
+            if (++digits > 18) {
+                throw new IllegalArgumentException("length too long");
+            }
+            value = value * 10 + (c - '0');
+            c = read();
+        }
+        if (c != '\r' || digits == 0) {
+            throw new IllegalArgumentException("invalid length");
+        }
+        expect('\n');
+        return negative ? -value : value;
+    }
+
+    private void expect(int expected) throws IOException {
+        int c = read();
+        if (c != expected) {
+            throw new IllegalArgumentException(c < 0 ? "unexpected end of stream" : "malformed line ending");
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+} 
\ No newline at end of file
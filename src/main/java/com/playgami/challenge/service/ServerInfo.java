@@ -0,0 +1,163 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.MemDBStats;
+import com.playgami.challenge.memdb.StorageEngine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the INFO report from the storage engine counters and JVM management beans.
+ * Every value is read from lock-free counters, so polling INFO never blocks command execution.
+ * The memory and stats sections describe the database the report was requested for; the
+ * databases and keyspace sections list every database.
+ */
+public class ServerInfo {
+    public static final String SECTION_SERVER = "server";
+    public static final String SECTION_MEMORY = "memory";
+    public static final String SECTION_STATS = "stats";
+    public static final String SECTION_DATABASES = "databases";
+    public static final String SECTION_KEYSPACE = "keyspace";
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Databases databases;
+
+    public ServerInfo(Databases databases) {
+        this.databases = databases;
+    }
+
+    public String render(String section) {
+        return render(section, databases.get(0));
+    }
+
+    /**
+     * Renders the requested section for a database, or all sections when section is null, "all"
+     * or "default". Returns an empty report for unknown sections, matching Redis.
+     */
+    public String render(String section, StorageEngine storageEngine) {
+        String name = section != null ? section.toLowerCase(Locale.ROOT) : "all";
+        boolean all = name.equals("all") || name.equals("default") || name.equals("everything");
+        StringBuilder sb = new StringBuilder();
+        if (all || name.equals(SECTION_SERVER)) {
+            appendServer(sb, storageEngine);
+        }
+        if (all || name.equals(SECTION_MEMORY)) {
+            appendMemory(sb, storageEngine);
+        }
+        if (all || name.equals(SECTION_STATS)) {
+            appendStats(sb, storageEngine);
+        }
+        if (all || name.equals(SECTION_DATABASES)) {
+            appendDatabases(sb);
+        }
+        if (all || name.equals(SECTION_KEYSPACE)) {
+            appendKeyspace(sb);
+        }
+        return sb.toString().trim();
+    }
+
+    private void appendServer(StringBuilder sb, StorageEngine storageEngine) {
+        long uptimeSeconds = storageEngine.getStats().getUptimeMillis() / 1000;
+        header(sb, "Server");
+        line(sb, "java_version", System.getProperty("java.version"));
+        line(sb, "process_id", ProcessHandle.current().pid());
+        line(sb, "uptime_in_seconds", uptimeSeconds);
+        line(sb, "uptime_in_days", uptimeSeconds / 86400);
+    }
+
+    private void appendMemory(StringBuilder sb, StorageEngine storageEngine) {
+        long used = storageEngine.getCurrentMemoryUsed();
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(sb, "Memory");
+        line(sb, "used_memory", used);
+        line(sb, "used_memory_peak", storageEngine.getStats().getPeakMemoryUsed());
+        line(sb, "maxmemory", storageEngine.getMaxMemory());
+        line(sb, "maxmemory_policy", storageEngine.getEvictionPolicy());
+        // Included in used_memory
+        line(sb, "key_index_bytes", storageEngine.getStats().getKeyIndexBytes());
+        // Keys unlinked or flushed whose memory the background freer has yet to release
+        line(sb, "lazyfree_pending_objects", storageEngine.getStats().getLazyfreePendingObjects());
+        line(sb, "jvm_heap_used", heap.getUsed());
+        line(sb, "jvm_heap_committed", heap.getCommitted());
+        // Heap actually used per accounted byte; a rough analogue of Redis' RSS ratio
+        line(sb, "mem_fragmentation_ratio",
+                used > 0 ? String.format(Locale.ROOT, "%.2f", (double) heap.getUsed() / used) : "0.00");
+    }
+
+    private void appendStats(StringBuilder sb, StorageEngine storageEngine) {
+        MemDBStats stats = storageEngine.getStats();
+        header(sb, "Stats");
+        line(sb, "total_commands_processed", stats.getCommandsProcessed());
+        line(sb, "instantaneous_ops_per_sec", stats.getInstantaneousOpsPerSec());
+        line(sb, "evicted_keys", stats.getEvictedKeys());
+        line(sb, "expired_keys", stats.getExpiredKeys());
+        line(sb, "rejected_writes", stats.getRejectedWrites());
+        line(sb, "keyspace_hits", stats.getKeyspaceHits());
+        line(sb, "keyspace_misses", stats.getKeyspaceMisses());
+        // Evicted keys moved to the disk tier rather than dropped, and spilled keys read back into memory
+        line(sb, "spilled_keys", stats.getSpilledKeys());
+        line(sb, "promoted_keys", stats.getPromotedKeys());
+        line(sb, "lazyfreed_objects", stats.getLazyfreedObjects());
+        // Client-side caching: clients tracking keys, keys remembered for them, and invalidations sent
+        line(sb, "tracking_clients", stats.getTrackingClients());
+        line(sb, "tracking_total_keys", stats.getTrackingKeys());
+        line(sb, "tracking_invalidations", stats.getInvalidationsSent());
+        // Values stored compressed and skipped for a poor ratio, their overall ratio and the time spent in the codec
+        line(sb, "compressed_values", stats.getCompressedValues());
+        line(sb, "compression_skipped", stats.getSkippedCompressions());
+        line(sb, "compression_ratio", String.format(Locale.ROOT, "%.2f", stats.getCompressionRatio()));
+        line(sb, "compression_cpu_ms", stats.getCompressionMillis());
+        line(sb, "decompression_cpu_ms", stats.getDecompressionMillis());
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = gc.getName().toLowerCase(Locale.ROOT).replace(' ', '_');
+            line(sb, "gc_" + name + "_count", gc.getCollectionCount());
+            line(sb, "gc_" + name + "_time_ms", gc.getCollectionTime());
+        }
+    }
+
+    // One line per database, to compare their memory use and evictions against their quotas
+    private void appendDatabases(StringBuilder sb) {
+        header(sb, "Databases");
+        List<StorageEngine> engines = databases.all();
+        for (int index = 0; index < engines.size(); index++) {
+            StorageEngine engine = engines.get(index);
+            MemDBStats stats = engine.getStats();
+            line(sb, "db" + index, "used_memory=" + engine.getCurrentMemoryUsed()
+                    + ",maxmemory=" + engine.getMaxMemory()
+                    + ",maxmemory_policy=" + engine.getEvictionPolicy()
+                    + ",evicted_keys=" + stats.getEvictedKeys()
+                    + ",rejected_writes=" + stats.getRejectedWrites()
+                    + ",keyspace_hits=" + stats.getKeyspaceHits()
+                    + ",keyspace_misses=" + stats.getKeyspaceMisses());
+        }
+    }
+
+    private void appendKeyspace(StringBuilder sb) {
+        header(sb, "Keyspace");
+        List<StorageEngine> engines = databases.all();
+        for (int index = 0; index < engines.size(); index++) {
+            StringBuilder db = new StringBuilder();
+            long total = 0;
+            for (Map.Entry<String, Long> entry : engines.get(index).keyCountsByType().entrySet()) {
+                db.append(',').append(entry.getKey()).append('=').append(entry.getValue());
+                total += entry.getValue();
+            }
+            line(sb, "db" + index, "keys=" + total + db);
+        }
+    }
+
+    private static void header(StringBuilder sb, String title) {
+        if (sb.length() > 0) {
+            sb.append(LINE_SEPARATOR);
+        }
+        sb.append("# ").append(title).append(LINE_SEPARATOR);
+    }
+
+    private static void line(StringBuilder sb, String name, Object value) {
+        sb.append(name).append(':').append(value).append(LINE_SEPARATOR);
+    }
+}
@@ -0,0 +1,144 @@
+package com.playgami.challenge.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free log of commands whose execution time exceeded a threshold.
+ * Writers claim a sequence number and overwrite the oldest slot of a ring buffer,
+ * so recording never blocks and the fast path is a single comparison.
+ */
+@Component
+public class SlowLog {
+    // Same limits as Redis: at most 32 arguments of at most 128 characters are kept
+    static final int MAX_ARGS = 32;
+    static final int MAX_ARG_LENGTH = 128;
+
+    private final long thresholdNanos;
+    private final int maxLen;
+    private final AtomicReferenceArray<Entry> entries;
+    // Sequence number of the next entry to be written
+    private final AtomicLong nextId = new AtomicLong();
+    // Entries with a lower id were discarded by SLOWLOG RESET
+    private final AtomicLong firstValidId = new AtomicLong();
+
+    public SlowLog(@Value("${memdb.slowlog.log-slower-than:10000}") long thresholdMicros,
+                   @Value("${memdb.slowlog.max-len:128}") int maxLen) {
+        if (maxLen <= 0) {
+            throw new IllegalArgumentException("Slow log length must be greater than zero");
+        }
+        // A negative threshold disables the slow log
+        this.thresholdNanos = thresholdMicros < 0 ? Long.MAX_VALUE : TimeUnit.MICROSECONDS.toNanos(thresholdMicros);
+        this.maxLen = maxLen;
+        this.entries = new AtomicReferenceArray<>(maxLen);
+    }
+
+    /**
+     * Records a command if it ran for longer than the threshold.
+     */
+    public void record(String[] args, long durationNanos, String client) {
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        long id = nextId.getAndIncrement();
+        Entry entry = new Entry(id, System.currentTimeMillis() / 1000,
+                TimeUnit.NANOSECONDS.toMicros(durationNanos), truncate(args), client);
+        entries.set((int) (id % maxLen), entry);
+    }
+
+    /**
+     * Returns up to count entries, newest first.
+     */
+    public List<Entry> get(int count) {
+        List<Entry> result = new ArrayList<>();
+        long last = nextId.get() - 1;
+        long first = Math.max(firstValidId.get(), last - maxLen + 1);
+        for (long id = last; id >= first && result.size() < count; id--) {
+            Entry entry = entries.get((int) (id % maxLen));
+            // A slot may be stale (writer not done yet) or already reused by a newer entry
+            if (entry != null && entry.id == id) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries currently held.
+     */
+    public long length() {
+        return Math.min(nextId.get() - firstValidId.get(), maxLen);
+    }
+
+    /**
+     * Discards all entries.
+     */
+    public void reset() {
+        firstValidId.set(nextId.get());
+    }
+
+    private static String[] truncate(String[] args) {
+        int kept = Math.min(args.length, MAX_ARGS);
+        String[] result = Arrays.copyOf(args, kept);
+        for (int i = 0; i < kept; i++) {
+            if (result[i].length() > MAX_ARG_LENGTH) {
+                int extra = result[i].length() - MAX_ARG_LENGTH;
+                result[i] = result[i].substring(0, MAX_ARG_LENGTH) + "... (" + extra + " more characters)";
+            }
+        }
+        if (args.length > MAX_ARGS) {
+            // Replace the last kept argument with a marker, like Redis does
+            result[kept - 1] = "... (" + (args.length - kept + 1) + " more arguments)";
+        }
+        return result;
+    }
+
+    public static final class Entry {
+        private final long id;
+        private final long timestampSeconds;
+        private final long durationMicros;
+        private final String[] args;
+        private final String client;
+
+        Entry(long id, long timestampSeconds, long durationMicros, String[] args, String client) {
+            this.id = id;
+            this.timestampSeconds = timestampSeconds;
+            this.durationMicros = durationMicros;
+            this.args = args;
+            this.client = client;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getTimestampSeconds() {
+            return timestampSeconds;
+        }
+
+        public long getDurationMicros() {
+            return durationMicros;
+        }
+
+        public String[] getArgs() {
+            return args.clone();
+        }
+
+        public String getClient() {
+            return client;
+        }
+
+        @Override
+        public String toString() {
+            return id + " " + timestampSeconds + " " + durationMicros + " "
+                    + (client != null ? client : "-") + " " + String.join(" ", args);
+        }
+    }
+} 
\ No newline at end of file
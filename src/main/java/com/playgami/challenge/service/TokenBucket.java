@@ -0,0 +1,54 @@
+package com.playgami.challenge.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket refilled at a steady rate up to its capacity. Rather than a token count and a
+ * refill time, it keeps the single instant at which it will be full again: the tokens available
+ * are the time left until then, so taking tokens is one compare-and-set and never blocks.
+ */
+public class TokenBucket {
+    private final long capacity;
+    private final long nanosPerToken;
+    // Time the bucket needs to refill from empty
+    private final long capacityNanos;
+    // Instant at which the bucket is full again; at or before now, it is full
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, long capacity, long nowNanos) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Token bucket rate and capacity must be greater than zero");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.capacityNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes tokens from the bucket, at most its capacity. Returns 0 if they were taken, otherwise
+     * the nanoseconds until enough tokens are available, leaving the bucket untouched.
+     */
+    public long tryTake(long tokens, long nowNanos) {
+        long cost = Math.min(tokens, capacity) * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + cost;
+            long wait = next - capacityNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the bucket is full, so that forgetting it changes nothing.
+     */
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() <= nowNanos;
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.playgami.challenge.service;
+
+import java.util.Locale;
+
+/**
+ * Formats of bulk imports and exports.
+ * NDJSON has one JSON record per line; RESP is the Redis protocol mass-insertion format,
+ * a stream of SET, ZADD and HSET commands as produced by redis-cli --pipe tooling.
+ */
+public enum TransferFormat {
+    NDJSON, RESP;
+
+    /**
+     * Parses a format name, ignoring case.
+     * @throws IllegalArgumentException if the name is not a known format
+     */
+    public static TransferFormat parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + name + " (expected ndjson or resp)");
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,215 @@
+package com.playgami.challenge.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+class NearCacheClientTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void servesRepeatedReadsFromTheCacheUntilInvalidated() throws Exception {
+        set("near_a", "1");
+        try (NearCacheClient client = new NearCacheClient(baseUri(), 100)) {
+            assertTrue(client.awaitConnected(5, TimeUnit.SECONDS));
+            assertEquals("1", client.get("near_a"));
+            assertEquals("1", client.get("near_a"));
+            assertNull(client.get("near_missing"));
+            assertNull(client.get("near_missing"));
+            assertEquals(2, client.getHits());
+            assertEquals(2, client.getMisses());
+
+            // Written by another client
+            set("near_a", "2");
+            await(() -> client.size() == 1);
+            assertEquals("2", client.get("near_a"));
+        }
+    }
+
+    @Test
+    void doesNotCacheAReplyRacingAnInvalidation() throws Exception {
+        set("near_race", "old");
+        AtomicBoolean race = new AtomicBoolean(true);
+        try (NearCacheClient client = new NearCacheClient(baseUri(), 100) {
+            @Override
+            String fetch(String key, String id) throws IOException, InterruptedException {
+                String value = super.fetch(key, id);
+                if (race.getAndSet(false)) {
+                    // Written after the server read the value, and invalidated before it is cached
+                    set(key, "new");
+                    await(() -> size() == 0);
+                }
+                return value;
+            }
+        }) {
+            assertTrue(client.awaitConnected(5, TimeUnit.SECONDS));
+            // The reply is returned, but the invalidation removed its in-flight mark
+            assertEquals("old", client.get("near_race"));
+            assertEquals(0, client.size());
+
+            assertEquals("new", client.get("near_race"));
+            assertEquals("new", client.get("near_race"));
+            assertEquals(1, client.getHits());
+            assertEquals(2, client.getMisses());
+        }
+    }
+
+    @Test
+    void dropsTheCacheWhenTheStreamDropsAndReconnects() throws Exception {
+        set("near_drop", "1");
+        try (Proxy proxy = new Proxy(baseUri().getPort());
+             NearCacheClient client = new NearCacheClient(proxy.uri(), 100)) {
+            assertTrue(client.awaitConnected(5, TimeUnit.SECONDS));
+            assertEquals("1", client.get("near_drop"));
+            assertEquals(1, client.size());
+
+            proxy.cutStreams();
+            // Invalidations may have been missed while the stream was down
+            await(() -> client.size() == 0);
+
+            // Reads are cached again once the client has reconnected, and invalidated again
+            await(() -> "1".equals(client.get("near_drop")) && client.size() == 1);
+            set("near_drop", "2");
+            await(() -> client.size() == 0);
+            assertEquals("2", client.get("near_drop"));
+        }
+    }
+
+    @Test
+    void broadcastCachesOnlyKeysUnderItsPrefixes() throws Exception {
+        set("hot_a", "1");
+        set("cold_a", "1");
+        try (NearCacheClient client = NearCacheClient.broadcast(baseUri(), 100, List.of("hot_"))) {
+            assertTrue(client.awaitConnected(5, TimeUnit.SECONDS));
+            client.get("hot_a");
+            client.get("hot_a");
+            client.get("cold_a");
+            client.get("cold_a");
+            assertEquals(1, client.getHits());
+            assertEquals(3, client.getMisses());
+            assertEquals(1, client.size());
+
+            // Told of the change although the server never recorded the read
+            set("hot_a", "2");
+            await(() -> client.size() == 0);
+            assertEquals("2", client.get("hot_a"));
+        }
+    }
+
+    private URI baseUri() {
+        return URI.create(restTemplate.getRootUri());
+    }
+
+    private void set(String key, String value) {
+        assertEquals("OK", restTemplate.postForObject("/set?key=" + key + "&value=" + value, null, String.class));
+    }
+
+    private static void await(Condition condition) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean test() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Forwards connections to the server, and cuts those that carried an invalidation stream on
+     * request, as a network failure would.
+     */
+    private static final class Proxy implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final int targetPort;
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        private final List<Socket> streams = new CopyOnWriteArrayList<>();
+
+        Proxy(int targetPort) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.targetPort = targetPort;
+            Thread acceptor = new Thread(this::accept, "near-cache-test-proxy");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        URI uri() {
+            return URI.create("http://127.0.0.1:" + serverSocket.getLocalPort());
+        }
+
+        void cutStreams() throws IOException {
+            for (Socket socket : streams) {
+                socket.close();
+            }
+            streams.clear();
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket(InetAddress.getLoopbackAddress(), targetPort);
+                    sockets.add(client);
+                    sockets.add(server);
+                    forward(client, server, true);
+                    forward(server, client, false);
+                }
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+
+        private void forward(Socket from, Socket to, boolean requests) {
+            Thread thread = new Thread(() -> {
+                byte[] buffer = new byte[8192];
+                try (from; to) {
+                    InputStream in = from.getInputStream();
+                    OutputStream out = to.getOutputStream();
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        if (requests && new String(buffer, 0, read, StandardCharsets.ISO_8859_1).startsWith("GET /tracking")) {
+                            streams.add(from);
+                        }
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // Either side closed; closing both ends the other direction too
+                }
+            }, "near-cache-test-proxy-forward");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+} 
\ No newline at end of file
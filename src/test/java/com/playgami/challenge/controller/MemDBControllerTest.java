@@ -1,6 +1,7 @@
 package com.playgami.challenge.controller;
 
 import com.playgami.challenge.memdb.StorageEngine;
+import com.playgami.challenge.service.ClientTracking;
 import com.playgami.challenge.service.MemDBCommandService;
 import com.playgami.challenge.service.CommandResult;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,12 +15,18 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -37,6 +44,9 @@ class MemDBControllerTest {
     @MockBean
     private MemDBCommandService memDBCommandService;
 
+    @MockBean
+    private ClientTracking clientTracking;
+
     @BeforeEach
     void setUp() {
         // Default successful responses
@@ -52,7 +62,7 @@ class MemDBControllerTest {
         when(storageEngine.zrange(anyString(), anyLong(), anyLong())).thenReturn(Arrays.asList("value1", "value2"));
 
         // Mock MemDBCommandService responses
-        when(memDBCommandService.executeCommand(anyString())).thenAnswer(invocation -> {
+        when(memDBCommandService.executeCommand(anyString(), anyString(), anyInt())).thenAnswer(invocation -> {
             String cmd = invocation.getArgument(0);
             if (cmd.contains("EX -1") || cmd.contains("EX 0")) {
                 return new CommandResult("EX seconds must be greater than zero", true);
@@ -103,6 +113,27 @@ class MemDBControllerTest {
                 .andExpect(content().string("Invalid EX seconds value"));
     }
 
+    @Test
+    void flushAllFlushesEveryDatabase() throws Exception {
+        mockMvc.perform(post("/flushall").param("async", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("OK"));
+
+        verify(memDBCommandService).flushAll(true);
+        verify(storageEngine, never()).flush(anyBoolean());
+    }
+
+    @Test
+    void restCallsCountOneCommandEach() throws Exception {
+        mockMvc.perform(post("/set").param("key", "key").param("value", "value"))
+                .andExpect(status().isOk());
+        // The command service counts the commands sent to the command endpoint
+        mockMvc.perform(get("/").param("cmd", "GET key"))
+                .andExpect(status().isOk());
+
+        verify(storageEngine, times(1)).recordCommand();
+    }
+
     @Test
     void incrWithInvalidValue() throws Exception {
         // Mock storage to return non-numeric value
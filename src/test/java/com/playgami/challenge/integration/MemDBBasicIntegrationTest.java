@@ -109,4 +109,26 @@ class MemDBBasicIntegrationTest {
         zrangeResponse = restTemplate.getForObject("http://localhost:8080/zrange?key=scores&start=10&end=20", String.class);
         assertEquals("[]", zrangeResponse);
     }
+
+    @Test
+    void testLeaderboardQueries() {
+        restTemplate.postForObject("http://localhost:8080/zadd?key=leaderboard&score=1450&value=player1", null, String.class);
+        restTemplate.postForObject("http://localhost:8080/zadd?key=leaderboard&score=1550&value=player2", null, String.class);
+        restTemplate.postForObject("http://localhost:8080/zadd?key=leaderboard&score=1650&value=player3", null, String.class);
+
+        String zincrbyResponse = restTemplate.postForObject("http://localhost:8080/zincrby?key=leaderboard&increment=100&value=player1", null, String.class);
+        assertEquals("1550", zincrbyResponse);
+
+        assertEquals("1550", restTemplate.getForObject("http://localhost:8080/zscore?key=leaderboard&value=player1", String.class));
+        assertEquals("0", restTemplate.getForObject("http://localhost:8080/zrevrank?key=leaderboard&value=player3", String.class));
+        assertEquals("2", restTemplate.getForObject("http://localhost:8080/zcount?key=leaderboard&min=1500&max=1600", String.class));
+
+        String zrangeByScoreResponse = restTemplate.getForObject(
+            "http://localhost:8080/zrangebyscore?key=leaderboard&min=1500&max=(1650&withscores=true", String.class);
+        assertEquals("[\"player1\",\"1550\",\"player2\",\"1550\"]", zrangeByScoreResponse);
+
+        // Edge case: Invalid score bound
+        ResponseEntity<String> response = restTemplate.getForEntity("http://localhost:8080/zcount?key=leaderboard&min=abc&max=1600", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.playgami.challenge.integration;
+
+import com.playgami.challenge.Application;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the server in a fresh JVM with the fast-startup profile, as an autoscaler does, and
+ * reports the time from launch to the first command served. The bound is loose, as CI machines
+ * vary; it catches regressions such as an expensive bean made eager, not small drifts. Override it
+ * with -Dmemdb.startup.max-first-command-millis.
+ * Run by ./gradlew startupTest, it starts the layout cdsArchive builds, with the AOT context and the
+ * class data sharing archive, as production does. Run with the other tests, it starts the server
+ * from the test classpath, and so covers the profile's lazy initialization only.
+ */
+class StartupTimeTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeTest.class);
+    private static final long MAX_FIRST_COMMAND_MILLIS = Long.getLong("memdb.startup.max-first-command-millis", 15_000);
+    // Directory of the fast-startup layout, set by the startupTest task
+    private static final String CDS_DIRECTORY = System.getProperty("memdb.startup.cds-dir");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFirstCommandServedWithinBudget() throws Exception {
+        int port = freePort();
+        Path log = tempDir.resolve("server.log");
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/?cmd=SET%20startup%20ok")).GET().build();
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        ProcessBuilder builder = new ProcessBuilder(command);
+        if (CDS_DIRECTORY != null) {
+            command.addAll(List.of("-XX:SharedArchiveFile=MemDB.jsa", "-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=fast-startup", "-jar", "MemDB.jar"));
+            builder.directory(new File(CDS_DIRECTORY));
+        } else {
+            command.addAll(List.of("-cp", mainClasspath(), "-Dspring.profiles.active=fast-startup",
+                    Application.class.getName()));
+        }
+        command.add("--server.port=" + port);
+
+        long launched = System.nanoTime();
+        Process server = builder
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = launched + TimeUnit.MILLISECONDS.toNanos(MAX_FIRST_COMMAND_MILLIS);
+            String response = null;
+            while (response == null && System.nanoTime() < deadline && server.isAlive()) {
+                try {
+                    response = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+                } catch (IOException e) {
+                    // Not listening yet, or the connection dropped while the server was starting
+                    Thread.sleep(10);
+                }
+            }
+            long firstCommandMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+            assertNotNull(response, "No command served within " + MAX_FIRST_COMMAND_MILLIS + " ms:\n" + Files.readString(log));
+            assertEquals("OK", response);
+            logger.info("First command served {} ms after launch, {}", firstCommandMillis,
+                    CDS_DIRECTORY != null ? "with AOT and class data sharing" : "from the classpath");
+        } finally {
+            server.destroy();
+            server.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Returns the classpath of the test JVM without the test classes, which would replace beans of the server.
+     */
+    private static String mainClasspath() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> !Paths.get(entry).endsWith("test"))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+} 
\ No newline at end of file
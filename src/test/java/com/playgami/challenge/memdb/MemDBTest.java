@@ -5,7 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -150,6 +157,425 @@ class MemDBTest {
         assertEquals(1, storageEngine.zrank("scores", "player2"));
     }
 
+    @Test
+    void testZAddUpdatesExistingMember() {
+        storageEngine.zadd("leaderboard", 100.0, "player1");
+        storageEngine.zadd("leaderboard", 100.0, "player2");
+        storageEngine.zadd("leaderboard", 300.0, "player1");
+
+        // Members are unique and equal scores are ordered by member
+        assertEquals(2, storageEngine.zcard("leaderboard"));
+        assertEquals(300.0, storageEngine.zscore("leaderboard", "player1").doubleValue());
+        assertEquals(List.of("player2", "player1"), storageEngine.zrange("leaderboard", 0, 1));
+    }
+
+    @Test
+    void testZRevRankAndZScore() {
+        storageEngine.zadd("leaderboard", 1500.0, "player1");
+        storageEngine.zadd("leaderboard", 1600.0, "player2");
+        storageEngine.zadd("leaderboard", 1400.0, "player3");
+
+        assertEquals(0, storageEngine.zrevrank("leaderboard", "player2"));
+        assertEquals(2, storageEngine.zrevrank("leaderboard", "player3"));
+        assertNull(storageEngine.zrevrank("leaderboard", "nonexistent"));
+        assertEquals(1500.0, storageEngine.zscore("leaderboard", "player1").doubleValue());
+        assertNull(storageEngine.zscore("leaderboard", "nonexistent"));
+        assertNull(storageEngine.zscore("nonexistent", "player1"));
+    }
+
+    @Test
+    void testZIncrBy() {
+        assertEquals(10.0, storageEngine.zincrby("leaderboard", 10.0, "player1"));
+        assertEquals(25.5, storageEngine.zincrby("leaderboard", 15.5, "player1"));
+        storageEngine.zadd("leaderboard", 20.0, "player2");
+
+        assertEquals(1, storageEngine.zrank("leaderboard", "player1"));
+        assertEquals(2, storageEngine.zcard("leaderboard"));
+    }
+
+    @Test
+    void testZIncrByRejectsOverflowAndNormalizesNegativeZero() {
+        MemDB memDB = (MemDB) storageEngine;
+        storageEngine.zadd("leaderboard", Double.MAX_VALUE, "player1");
+        long before = memDB.getCurrentMemoryUsed();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> storageEngine.zincrby("leaderboard", Double.MAX_VALUE, "player1"));
+        assertEquals(Double.MAX_VALUE, storageEngine.zscore("leaderboard", "player1").doubleValue());
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+        // A rejected new member hands back the memory reserved for it
+        assertThrows(IllegalArgumentException.class,
+                () -> storageEngine.zincrby("leaderboard", Double.NaN, "player3"));
+        assertNull(storageEngine.zscore("leaderboard", "player3"));
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+
+        assertEquals(0.0, storageEngine.zincrby("leaderboard", -0.0, "player2"));
+        assertEquals(Double.valueOf(0.0), storageEngine.zscore("leaderboard", "player2"));
+    }
+
+    @Test
+    void testZRangeByScoreAndZCount() {
+        storageEngine.zadd("leaderboard", 1450.0, "player1");
+        storageEngine.zadd("leaderboard", 1500.0, "player2");
+        storageEngine.zadd("leaderboard", 1550.0, "player3");
+        storageEngine.zadd("leaderboard", 1600.0, "player4");
+        storageEngine.zadd("leaderboard", 1650.0, "player5");
+
+        List<Map.Entry<String, Double>> window = storageEngine.zrangeByScore("leaderboard", ScoreRange.parse("1500", "1600"));
+        assertEquals(List.of("player2", "player3", "player4"), window.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        assertEquals(1500.0, window.get(0).getValue().doubleValue());
+
+        assertEquals(3, storageEngine.zcount("leaderboard", ScoreRange.parse("1500", "1600")));
+        assertEquals(1, storageEngine.zcount("leaderboard", ScoreRange.parse("(1500", "(1600")));
+        assertEquals(5, storageEngine.zcount("leaderboard", ScoreRange.parse("-inf", "+inf")));
+        assertEquals(0, storageEngine.zcount("leaderboard", ScoreRange.parse("1600", "1500")));
+        assertEquals(0, storageEngine.zcount("nonexistent", ScoreRange.parse("-inf", "+inf")));
+        assertThrows(IllegalArgumentException.class, () -> ScoreRange.parse("abc", "1600"));
+    }
+
+    @Test
+    void testMemoryUsageReportsPackedSortedSetSavings() {
+        for (int i = 0; i < 10; i++) {
+            storageEngine.zadd("match", i, "player" + i);
+        }
+        MemoryUsage usage = storageEngine.memoryUsage("match");
+        assertEquals("zset", usage.getType());
+        assertEquals("packed", usage.getEncoding());
+        assertTrue(usage.getSavedBytes() > usage.getBytes());
+
+        // Past the entry threshold the set is indexed and saves nothing
+        for (int i = 10; i <= SortedSetValue.DEFAULT_MAX_PACKED_ENTRIES; i++) {
+            storageEngine.zadd("match", i, "player" + i);
+        }
+        usage = storageEngine.memoryUsage("match");
+        assertEquals("indexed", usage.getEncoding());
+        assertEquals(0, usage.getSavedBytes());
+        assertEquals(List.of("player0", "player1"), storageEngine.zrange("match", 0, 1));
+
+        storageEngine.set("test", "value");
+        assertEquals("string", storageEngine.memoryUsage("test").getType());
+        assertNull(storageEngine.memoryUsage("nonexistent"));
+    }
+
+    @Test
+    void testHashCommands() {
+        assertEquals(2, storageEngine.hset("profile:1", Map.of("name", "alice", "level", "7")));
+        assertEquals(0, storageEngine.hset("profile:1", Map.of("level", "8")));
+
+        assertEquals("alice", storageEngine.hget("profile:1", "name"));
+        assertEquals("8", storageEngine.hget("profile:1", "level"));
+        assertNull(storageEngine.hget("profile:1", "nonexistent"));
+        assertNull(storageEngine.hget("nonexistent", "name"));
+        assertEquals(Arrays.asList("alice", null), storageEngine.hmget("profile:1", List.of("name", "guild")));
+        assertEquals(Map.of("name", "alice", "level", "8"), storageEngine.hgetall("profile:1"));
+        assertTrue(storageEngine.hgetall("nonexistent").isEmpty());
+
+        assertEquals(18, storageEngine.hincrby("profile:1", "level", 10));
+        assertEquals(5, storageEngine.hincrby("profile:1", "coins", 5));
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.hincrby("profile:1", "name", 1));
+
+        // The whole hash is a single key
+        assertEquals(1, storageEngine.dbSize());
+        assertEquals(1L, storageEngine.keyCountsByType().get("hash"));
+        assertEquals(0L, storageEngine.keyCountsByType().get("string"));
+        assertTrue(storageEngine.del("profile:1"));
+        assertNull(storageEngine.hget("profile:1", "name"));
+        assertEquals(0L, storageEngine.keyCountsByType().get("hash"));
+    }
+
+    @Test
+    void testHashWrongType() {
+        storageEngine.set("test", "value");
+        storageEngine.hset("profile:1", Map.of("name", "alice"));
+
+        assertThrows(WrongTypeException.class, () -> storageEngine.hget("test", "name"));
+        assertThrows(WrongTypeException.class, () -> storageEngine.hset("test", Map.of("name", "alice")));
+        assertThrows(WrongTypeException.class, () -> storageEngine.get("profile:1"));
+        assertThrows(WrongTypeException.class, () -> storageEngine.incr("profile:1"));
+
+        // SET replaces a hash, as in Redis
+        storageEngine.set("profile:1", "value");
+        assertEquals("value", storageEngine.get("profile:1"));
+        assertEquals(0L, storageEngine.keyCountsByType().get("hash"));
+    }
+
+    @Test
+    void testSortedSetAndStructureWrongType() {
+        MemDB memDB = (MemDB) storageEngine;
+        storageEngine.hset("profile:1", Map.of("name", "alice"));
+        storageEngine.zadd("leaderboard", 1.0, "player1");
+        storageEngine.setbit("online", 7, 1);
+        long before = memDB.getCurrentMemoryUsed();
+
+        assertThrows(WrongTypeException.class, () -> storageEngine.zadd("profile:1", 1.0, "player1"));
+        assertThrows(WrongTypeException.class, () -> storageEngine.zincrby("profile:1", 1.0, "player1"));
+        assertThrows(WrongTypeException.class, () -> storageEngine.hset("leaderboard", Map.of("name", "alice")));
+        assertThrows(WrongTypeException.class, () -> storageEngine.pfadd("leaderboard", List.of("alice")));
+        assertThrows(WrongTypeException.class, () -> storageEngine.setbit("leaderboard", 1, 1));
+        assertThrows(WrongTypeException.class, () -> storageEngine.tsAdd("leaderboard", 1_000, 1));
+        assertThrows(WrongTypeException.class,
+                () -> storageEngine.bitop(BitOperation.OR, "leaderboard", List.of("online")));
+
+        // Each key still holds one value, and nothing stayed reserved for the rejected writes
+        assertEquals(0, storageEngine.zcard("profile:1"));
+        assertEquals(List.of("player1"), storageEngine.zrange("leaderboard", 0, 1));
+        assertEquals(1L, storageEngine.keyCountsByType().get("hash"));
+        assertEquals(1L, storageEngine.keyCountsByType().get("bitmap"));
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testHashMemoryAccounting() {
+        MemDB memDB = (MemDB) storageEngine;
+        long before = memDB.getCurrentMemoryUsed();
+        storageEngine.hset("profile:1", Map.of("name", "alice"));
+        // Key, field and value
+        assertEquals(before + 9 + 4 + 5, memDB.getCurrentMemoryUsed());
+        storageEngine.hincrby("profile:1", "level", 10);
+        assertEquals(before + 9 + 4 + 5 + 5 + 2, memDB.getCurrentMemoryUsed());
+
+        MemoryUsage usage = storageEngine.memoryUsage("profile:1");
+        assertEquals("hash", usage.getType());
+        assertEquals("packed", usage.getEncoding());
+        assertTrue(usage.getSavedBytes() > 0);
+
+        storageEngine.del("profile:1");
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testHyperLogLogCommands() {
+        assertTrue(storageEngine.pfadd("players:eu", List.of("alice", "bob", "carol")));
+        assertFalse(storageEngine.pfadd("players:eu", List.of("alice")));
+        assertTrue(storageEngine.pfadd("players:us", List.of("carol", "dave")));
+        assertTrue(storageEngine.pfadd("players:asia", List.of()));
+
+        assertEquals(3, storageEngine.pfcount(List.of("players:eu")));
+        assertEquals(4, storageEngine.pfcount(List.of("players:eu", "players:us", "nonexistent")));
+        assertEquals(0, storageEngine.pfcount(List.of("nonexistent")));
+
+        storageEngine.pfmerge("players:all", List.of("players:eu", "players:us"));
+        assertEquals(4, storageEngine.pfcount(List.of("players:all")));
+        assertEquals(4L, storageEngine.keyCountsByType().get("hyperloglog"));
+        assertEquals("sparse", storageEngine.memoryUsage("players:all").getEncoding());
+
+        storageEngine.set("test", "value");
+        assertThrows(WrongTypeException.class, () -> storageEngine.pfadd("test", List.of("alice")));
+        assertThrows(WrongTypeException.class, () -> storageEngine.get("players:eu"));
+    }
+
+    @Test
+    void testHyperLogLogMemoryAccounting() {
+        MemDB memDB = (MemDB) storageEngine;
+        long before = memDB.getCurrentMemoryUsed();
+        for (int i = 0; i < 10_000; i++) {
+            storageEngine.pfadd("players", List.of("player" + i));
+        }
+        // A dense counter is charged its 12KB of registers, whatever the cardinality
+        assertEquals(before + "players".length() + HyperLogLog.DENSE_BYTES, memDB.getCurrentMemoryUsed());
+        assertEquals(10_000, storageEngine.pfcount(List.of("players")), 300);
+
+        storageEngine.del("players");
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+        assertEquals(0L, storageEngine.keyCountsByType().get("hyperloglog"));
+    }
+
+    @Test
+    void testBitmapCommands() {
+        assertEquals(0, storageEngine.setbit("online", 5, 1));
+        assertEquals(1, storageEngine.setbit("online", 5, 1));
+        storageEngine.setbit("online", 100, 1);
+        assertEquals(1, storageEngine.getbit("online", 100));
+        assertEquals(0, storageEngine.getbit("online", 99));
+        assertEquals(0, storageEngine.getbit("missing", 3));
+        assertEquals(2, storageEngine.bitcount("online", 0, -1, false));
+        assertEquals(1, storageEngine.bitcount("online", 1, -1, false));
+        assertEquals(1, storageEngine.bitcount("online", 0, 7, true));
+        assertEquals(0, storageEngine.bitcount("missing", 0, -1, false));
+
+        storageEngine.setbit("paying", 5, 1);
+        assertEquals(13, storageEngine.bitop(BitOperation.AND, "both", List.of("online", "paying")));
+        assertEquals(1, storageEngine.bitcount("both", 0, -1, false));
+        // A missing source reads as zeros, so AND with it is empty but as long as the longest source
+        assertEquals(13, storageEngine.bitop(BitOperation.AND, "both", List.of("online", "missing")));
+        assertEquals(0, storageEngine.bitcount("both", 0, -1, false));
+        // BITOP replaces a destination of another type, and an empty result deletes it
+        storageEngine.set("text", "value");
+        assertEquals(13, storageEngine.bitop(BitOperation.OR, "text", List.of("online")));
+        assertEquals(2, storageEngine.bitcount("text", 0, -1, false));
+        assertEquals(0, storageEngine.bitop(BitOperation.NOT, "text", List.of("missing")));
+        assertNull(storageEngine.get("text"));
+
+        assertEquals(3L, storageEngine.keyCountsByType().get("bitmap"));
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.setbit("online", -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.setbit("online", 1L << 32, 1));
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.setbit("online", 1, 2));
+        storageEngine.set("name", "alice");
+        assertThrows(WrongTypeException.class, () -> storageEngine.setbit("name", 1, 1));
+        assertThrows(WrongTypeException.class, () -> storageEngine.get("online"));
+    }
+
+    @Test
+    void testBitmapMemoryAccounting() {
+        MemDB memDB = (MemDB) storageEngine;
+        long before = memDB.getCurrentMemoryUsed();
+        // One flag per player id costs a bit each, instead of a key per player
+        for (int id = 0; id < 10_000; id++) {
+            storageEngine.setbit("flags", id, 1);
+        }
+        MemoryUsage usage = storageEngine.memoryUsage("flags");
+        long charged = memDB.getCurrentMemoryUsed() - before;
+        assertTrue(charged >= "flags".length() + 10_000 / 8);
+        assertTrue(charged < "flags".length() + 2 * 10_000 / 8);
+        assertEquals("bitmap", usage.getType());
+        assertEquals(10_000, storageEngine.bitcount("flags", 0, -1, false));
+
+        storageEngine.bitop(BitOperation.NOT, "inverse", List.of("flags"));
+        storageEngine.del("flags");
+        storageEngine.del("inverse");
+        assertEquals(before, memDB.getCurrentMemoryUsed());
+        assertEquals(0L, storageEngine.keyCountsByType().get("bitmap"));
+    }
+
+    @Test
+    void testTimeSeriesCommands() {
+        storageEngine.tsAdd("ccu", 1_000, 10);
+        storageEngine.tsAdd("ccu", 2_000, 30);
+        storageEngine.tsAdd("ccu", 61_000, 20);
+        assertEquals(List.of(new TimeSeries.Sample(2_000, 30), new TimeSeries.Sample(61_000, 20)),
+                storageEngine.tsRange("ccu", 1_500, Long.MAX_VALUE));
+        assertEquals(List.of(new TimeSeries.Sample(0, 20), new TimeSeries.Sample(60_000, 20)),
+                storageEngine.tsAggregate("ccu", 0, Long.MAX_VALUE, TimeSeries.Aggregation.AVG, 60_000));
+        assertTrue(storageEngine.tsRange("missing", 0, Long.MAX_VALUE).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.tsAdd("ccu", 2_000, 5));
+        assertEquals(1L, storageEngine.keyCountsByType().get("timeseries"));
+        assertEquals("timeseries", storageEngine.memoryUsage("ccu").getType());
+
+        storageEngine.set("name", "alice");
+        assertThrows(WrongTypeException.class, () -> storageEngine.tsAdd("name", 1_000, 1));
+        assertThrows(WrongTypeException.class, () -> storageEngine.get("ccu"));
+    }
+
+    @Test
+    void testMset() {
+        storageEngine.set("a", "old");
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("a", "1");
+        entries.put("b", "22");
+        long used = storageEngine.getCurrentMemoryUsed();
+        storageEngine.mset(entries);
+        assertEquals("1", storageEngine.get("a"));
+        assertEquals("22", storageEngine.get("b"));
+        assertEquals(used - "old".length() + "1".length() + "b".length() + "22".length(), storageEngine.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testScanReturnsEveryKeyOnce() {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            storageEngine.set("player:" + i, "v");
+            expected.add("player:" + i);
+        }
+        storageEngine.zadd("board", 1, "alice");
+        storageEngine.hset("profile", Map.of("name", "alice"));
+        expected.add("board");
+        expected.add("profile");
+
+        List<String> seen = new ArrayList<>();
+        String cursor = "0";
+        int calls = 0;
+        do {
+            ScanResult<String> page = storageEngine.scan(cursor, null, 7, null);
+            assertTrue(page.getItems().size() <= 8);
+            seen.addAll(page.getItems());
+            cursor = page.getCursor();
+            // Keys added during the iteration may or may not be returned, but never disturb it
+            storageEngine.set("late:" + calls++, "v");
+        } while (!cursor.equals("0"));
+        assertEquals(seen.size(), new HashSet<>(seen).size());
+        Set<String> original = seen.stream().filter(key -> !key.startsWith("late:")).collect(Collectors.toSet());
+        assertEquals(expected, original);
+    }
+
+    @Test
+    void testScanFiltersByPatternAndType() {
+        storageEngine.set("player:1", "v");
+        storageEngine.set("player:2", "v");
+        storageEngine.set("match:1", "v");
+        storageEngine.zadd("player:board", 1, "alice");
+        storageEngine.del("player:2");
+
+        Set<String> matched = new HashSet<>(storageEngine.scan("0", "player:*", 1000, null).getItems());
+        assertEquals(Set.of("player:1", "player:board"), matched);
+        assertEquals(List.of("player:board"), storageEngine.scan("0", "player:*", 1000, "zset").getItems());
+        assertEquals("0", storageEngine.scan("0", null, 1000, null).getCursor());
+    }
+
+    @Test
+    void testZscanPagesThroughMembersInOrder() {
+        for (int i = 0; i < 100; i++) {
+            storageEngine.zadd("board", i % 10, "member" + i);
+        }
+        List<String> members = new ArrayList<>();
+        String cursor = "0";
+        do {
+            ScanResult<Map.Entry<String, Double>> page = storageEngine.zscan("board", cursor, null, 9);
+            page.getItems().forEach(entry -> members.add(entry.getKey()));
+            cursor = page.getCursor();
+        } while (!cursor.equals("0"));
+        assertEquals(storageEngine.zrange("board", 0, 99), members);
+
+        List<Map.Entry<String, Double>> matched = storageEngine.zscan("board", "0", "member9*", 1000).getItems();
+        assertEquals(11, matched.size());
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.zscan("board", "bogus", null, 10));
+        assertTrue(storageEngine.zscan("missing", "0", null, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testKeysAndDelPrefix() {
+        storageEngine.set("session:1", "v");
+        storageEngine.set("session:2", "v");
+        storageEngine.hset("session:3", Map.of("user", "alice"));
+        storageEngine.set("player:1", "v");
+
+        assertEquals(Set.of("session:1", "session:2", "session:3"), new HashSet<>(storageEngine.keys("session:*")));
+        assertEquals(List.of("player:1"), storageEngine.keys("*:1").stream().filter(key -> key.startsWith("p")).toList());
+        assertEquals(3, storageEngine.delPrefix("session:"));
+        assertTrue(storageEngine.keys("session:*").isEmpty());
+        assertEquals("v", storageEngine.get("player:1"));
+        assertThrows(IllegalArgumentException.class, () -> storageEngine.delPrefix(""));
+    }
+
+    @Test
+    void testStatsCounters() {
+        MemDBStats stats = storageEngine.getStats();
+        long commands = stats.getCommandsProcessed();
+        long hits = stats.getKeyspaceHits();
+        long misses = stats.getKeyspaceMisses();
+
+        storageEngine.set("key1", "value1");
+        storageEngine.get("key1");
+        storageEngine.get("missing");
+        storageEngine.peek("key1");
+
+        // Commands are counted by whoever dispatches them, not per engine call
+        assertEquals(commands, stats.getCommandsProcessed());
+        storageEngine.recordCommand();
+        assertEquals(commands + 1, stats.getCommandsProcessed());
+        assertEquals(hits + 1, stats.getKeyspaceHits());
+        assertEquals(misses + 1, stats.getKeyspaceMisses());
+        assertTrue(stats.getPeakMemoryUsed() >= storageEngine.getCurrentMemoryUsed());
+    }
+
+    @Test
+    void testKeyCountsByType() {
+        storageEngine.set("key1", "value1");
+        storageEngine.zadd("scores", 100.0, "player1");
+
+        assertEquals(1L, storageEngine.keyCountsByType().get("string"));
+        assertEquals(1L, storageEngine.keyCountsByType().get("zset"));
+    }
+
     @Test
     void testLRUEviction() {
         // Set up test data
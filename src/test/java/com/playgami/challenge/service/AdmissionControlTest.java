@@ -0,0 +1,86 @@
+package com.playgami.challenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    void pricesExpensiveCommandsHigher() {
+        AdmissionControl control = new AdmissionControl(true, 100, 100, 0, 10, 100, 16);
+        assertEquals(1, control.cost("GET", new String[] {"player:1"}));
+        assertEquals(10, control.cost("KEYS", new String[] {"*"}));
+        assertEquals(10, control.cost("HGETALL", new String[] {"profile"}));
+        assertEquals(1, control.cost("ZRANGE", new String[] {"scores", "0", "9"}));
+        assertEquals(10, control.cost("ZRANGE", new String[] {"scores", "0", "1000"}));
+        assertEquals(10, control.cost("ZRANGE", new String[] {"scores", "0", "-1"}));
+        assertEquals(1, control.cost("ZRANGE", new String[] {"scores", "0", "abc"}));
+    }
+
+    @Test
+    void limitsEachClientToItsOwnBucket() {
+        AdmissionControl control = new AdmissionControl(true, 1, 3, 0, 10, 100, 16);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(control.admit("batch-job", 1).isAdmitted());
+        }
+        AdmissionControl.Ticket refused = control.admit("batch-job", 1);
+        assertFalse(refused.isAdmitted());
+        assertFalse(refused.isOverloaded());
+        assertTrue(refused.getRetryAfterMillis() > 0 && refused.getRetryAfterMillis() <= 1000);
+        assertTrue(refused.getMessage().startsWith("ERR rate limit exceeded, retry in "));
+        // Another client is not affected
+        assertTrue(control.admit("game-server", 1).isAdmitted());
+
+        Map<String, Object> stats = control.stats();
+        assertEquals(4L, stats.get("admitted"));
+        assertEquals(1L, stats.get("rate_limited"));
+        assertEquals(2, stats.get("clients"));
+        assertEquals(Map.of("batch-job", 1L), stats.get("throttled_clients"));
+    }
+
+    @Test
+    void limitsConcurrentRequests() {
+        AdmissionControl control = new AdmissionControl(true, 0, 1, 2, 10, 100, 16);
+        AdmissionControl.Ticket first = control.admit("a", 1);
+        AdmissionControl.Ticket second = control.admit("b", 1);
+        AdmissionControl.Ticket third = control.admit("c", 1);
+        assertTrue(first.isAdmitted());
+        assertTrue(second.isAdmitted());
+        assertFalse(third.isAdmitted());
+        assertTrue(third.isOverloaded());
+        assertEquals(2, control.stats().get("in_flight"));
+
+        first.close();
+        first.close();
+        assertEquals(1, control.stats().get("in_flight"));
+        try (AdmissionControl.Ticket fourth = control.admit("c", 1)) {
+            assertTrue(fourth.isAdmitted());
+        }
+        second.close();
+        assertEquals(0, control.stats().get("in_flight"));
+        assertEquals(1L, control.stats().get("overloaded"));
+    }
+
+    @Test
+    void boundsTrackedClients() {
+        AdmissionControl control = new AdmissionControl(true, 1, 1, 0, 10, 100, 2);
+        assertTrue(control.admit("a", 1).isAdmitted());
+        assertTrue(control.admit("b", 1).isAdmitted());
+        // Clients beyond the bound share one bucket
+        assertTrue(control.admit("c", 1).isAdmitted());
+        assertFalse(control.admit("d", 1).isAdmitted());
+        assertEquals(2, control.stats().get("clients"));
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        AdmissionControl control = new AdmissionControl(false, 1, 1, 1, 10, 100, 16);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(control.admit("batch-job", 10).isAdmitted());
+        }
+        assertEquals(0L, control.stats().get("admitted"));
+    }
+} 
\ No newline at end of file
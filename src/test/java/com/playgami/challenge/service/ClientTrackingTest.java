@@ -0,0 +1,180 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientTrackingTest {
+
+    private static final String FLUSH = "*flush*";
+
+    private MemDB memDB;
+    private ClientTracking tracking;
+
+    @BeforeEach
+    void setUp() {
+        memDB = new MemDB(new LRUEvictionStrategy());
+        tracking = new ClientTracking(memDB, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracking.close();
+        memDB.close();
+    }
+
+    @Test
+    void invalidatesKeysReadOnceAfterEachRead() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        long id = tracking.register(sink, false, List.of());
+        memDB.set("other", "1");
+        tracking.recordRead(id, "player:1");
+        memDB.set("player:1", "alice");
+        memDB.set("player:1", "bob");
+
+        assertEquals("player:1", sink.next());
+        // Forgotten once invalidated, until the client reads it again
+        assertNull(sink.poll());
+
+        tracking.recordRead(id, "player:1");
+        memDB.del("player:1");
+        assertEquals("player:1", sink.next());
+        assertEquals(2, memDB.getStats().getInvalidationsSent());
+    }
+
+    @Test
+    void broadcastsChangesUnderPrefixes() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        tracking.register(sink, true, List.of("player:"));
+        memDB.set("session:1", "token");
+        memDB.set("player:1", "alice");
+        memDB.set("player:1", "bob");
+
+        assertEquals("player:1", sink.next());
+        assertEquals("player:1", sink.next());
+        assertNull(sink.poll());
+    }
+
+    @Test
+    void flushInvalidatesEveryClient() throws InterruptedException {
+        RecordingSink reader = new RecordingSink();
+        RecordingSink broadcaster = new RecordingSink();
+        long id = tracking.register(reader, false, List.of());
+        tracking.register(broadcaster, true, List.of());
+        tracking.recordRead(id, "player:1");
+        memDB.flush(false);
+
+        assertEquals(FLUSH, reader.next());
+        assertEquals(FLUSH, broadcaster.next());
+        assertEquals(0, memDB.getStats().getTrackingKeys());
+    }
+
+    @Test
+    void evictsTrackedKeysPastMaxKeys() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        long id = tracking.register(sink, false, List.of());
+        tracking.recordRead(id, "a");
+        tracking.recordRead(id, "b");
+        tracking.recordRead(id, "c");
+
+        // Invalidated early, as if it had changed
+        String evicted = sink.next();
+        assertNull(sink.poll());
+        assertEquals(2, memDB.getStats().getTrackingKeys());
+        memDB.set(evicted, "1");
+        assertNull(sink.poll());
+    }
+
+    @Test
+    void dropsClientsWhoseSinkFails() throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        tracking.register(sink, true, List.of());
+        memDB.set("player:1", "alice");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tracking.clientCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, tracking.clientCount());
+        assertEquals(0, memDB.getStats().getTrackingClients());
+    }
+
+    @Test
+    void dropsClientsThatFallBehindWithoutHoldingUpOthers() throws InterruptedException {
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink();
+        slow.stall = stalled;
+        RecordingSink fast = new RecordingSink();
+        tracking.register(slow, true, List.of());
+        tracking.register(fast, true, List.of());
+        try {
+            for (int i = 0; i < 10; i++) {
+                memDB.set("player:" + i, "alice");
+                assertEquals("player:" + i, fast.next());
+            }
+
+            // The slow client overflowed its queue of 4 while its first send was stuck
+            assertEquals(1, tracking.clientCount());
+            assertTrue(slow.closed.await(5, TimeUnit.SECONDS));
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    private static final class RecordingSink implements InvalidationSink {
+        final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile boolean failing;
+        // When set, sends wait for it, as on a connection that stopped reading
+        volatile CountDownLatch stall;
+
+        @Override
+        public void invalidate(String key) throws IOException {
+            if (failing) {
+                throw new IOException("connection closed");
+            }
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted");
+                }
+            }
+            received.add(key);
+        }
+
+        @Override
+        public void invalidateAll() throws IOException {
+            invalidate(FLUSH);
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            return received.poll(5, TimeUnit.SECONDS);
+        }
+
+        // Sends are asynchronous, so give a stray invalidation a moment to arrive
+        String poll() throws InterruptedException {
+            return received.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+} 
\ No newline at end of file
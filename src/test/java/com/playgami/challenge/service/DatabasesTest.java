@@ -0,0 +1,124 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.config.DatabaseSettings;
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.MemDBSettings;
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabasesTest {
+
+    private MemDB primary;
+    private Databases databases;
+    private HotKeys hotKeys;
+    private MemDBCommandService service;
+
+    @BeforeEach
+    void setUp() {
+        primary = MemDB.builder().build();
+        // A small quota, so that a burst of writes to database 1 has to evict
+        MemDB small = MemDB.builder().maxMemory(256 * 1024).evictionPolicy(EvictionPolicy.SAMPLED_LFU).build();
+        databases = new Databases(primary, List.of(small));
+        hotKeys = new HotKeys(false, 16, 1024, 4, 60_000);
+        service = new MemDBCommandService(databases, new SlowLog(10_000, 128), hotKeys);
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.close();
+        primary.close();
+        hotKeys.close();
+    }
+
+    @Test
+    void testKeyspacesAreSeparate() {
+        assertEquals("OK", service.executeCommand("SET player:1 alice", null, 1).getResponse());
+        assertEquals(MemDBCommandService.NIL_RESPONSE, service.executeCommand("GET player:1", null, 0).getResponse());
+        assertEquals("alice", service.executeCommand("GET player:1", null, 1).getResponse());
+        assertEquals("0", service.executeCommand("DBSIZE").getResponse());
+        assertEquals("1", service.executeCommand("DBSIZE", null, 1).getResponse());
+    }
+
+    @Test
+    void testBurstEvictsOnlyFromItsOwnDatabase() {
+        for (int i = 0; i < 100; i++) {
+            service.executeCommand("SET player:" + i + " alice");
+        }
+        String value = "x".repeat(1000);
+        for (int i = 0; i < 2000; i++) {
+            // Writes outrunning the evictor are refused with OOM, which is fine here
+            service.executeCommand("SET burst:" + i + " " + value, null, 1);
+        }
+
+        assertEquals(100, primary.dbSize());
+        assertEquals(0, primary.getStats().getEvictedKeys());
+        assertTrue(databases.get(1).getStats().getEvictedKeys() + databases.get(1).getStats().getRejectedWrites() > 0);
+        assertTrue(databases.get(1).getCurrentMemoryUsed() <= databases.get(1).getMaxMemory());
+    }
+
+    @Test
+    void testSelectAndOutOfRangeDatabase() {
+        assertEquals("OK", service.executeCommand("SELECT 1").getResponse());
+        CommandResult result = service.executeCommand("SELECT 2");
+        assertTrue(result.isError());
+        assertEquals("ERR DB index is out of range", result.getResponse());
+        assertEquals("ERR DB index is out of range", service.executeCommand("GET key", null, -1).getResponse());
+        assertTrue(service.executeCommand("SELECT one").isError());
+    }
+
+    @Test
+    void testFlushDbAndFlushAll() {
+        service.executeCommand("SET a 1", null, 0);
+        service.executeCommand("SET b 2", null, 1);
+
+        assertEquals("OK", service.executeCommand("FLUSHDB", null, 1).getResponse());
+        assertEquals(1, primary.dbSize());
+        assertEquals(0, databases.get(1).dbSize());
+
+        service.executeCommand("SET b 2", null, 1);
+        assertEquals("OK", service.executeCommand("FLUSHALL").getResponse());
+        assertEquals(0, primary.dbSize());
+        assertEquals(0, databases.get(1).dbSize());
+    }
+
+    @Test
+    void testInfoReportsEveryDatabase() {
+        service.executeCommand("SET a 1", null, 1);
+
+        String databasesSection = service.info("databases");
+        assertTrue(databasesSection.contains("db0:used_memory=0,maxmemory=" + MemDBSettings.DEFAULT_MAX_MEMORY + ",maxmemory_policy=LRU"));
+        assertTrue(databasesSection.contains("db1:used_memory=" + databases.get(1).getCurrentMemoryUsed()
+                + ",maxmemory=262144,maxmemory_policy=SAMPLED_LFU"));
+        String keyspace = service.info("keyspace");
+        assertTrue(keyspace.contains("db0:keys=0,"));
+        assertTrue(keyspace.contains("db1:keys=1,string=1,"));
+        assertTrue(service.info("memory", 1).contains("maxmemory:262144"));
+    }
+
+    @Test
+    void testSettingsOverrideQuotaAndPolicy() {
+        DatabaseSettings settings = new DatabaseSettings();
+        settings.setCount(3);
+        DatabaseSettings.Quota quota = new DatabaseSettings.Quota();
+        quota.setMaxMemory(1024L * 1024);
+        quota.setEvictionPolicy(EvictionPolicy.SAMPLED_LRU);
+        settings.getQuotas().put(2, quota);
+        settings.validate();
+
+        MemDBSettings base = new MemDBSettings();
+        MemDBSettings second = settings.settingsFor(2, base);
+        assertEquals(1024L * 1024, second.getMaxMemory());
+        assertEquals(EvictionPolicy.SAMPLED_LRU, second.getEvictionPolicy());
+        assertEquals(MemDBSettings.DEFAULT_MAX_MEMORY, settings.settingsFor(1, base).getMaxMemory());
+        assertEquals(EvictionPolicy.LRU, base.getEvictionPolicy());
+
+        settings.getQuotas().put(0, quota);
+        assertThrows(IllegalArgumentException.class, settings::validate);
+    }
+} 
\ No newline at end of file
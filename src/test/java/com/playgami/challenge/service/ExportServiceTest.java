@@ -0,0 +1,137 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExportServiceTest {
+
+    private MemDB source;
+
+    @BeforeEach
+    void setUp() {
+        source = new MemDB(new LRUEvictionStrategy());
+        source.set("player:1", "alice \"the great\"\n");
+        source.setEx("session:1", "token", 600);
+        source.zadd("board", 12.5, "alice");
+        source.zadd("board", Double.NEGATIVE_INFINITY, "bob");
+        source.hset("player:2", Map.of("name", "carol", "level", "7"));
+        source.pfadd("visitors", List.of("alice", "bob"));
+        // Far enough apart that the chunks between them hold no set bit, with a clear last bit
+        source.setbit("flags", 3, 1);
+        source.setbit("flags", 100_000, 1);
+        source.setbit("flags", 100_006, 0);
+        source.tsAdd("temp", 1000, 21.5, 60_000);
+        source.tsAdd("temp", 2000, Double.NaN, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        source.close();
+    }
+
+    @Test
+    void exportsNdjsonRecords() throws IOException {
+        String body = export(TransferFormat.NDJSON, "player:1");
+        assertEquals("{\"key\":\"player:1\",\"value\":\"alice \\\"the great\\\"\\n\"}\n", body);
+
+        body = export(TransferFormat.NDJSON, "board");
+        assertEquals("{\"type\":\"zset\",\"key\":\"board\",\"member\":\"bob\",\"score\":\"-Infinity\"}\n"
+                + "{\"type\":\"zset\",\"key\":\"board\",\"member\":\"alice\",\"score\":12.5}\n", body);
+
+        assertEquals("", export(TransferFormat.NDJSON, "missing"));
+
+        body = export(TransferFormat.NDJSON, "temp");
+        assertEquals("{\"type\":\"timeseries\",\"key\":\"temp\",\"timestamp\":1000,\"value\":21.5,\"retention\":60000}\n"
+                + "{\"type\":\"timeseries\",\"key\":\"temp\",\"timestamp\":2000,\"value\":\"NaN\",\"retention\":60000}\n", body);
+
+        // The first chunk and the last, which holds the last byte
+        body = export(TransferFormat.NDJSON, "flags");
+        assertEquals(2, body.lines().count());
+        assertTrue(body.startsWith("{\"type\":\"bitmap\",\"key\":\"flags\",\"offset\":0,\"value\":\"CAAA"), body);
+    }
+
+    @Test
+    void exportsRespCommands() throws IOException {
+        String body = export(TransferFormat.RESP, "flags");
+        // The set bits, then the last bit, which is clear
+        assertEquals(command("SETBIT", "flags", "3", "1") + command("SETBIT", "flags", "100000", "1")
+                + command("SETBIT", "flags", "100007", "0"), body);
+
+        body = export(TransferFormat.RESP, "visitors");
+        assertTrue(body.startsWith("*3\r\n$9\r\nPFRESTORE\r\n$8\r\nvisitors\r\n"), body);
+    }
+
+    @Test
+    void exportRoundTripsThroughImport() throws IOException {
+        for (TransferFormat format : TransferFormat.values()) {
+            try (MemDB target = new MemDB(new LRUEvictionStrategy())) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                long records = new ExportService(source, 0).export(out, format, "");
+                ImportResult result = new ImportService(target, 1000, 1000)
+                        .importStream(new ByteArrayInputStream(out.toByteArray()), format);
+
+                assertEquals(records, result.getRecords());
+                assertEquals("alice \"the great\"\n", target.get("player:1"));
+                assertEquals("token", target.get("session:1"));
+                ByteArrayOutputStream session = new ByteArrayOutputStream();
+                new ExportService(target, 0).export(session, TransferFormat.NDJSON, "session:");
+                assertEquals("{\"key\":\"session:1\",\"value\":\"token\",\"ttl\":600}\n", session.toString(StandardCharsets.UTF_8));
+                assertEquals(List.of("bob", "alice"), target.zrange("board", 0, 1));
+                assertEquals(Double.valueOf(Double.NEGATIVE_INFINITY), target.zscore("board", "bob"));
+                assertEquals(source.hgetall("player:2"), target.hgetall("player:2"));
+                assertEquals(source.pfcount(List.of("visitors")), target.pfcount(List.of("visitors")));
+                assertEquals(export(source, "visitors"), export(target, "visitors"));
+                assertEquals(export(source, "flags"), export(target, "flags"));
+                assertEquals(source.tsRange("temp", 0, Long.MAX_VALUE), target.tsRange("temp", 0, Long.MAX_VALUE));
+                assertEquals(export(source, "temp"), export(target, "temp"));
+            }
+        }
+    }
+
+    @Test
+    void throttlesToTheRateLimit() throws IOException {
+        for (int i = 0; i < 600; i++) {
+            source.set("key:" + i, "value");
+        }
+        long start = System.nanoTime();
+        long records = new ExportService(source, 2000).export(new ByteArrayOutputStream(), TransferFormat.RESP, "key:");
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(600, records);
+        // 512 records at 2000 per second take at least 256ms
+        assertTrue(elapsedMillis >= 250, "export took " + elapsedMillis + "ms");
+    }
+
+    private String export(TransferFormat format, String prefix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExportService(source, 0).export(out, format, prefix);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String export(MemDB memDB, String prefix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ExportService(memDB, 0).export(out, TransferFormat.NDJSON, prefix);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String command(String... args) {
+        StringBuilder command = new StringBuilder("*").append(args.length).append("\r\n");
+        for (String arg : args) {
+            command.append('$').append(arg.length()).append("\r\n").append(arg).append("\r\n");
+        }
+        return command.toString();
+    }
+} 
\ No newline at end of file
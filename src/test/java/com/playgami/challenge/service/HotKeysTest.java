@@ -0,0 +1,113 @@
+package com.playgami.challenge.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotKeysTest {
+
+    // Decay is driven by the tests
+    private static final long NO_DECAY = 3_600_000;
+
+    private HotKeys hotKeys;
+
+    @AfterEach
+    void tearDown() {
+        if (hotKeys != null) {
+            hotKeys.close();
+        }
+    }
+
+    @Test
+    void keepsHottestKeysInTable() {
+        hotKeys = new HotKeys(true, 4, 1024, 4, NO_DECAY);
+        for (int i = 0; i < 1000; i++) {
+            hotKeys.record("cold:" + i);
+            if (i % 2 == 0) {
+                hotKeys.record("clan:leaderboard");
+            }
+            if (i % 10 == 0) {
+                hotKeys.record("player:1");
+            }
+        }
+
+        List<HotKeys.Entry> entries = hotKeys.get(10);
+        assertEquals(4, entries.size());
+        assertEquals("clan:leaderboard", entries.get(0).getKey());
+        assertTrue(entries.get(0).getCount() >= 500);
+        assertEquals("player:1", entries.get(1).getKey());
+        assertTrue(entries.get(1).getCount() >= 100);
+        assertEquals(1, hotKeys.get(1).size());
+    }
+
+    @Test
+    void estimatesNeverUndercount() {
+        hotKeys = new HotKeys(true, 4, 64, 2, NO_DECAY);
+        for (int i = 0; i < 500; i++) {
+            for (int j = 0; j <= i % 5; j++) {
+                hotKeys.record("key:" + i);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            assertTrue(hotKeys.estimate("key:" + i) >= i % 5 + 1);
+        }
+    }
+
+    @Test
+    void countsAcrossThreads() throws InterruptedException {
+        hotKeys = new HotKeys(true, 4, 1024, 4, NO_DECAY);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    hotKeys.record("clan:leaderboard");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, hotKeys.estimate("clan:leaderboard"));
+        assertEquals("clan:leaderboard 80000", hotKeys.get(1).get(0).toString());
+    }
+
+    @Test
+    void decayHalvesCountsAndDropsColdKeys() {
+        hotKeys = new HotKeys(true, 4, 1024, 4, NO_DECAY);
+        for (int i = 0; i < 100; i++) {
+            hotKeys.record("clan:leaderboard");
+        }
+        hotKeys.record("player:1");
+
+        hotKeys.decay();
+        assertEquals(50, hotKeys.estimate("clan:leaderboard"));
+        List<HotKeys.Entry> entries = hotKeys.get(10);
+        assertEquals(1, entries.size());
+        assertEquals(50, entries.get(0).getCount());
+    }
+
+    @Test
+    void disabledTrackingRecordsNothing() {
+        hotKeys = new HotKeys(false, 4, 1024, 4, NO_DECAY);
+        hotKeys.record("clan:leaderboard");
+        assertFalse(hotKeys.isEnabled());
+        assertEquals(0, hotKeys.estimate("clan:leaderboard"));
+        assertTrue(hotKeys.get(10).isEmpty());
+    }
+
+    @Test
+    void rejectsInvalidSketchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new HotKeys(true, 4, 1000, 4, NO_DECAY));
+        assertThrows(IllegalArgumentException.class, () -> new HotKeys(true, 0, 1024, 4, NO_DECAY));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,168 @@
+package com.playgami.challenge.service;
+
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.TimeSeries;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportServiceTest {
+
+    private MemDB memDB;
+    private ImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        memDB = new MemDB(new LRUEvictionStrategy());
+        importService = new ImportService(memDB, 2, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        memDB.close();
+    }
+
+    @Test
+    void importsNdjsonRecordsOfEveryType() throws IOException {
+        String body = "{\"key\":\"a\",\"value\":\"1\"}\n"
+                + "{\"key\":\"b\",\"value\":\"2\",\"ttl\":60}\n"
+                + "{\"key\":\"a\",\"value\":\"3\",\"comment\":{\"ignored\":[1,2]}}\n"
+                + "{\"type\":\"zset\",\"key\":\"board\",\"member\":\"alice\",\"score\":12.5}\n"
+                + "{\"type\":\"zset\",\"key\":\"board\",\"member\":\"bob\",\"score\":\"-Infinity\"}\n"
+                + "{\"type\":\"hash\",\"key\":\"player\",\"field\":\"name\",\"value\":\"alice\"}\n"
+                // Bits 16 and 18, in a bitmap 4 bytes long
+                + "{\"type\":\"bitmap\",\"key\":\"flags\",\"offset\":2,\"value\":\"BQA=\"}\n"
+                + "{\"type\":\"timeseries\",\"key\":\"temp\",\"timestamp\":1000,\"value\":21.5,\"retention\":0}\n"
+                + "{\"type\":\"timeseries\",\"key\":\"temp\",\"timestamp\":2000,\"value\":\"-Infinity\"}\n";
+
+        ImportResult result = importService.importStream(stream(body), TransferFormat.NDJSON);
+
+        assertEquals(9, result.getRecords());
+        assertTrue(result.toString().startsWith("records:9\r\n"));
+        assertEquals("3", memDB.get("a"));
+        assertEquals("2", memDB.get("b"));
+        assertEquals(List.of("bob", "alice"), memDB.zrange("board", 0, 1));
+        assertEquals(Double.valueOf(12.5), memDB.zscore("board", "alice"));
+        assertEquals(Map.of("name", "alice"), memDB.hgetall("player"));
+        assertEquals(2, memDB.bitcount("flags", 0, -1, false));
+        assertEquals(1, memDB.getbit("flags", 18));
+        assertEquals(List.of(new TimeSeries.Sample(1000, 21.5), new TimeSeries.Sample(2000, Double.NEGATIVE_INFINITY)),
+                memDB.tsRange("temp", 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void importsRespCommands() throws IOException {
+        String body = command("SET", "a", "hello world") + command("SET", "b", "2", "EX", "60")
+                + command("ZADD", "board", "1", "alice", "2", "bob") + command("HSET", "player", "name", "alice")
+                + command("SETBIT", "flags", "7", "1") + command("TS.ADD", "temp", "1000", "21.5", "RETENTION", "0");
+
+        ImportResult result = importService.importStream(stream(body), TransferFormat.RESP);
+
+        assertEquals(7, result.getRecords());
+        assertEquals("hello world", memDB.get("a"));
+        assertEquals("2", memDB.get("b"));
+        assertEquals(List.of("alice", "bob"), memDB.zrange("board", 0, 1));
+        assertEquals("alice", memDB.hget("player", "name"));
+        assertEquals(1, memDB.getbit("flags", 7));
+        assertEquals(List.of(new TimeSeries.Sample(1000, 21.5)), memDB.tsRange("temp", 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void importsRespValuesLargerThanTheReadBuffer() throws IOException {
+        String value = "x".repeat(300_000);
+
+        importService.importStream(stream(command("SET", "big", value)), TransferFormat.RESP);
+
+        assertEquals(value, memDB.get("big"));
+    }
+
+    @Test
+    void skipsUnknownNdjsonFieldsOfAnyShape() throws IOException {
+        ImportResult result = importService.importStream(
+                stream("{\"key\":\"a\",\"meta\":{\"tags\":[1,2]},\"value\":\"v\"}\n"), TransferFormat.NDJSON);
+
+        assertEquals(1, result.getRecords());
+        assertEquals("v", memDB.get("a"));
+    }
+
+    @Test
+    void stopsAtTheFirstInvalidRecord() {
+        String body = "{\"key\":\"a\",\"value\":\"1\"}\n"
+                + "{\"key\":\"b\",\"value\":\"2\"}\n"
+                + "{\"key\":\"c\",\"value\":\"3\"}\n"
+                + "{\"type\":\"zset\",\"key\":\"board\",\"member\":\"alice\"}\n"
+                + "{\"key\":\"d\",\"value\":\"4\"}\n";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream(body), TransferFormat.NDJSON));
+
+        assertEquals("Import failed at record 4 after 3 records: score is missing", e.getMessage());
+        // Records before the invalid one stay imported, even those still batched
+        assertEquals("3", memDB.get("c"));
+        assertNull(memDB.get("d"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("{\"key\":\"a\",\"value\":"), TransferFormat.NDJSON));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("[1]"), TransferFormat.NDJSON));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("{\"key\":\"a\",\"value\":{\"nested\":1}}"), TransferFormat.NDJSON));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("{\"key\":[\"a\"],\"value\":\"v\"}"), TransferFormat.NDJSON));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream(command("DEL", "a")), TransferFormat.RESP));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("*3\r\n$3\r\nSET\r\n$1\r\na\r\n$5\r\nab"), TransferFormat.RESP));
+        // Declares the largest bulk string allowed, then ends
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("*3\r\n$3\r\nSET\r\n$1\r\na\r\n$536870912\r\nab"), TransferFormat.RESP));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream(command("ZADD", "board", "nan", "alice")), TransferFormat.RESP));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream(command("PFRESTORE", "visitors", "AAAA")), TransferFormat.RESP));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("{\"type\":\"bitmap\",\"key\":\"flags\",\"value\":\"AQ==\"}"), TransferFormat.NDJSON));
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream("{\"type\":\"hyperloglog\",\"key\":\"visitors\",\"value\":\"not base64\"}"), TransferFormat.NDJSON));
+    }
+
+    @Test
+    void rejectsWritesToKeysOfAnotherType() {
+        String body = "{\"key\":\"a\",\"value\":\"1\"}\n"
+                + "{\"type\":\"hash\",\"key\":\"a\",\"field\":\"name\",\"value\":\"alice\"}\n";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importService.importStream(stream(body), TransferFormat.NDJSON));
+
+        assertTrue(e.getMessage().startsWith("Import failed at record 2 after 1 records"));
+        assertEquals("1", memDB.get("a"));
+    }
+
+    private static String command(String... args) {
+        StringBuilder command = new StringBuilder("*").append(args.length).append("\r\n");
+        for (String arg : args) {
+            command.append('$').append(arg.getBytes(StandardCharsets.UTF_8).length).append("\r\n").append(arg).append("\r\n");
+        }
+        return command.toString();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+} 
\ No newline at end of file
@@ -1,6 +1,17 @@
 package com.playgami.challenge.service;
 
+import com.playgami.challenge.memdb.BitOperation;
+import com.playgami.challenge.memdb.MemDB;
+import com.playgami.challenge.memdb.MemDBStats;
+import com.playgami.challenge.memdb.MemoryLimitExceededException;
+import com.playgami.challenge.memdb.MemoryUsage;
+import com.playgami.challenge.memdb.ScanResult;
+import com.playgami.challenge.memdb.ScoreRange;
 import com.playgami.challenge.memdb.StorageEngine;
+import com.playgami.challenge.memdb.TimeSeries;
+import com.playgami.challenge.memdb.WrongTypeException;
+import com.playgami.challenge.memdb.eviction.EvictionPolicy;
+import com.playgami.challenge.memdb.eviction.LRUEvictionStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,14 +19,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.playgami.challenge.service.MemDBCommandService.NIL_RESPONSE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,11 +44,17 @@ class MemDBCommandServiceTest {
     @Mock
     private StorageEngine storageEngine;
 
+    private SlowLog slowLog;
+
+    private HotKeys hotKeys;
+
     private MemDBCommandService memDBCommandService;
 
     @BeforeEach
     void setUp() {
-        memDBCommandService = new MemDBCommandService(storageEngine);
+        slowLog = new SlowLog(10_000, 128);
+        hotKeys = new HotKeys(true, 16, 1024, 4, 60_000);
+        memDBCommandService = new MemDBCommandService(new Databases(storageEngine, List.of()), slowLog, hotKeys);
     }
 
     @Test
@@ -38,6 +64,22 @@ class MemDBCommandServiceTest {
         assertEquals("OK", result.getResponse());
     }
 
+    @Test
+    void handleMSet_Success() {
+        CommandResult result = memDBCommandService.executeCommand("MSET a 1 b 2 a 3");
+        assertEquals("OK", result.getResponse());
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("a", "3");
+        expected.put("b", "2");
+        verify(storageEngine).mset(expected);
+    }
+
+    @Test
+    void handleMSet_InvalidCommand() {
+        assertEquals("Invalid MSET command", memDBCommandService.executeCommand("MSET a").getResponse());
+        assertEquals("Invalid MSET command", memDBCommandService.executeCommand("MSET a 1 b").getResponse());
+    }
+
     @Test
     void handleSet_InvalidCommand() {
         CommandResult result = memDBCommandService.executeCommand("SET key");
@@ -103,6 +145,35 @@ class MemDBCommandServiceTest {
         assertEquals("Invalid DEL command", result.getResponse());
     }
 
+    @Test
+    void handleUnlink_Success() {
+        when(storageEngine.unlink("board")).thenReturn(true);
+        assertEquals("OK", memDBCommandService.executeCommand("UNLINK board").getResponse());
+        assertEquals(NIL_RESPONSE, memDBCommandService.executeCommand("UNLINK missing").getResponse());
+        assertEquals("Invalid UNLINK command", memDBCommandService.executeCommand("UNLINK").getResponse());
+    }
+
+    @Test
+    void handleFlush_Success() {
+        assertEquals("OK", memDBCommandService.executeCommand("FLUSHALL ASYNC").getResponse());
+        verify(storageEngine).flush(true);
+        assertEquals("OK", memDBCommandService.executeCommand("FLUSHDB").getResponse());
+        verify(storageEngine).flush(false);
+        assertEquals("ERR syntax error", memDBCommandService.executeCommand("FLUSHALL LAZY").getResponse());
+        assertEquals("Invalid FLUSHDB command", memDBCommandService.executeCommand("FLUSHDB ASYNC now").getResponse());
+    }
+
+    @Test
+    void flushAll_FlushesEveryDatabase() {
+        try (MemDB other = new MemDB(new LRUEvictionStrategy())) {
+            other.set("player:1", "alice");
+            MemDBCommandService service = new MemDBCommandService(new Databases(storageEngine, List.of(other)), slowLog, hotKeys);
+            service.flushAll(true);
+            verify(storageEngine).flush(true);
+            assertEquals(0, other.dbSize());
+        }
+    }
+
     @Test
     void handleDbSize_Success() {
         when(storageEngine.dbSize()).thenReturn(5L);
@@ -118,7 +189,7 @@ class MemDBCommandServiceTest {
 
     @Test
     void handleIncr_Success() {
-        when(storageEngine.get("key")).thenReturn("1");
+        when(storageEngine.peek("key")).thenReturn("1");
         when(storageEngine.incr("key")).thenReturn(2L);
         CommandResult result = memDBCommandService.executeCommand("INCR key");
         assertEquals("2", result.getResponse());
@@ -126,11 +197,29 @@ class MemDBCommandServiceTest {
 
     @Test
     void handleIncr_NonNumericValue() {
-        when(storageEngine.get("key")).thenReturn("not-a-number");
+        when(storageEngine.peek("key")).thenReturn("not-a-number");
         CommandResult result = memDBCommandService.executeCommand("INCR key");
         assertEquals("ERR value is not an integer or out of range", result.getResponse());
     }
 
+    @Test
+    void executeCommand_CountsEachCommandOnce() {
+        try (MemDB memDB = new MemDB(new LRUEvictionStrategy())) {
+            MemDBCommandService service = new MemDBCommandService(new Databases(memDB, List.of()), slowLog, hotKeys);
+            MemDBStats stats = memDB.getStats();
+
+            service.executeCommand("INCR counter");
+            service.executeCommand("INCR counter");
+            service.executeCommand("MSET a 1 b 2");
+            service.executeCommand("GET a");
+
+            // INCR's type check is not a read of its own
+            assertEquals(4, stats.getCommandsProcessed());
+            assertEquals(1, stats.getKeyspaceHits());
+            assertEquals(0, stats.getKeyspaceMisses());
+        }
+    }
+
     @Test
     void handleIncr_InvalidCommand() {
         CommandResult result = memDBCommandService.executeCommand("INCR");
@@ -228,6 +317,436 @@ class MemDBCommandServiceTest {
         assertEquals("Invalid ZRANGE command", result.getResponse());
     }
 
+    @Test
+    void handleZRevRank_Success() {
+        when(storageEngine.zrevrank("key", "value")).thenReturn(0L);
+        CommandResult result = memDBCommandService.executeCommand("ZREVRANK key value");
+        assertEquals("0", result.getResponse());
+    }
+
+    @Test
+    void handleZScore_Success() {
+        when(storageEngine.zscore("key", "value")).thenReturn(1500.0);
+        CommandResult result = memDBCommandService.executeCommand("ZSCORE key value");
+        assertEquals("1500", result.getResponse());
+    }
+
+    @Test
+    void handleZScore_NonExistentValue() {
+        when(storageEngine.zscore("key", "value")).thenReturn(null);
+        CommandResult result = memDBCommandService.executeCommand("ZSCORE key value");
+        assertEquals(NIL_RESPONSE, result.getResponse());
+    }
+
+    @Test
+    void handleZIncrBy_Success() {
+        when(storageEngine.zincrby("key", 2.5, "value")).thenReturn(12.5);
+        CommandResult result = memDBCommandService.executeCommand("ZINCRBY key 2.5 value");
+        assertEquals("12.5", result.getResponse());
+    }
+
+    @Test
+    void handleZIncrBy_InvalidIncrement() {
+        CommandResult result = memDBCommandService.executeCommand("ZINCRBY key abc value");
+        assertEquals("ERR value is not a valid float", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleZRangeByScore_WithScores() {
+        when(storageEngine.zrangeByScore(eq("key"), any(ScoreRange.class)))
+                .thenReturn(List.of(Map.entry("player1", 1500.0), Map.entry("player2", 1550.5)));
+        CommandResult result = memDBCommandService.executeCommand("ZRANGEBYSCORE key 1500 (1600 WITHSCORES");
+        assertEquals("player1 1500 player2 1550.5", result.getResponse());
+    }
+
+    @Test
+    void handleZRangeByScore_InvalidRange() {
+        CommandResult result = memDBCommandService.executeCommand("ZRANGEBYSCORE key abc 1600");
+        assertEquals("ERR min or max is not a float", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleScan_Success() {
+        when(storageEngine.scan("0", "player:*", 100, "string"))
+                .thenReturn(new ScanResult<>("1234", List.of("player:1", "player:2")));
+        CommandResult result = memDBCommandService.executeCommand("SCAN 0 MATCH player:* COUNT 100 TYPE string");
+        assertEquals("1234 player:1 player:2", result.getResponse());
+
+        when(storageEngine.scan("1234", null, 10, null)).thenReturn(new ScanResult<>("0", List.of()));
+        assertEquals("0", memDBCommandService.executeCommand("SCAN 1234").getResponse());
+    }
+
+    @Test
+    void handleScan_InvalidCommand() {
+        assertEquals("Invalid SCAN command", memDBCommandService.executeCommand("SCAN").getResponse());
+        assertEquals("Invalid SCAN command", memDBCommandService.executeCommand("SCAN 0 MATCH").getResponse());
+        when(storageEngine.scan("abc", null, 10, null)).thenThrow(new IllegalArgumentException("invalid cursor"));
+        assertEquals("ERR invalid cursor", memDBCommandService.executeCommand("SCAN abc").getResponse());
+        assertEquals("ERR syntax error", memDBCommandService.executeCommand("SCAN 0 LIMIT 5").getResponse());
+        assertEquals("ERR COUNT must be a positive integer", memDBCommandService.executeCommand("SCAN 0 COUNT 0").getResponse());
+        assertTrue(memDBCommandService.executeCommand("SCAN 0 COUNT x").isError());
+    }
+
+    @Test
+    void handleKeys_Success() {
+        when(storageEngine.keys("player:*")).thenReturn(List.of("player:1", "player:2"));
+        assertEquals("player:1 player:2", memDBCommandService.executeCommand("KEYS player:*").getResponse());
+        when(storageEngine.keys("none:*")).thenReturn(List.of());
+        assertEquals("(empty list or set)", memDBCommandService.executeCommand("KEYS none:*").getResponse());
+        assertEquals("Invalid KEYS command", memDBCommandService.executeCommand("KEYS").getResponse());
+    }
+
+    @Test
+    void handleDelPrefix_Success() {
+        when(storageEngine.delPrefix("session:")).thenReturn(3L);
+        assertEquals("3", memDBCommandService.executeCommand("DELPREFIX session:").getResponse());
+        assertEquals("Invalid DELPREFIX command", memDBCommandService.executeCommand("DELPREFIX a b").getResponse());
+    }
+
+    @Test
+    void handleZScan_Success() {
+        when(storageEngine.zscan("board", "0", null, 2))
+                .thenReturn(new ScanResult<>("abc:ZA", List.of(Map.entry("alice", 1.0), Map.entry("bob", 2.5))));
+        CommandResult result = memDBCommandService.executeCommand("ZSCAN board 0 COUNT 2");
+        assertEquals("abc:ZA alice 1 bob 2.5", result.getResponse());
+        assertEquals("ERR syntax error", memDBCommandService.executeCommand("ZSCAN board 0 TYPE zset").getResponse());
+        assertEquals("Invalid ZSCAN command", memDBCommandService.executeCommand("ZSCAN board").getResponse());
+    }
+
+    @Test
+    void handleZCount_Success() {
+        when(storageEngine.zcount(eq("key"), any(ScoreRange.class))).thenReturn(4L);
+        CommandResult result = memDBCommandService.executeCommand("ZCOUNT key -inf +inf");
+        assertEquals("4", result.getResponse());
+    }
+
+    @Test
+    void handleZCount_InvalidCommand() {
+        CommandResult result = memDBCommandService.executeCommand("ZCOUNT key 0");
+        assertEquals("Invalid ZCOUNT command", result.getResponse());
+    }
+
+    @Test
+    void handleHSet_Success() {
+        when(storageEngine.hset("key", Map.of("name", "alice", "level", "7"))).thenReturn(2L);
+        CommandResult result = memDBCommandService.executeCommand("HSET key name alice level 7");
+        assertEquals("2", result.getResponse());
+    }
+
+    @Test
+    void handleHSet_InvalidCommand() {
+        CommandResult result = memDBCommandService.executeCommand("HSET key name");
+        assertEquals("Invalid HSET command", result.getResponse());
+        result = memDBCommandService.executeCommand("HSET key name alice level");
+        assertEquals("Invalid HSET command", result.getResponse());
+    }
+
+    @Test
+    void handleHGet_Success() {
+        when(storageEngine.hget("key", "name")).thenReturn("alice");
+        CommandResult result = memDBCommandService.executeCommand("HGET key name");
+        assertEquals("alice", result.getResponse());
+    }
+
+    @Test
+    void handleHGet_WrongType() {
+        when(storageEngine.hget("key", "name")).thenThrow(new WrongTypeException());
+        CommandResult result = memDBCommandService.executeCommand("HGET key name");
+        assertTrue(result.getResponse().startsWith("WRONGTYPE"));
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleHMGet_Success() {
+        when(storageEngine.hmget("key", List.of("name", "guild"))).thenReturn(Arrays.asList("alice", null));
+        CommandResult result = memDBCommandService.executeCommand("HMGET key name guild");
+        assertEquals("alice " + NIL_RESPONSE, result.getResponse());
+    }
+
+    @Test
+    void handleHGetAll_Success() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("name", "alice");
+        entries.put("level", "7");
+        when(storageEngine.hgetall("key")).thenReturn(entries);
+        CommandResult result = memDBCommandService.executeCommand("HGETALL key");
+        assertEquals("name alice level 7", result.getResponse());
+    }
+
+    @Test
+    void handleHGetAll_NonExistentKey() {
+        when(storageEngine.hgetall("key")).thenReturn(Map.of());
+        CommandResult result = memDBCommandService.executeCommand("HGETALL key");
+        assertEquals(MemDBCommandService.EMPTY_LIST_RESPONSE, result.getResponse());
+    }
+
+    @Test
+    void handleHIncrBy_Success() {
+        when(storageEngine.hincrby("key", "coins", 5L)).thenReturn(15L);
+        CommandResult result = memDBCommandService.executeCommand("HINCRBY key coins 5");
+        assertEquals("15", result.getResponse());
+    }
+
+    @Test
+    void handleHIncrBy_InvalidValue() {
+        CommandResult result = memDBCommandService.executeCommand("HINCRBY key coins abc");
+        assertEquals("ERR value is not an integer or out of range", result.getResponse());
+
+        when(storageEngine.hincrby("key", "name", 1L)).thenThrow(new IllegalArgumentException("hash value is not an integer"));
+        result = memDBCommandService.executeCommand("HINCRBY key name 1");
+        assertEquals("ERR hash value is not an integer", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handlePfAdd_Success() {
+        when(storageEngine.pfadd("key", List.of("alice", "bob"))).thenReturn(true);
+        CommandResult result = memDBCommandService.executeCommand("PFADD key alice bob");
+        assertEquals("1", result.getResponse());
+
+        when(storageEngine.pfadd("key", List.of("alice"))).thenReturn(false);
+        result = memDBCommandService.executeCommand("PFADD key alice");
+        assertEquals("0", result.getResponse());
+    }
+
+    @Test
+    void handlePfCount_MultipleKeys() {
+        when(storageEngine.pfcount(List.of("eu", "us"))).thenReturn(42L);
+        CommandResult result = memDBCommandService.executeCommand("PFCOUNT eu us");
+        assertEquals("42", result.getResponse());
+    }
+
+    @Test
+    void handlePfMerge_Success() {
+        CommandResult result = memDBCommandService.executeCommand("PFMERGE all eu us");
+        assertEquals("OK", result.getResponse());
+        verify(storageEngine).pfmerge("all", List.of("eu", "us"));
+    }
+
+    @Test
+    void handlePf_InvalidCommand() {
+        assertEquals("Invalid PFADD command", memDBCommandService.executeCommand("PFADD").getResponse());
+        assertEquals("Invalid PFCOUNT command", memDBCommandService.executeCommand("PFCOUNT").getResponse());
+        assertEquals("Invalid PFMERGE command", memDBCommandService.executeCommand("PFMERGE").getResponse());
+    }
+
+    @Test
+    void handleSetBit_Success() {
+        when(storageEngine.setbit("online", 7, 1)).thenReturn(0);
+        CommandResult result = memDBCommandService.executeCommand("SETBIT online 7 1");
+        assertEquals("0", result.getResponse());
+        assertFalse(result.isError());
+    }
+
+    @Test
+    void handleSetBit_InvalidArguments() {
+        assertEquals("ERR bit offset is not an integer or out of range",
+                memDBCommandService.executeCommand("SETBIT online x 1").getResponse());
+        assertEquals("ERR bit is not an integer or out of range",
+                memDBCommandService.executeCommand("SETBIT online 7 x").getResponse());
+        when(storageEngine.setbit("online", 7, 2))
+                .thenThrow(new IllegalArgumentException("bit is not an integer or out of range"));
+        CommandResult result = memDBCommandService.executeCommand("SETBIT online 7 2");
+        assertEquals("ERR bit is not an integer or out of range", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleGetBit_Success() {
+        when(storageEngine.getbit("online", 7)).thenReturn(1);
+        assertEquals("1", memDBCommandService.executeCommand("GETBIT online 7").getResponse());
+    }
+
+    @Test
+    void handleBitCount_Ranges() {
+        when(storageEngine.bitcount("online", 0, -1, false)).thenReturn(12L);
+        assertEquals("12", memDBCommandService.executeCommand("BITCOUNT online").getResponse());
+
+        when(storageEngine.bitcount("online", 1, 3, false)).thenReturn(5L);
+        assertEquals("5", memDBCommandService.executeCommand("BITCOUNT online 1 3").getResponse());
+
+        when(storageEngine.bitcount("online", 5, 30, true)).thenReturn(2L);
+        assertEquals("2", memDBCommandService.executeCommand("BITCOUNT online 5 30 bit").getResponse());
+
+        assertEquals("ERR syntax error", memDBCommandService.executeCommand("BITCOUNT online 5 30 WORD").getResponse());
+        assertEquals("Invalid BITCOUNT command", memDBCommandService.executeCommand("BITCOUNT online 5").getResponse());
+    }
+
+    @Test
+    void handleBitOp_Success() {
+        when(storageEngine.bitop(BitOperation.AND, "both", List.of("online", "paying"))).thenReturn(13L);
+        CommandResult result = memDBCommandService.executeCommand("BITOP and both online paying");
+        assertEquals("13", result.getResponse());
+
+        assertEquals("ERR syntax error", memDBCommandService.executeCommand("BITOP NAND both online").getResponse());
+        assertEquals("Invalid BITOP command", memDBCommandService.executeCommand("BITOP AND both").getResponse());
+    }
+
+    @Test
+    void handleTsAdd_Success() {
+        CommandResult result = memDBCommandService.executeCommand("TS.ADD ccu 1000 42.5");
+        assertEquals("1000", result.getResponse());
+        verify(storageEngine).tsAdd("ccu", 1000, 42.5);
+
+        result = memDBCommandService.executeCommand("TS.ADD queue 2000 3 RETENTION 60000");
+        assertEquals("2000", result.getResponse());
+        verify(storageEngine).tsAdd("queue", 2000, 3, 60000);
+    }
+
+    @Test
+    void handleTsAdd_InvalidArguments() {
+        assertEquals("ERR invalid timestamp", memDBCommandService.executeCommand("TS.ADD ccu now 1").getResponse());
+        assertEquals("ERR invalid value", memDBCommandService.executeCommand("TS.ADD ccu 1000 x").getResponse());
+        assertEquals("Invalid TS.ADD command", memDBCommandService.executeCommand("TS.ADD ccu 1000 1 LABELS x").getResponse());
+        doThrow(new IllegalArgumentException("timestamp must be newer than the latest sample"))
+                .when(storageEngine).tsAdd("ccu", 1000, 1);
+        CommandResult result = memDBCommandService.executeCommand("TS.ADD ccu 1000 1");
+        assertEquals("ERR timestamp must be newer than the latest sample", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleTsRange_Success() {
+        when(storageEngine.tsRange("ccu", 0, Long.MAX_VALUE))
+                .thenReturn(List.of(new TimeSeries.Sample(1000, 42), new TimeSeries.Sample(2000, 42.5)));
+        CommandResult result = memDBCommandService.executeCommand("TS.RANGE ccu - +");
+        assertEquals("1000 42 2000 42.5", result.getResponse());
+        assertEquals("ERR invalid timestamp", memDBCommandService.executeCommand("TS.RANGE ccu x +").getResponse());
+    }
+
+    @Test
+    void handleTsAgg_Success() {
+        when(storageEngine.tsAggregate("ccu", 1000, 5000, TimeSeries.Aggregation.MAX, 60000))
+                .thenReturn(List.of(new TimeSeries.Sample(0, 7)));
+        CommandResult result = memDBCommandService.executeCommand("TS.AGG ccu 1000 5000 max 60000");
+        assertEquals("0 7", result.getResponse());
+        assertEquals("ERR unknown aggregation type",
+                memDBCommandService.executeCommand("TS.AGG ccu - + median 60000").getResponse());
+        assertEquals("Invalid TS.AGG command", memDBCommandService.executeCommand("TS.AGG ccu - + max").getResponse());
+    }
+
+    @Test
+    void handleMemoryUsage_Success() {
+        when(storageEngine.memoryUsage("key")).thenReturn(new MemoryUsage("zset", "packed", 400, 900));
+        CommandResult result = memDBCommandService.executeCommand("MEMORY USAGE key");
+        assertEquals("type:zset\r\nencoding:packed\r\nbytes:400\r\nsaved_bytes:900", result.getResponse());
+        assertFalse(result.isError());
+    }
+
+    @Test
+    void handleMemoryUsage_NonExistentKey() {
+        when(storageEngine.memoryUsage("key")).thenReturn(null);
+        CommandResult result = memDBCommandService.executeCommand("MEMORY USAGE key");
+        assertEquals(NIL_RESPONSE, result.getResponse());
+    }
+
+    @Test
+    void handleMemory_InvalidCommand() {
+        CommandResult result = memDBCommandService.executeCommand("MEMORY DOCTOR key");
+        assertEquals("Invalid MEMORY command", result.getResponse());
+        assertTrue(result.isError());
+    }
+
+    @Test
+    void handleInfo_Keyspace() {
+        when(storageEngine.keyCountsByType()).thenReturn(Map.of("string", 3L));
+        CommandResult result = memDBCommandService.executeCommand("INFO keyspace");
+        assertFalse(result.isError());
+        assertEquals("# Keyspace\r\ndb0:keys=3,string=3", result.getResponse());
+    }
+
+    @Test
+    void handleInfo_Memory() {
+        MemDBStats stats = new MemDBStats();
+        stats.recordMemoryUsage(2048);
+        when(storageEngine.getStats()).thenReturn(stats);
+        when(storageEngine.getCurrentMemoryUsed()).thenReturn(1024L);
+        when(storageEngine.getMaxMemory()).thenReturn(4096L);
+        when(storageEngine.getEvictionPolicy()).thenReturn(EvictionPolicy.LRU);
+        CommandResult result = memDBCommandService.executeCommand("INFO memory");
+        assertTrue(result.getResponse().startsWith("# Memory"));
+        assertTrue(result.getResponse().contains("used_memory:1024"));
+        assertTrue(result.getResponse().contains("used_memory_peak:2048"));
+        assertTrue(result.getResponse().contains("maxmemory:4096"));
+        assertTrue(result.getResponse().contains("maxmemory_policy:LRU"));
+    }
+
+    @Test
+    void handleInfo_UnknownSection() {
+        CommandResult result = memDBCommandService.executeCommand("INFO nosuchsection");
+        assertEquals("", result.getResponse());
+    }
+
+    @Test
+    void handleInfo_InvalidCommand() {
+        CommandResult result = memDBCommandService.executeCommand("INFO memory stats");
+        assertEquals("Invalid INFO command", result.getResponse());
+    }
+
+    @Test
+    void handleSlowLog_GetLenReset() {
+        // Simulate a command that took 20ms
+        slowLog.record(new String[] {"ZRANK", "scores", "player1"}, 20_000_000L, "127.0.0.1:5000");
+
+        CommandResult len = memDBCommandService.executeCommand("SLOWLOG LEN");
+        assertEquals("1", len.getResponse());
+
+        CommandResult get = memDBCommandService.executeCommand("SLOWLOG GET 1");
+        assertFalse(get.isError());
+        assertTrue(get.getResponse().startsWith("0 "));
+        assertTrue(get.getResponse().endsWith(" 20000 127.0.0.1:5000 ZRANK scores player1"));
+
+        assertEquals("OK", memDBCommandService.executeCommand("SLOWLOG RESET").getResponse());
+        assertEquals("0", memDBCommandService.executeCommand("SLOWLOG LEN").getResponse());
+        assertEquals(MemDBCommandService.EMPTY_LIST_RESPONSE, memDBCommandService.executeCommand("SLOWLOG GET").getResponse());
+    }
+
+    @Test
+    void handleSlowLog_RecordsFailedCommands() {
+        doAnswer(invocation -> {
+            Thread.sleep(20);
+            throw new MemoryLimitExceededException();
+        }).when(storageEngine).set("key", "value");
+
+        CommandResult result = memDBCommandService.executeCommand("SET key value", "127.0.0.1:5000");
+        assertTrue(result.isError());
+
+        List<SlowLog.Entry> entries = slowLog.get(10);
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).getDurationMicros() >= 20_000);
+        assertEquals(List.of("SET", "key", "value"), Arrays.asList(entries.get(0).getArgs()));
+    }
+
+    @Test
+    void handleSlowLog_InvalidCommand() {
+        CommandResult result = memDBCommandService.executeCommand("SLOWLOG");
+        assertEquals("Invalid SLOWLOG command", result.getResponse());
+
+        result = memDBCommandService.executeCommand("SLOWLOG GET abc");
+        assertEquals("ERR count is not a valid integer", result.getResponse());
+    }
+
+    @Test
+    void handleHotKeys_RanksAccessedKeys() {
+        for (int i = 0; i < 30; i++) {
+            memDBCommandService.executeCommand("GET clan:leaderboard");
+        }
+        memDBCommandService.executeCommand("ZSCORE scores player1");
+        memDBCommandService.executeCommand("BITOP AND dest src1 src2");
+        memDBCommandService.executeCommand("DBSIZE");
+
+        CommandResult result = memDBCommandService.executeCommand("HOTKEYS 2");
+        assertFalse(result.isError());
+        String[] lines = result.getResponse().split("\r\n");
+        assertEquals(2, lines.length);
+        assertEquals("clan:leaderboard 30", lines[0]);
+        assertTrue(hotKeys.get(10).stream().anyMatch(entry -> entry.getKey().equals("dest")));
+        assertEquals("Invalid HOTKEYS command", memDBCommandService.executeCommand("HOTKEYS 1 2").getResponse());
+        assertEquals("ERR count is not a valid integer", memDBCommandService.executeCommand("HOTKEYS abc").getResponse());
+    }
+
     @Test
     void executeCommand_UnknownCommand() {
         CommandResult result = memDBCommandService.executeCommand("UNKNOWN command");
@@ -0,0 +1,78 @@
+package com.playgami.challenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowLogTest {
+
+    private static final long SLOW = 5_000_000L; // 5ms
+    private static final long FAST = 500_000L;   // 0.5ms
+
+    @Test
+    void recordsOnlyCommandsAboveThreshold() {
+        SlowLog slowLog = new SlowLog(1000, 16);
+        slowLog.record(new String[] {"GET", "fast"}, FAST, null);
+        slowLog.record(new String[] {"GET", "slow"}, SLOW, "client");
+
+        assertEquals(1, slowLog.length());
+        SlowLog.Entry entry = slowLog.get(10).get(0);
+        assertEquals("slow", entry.getArgs()[1]);
+        assertEquals(5000, entry.getDurationMicros());
+        assertEquals("client", entry.getClient());
+    }
+
+    @Test
+    void keepsNewestEntriesWhenFull() {
+        SlowLog slowLog = new SlowLog(0, 4);
+        for (int i = 0; i < 10; i++) {
+            slowLog.record(new String[] {"SET", "key" + i, "value"}, SLOW, null);
+        }
+
+        assertEquals(4, slowLog.length());
+        List<SlowLog.Entry> entries = slowLog.get(10);
+        assertEquals(4, entries.size());
+        assertEquals(9, entries.get(0).getId());
+        assertEquals(6, entries.get(3).getId());
+        assertEquals(2, slowLog.get(2).size());
+    }
+
+    @Test
+    void resetDiscardsEntries() {
+        SlowLog slowLog = new SlowLog(0, 4);
+        slowLog.record(new String[] {"GET", "key"}, SLOW, null);
+        slowLog.reset();
+
+        assertEquals(0, slowLog.length());
+        assertTrue(slowLog.get(10).isEmpty());
+
+        slowLog.record(new String[] {"GET", "key"}, SLOW, null);
+        assertEquals(1, slowLog.length());
+    }
+
+    @Test
+    void negativeThresholdDisablesLogging() {
+        SlowLog slowLog = new SlowLog(-1, 4);
+        slowLog.record(new String[] {"GET", "key"}, Long.MAX_VALUE - 1, null);
+        assertEquals(0, slowLog.length());
+    }
+
+    @Test
+    void truncatesLongArguments() {
+        SlowLog slowLog = new SlowLog(0, 4);
+        String[] args = new String[40];
+        args[0] = "ZADD";
+        for (int i = 1; i < args.length; i++) {
+            args[i] = "x".repeat(200);
+        }
+        slowLog.record(args, SLOW, null);
+
+        String[] recorded = slowLog.get(1).get(0).getArgs();
+        assertEquals(SlowLog.MAX_ARGS, recorded.length);
+        assertEquals("x".repeat(SlowLog.MAX_ARG_LENGTH) + "... (72 more characters)", recorded[1]);
+        assertEquals("... (9 more arguments)", recorded[SlowLog.MAX_ARGS - 1]);
+    }
+} 
\ No newline at end of file
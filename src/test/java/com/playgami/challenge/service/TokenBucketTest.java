@@ -0,0 +1,50 @@
+package com.playgami.challenge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryTake(1, 0));
+        }
+        // One token every 100ms
+        assertEquals(SECOND / 10, bucket.tryTake(1, 0));
+        assertEquals(SECOND / 20, bucket.tryTake(1, SECOND / 20));
+        assertEquals(0, bucket.tryTake(1, SECOND / 10));
+        assertFalse(bucket.isFull(SECOND / 10));
+        assertTrue(bucket.isFull(SECOND));
+    }
+
+    @Test
+    void expensiveTakesWaitForEnoughTokens() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+        assertEquals(0, bucket.tryTake(8, 0));
+        assertEquals(6 * SECOND / 10, bucket.tryTake(8, 0));
+        // A refused take leaves the bucket untouched
+        assertEquals(0, bucket.tryTake(2, 0));
+        // Takes beyond the capacity are capped, so they can still succeed
+        assertEquals(0, bucket.tryTake(50, 2 * SECOND));
+    }
+
+    @Test
+    void neverOverfillsWhileIdle() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        assertEquals(0, bucket.tryTake(2, 60 * SECOND));
+        assertTrue(bucket.tryTake(1, 60 * SECOND) > 0);
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(10, 0, 0));
+    }
+} 
\ No newline at end of file